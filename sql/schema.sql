@@ -10,5 +10,27 @@ CREATE TABLE IF NOT EXISTS products (
     status VARCHAR(15) NOT NULL,
     dateMade DATE NOT NULL,
     expirationDate DATE NULL,
+    row_hash BIGINT NULL,
     UNIQUE (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- progress of resumable CSV imports (see CheckpointedImportEngine)
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    fingerprint CHAR(64) NOT NULL PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    byte_offset BIGINT NOT NULL,
+    last_batch INT NOT NULL,
+    lines_read BIGINT NOT NULL,
+    rows_applied BIGINT NOT NULL,
+    rows_rejected BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- one row per product written or deleted, in commit order (see ChangeLog / ProductDao.changesSince);
+-- old rows may be deleted at any time, clients that fall behind the oldest version reload everything
+CREATE TABLE IF NOT EXISTS product_changes (
+    version BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
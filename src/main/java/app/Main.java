@@ -1,9 +1,19 @@
 package app;
 
+import app.cli.ShopCli;
 import app.gui.ShopFrame;
 
 public class Main {
-    public static void main(String[] args) {
+    /**
+     * Without arguments starts the GUI; with arguments runs a headless {@link ShopCli} command
+     * ({@code import}, {@code export}, {@code stats}, {@code reindex}, {@code bench}, {@code ingest})
+     * without loading AWT/Swing.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            ShopCli.main(args);
+            return;
+        }
         ShopFrame.showDemo();
     }
 }
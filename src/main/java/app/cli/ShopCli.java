@@ -0,0 +1,331 @@
+package app.cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductDao;
+import app.database.dao.ProductDaoImpl;
+import app.database.importer.CheckpointedImportEngine;
+import app.database.importer.DeltaImportEngine;
+import app.database.importer.ImportEngine;
+import app.database.importer.ImportReport;
+import app.database.importer.IngestionService;
+import app.model.ColumnarProductStore;
+import app.server.CatalogServer;
+import app.sync.CatalogReconciler;
+import app.util.CatalogStatistics;
+import app.util.CsvUtils;
+import app.util.HashUtils;
+
+/**
+ * Headless command line for batch jobs (cron, scripts). Built only on the database, DAO, importer
+ * and util layers: nothing here references AWT or Swing, so the GUI classes are never loaded and
+ * the JVM can run with {@code -Djava.awt.headless=true}.
+ *
+ * <pre>
+ *   import &lt;file.csv&gt; [row|bulk|checkpoint|delta|sync]   import a CSV (default: checkpoint)
+ *   export &lt;file.csv&gt;                                    stream all products to a CSV
+ *   stats                                                catalog statistics
+ *   reindex                                              backfill missing/stale row hashes, refresh index statistics
+ *   bench [rounds]                                       time the catalog read paths
+ *   ingest &lt;dropDir&gt; [workers]                          watch a drop folder until stopped
+ *   serve [port] [--bind &lt;address&gt;] [--allow-sync]       JSON catalog service (see CatalogServer) until stopped
+ *   reconcile &lt;source.properties&gt; [--delete-missing]    copy the rows that differ from another store (see CatalogReconciler)
+ * </pre>
+ *
+ * {@link #run(String...)} returns the process exit code: 0 on success, 1 when the command failed,
+ * 2 on a usage error.
+ */
+public class ShopCli {
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+
+    private static final int REINDEX_BATCH = 1000;
+    private static final int DEFAULT_PORT = 8080;
+
+    private final DatabaseManager db;
+    private final ProductDao dao;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public ShopCli(DatabaseManager db, PrintStream out, PrintStream err) {
+        this.db = db;
+        this.dao = new ProductDaoImpl(db);
+        this.out = out;
+        this.err = err;
+    }
+
+    /** Entry point used by Main: connects with config/db.properties and exits with the command's code. */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        DatabaseManager db = DatabaseManager.fromProperties(DatabaseManager.loadDefaultProperties());
+        int code = new ShopCli(db, System.out, System.err).run(args);
+        if (code == OK && isLongRunning(args[0])) {
+            // ingestion and server threads are daemons; keep the JVM up until it is stopped
+            Thread.currentThread().join();
+        }
+        System.exit(code);
+    }
+
+    public int run(String... args) {
+        if (args.length == 0) return usage();
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            switch (args[0]) {
+                case "import": return importCsv(rest);
+                case "export": return exportCsv(rest);
+                case "stats": return stats();
+                case "reindex": return reindex();
+                case "bench": return bench(rest);
+                case "ingest":
+                case "--ingest": return ingest(rest);
+                case "serve": return serve(rest);
+                case "reconcile": return reconcile(rest);
+                default: return usage();
+            }
+        } catch (SQLException e) {
+            err.println("Database error: " + e.getMessage());
+            return FAILED;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("I/O error: " + e.getMessage());
+            return FAILED;
+        } catch (NumberFormatException e) {
+            err.println("Invalid number: " + e.getMessage());
+            return USAGE;
+        }
+    }
+
+    private static boolean isLongRunning(String command) {
+        return "ingest".equals(command) || "--ingest".equals(command) || "serve".equals(command);
+    }
+
+    private int usage() {
+        err.println("Usage: <command> [args]");
+        err.println("  import <file.csv> [row|bulk|checkpoint|delta|sync] [--restart]");
+        err.println("  export <file.csv>");
+        err.println("  stats");
+        err.println("  reindex");
+        err.println("  bench [rounds]");
+        err.println("  ingest <dropDir> [workers]");
+        err.println("  serve [port] [--bind <address>] [--allow-sync]");
+        err.println("  reconcile <source.properties> [--delete-missing]");
+        return USAGE;
+    }
+
+    private int importCsv(String[] args) throws IOException, SQLException {
+        if (args.length < 1) return usage();
+        boolean restart = args[args.length - 1].equals("--restart");
+        int named = restart ? args.length - 1 : args.length;
+        ImportEngine engine = ImportEngine.forName(named > 1 ? args[1] : "checkpoint", db, dao);
+        if (engine == null) return usage();
+        File file = new File(args[0]);
+        // start over instead of resuming or skipping a file the checkpoint engine has seen
+        if (restart && engine instanceof CheckpointedImportEngine checkpointed) checkpointed.forget(file);
+        ImportReport report = engine.importFile(file);
+        out.println(report.toSummary(20));
+        return report.getRejectedCount() == 0 ? OK : FAILED;
+    }
+
+    /** Streams rows straight from the result set to the file; the catalog is never held in memory. */
+    private int exportCsv(String[] args) throws IOException, SQLException {
+        if (args.length < 1) return usage();
+        Path file = Paths.get(args[0]);
+        int[] rows = {0};
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(CsvUtils.HEADER);
+            writer.newLine();
+            dao.scanAll(p -> {
+                try {
+                    writer.write(CsvUtils.toCsvLine(p));
+                    writer.newLine();
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        out.printf("Exported %d products to %s%n", rows[0], file.toAbsolutePath());
+        return OK;
+    }
+
+    private int stats() throws SQLException {
+        ColumnarProductStore store = loadStore();
+        CatalogStatistics s = CatalogStatistics.compute(store, LocalDate.now());
+        out.printf("Products: %d (active %d, inactive %d)%n", s.getTotal(), s.getActive(), s.getInactive());
+        out.printf("Total value: %.2f%n", s.getTotalValue());
+        out.printf("Price: min %.2f, avg %.2f, median %.2f, p90 %.2f, max %.2f%n", s.getMinPrice(), s.getAveragePrice(),
+                s.getPriceQuantile(0.5), s.getPriceQuantile(0.9), s.getMaxPrice());
+        out.printf("Expired: %d, without expiration: %d%n", s.getExpired(), s.getWithoutExpiration());
+        for (int i = 0; i < CatalogStatistics.EXPIRY_WINDOWS.length; i++) {
+            out.printf("Expiring within %d days: %d%n", CatalogStatistics.EXPIRY_WINDOWS[i], s.getExpiringWithin(i));
+        }
+        printCounts("Categories", s.getCategoryCounts());
+        printCounts("Brands", s.getBrandCounts());
+        return OK;
+    }
+
+    private void printCounts(String title, Map<String, Integer> counts) {
+        out.println(title + ":");
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> out.printf("  %-30s %8d%n", e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Rewrites rows whose row_hash is missing (rows loaded by the bulk engine or by hand) or no longer
+     * matches their content, so delta imports can skip them again, then asks the database to refresh
+     * the index statistics of the products table.
+     */
+    private int reindex() throws SQLException {
+        Map<Integer, Long> stored = dao.findRowHashes();
+        ProductBatch[] batch = {new ProductBatch()};
+        int[] rewritten = {0};
+        SQLException[] failure = {null};
+        dao.scanAll(p -> {
+            if (failure[0] != null) return;
+            Long hash = stored.get(p.getId());
+            if (hash != null && hash == HashUtils.rowHash(p)) return;
+            batch[0].update(p);
+            if (batch[0].size() == REINDEX_BATCH) {
+                try {
+                    dao.applyBatch(batch[0]);
+                    rewritten[0] += batch[0].size();
+                } catch (SQLException e) {
+                    failure[0] = e;
+                }
+                batch[0] = new ProductBatch();
+            }
+        });
+        if (failure[0] != null) throw failure[0];
+        dao.applyBatch(batch[0]);
+        rewritten[0] += batch[0].size();
+        out.printf("Rehashed %d of %d rows%n", rewritten[0], stored.size());
+
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("ANALYZE TABLE products");
+            out.println("Index statistics refreshed");
+        } catch (SQLException e) {
+            // not every database has ANALYZE TABLE (e.g. H2 in tests); hashes are what matters
+            out.println("Index statistics not refreshed: " + e.getMessage());
+        }
+        return OK;
+    }
+
+    /** Times the read paths the GUI and the importers depend on; reports the best and average round. */
+    private int bench(String[] args) throws SQLException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        if (rounds < 1) return usage();
+        long[][] nanos = new long[4][rounds];
+        int rows = 0;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            ColumnarProductStore store = loadStore();
+            long t1 = System.nanoTime();
+            dao.findAllIds();
+            long t2 = System.nanoTime();
+            dao.findRowHashes();
+            long t3 = System.nanoTime();
+            CatalogStatistics.compute(store, LocalDate.now());
+            long t4 = System.nanoTime();
+            nanos[0][r] = t1 - t0;
+            nanos[1][r] = t2 - t1;
+            nanos[2][r] = t3 - t2;
+            nanos[3][r] = t4 - t3;
+            rows = store.size();
+        }
+        String[] names = {"scan into columnar store", "findAllIds", "findRowHashes", "statistics"};
+        out.printf("%d rows, %d rounds (ms)%n", rows, rounds);
+        for (int i = 0; i < names.length; i++) {
+            long[] n = nanos[i];
+            out.printf("  %-26s best %9.2f  avg %9.2f%n", names[i],
+                    Arrays.stream(n).min().getAsLong() / 1e6, Arrays.stream(n).average().getAsDouble() / 1e6);
+        }
+        return OK;
+    }
+
+    private int ingest(String[] args) throws IOException {
+        if (args.length < 1) return usage();
+        Path dropDir = Paths.get(args[0]);
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        IngestionService service = new IngestionService(dropDir, new DeltaImportEngine(dao, false), workers);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                service.close();
+            } catch (Exception e) {
+                err.println("Error stopping ingestion: " + e.getMessage());
+            }
+        }));
+        service.start();
+        out.printf("Watching %s with %d workers (Ctrl+C to stop)%n", dropDir.toAbsolutePath(), workers);
+        return OK;
+    }
+
+    /**
+     * Listens on the loopback interface unless {@code --bind} names another address. Imports from
+     * other machines need the token in the SHOP_IMPORT_TOKEN environment variable.
+     */
+    private int serve(String[] args) throws IOException, SQLException {
+        int port = DEFAULT_PORT;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        boolean allowSync = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--allow-sync")) allowSync = true;
+            else if (args[i].equals("--bind") && i + 1 < args.length) bind = InetAddress.getByName(args[++i]);
+            else if (!args[i].startsWith("--")) port = Integer.parseInt(args[i]);
+            else return usage();
+        }
+        db.warmUp(2);
+        CatalogServer server = new CatalogServer(db, dao, new InetSocketAddress(bind, port), CatalogServer.DEFAULT_REFRESH_MS);
+        server.setImportToken(System.getenv("SHOP_IMPORT_TOKEN"));
+        server.setAllowSync(allowSync);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        out.printf("Catalog service listening on %s:%d (Ctrl+C to stop)%n", bind.getHostAddress(), server.getPort());
+        return OK;
+    }
+
+    /**
+     * Pulls the rows that differ from the store described by a db.properties-style file into this
+     * one. Only digests and changed rows cross the network, so it suits a nightly job.
+     */
+    private int reconcile(String[] args) throws IOException, SQLException {
+        if (args.length < 1 || (args.length > 1 && !"--delete-missing".equals(args[1]))) return usage();
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            props.load(in);
+        }
+        DatabaseManager sourceDb = DatabaseManager.fromProperties(props);
+        CatalogReconciler reconciler = new CatalogReconciler(new ProductDaoImpl(sourceDb), dao, args.length > 1);
+        long t0 = System.nanoTime();
+        CatalogReconciler.Result result = reconciler.reconcile();
+        out.println(result.toSummary());
+        out.printf("Reconciled in %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+        return OK;
+    }
+
+    private ColumnarProductStore loadStore() throws SQLException {
+        ColumnarProductStore store = new ColumnarProductStore();
+        dao.scanAll(store::put);
+        return store;
+    }
+}
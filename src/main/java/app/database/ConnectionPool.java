@@ -0,0 +1,138 @@
+package app.database;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Small elastic JDBC connection pool.
+ *
+ * Keeps up to {@code maxIdle} open connections. A borrowed connection is a proxy whose close() resets
+ * it (rollback of an open transaction, auto-commit back on) and returns it to the pool instead of
+ * closing it. When no idle connection is left a new one is opened instead of waiting, so callers never
+ * block on the pool; surplus connections are closed when returned. Connections idle for longer than
+ * VALIDATE_AFTER_MS are checked with isValid() before reuse (MySQL drops idle sessions after
+ * wait_timeout).
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATE_AFTER_MS = 30_000;
+    private static final int VALIDATE_TIMEOUT_S = 2;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private record Idle(Connection connection, long since) {}
+
+    private final ConnectionFactory factory;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<Idle> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = Math.max(1, maxIdle);
+    }
+
+    /** Opens connections until {@code count} (at most maxIdle) are idle, e.g. in the background at startup. */
+    public void warmUp(int count) throws SQLException {
+        for (int i = idle.size(); i < Math.min(count, maxIdle) && !closed; i++) {
+            idle.push(new Idle(factory.open(), System.currentTimeMillis()));
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool closed");
+        Idle candidate;
+        while ((candidate = idle.poll()) != null) {
+            Connection c = candidate.connection();
+            if (System.currentTimeMillis() - candidate.since() < VALIDATE_AFTER_MS || isUsable(c)) return wrap(c);
+            closeQuietly(c);
+        }
+        return wrap(factory.open());
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Idle i;
+        while ((i = idle.poll()) != null) closeQuietly(i.connection());
+    }
+
+    private void release(Connection c) {
+        try {
+            if (c.isClosed()) return;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) c.setReadOnly(false);
+        } catch (SQLException e) {
+            closeQuietly(c);
+            return;
+        }
+        if (closed || idle.size() >= maxIdle) {
+            closeQuietly(c);
+        } else {
+            idle.push(new Idle(c, System.currentTimeMillis()));
+        }
+    }
+
+    private Connection wrap(Connection target) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (returned.compareAndSet(false, true)) release(target);
+                            return null;
+                        case "isClosed":
+                            return returned.get() || target.isClosed();
+                        case "unwrap":
+                            if (((Class<?>) args[0]).isInstance(proxy)) return proxy;
+                            break;
+                        case "isWrapperFor":
+                            if (((Class<?>) args[0]).isInstance(proxy)) return true;
+                            break;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled[" + target + "]";
+                        default:
+                            break;
+                    }
+                    if (returned.get()) throw new SQLException("Connection already returned to the pool");
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static boolean isUsable(Connection c) {
+        try {
+            return c.isValid(VALIDATE_TIMEOUT_S);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+}
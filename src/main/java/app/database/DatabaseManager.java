@@ -1,6 +1,7 @@
 package app.database;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.Connection;
@@ -15,9 +16,14 @@ import java.util.Properties;
 import java.util.function.Function;
 
 public class DatabaseManager {
+    /** Idle connections kept by the pool when db.pool.size is not set. */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
     private final String jdbcUrl;
     private final String username;
     private final String password;
+    // null = open a new connection for every getConnection()
+    private volatile ConnectionPool pool;
 
     public DatabaseManager(String jdbcUrl, String username, String password) {
         this.jdbcUrl = jdbcUrl;
@@ -30,10 +36,62 @@ public class DatabaseManager {
         String user = props.getProperty("jdbc.username");
         String pass = props.getProperty("jdbc.password");
         if (url == null) throw new IllegalArgumentException("jdbc.url property missing");
-        return new DatabaseManager(url, user, pass);
+        DatabaseManager db = new DatabaseManager(url, user, pass);
+        int poolSize = Integer.parseInt(props.getProperty("db.pool.size", String.valueOf(DEFAULT_POOL_SIZE)).trim());
+        if (poolSize > 0) db.enablePool(poolSize);
+        return db;
+    }
+
+    /** Reuses up to maxIdle connections from now on (see ConnectionPool). */
+    public synchronized void enablePool(int maxIdle) {
+        if (pool == null) pool = new ConnectionPool(this::openConnection, maxIdle);
+    }
+
+    /** Opens {@code count} pooled connections ahead of use; also proves the database is reachable. */
+    public void warmUp(int count) throws SQLException {
+        ConnectionPool p = pool;
+        if (p != null) {
+            p.warmUp(count);
+        } else {
+            try (Connection ignored = openConnection()) {
+                // reachable
+            }
+        }
+    }
+
+    /**
+     * Loads connection settings from config/db.properties (classpath first, then project root),
+     * falling back to the SHOP_JDBC_URL / SHOP_JDBC_USER / SHOP_JDBC_PASS environment variables.
+     */
+    public static Properties loadDefaultProperties() throws Exception {
+        Properties p = new Properties();
+        // try classpath
+        try (InputStream is = DatabaseManager.class.getClassLoader().getResourceAsStream("config/db.properties")) {
+            if (is != null) { p.load(is); return p; }
+        }
+        // try project root
+        try (InputStream is = new FileInputStream("config/db.properties")) {
+            p.load(is); return p;
+        } catch (Exception ignored) {}
+        // try env vars
+        String url = System.getenv("SHOP_JDBC_URL");
+        String user = System.getenv("SHOP_JDBC_USER");
+        String pass = System.getenv("SHOP_JDBC_PASS");
+        if (url != null) {
+            p.setProperty("jdbc.url", url);
+            if (user != null) p.setProperty("jdbc.username", user);
+            if (pass != null) p.setProperty("jdbc.password", pass);
+            return p;
+        }
+        throw new IllegalStateException("Could not find DB config: place config/db.properties on classpath or project root");
     }
 
     public Connection getConnection() throws SQLException {
+        ConnectionPool p = pool;
+        return p != null ? p.getConnection() : openConnection();
+    }
+
+    private Connection openConnection() throws SQLException {
         return DriverManager.getConnection(jdbcUrl, username, password);
     }
 
@@ -0,0 +1,82 @@
+package app.database.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the product_changes table: one row per product written or deleted. Writers call it on
+ * their own connection inside the transaction that changes the products, so a change and its log
+ * row are committed together.
+ *
+ * The version is not an auto-increment value (those are handed out at insert time, so a long
+ * transaction could commit an older version after a reader already moved past it). Each call
+ * takes the next value of the single product_change_version row with SELECT ... FOR UPDATE and
+ * keeps that row locked until the commit: versions therefore become visible in commit order, and
+ * a reader that saw version N has already seen every version below it. Call it as the last
+ * statement of the transaction, so the lock is only held for the commit.
+ */
+public final class ChangeLog {
+    private static final String NEXT_SQL = "SELECT version FROM product_change_version WHERE id = 1 FOR UPDATE";
+    private static final String BUMP_SQL = "UPDATE product_change_version SET version = ? WHERE id = 1";
+    private static final String INSERT_SQL = "INSERT INTO product_changes (version, product_id) VALUES (?, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private ChangeLog() {}
+
+    /** Records changes of the given product IDs under one new version. */
+    public static void record(Connection conn, Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) return;
+        Set<Integer> distinct = ids instanceof Set<Integer> set ? set : new LinkedHashSet<>(ids);
+        long version = nextVersion(conn);
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            int pending = 0;
+            for (int id : distinct) {
+                ps.setLong(1, version);
+                ps.setInt(2, id);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) ps.executeBatch();
+        }
+    }
+
+    public static void record(Connection conn, int id) throws SQLException {
+        record(conn, List.of(id));
+    }
+
+    /**
+     * Records the IDs returned by a query, e.g. the rows a set-based INSERT ... SELECT wrote. The
+     * query must select a column named {@code id}.
+     */
+    public static void recordSelected(Connection conn, String selectIdsSql) throws SQLException {
+        long version = nextVersion(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO product_changes (version, product_id) SELECT DISTINCT " + version
+                    + ", changed.id FROM (" + selectIdsSql + ") changed");
+        }
+    }
+
+    /** Locks the version row until the transaction ends and returns the version after it. */
+    private static long nextVersion(Connection conn) throws SQLException {
+        long version;
+        try (PreparedStatement ps = conn.prepareStatement(NEXT_SQL); ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) throw new SQLException("product_change_version has no row; run migration 004");
+            version = rs.getLong(1) + 1;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(BUMP_SQL)) {
+            ps.setLong(1, version);
+            ps.executeUpdate();
+        }
+        return version;
+    }
+}
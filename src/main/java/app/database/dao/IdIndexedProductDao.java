@@ -0,0 +1,125 @@
+package app.database.dao;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import app.model.Product;
+
+/**
+ * ProductDao decorator that keeps a ProductIdIndex in sync with every write made through it
+ * and answers existsById from the bitmap instead of the database. A create whose ID is already in
+ * the bitmap fails here, with the same error as MySQL, without a round trip.
+ */
+public class IdIndexedProductDao implements ProductDao {
+    private final ProductDao delegate;
+    private final ProductIdIndex index;
+
+    public IdIndexedProductDao(ProductDao delegate, ProductIdIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    public ProductIdIndex getIndex() { return index; }
+
+    /** Reloads the bitmap from the database, e.g. after a write that bypassed this DAO. */
+    public void reloadIndex() throws SQLException { index.reload(delegate); }
+
+    @Override
+    public Product create(Product product) throws SQLException {
+        if (index.contains(product.getId())) {
+            throw new SQLIntegrityConstraintViolationException(
+                    String.format("Duplicate entry '%d' for key 'products.PRIMARY'", product.getId()), "23000", 1062);
+        }
+        Product created = delegate.create(product);
+        index.add(created.getId());
+        return created;
+    }
+
+    @Override
+    public boolean update(Product product) throws SQLException {
+        return delegate.update(product);
+    }
+
+    @Override
+    public boolean deleteById(int id) throws SQLException {
+        boolean deleted = delegate.deleteById(id);
+        if (deleted) index.remove(id);
+        return deleted;
+    }
+
+    @Override
+    public Optional<Product> findById(int id) throws SQLException {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findByIds(int[] ids) throws SQLException {
+        return delegate.findByIds(ids);
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Product> searchByDescription(String descriptionPattern) throws SQLException {
+        return delegate.searchByDescription(descriptionPattern);
+    }
+
+    @Override
+    public long count() throws SQLException {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return index.contains(id);
+    }
+
+    @Override
+    public void scanAll(Consumer<Product> action) throws SQLException {
+        delegate.scanAll(action);
+    }
+
+    @Override
+    public int[] findAllIds() throws SQLException {
+        return delegate.findAllIds();
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes() throws SQLException {
+        return delegate.findRowHashes();
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes(long from, long to) throws SQLException {
+        return delegate.findRowHashes(from, to);
+    }
+
+    @Override
+    public RangeDigest[] digestRanges(long from, long to, int buckets) throws SQLException {
+        return delegate.digestRanges(from, to, buckets);
+    }
+
+    @Override
+    public long currentVersion() throws SQLException {
+        return delegate.currentVersion();
+    }
+
+    @Override
+    public ProductChanges changesSince(long version) throws SQLException {
+        return delegate.changesSince(version);
+    }
+
+    @Override
+    public void applyBatch(ProductBatch batch) throws SQLException {
+        delegate.applyBatch(batch);
+        for (Product p : batch.getInserts()) index.add(p.getId());
+        for (int id : batch.getDeletes()) index.remove(id);
+    }
+}
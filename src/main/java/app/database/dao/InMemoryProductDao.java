@@ -0,0 +1,357 @@
+package app.database.dao;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import app.model.Product;
+import app.util.HashUtils;
+
+/**
+ * ProductDao kept entirely in memory, used in demo/offline mode when no database is reachable.
+ *
+ * Products live in an int-keyed open addressing table split into stripes by ID. Each stripe has its
+ * own StampedLock: lookups are optimistic (no locking unless a writer raced them), writes lock only
+ * the stripe of the ID they touch, and findAll/applyBatch lock every stripe involved in index order so
+ * they see/apply a consistent snapshot. Products are copied on the way in and out, so callers can
+ * keep editing the instances they pass or get back, just like with the JDBC DAO.
+ */
+public class InMemoryProductDao implements ProductDao {
+    private static final int STRIPES = 16;
+    private static final Comparator<Product> BY_ID = Comparator.comparingInt(Product::getId);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // next ID handed out to products created without one (id <= 0)
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public InMemoryProductDao() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    /** Creates a DAO pre-filled with the given products. */
+    public InMemoryProductDao(Collection<Product> initial) {
+        this();
+        for (Product p : initial) {
+            try {
+                create(p);
+            } catch (SQLException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public Product create(Product product) throws SQLException {
+        if (product.getId() <= 0) product.setId(allocateId());
+        int id = product.getId();
+        Stripe s = stripeOf(id);
+        long stamp = s.lock.writeLock();
+        try {
+            if (s.get(id) != null) throw duplicate(id);
+            s.put(id, copy(product));
+        } finally {
+            s.lock.unlockWrite(stamp);
+        }
+        nextId.accumulateAndGet(id + 1, Math::max);
+        return product;
+    }
+
+    @Override
+    public boolean update(Product product) throws SQLException {
+        Stripe s = stripeOf(product.getId());
+        long stamp = s.lock.writeLock();
+        try {
+            if (s.get(product.getId()) == null) return false;
+            s.put(product.getId(), copy(product));
+            return true;
+        } finally {
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean deleteById(int id) throws SQLException {
+        Stripe s = stripeOf(id);
+        long stamp = s.lock.writeLock();
+        try {
+            return s.remove(id);
+        } finally {
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(int id) throws SQLException {
+        Product p = read(id);
+        return p == null ? Optional.empty() : Optional.of(copy(p));
+    }
+
+    /** Snapshot of all products ordered by ID. */
+    @Override
+    public List<Product> findAll() throws SQLException {
+        List<Product> all = new ArrayList<>();
+        long[] stamps = readLockAll();
+        try {
+            for (Stripe s : stripes) s.forEach(p -> all.add(copy(p)));
+        } finally {
+            unlockReadAll(stamps);
+        }
+        all.sort(BY_ID);
+        return all;
+    }
+
+    /**
+     * Same semantics as the JDBC DAO ({@code description LIKE '%pattern%'} on MySQL's default collation):
+     * substring match, % and _ wildcards, case-insensitive.
+     */
+    @Override
+    public List<Product> searchByDescription(String descriptionPattern) throws SQLException {
+        Pattern like = likeToRegex("%" + (descriptionPattern == null ? "" : descriptionPattern) + "%");
+        List<Product> matches = new ArrayList<>();
+        for (Product p : findAll()) {
+            if (p.getDescription() != null && like.matcher(p.getDescription()).matches()) matches.add(p);
+        }
+        return matches;
+    }
+
+    @Override
+    public long count() throws SQLException {
+        long[] stamps = readLockAll();
+        try {
+            long n = 0;
+            for (Stripe s : stripes) n += s.size;
+            return n;
+        } finally {
+            unlockReadAll(stamps);
+        }
+    }
+
+    @Override
+    public boolean existsById(int id) throws SQLException {
+        return read(id) != null;
+    }
+
+    @Override
+    public int[] findAllIds() throws SQLException {
+        return findAll().stream().mapToInt(Product::getId).toArray();
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes() throws SQLException {
+        Map<Integer, Long> hashes = new HashMap<>();
+        for (Product p : findAll()) hashes.put(p.getId(), HashUtils.rowHash(p));
+        return hashes;
+    }
+
+    /**
+     * Applies deletes, updates and inserts (same order as the JDBC DAO) while holding the write lock of
+     * every stripe, so readers never see half a batch. A duplicate insert leaves the store untouched.
+     */
+    @Override
+    public void applyBatch(ProductBatch batch) throws SQLException {
+        if (batch.isEmpty()) return;
+        long[] stamps = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stamps[i] = stripes[i].lock.writeLock();
+        int maxId = 0;
+        try {
+            // check inserts first so a failing batch changes nothing
+            Map<Integer, Boolean> present = new HashMap<>();
+            for (int id : batch.getDeletes()) present.put(id, false);
+            for (Product p : batch.getInserts()) {
+                if (p.getId() <= 0) throw new SQLException("Batch inserts need an ID");
+                if (present.getOrDefault(p.getId(), stripeOf(p.getId()).get(p.getId()) != null)) throw duplicate(p.getId());
+                present.put(p.getId(), true);
+            }
+
+            for (int id : batch.getDeletes()) stripeOf(id).remove(id);
+            for (Product p : batch.getUpdates()) {
+                // like UPDATE ... WHERE id = ?, a missing row is simply not touched
+                Stripe s = stripeOf(p.getId());
+                if (s.get(p.getId()) != null) s.put(p.getId(), copy(p));
+            }
+            for (Product p : batch.getInserts()) {
+                stripeOf(p.getId()).put(p.getId(), copy(p));
+                maxId = Math.max(maxId, p.getId());
+            }
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) stripes[i].lock.unlockWrite(stamps[i]);
+        }
+        nextId.accumulateAndGet(maxId + 1, Math::max);
+    }
+
+    private int allocateId() throws SQLException {
+        while (true) {
+            int id = nextId.getAndIncrement();
+            if (id <= 0) throw new SQLException("In-memory ID space exhausted");
+            if (!existsById(id)) return id;
+        }
+    }
+
+    /** Optimistic lookup; falls back to the read lock when a writer touched the stripe meanwhile. */
+    private Product read(int id) {
+        Stripe s = stripeOf(id);
+        long stamp = s.lock.tryOptimisticRead();
+        Product p = s.get(id);
+        if (s.lock.validate(stamp)) return p;
+        stamp = s.lock.readLock();
+        try {
+            return s.get(id);
+        } finally {
+            s.lock.unlockRead(stamp);
+        }
+    }
+
+    private long[] readLockAll() {
+        long[] stamps = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stamps[i] = stripes[i].lock.readLock();
+        return stamps;
+    }
+
+    private void unlockReadAll(long[] stamps) {
+        for (int i = STRIPES - 1; i >= 0; i--) stripes[i].lock.unlockRead(stamps[i]);
+    }
+
+    private Stripe stripeOf(int id) {
+        return stripes[mix(id) & (STRIPES - 1)];
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static SQLException duplicate(int id) {
+        // same wording as MySQL so callers can keep matching on "Duplicate entry"
+        return new SQLIntegrityConstraintViolationException(
+                String.format("Duplicate entry '%d' for key 'products.PRIMARY'", id), "23000", 1062);
+    }
+
+    private static Pattern likeToRegex(String like) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : (like == null ? "" : like).toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) { regex.append(Pattern.quote(literal.toString())); literal.setLength(0); }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+
+    private static Product copy(Product p) {
+        return new Product(p.getId(), p.getDescription(), p.getBrand(), p.getContent(), p.getPrice(), p.isActive(),
+                p.getCategory(), copy(p.getDateMade()), copy(p.getExpirationDate()));
+    }
+
+    private static Date copy(Date d) {
+        return d == null ? null : (Date) d.clone();
+    }
+
+    /**
+     * Open addressing table (linear probing) from product ID to product. Guarded by {@link #lock}; the
+     * arrays are replaced, never shrunk in place, so an optimistic reader holding stale references
+     * stays in bounds and is then rejected by validate().
+     */
+    private static final class Stripe {
+        private static final int FREE = Integer.MIN_VALUE;
+
+        final StampedLock lock = new StampedLock();
+        int[] keys = newKeys(16);
+        Product[] values = new Product[16];
+        int size;
+        int tombstones;
+
+        private static final Product TOMBSTONE = new Product();
+
+        private static int[] newKeys(int capacity) {
+            int[] k = new int[capacity];
+            Arrays.fill(k, FREE);
+            return k;
+        }
+
+        Product get(int id) {
+            int[] k = keys;
+            Product[] v = values;
+            int mask = k.length - 1;
+            for (int i = mix(id) >>> 4 & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                if (k[i] == FREE) return null;
+                if (k[i] == id) {
+                    Product p = i < v.length ? v[i] : null;
+                    return p == TOMBSTONE ? null : p;
+                }
+            }
+            return null;
+        }
+
+        void put(int id, Product p) {
+            if ((size + tombstones + 1) * 4 >= keys.length * 3) rehash(size * 4 >= keys.length ? keys.length * 2 : keys.length);
+            int mask = keys.length - 1;
+            int slot = -1;
+            for (int i = mix(id) >>> 4 & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    if (values[i] == TOMBSTONE) { tombstones--; size++; }
+                    values[i] = p;
+                    return;
+                }
+                if (keys[i] == FREE) { slot = i; break; }
+            }
+            values[slot] = p;
+            keys[slot] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int mask = keys.length - 1;
+            for (int i = mix(id) >>> 4 & mask; keys[i] != FREE; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    if (values[i] == TOMBSTONE) return false;
+                    values[i] = TOMBSTONE;
+                    size--;
+                    tombstones++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void forEach(Consumer<Product> action) {
+            for (Product p : values) {
+                if (p != null && p != TOMBSTONE) action.accept(p);
+            }
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            Product[] oldValues = values;
+            int[] newKeys = newKeys(capacity);
+            Product[] newValues = new Product[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                Product p = oldValues[j];
+                if (oldKeys[j] == FREE || p == null || p == TOMBSTONE) continue;
+                int i = mix(oldKeys[j]) >>> 4 & mask;
+                while (newKeys[i] != FREE) i = (i + 1) & mask;
+                newValues[i] = p;
+                newKeys[i] = oldKeys[j];
+            }
+            values = newValues;
+            keys = newKeys;
+            tombstones = 0;
+        }
+    }
+}
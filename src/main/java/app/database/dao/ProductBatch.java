@@ -0,0 +1,33 @@
+package app.database.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import app.model.Product;
+
+/**
+ * A set of inserts, updates and deletes that ProductDao.applyBatch writes atomically,
+ * using batched statements instead of one round trip per row.
+ */
+public class ProductBatch {
+    private final List<Product> inserts = new ArrayList<>();
+    private final List<Product> updates = new ArrayList<>();
+    private final List<Integer> deletes = new ArrayList<>();
+
+    public ProductBatch insert(Product p) { inserts.add(p); return this; }
+    public ProductBatch update(Product p) { updates.add(p); return this; }
+    public ProductBatch delete(int id) { deletes.add(id); return this; }
+
+    public List<Product> getInserts() { return Collections.unmodifiableList(inserts); }
+    public List<Product> getUpdates() { return Collections.unmodifiableList(updates); }
+    public List<Integer> getDeletes() { return Collections.unmodifiableList(deletes); }
+
+    public boolean isEmpty() { return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty(); }
+    public int size() { return inserts.size() + updates.size() + deletes.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("ProductBatch{inserts=%d, updates=%d, deletes=%d}", inserts.size(), updates.size(), deletes.size());
+    }
+}
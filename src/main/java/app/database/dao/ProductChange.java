@@ -0,0 +1,16 @@
+package app.database.dao;
+
+import app.model.Product;
+
+/**
+ * One write published by ProductChangePublisher. {@code product} is the state that was written
+ * (null for deletes); consumers must not modify it.
+ */
+public record ProductChange(Type type, int id, Product product) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static ProductChange created(Product p) { return new ProductChange(Type.CREATED, p.getId(), p); }
+    public static ProductChange updated(Product p) { return new ProductChange(Type.UPDATED, p.getId(), p); }
+    public static ProductChange deleted(int id) { return new ProductChange(Type.DELETED, id, null); }
+}
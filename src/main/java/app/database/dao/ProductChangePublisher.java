@@ -0,0 +1,236 @@
+package app.database.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import app.model.Product;
+
+/**
+ * ProductDao decorator that publishes every successful write made through it as a
+ * {@link ProductChange}, so in-process consumers (the GUI catalog, statistics, indexes) follow
+ * writes without reading the database again.
+ *
+ * Built on SubmissionPublisher: each subscriber has its own bounded buffer and is called on the
+ * executor, one change at a time and in write order. When a subscriber's buffer is full the
+ * {@link OverflowPolicy} decides: BLOCK makes the writer wait for space (back-pressure), DROP discards
+ * the change for that subscriber, counts it and runs the overflow callback, which should make the
+ * subscriber resynchronise (e.g. with ProductDao.changesSince).
+ *
+ * Writes that bypass the DAO (bulk and checkpointed imports) are not published.
+ */
+public class ProductChangePublisher implements ProductDao, Flow.Publisher<ProductChange>, AutoCloseable {
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private final ProductDao delegate;
+    private final SubmissionPublisher<ProductChange> publisher;
+    private final OverflowPolicy policy;
+    private final Runnable onOverflow;
+    private final LongAdder dropped = new LongAdder();
+
+    /** Blocking publisher with the default buffer size on the common pool. */
+    public ProductChangePublisher(ProductDao delegate) {
+        this(delegate, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), OverflowPolicy.BLOCK, () -> {});
+    }
+
+    /**
+     * @param bufferCapacity changes buffered per subscriber (rounded up to a power of two)
+     * @param onOverflow     called on the writing thread after a change was dropped (DROP only)
+     */
+    public ProductChangePublisher(ProductDao delegate, Executor executor, int bufferCapacity,
+                                  OverflowPolicy policy, Runnable onOverflow) {
+        this.delegate = delegate;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.policy = policy;
+        this.onOverflow = onOverflow;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ProductChange> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes a plain callback; closing the returned handle cancels the subscription.
+     */
+    public AutoCloseable listen(Consumer<ProductChange> consumer) {
+        Listener listener = new Listener(consumer);
+        publisher.subscribe(listener);
+        return listener;
+    }
+
+    /** Changes discarded so far under the DROP policy (all subscribers). */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /** Completes all subscriptions; the DAO still works but publishes nothing more. */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    private void publish(ProductChange change) {
+        if (publisher.isClosed() || !publisher.hasSubscribers()) return;
+        if (policy == OverflowPolicy.BLOCK) {
+            publisher.submit(change);
+            return;
+        }
+        publisher.offer(change, (subscriber, item) -> {
+            dropped.increment();
+            onOverflow.run();
+            return false; // no retry
+        });
+    }
+
+    // --- writes: delegate, then publish what was applied ---
+
+    @Override
+    public Product create(Product product) throws SQLException {
+        Product created = delegate.create(product);
+        publish(ProductChange.created(created));
+        return created;
+    }
+
+    @Override
+    public boolean update(Product product) throws SQLException {
+        boolean updated = delegate.update(product);
+        if (updated) publish(ProductChange.updated(product));
+        return updated;
+    }
+
+    @Override
+    public boolean deleteById(int id) throws SQLException {
+        boolean deleted = delegate.deleteById(id);
+        if (deleted) publish(ProductChange.deleted(id));
+        return deleted;
+    }
+
+    /** Publishes in the order the batch is applied: deletes, updates, inserts. */
+    @Override
+    public void applyBatch(ProductBatch batch) throws SQLException {
+        delegate.applyBatch(batch);
+        for (int id : batch.getDeletes()) publish(ProductChange.deleted(id));
+        for (Product p : batch.getUpdates()) publish(ProductChange.updated(p));
+        for (Product p : batch.getInserts()) publish(ProductChange.created(p));
+    }
+
+    // --- reads ---
+
+    @Override
+    public Optional<Product> findById(int id) throws SQLException {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findByIds(int[] ids) throws SQLException {
+        return delegate.findByIds(ids);
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void scanAll(Consumer<Product> action) throws SQLException {
+        delegate.scanAll(action);
+    }
+
+    @Override
+    public List<Product> searchByDescription(String descriptionPattern) throws SQLException {
+        return delegate.searchByDescription(descriptionPattern);
+    }
+
+    @Override
+    public long count() throws SQLException {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean existsById(int id) throws SQLException {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public int[] findAllIds() throws SQLException {
+        return delegate.findAllIds();
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes() throws SQLException {
+        return delegate.findRowHashes();
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes(long from, long to) throws SQLException {
+        return delegate.findRowHashes(from, to);
+    }
+
+    @Override
+    public RangeDigest[] digestRanges(long from, long to, int buckets) throws SQLException {
+        return delegate.digestRanges(from, to, buckets);
+    }
+
+    @Override
+    public long currentVersion() throws SQLException {
+        return delegate.currentVersion();
+    }
+
+    @Override
+    public ProductChanges changesSince(long version) throws SQLException {
+        return delegate.changesSince(version);
+    }
+
+    /** Subscriber for {@link #listen(Consumer)}; takes changes as fast as the callback returns. */
+    private static final class Listener implements Flow.Subscriber<ProductChange>, AutoCloseable {
+        private final Consumer<ProductChange> consumer;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean closed;
+
+        Listener(Consumer<ProductChange> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            if (closed) s.cancel();
+            else s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ProductChange change) {
+            consumer.accept(change);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            System.err.println("Product change listener failed: " + t);
+        }
+
+        @Override
+        public void onComplete() {
+            // publisher closed
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Flow.Subscription s = subscription;
+            if (s != null) s.cancel();
+        }
+    }
+}
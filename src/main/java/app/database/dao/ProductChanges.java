@@ -0,0 +1,57 @@
+package app.database.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+import app.model.Product;
+
+/**
+ * Result of ProductDao.changesSince: the products written and the IDs deleted after a change-log
+ * version, up to {@link #getVersion()}, which the caller passes to the next call.
+ *
+ * {@link #isFullReload()} means the changes cannot be described as a delta (the DAO keeps no change
+ * log, or the log was pruned past the caller's version); the caller must reload everything.
+ */
+public final class ProductChanges {
+    private static final int[] NO_IDS = new int[0];
+
+    private final long version;
+    private final boolean fullReload;
+    private final List<Product> upserts;
+    private final int[] deletedIds;
+
+    public ProductChanges(long version, List<Product> upserts, int[] deletedIds) {
+        this(version, false, upserts, deletedIds);
+    }
+
+    private ProductChanges(long version, boolean fullReload, List<Product> upserts, int[] deletedIds) {
+        this.version = version;
+        this.fullReload = fullReload;
+        this.upserts = Collections.unmodifiableList(upserts);
+        this.deletedIds = deletedIds;
+    }
+
+    /** Nothing changed since the given version. */
+    public static ProductChanges none(long version) {
+        return new ProductChanges(version, false, List.of(), NO_IDS);
+    }
+
+    /** The caller has to reload the whole catalog and continue from the given version. */
+    public static ProductChanges fullReload(long version) {
+        return new ProductChanges(version, true, List.of(), NO_IDS);
+    }
+
+    public long getVersion() { return version; }
+    public boolean isFullReload() { return fullReload; }
+    /** Current state of every product inserted or updated since the requested version. */
+    public List<Product> getUpserts() { return upserts; }
+    public int[] getDeletedIds() { return deletedIds.clone(); }
+
+    public boolean isEmpty() { return !fullReload && upserts.isEmpty() && deletedIds.length == 0; }
+
+    @Override
+    public String toString() {
+        return fullReload ? String.format("ProductChanges{version=%d, full reload}", version)
+                : String.format("ProductChanges{version=%d, upserts=%d, deletes=%d}", version, upserts.size(), deletedIds.length);
+    }
+}
@@ -1,8 +1,12 @@
 package app.database.dao;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import app.model.Product;
 
@@ -23,9 +27,27 @@ public interface ProductDao {
     /** Finds a product by its ID. */
     Optional<Product> findById(int id) throws SQLException;
 
+    /**
+     * Finds the products with the given IDs, in no particular order; IDs without a row are left out.
+     * Used to refetch just the rows another terminal reported as changed.
+     */
+    default List<Product> findByIds(int[] ids) throws SQLException {
+        List<Product> found = new ArrayList<>(ids.length);
+        for (int id : ids) findById(id).ifPresent(found::add);
+        return found;
+    }
+
     /** Returns all products in the database. */
     List<Product> findAll() throws SQLException;
 
+    /**
+     * Streams every product to the consumer without building a list first, so large catalogs can be
+     * loaded straight into a compact store.
+     */
+    default void scanAll(Consumer<Product> action) throws SQLException {
+        for (Product p : findAll()) action.accept(p);
+    }
+
     /** Searches for products whose description matches a pattern. */
     List<Product> searchByDescription(String descriptionPattern) throws SQLException;
 
@@ -34,4 +56,56 @@ public interface ProductDao {
 
     /** Checks if a product exists by ID. */
     boolean existsById(int id) throws SQLException;
+
+    /** Returns the IDs of all products (a single narrow query, used to build ProductIdIndex). */
+    int[] findAllIds() throws SQLException;
+
+    /**
+     * Returns the stored content hash (see HashUtils.rowHash) of every product, keyed by ID.
+     * The value is null for rows written by a path that does not maintain hashes.
+     */
+    Map<Integer, Long> findRowHashes() throws SQLException;
+
+    /** Like findRowHashes(), for the products whose ID falls in [from, to). */
+    default Map<Integer, Long> findRowHashes(long from, long to) throws SQLException {
+        Map<Integer, Long> inRange = new HashMap<>();
+        findRowHashes().forEach((id, hash) -> {
+            if (id >= from && id < to) inRange.put(id, hash);
+        });
+        return inRange;
+    }
+
+    /**
+     * Digests of {@code buckets} equal ID ranges covering [from, to) (see RangeDigest.emptyBuckets),
+     * used to compare two catalogs level by level without transferring their rows.
+     */
+    default RangeDigest[] digestRanges(long from, long to, int buckets) throws SQLException {
+        RangeDigest[] digests = RangeDigest.emptyBuckets(from, to, buckets);
+        long width = RangeDigest.bucketWidth(from, to, buckets);
+        for (Map.Entry<Integer, Long> e : findRowHashes(from, to).entrySet()) {
+            int b = (int) ((e.getKey() - from) / width);
+            digests[b] = digests[b].plus(e.getKey(), e.getValue());
+        }
+        return digests;
+    }
+
+    /** Applies all inserts, updates and deletes of the batch in one transaction. */
+    void applyBatch(ProductBatch batch) throws SQLException;
+
+    /**
+     * Latest change-log version; read it before a full load and pass it to changesSince afterwards.
+     * DAOs without a change log return 0.
+     */
+    default long currentVersion() throws SQLException {
+        return 0;
+    }
+
+    /**
+     * Products written or deleted after the given change-log version, so clients can refresh a local
+     * copy with traffic proportional to the churn instead of the catalog size. DAOs without a change
+     * log always answer with a full reload.
+     */
+    default ProductChanges changesSince(long version) throws SQLException {
+        return ProductChanges.fullReload(version);
+    }
 }
\ No newline at end of file
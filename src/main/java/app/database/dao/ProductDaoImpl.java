@@ -1,5 +1,6 @@
 package app.database.dao;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
@@ -7,14 +8,29 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import app.database.DatabaseManager;
 import app.model.Product;
+import app.util.HashUtils;
 
+/**
+ * JDBC implementation. Every write also appends the touched IDs to product_changes (see ChangeLog)
+ * in the same transaction, which is what changesSince reads.
+ */
 public class ProductDaoImpl implements ProductDao {
+    private static final String INSERT_SQL = "INSERT INTO products (id, description, brand, content, category, price, status, dateMade, expirationDate, row_hash) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE products SET description=?, brand=?, content=?, category=?, price=?, status=?, dateMade=?, expirationDate=?, row_hash=? WHERE id=?";
+    private static final String DELETE_SQL = "DELETE FROM products WHERE id = ?";
+    private static final int BATCH_SIZE = 1000;
+
     private final Supplier<Connection> connectionSupplier;
 
     public ProductDaoImpl(DatabaseManager dbManager) {
@@ -33,34 +49,14 @@ public class ProductDaoImpl implements ProductDao {
 
     @Override
     public Product create(Product p) throws SQLException {
-        String sql = "INSERT INTO products (id, description, brand, content, category, price, status, dateMade, expirationDate) "
-                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = connectionSupplier.get();
-            PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, p.getId());
-            ps.setString(2, p.getDescription());
-            ps.setString(3, p.getBrand());
-            ps.setString(4, p.getContent());
-            ps.setString(5, p.getCategory());
-            ps.setDouble(6, p.getPrice());
-            ps.setString(7, p.isActive() ? "Active" : "Inactive");
-            
-            if (p.getDateMade() != null) {
-                ps.setDate(8, new Date(p.getDateMade().getTime()));
-            } else {
-                ps.setNull(8, Types.DATE);
-            }
-            
-            if (p.getExpirationDate() != null) {
-                ps.setDate(9, new Date(p.getExpirationDate().getTime()));
-            } else {
-                ps.setNull(9, Types.DATE);
-            }
-            
-            ps.executeUpdate();
+        return inTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                bindInsert(ps, p);
+                ps.executeUpdate();
+            }
+            ChangeLog.record(conn, p.getId());
             return p;
-        }
+        });
     }
 
     @Override
@@ -80,6 +76,25 @@ public class ProductDaoImpl implements ProductDao {
         }
     }
 
+    /** One {@code IN (...)} query per BATCH_SIZE IDs. */
+    @Override
+    public List<Product> findByIds(int[] ids) throws SQLException {
+        List<Product> found = new ArrayList<>(ids.length);
+        try (Connection conn = connectionSupplier.get()) {
+            for (int from = 0; from < ids.length; from += BATCH_SIZE) {
+                int n = Math.min(BATCH_SIZE, ids.length - from);
+                String sql = "SELECT * FROM products WHERE id IN (" + "?,".repeat(n - 1) + "?)";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < n; i++) ps.setInt(i + 1, ids[from + i]);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) found.add(mapRow(rs));
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
     private Product mapRow(ResultSet rs) throws SQLException {
         Product p = new Product();
         p.setId(rs.getInt("id"));
@@ -98,41 +113,28 @@ public class ProductDaoImpl implements ProductDao {
 
     @Override
     public boolean update(Product p) throws SQLException {
-        String sql = "UPDATE products SET description=?, brand=?, content=?, category=?, price=?, status=?, dateMade=?, expirationDate=? WHERE id=?";
-        try (Connection conn = connectionSupplier.get();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, p.getDescription());
-            ps.setString(2, p.getBrand());
-            ps.setString(3, p.getContent());
-            ps.setString(4, p.getCategory());
-            ps.setDouble(5, p.getPrice());
-            ps.setString(6, p.isActive() ? "Active" : "Inactive");
-            
-            if (p.getDateMade() != null) {
-                ps.setDate(7, new Date(p.getDateMade().getTime()));
-            } else {
-                ps.setNull(7, Types.DATE);
+        return inTransaction(conn -> {
+            boolean updated;
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                bindUpdate(ps, p);
+                updated = ps.executeUpdate() > 0;
             }
-            
-            if (p.getExpirationDate() != null) {
-                ps.setDate(8, new Date(p.getExpirationDate().getTime()));
-            } else {
-                ps.setNull(8, Types.DATE);
-            }
-            
-            ps.setInt(9, p.getId());
-            return ps.executeUpdate() > 0;
-        }
+            if (updated) ChangeLog.record(conn, p.getId());
+            return updated;
+        });
     }
 
     @Override
     public boolean deleteById(int id) throws SQLException {
-        String sql = "DELETE FROM products WHERE id = ?";
-        try (Connection conn = connectionSupplier.get();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
-        }
+        return inTransaction(conn -> {
+            boolean deleted;
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                ps.setInt(1, id);
+                deleted = ps.executeUpdate() > 0;
+            }
+            if (deleted) ChangeLog.record(conn, id);
+            return deleted;
+        });
     }
 
     @Override
@@ -149,6 +151,20 @@ public class ProductDaoImpl implements ProductDao {
         return products;
     }
 
+    @Override
+    public void scanAll(Consumer<Product> action) throws SQLException {
+        String sql = "SELECT * FROM products";
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                }
+            }
+        }
+    }
+
     @Override
     public List<Product> searchByDescription(String descriptionPattern) throws SQLException {
         String sql = "SELECT * FROM products WHERE description LIKE ?";
@@ -189,4 +205,282 @@ public class ProductDaoImpl implements ProductDao {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public int[] findAllIds() throws SQLException {
+        String sql = "SELECT id FROM products";
+        int[] ids = new int[64];
+        int n = 0;
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                ids[n++] = rs.getInt(1);
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes() throws SQLException {
+        String sql = "SELECT id, row_hash FROM products";
+        Map<Integer, Long> hashes = new HashMap<>();
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                long hash = rs.getLong(2);
+                Long stored = rs.wasNull() ? null : hash;
+                hashes.put(rs.getInt(1), stored);
+            }
+        }
+        return hashes;
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes(long from, long to) throws SQLException {
+        String sql = "SELECT id, row_hash FROM products WHERE id BETWEEN ? AND ?";
+        Map<Integer, Long> hashes = new HashMap<>();
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, (int) Math.max(from, Integer.MIN_VALUE));
+            ps.setInt(2, (int) Math.min(to - 1, Integer.MAX_VALUE));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long hash = rs.getLong(2);
+                    Long stored = rs.wasNull() ? null : hash;
+                    hashes.put(rs.getInt(1), stored);
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * One GROUP BY over the primary key range; only the non-empty buckets come back. A single bucket
+     * is a plain aggregate, so it may span the whole INT range; with several buckets the ID offsets
+     * are computed on the INT column and the range must be narrower than 2^31.
+     */
+    @Override
+    public RangeDigest[] digestRanges(long from, long to, int buckets) throws SQLException {
+        RangeDigest[] digests = RangeDigest.emptyBuckets(from, to, buckets);
+        long width = RangeDigest.bucketWidth(from, to, buckets);
+        boolean grouped = digests.length > 1;
+        if (grouped && to - from > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID range too wide for bucketed digests: [" + from + ", " + to + ")");
+        }
+        String sql = grouped
+                ? "SELECT FLOOR((id - ?) / ?) AS bucket, COUNT(*), COUNT(row_hash), SUM(row_hash), MIN(id), MAX(id) "
+                        + "FROM products WHERE id BETWEEN ? AND ? GROUP BY bucket"
+                : "SELECT 0, COUNT(*), COUNT(row_hash), SUM(row_hash), MIN(id), MAX(id) "
+                        + "FROM products WHERE id BETWEEN ? AND ? HAVING COUNT(*) > 0";
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int p = 1;
+            if (grouped) {
+                ps.setInt(p++, (int) from);
+                ps.setInt(p++, (int) width);
+            }
+            ps.setInt(p++, (int) Math.max(from, Integer.MIN_VALUE));
+            ps.setInt(p, (int) Math.min(to - 1, Integer.MAX_VALUE));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int b = (int) rs.getLong(1);
+                    long rows = rs.getLong(2);
+                    BigDecimal sum = rs.getBigDecimal(4);
+                    // SUM is exact (DECIMAL); its low 64 bits are the sum mod 2^64
+                    digests[b] = new RangeDigest(digests[b].from(), digests[b].to(), rows, rows - rs.getLong(3),
+                            sum == null ? 0 : sum.toBigInteger().longValue(), rs.getLong(5), rs.getLong(6));
+                }
+            }
+        }
+        return digests;
+    }
+
+    @Override
+    public void applyBatch(ProductBatch batch) throws SQLException {
+        if (batch.isEmpty()) return;
+        inTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                int pending = 0;
+                for (int id : batch.getDeletes()) {
+                    ps.setInt(1, id);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) ps.executeBatch();
+            }
+            if (!batch.getUpdates().isEmpty()) {
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                    executeInBatches(ps, batch.getUpdates(), ProductDaoImpl::bindUpdate);
+                }
+            }
+            insertRows(conn, batch.getInserts());
+            // last: recording locks the version counter until the commit
+            List<Integer> changed = new ArrayList<>(batch.getDeletes());
+            changed.addAll(idsOf(batch.getUpdates()));
+            changed.addAll(idsOf(batch.getInserts()));
+            ChangeLog.record(conn, changed);
+            return null;
+        });
+    }
+
+    @Override
+    public long currentVersion() throws SQLException {
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement("SELECT MAX(version) FROM product_changes");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * One indexed MIN/MAX query when nothing changed; otherwise one query joining the distinct changed
+     * IDs to their current rows (no row: deleted). Changes are read up to the MAX seen first, so a
+     * write committed in between is picked up by the next call. Versions become visible in commit
+     * order (see ChangeLog), so no version at or below that MAX can still appear later.
+     */
+    @Override
+    public ProductChanges changesSince(long version) throws SQLException {
+        try (Connection conn = connectionSupplier.get()) {
+            long min;
+            long max;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT MIN(version), MAX(version) FROM product_changes");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                min = rs.getLong(1);
+                max = rs.getLong(2);
+            }
+            if (max == version) return ProductChanges.none(version);
+            // log pruned past the caller, or the caller is ahead of this database (restored/recreated)
+            if (min - 1 > version || max < version) return ProductChanges.fullReload(max);
+
+            String sql = "SELECT c.product_id AS changed_id, p.* FROM "
+                    + "(SELECT DISTINCT product_id FROM product_changes WHERE version > ? AND version <= ?) c "
+                    + "LEFT JOIN products p ON p.id = c.product_id";
+            List<Product> upserts = new ArrayList<>();
+            int[] deleted = new int[16];
+            int deletedCount = 0;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, version);
+                ps.setLong(2, max);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getInt("id");
+                        if (rs.wasNull()) {
+                            if (deletedCount == deleted.length) deleted = Arrays.copyOf(deleted, deletedCount * 2);
+                            deleted[deletedCount++] = rs.getInt("changed_id");
+                        } else {
+                            upserts.add(mapRow(rs));
+                        }
+                    }
+                }
+            }
+            return new ProductChanges(max, upserts, Arrays.copyOf(deleted, deletedCount));
+        }
+    }
+
+    /**
+     * Batch-inserts products on a caller-managed connection, so callers can commit them
+     * together with their own bookkeeping (e.g. import checkpoints). The inserts are
+     * recorded in the change log on the same connection; like ChangeLog.record, call it last
+     * before the commit.
+     */
+    public static void insertAll(Connection conn, List<Product> products) throws SQLException {
+        if (products.isEmpty()) return;
+        insertRows(conn, products);
+        ChangeLog.record(conn, idsOf(products));
+    }
+
+    private static void insertRows(Connection conn, List<Product> products) throws SQLException {
+        if (products.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            executeInBatches(ps, products, ProductDaoImpl::bindInsert);
+        }
+    }
+
+    private static List<Integer> idsOf(List<Product> products) {
+        List<Integer> ids = new ArrayList<>(products.size());
+        for (Product p : products) ids.add(p.getId());
+        return ids;
+    }
+
+    @FunctionalInterface
+    private interface TransactionWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /** Runs the work in one transaction on a fresh connection, so the change log commits with the rows. */
+    private <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        try (Connection conn = connectionSupplier.get()) {
+            boolean oldAuto = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(oldAuto);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps, Product p) throws SQLException;
+    }
+
+    private static void executeInBatches(PreparedStatement ps, List<Product> products, Binder binder) throws SQLException {
+        int pending = 0;
+        for (Product p : products) {
+            binder.bind(ps, p);
+            ps.addBatch();
+            if (++pending == BATCH_SIZE) {
+                ps.executeBatch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) ps.executeBatch();
+    }
+
+    private static void bindInsert(PreparedStatement ps, Product p) throws SQLException {
+        ps.setInt(1, p.getId());
+        bindColumns(ps, p, 2);
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Product p) throws SQLException {
+        bindColumns(ps, p, 1);
+        ps.setInt(10, p.getId());
+    }
+
+    /** Binds description..expirationDate and row_hash (9 parameters) starting at the given index. */
+    private static void bindColumns(PreparedStatement ps, Product p, int first) throws SQLException {
+        ps.setString(first, p.getDescription());
+        ps.setString(first + 1, p.getBrand());
+        ps.setString(first + 2, p.getContent());
+        ps.setString(first + 3, p.getCategory());
+        ps.setDouble(first + 4, p.getPrice());
+        ps.setString(first + 5, p.isActive() ? "Active" : "Inactive");
+
+        if (p.getDateMade() != null) {
+            ps.setDate(first + 6, new Date(p.getDateMade().getTime()));
+        } else {
+            ps.setNull(first + 6, Types.DATE);
+        }
+
+        if (p.getExpirationDate() != null) {
+            ps.setDate(first + 7, new Date(p.getExpirationDate().getTime()));
+        } else {
+            ps.setNull(first + 7, Types.DATE);
+        }
+
+        ps.setLong(first + 8, HashUtils.rowHash(p));
+    }
+}
@@ -0,0 +1,73 @@
+package app.database.dao;
+
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collection;
+
+import app.model.Product;
+
+/**
+ * In-memory bitmap of existing product IDs.
+ *
+ * IDs are bounded (ValidationUtils.MAX_ID), so the whole ID set is a ~1.2 KB BitSet. It is loaded with one
+ * narrow query and kept current by IdIndexedProductDao, which lets duplicate IDs be rejected before any
+ * INSERT is sent. The database primary key stays the final guard (e.g. for rows added by other terminals
+ * since the last reload).
+ */
+public class ProductIdIndex {
+    private final BitSet ids = new BitSet();
+
+    /** Builds an index with a single SELECT id query. */
+    public static ProductIdIndex load(ProductDao dao) throws SQLException {
+        ProductIdIndex index = new ProductIdIndex();
+        index.reload(dao);
+        return index;
+    }
+
+    public void reload(ProductDao dao) throws SQLException {
+        reset(dao.findAllIds());
+    }
+
+    /** Replaces the contents with the given IDs (no query). */
+    public void reset(int[] all) {
+        synchronized (ids) {
+            ids.clear();
+            for (int id : all) if (id >= 0) ids.set(id);
+        }
+    }
+
+    /** Replaces the contents with the IDs of an already loaded product list (no query). */
+    public void reset(Collection<Product> products) {
+        synchronized (ids) {
+            ids.clear();
+            for (Product p : products) if (p.getId() >= 0) ids.set(p.getId());
+        }
+    }
+
+    public boolean contains(int id) {
+        if (id < 0) return false;
+        synchronized (ids) {
+            return ids.get(id);
+        }
+    }
+
+    public void add(int id) {
+        if (id < 0) return;
+        synchronized (ids) {
+            ids.set(id);
+        }
+    }
+
+    public void remove(int id) {
+        if (id < 0) return;
+        synchronized (ids) {
+            ids.clear(id);
+        }
+    }
+
+    public int size() {
+        synchronized (ids) {
+            return ids.cardinality();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package app.database.dao;
+
+/**
+ * Summary of the products whose ID falls in [from, to): row count, lowest and highest ID present,
+ * and the sum (mod 2^64) of their row hashes. Because the sum of a range is the sum of its
+ * sub-ranges, it works as the node hash of a Merkle tree over the ID space that the database can
+ * compute with one GROUP BY per level, without a stored tree. Rows without a stored row_hash are
+ * only counted ({@code unhashedRows}), so a range containing any cannot be trusted to match.
+ */
+public record RangeDigest(long from, long to, long rows, long unhashedRows, long hashSum, long minId, long maxId) {
+
+    public static RangeDigest empty(long from, long to) {
+        return new RangeDigest(from, to, 0, 0, 0, 0, 0);
+    }
+
+    /** Width of each of {@code buckets} equal ranges covering [from, to) (the last may be shorter). */
+    public static long bucketWidth(long from, long to, int buckets) {
+        return Math.max(1, (to - from + buckets - 1) / buckets);
+    }
+
+    /** Bucket ranges covering [from, to), as ProductDao.digestRanges returns them. */
+    public static RangeDigest[] emptyBuckets(long from, long to, int buckets) {
+        long width = bucketWidth(from, to, buckets);
+        RangeDigest[] result = new RangeDigest[(int) ((to - from + width - 1) / width)];
+        for (int i = 0; i < result.length; i++) {
+            long lo = from + i * width;
+            result[i] = empty(lo, Math.min(to, lo + width));
+        }
+        return result;
+    }
+
+    /** Adds one row to this range's summary; {@code hash} is null for a row stored without one. */
+    public RangeDigest plus(int id, Long hash) {
+        return new RangeDigest(from, to, rows + 1, unhashedRows + (hash == null ? 1 : 0),
+                hashSum + (hash == null ? 0 : hash),
+                rows == 0 ? id : Math.min(minId, id), rows == 0 ? id : Math.max(maxId, id));
+    }
+
+    public boolean isEmpty() {
+        return rows == 0;
+    }
+
+    /** Same rows with the same content, as far as the hashes can tell. */
+    public boolean matches(RangeDigest other) {
+        return rows == other.rows && hashSum == other.hashSum && unhashedRows == 0 && other.unhashedRows == 0;
+    }
+}
@@ -0,0 +1,322 @@
+package app.database.importer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import app.database.DatabaseManager;
+import app.database.dao.ChangeLog;
+import app.model.Category;
+import app.util.CsvUtils;
+import app.util.ValidationUtils;
+
+/**
+ * Set-based import path for large files.
+ *
+ * The CSV is loaded as-is into a private staging table, validated there with a handful of
+ * UPDATE statements (each one tags the rows breaking a rule with a reject reason) and finally merged
+ * into products with a single INSERT ... SELECT. Rejected rows are read back into the ImportReport.
+ *
+ * On MySQL the staging table is filled with LOAD DATA LOCAL INFILE (requires allowLoadLocalInfile=true
+ * on the JDBC url and local_infile enabled on the server). Any other database, or a MySQL server that
+ * refuses LOCAL INFILE, falls back to batched JDBC inserts into the same staging table (noted in the
+ * report). Both paths read quoted fields the same way (CsvUtils.splitFields).
+ */
+public class BulkLoadImportEngine implements ImportEngine {
+    private static final int BATCH_SIZE = 1000;
+    private static final int FIELD_COUNT = 9;
+
+    private final DatabaseManager db;
+
+    public BulkLoadImportEngine(DatabaseManager db) {
+        this.db = db;
+    }
+
+    @Override
+    public String getName() {
+        return "Bulk load";
+    }
+
+    @Override
+    public ImportReport importFile(File csvFile) throws IOException, SQLException {
+        String staging = "import_staging_" + Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+        try (Connection conn = db.getConnection()) {
+            createStagingTable(conn, staging);
+            try {
+                String engine = getName();
+                String note = null;
+                if (isMySql(conn)) {
+                    try {
+                        loadDataLocalInfile(conn, staging, csvFile);
+                        engine = getName() + " (LOAD DATA LOCAL INFILE)";
+                    } catch (SQLException e) {
+                        note = "LOAD DATA LOCAL INFILE unavailable, used JDBC batches: " + e.getMessage();
+                        loadWithJdbcBatches(conn, staging, csvFile);
+                        engine = getName() + " (JDBC batches)";
+                    }
+                } else {
+                    loadWithJdbcBatches(conn, staging, csvFile);
+                    engine = getName() + " (JDBC batches)";
+                }
+
+                ImportReport report = new ImportReport(engine);
+                if (note != null) report.addNote(note);
+                boolean oldAuto = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    validateStaging(conn, staging);
+                    report.setImported(mergeIntoProducts(conn, staging));
+                    ChangeLog.recordSelected(conn, String.format("SELECT id FROM %s WHERE reject_reason IS NULL", staging));
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(oldAuto);
+                }
+                readReport(conn, staging, report);
+                return report;
+            } finally {
+                try (Statement st = conn.createStatement()) {
+                    st.execute(String.format("DROP TABLE IF EXISTS %s", staging));
+                }
+            }
+        }
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        return "MySQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName());
+    }
+
+    private static void createStagingTable(Connection conn, String staging) throws SQLException {
+        // Wide, nullable columns so malformed rows still land here and get a reject reason instead of failing the load
+        String ddl = String.format("""
+                CREATE TABLE %s (
+                    line_no INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                    id INT NULL,
+                    description VARCHAR(255) NULL,
+                    brand VARCHAR(255) NULL,
+                    content VARCHAR(255) NULL,
+                    price DECIMAL(12,2) NULL,
+                    category VARCHAR(255) NULL,
+                    status VARCHAR(32) NULL,
+                    made_raw VARCHAR(32) NULL,
+                    exp_raw VARCHAR(32) NULL,
+                    dateMade DATE NULL,
+                    expirationDate DATE NULL,
+                    reject_reason VARCHAR(255) NULL
+                )""", staging);
+        try (Statement st = conn.createStatement()) {
+            st.execute(ddl);
+        }
+    }
+
+    private static void loadDataLocalInfile(Connection conn, String staging, File csvFile) throws SQLException {
+        String path = csvFile.getAbsolutePath().replace("\\", "\\\\").replace("'", "\\'");
+        // line_no is AUTO_INCREMENT, so rows keep file order (line_no 1 == first data line)
+        String sql = String.format("""
+                LOAD DATA LOCAL INFILE '%s' INTO TABLE %s CHARACTER SET utf8mb4
+                FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '"'
+                LINES TERMINATED BY '\\n'
+                IGNORE 1 LINES
+                (@id, description, brand, content, @price, category, status, @made, @exp)
+                SET id = IF(TRIM(@id) REGEXP '^[0-9]{1,9}$', TRIM(@id), NULL),
+                    price = IF(TRIM(@price) REGEXP '^-?[0-9]{1,10}(\\\\.[0-9]+)?$', TRIM(@price), NULL),
+                    made_raw = TRIM(@made),
+                    exp_raw = TRIM(TRAILING '\\r' FROM TRIM(@exp)),
+                    dateMade = STR_TO_DATE(NULLIF(TRIM(@made), ''), '%%d/%%m/%%Y'),
+                    expirationDate = STR_TO_DATE(NULLIF(TRIM(TRAILING '\\r' FROM TRIM(@exp)), ''), '%%d/%%m/%%Y')
+                """, path, staging);
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private static void loadWithJdbcBatches(Connection conn, String staging, File csvFile) throws IOException, SQLException {
+        String sql = String.format("INSERT INTO %s (line_no, id, description, brand, content, price, category, status, "
+                + "made_raw, exp_raw, dateMade, expirationDate, reject_reason) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", staging);
+        boolean oldAuto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile));
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            reader.readLine(); // Skip header
+
+            String line;
+            int lineNo = 0;
+            int pending = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                int recordLine = lineNo;
+                // a quoted field may span lines, as LOAD DATA ... ENCLOSED BY allows
+                String next;
+                while (CsvUtils.endsInsideQuotes(line) && (next = reader.readLine()) != null) {
+                    line = line + "\n" + next;
+                    lineNo++;
+                }
+                String[] f = CsvUtils.splitFields(line);
+
+                ps.setInt(1, recordLine);
+                setInteger(ps, 2, field(f, 0));
+                ps.setString(3, truncate(field(f, 1), 255));
+                ps.setString(4, truncate(field(f, 2), 255));
+                ps.setString(5, truncate(field(f, 3), 255));
+                setDecimal(ps, 6, field(f, 4));
+                ps.setString(7, truncate(field(f, 5), 255));
+                ps.setString(8, truncate(field(f, 6), 32));
+                ps.setString(9, truncate(field(f, 7), 32));
+                ps.setString(10, truncate(field(f, 8), 32));
+                setDate(ps, 11, field(f, 7));
+                setDate(ps, 12, field(f, 8));
+                if (f.length < FIELD_COUNT) {
+                    ps.setString(13, String.format("Expected %d fields but found %d.", FIELD_COUNT, f.length));
+                } else {
+                    ps.setNull(13, Types.VARCHAR);
+                }
+                ps.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) ps.executeBatch();
+            conn.commit();
+        } catch (SQLException | IOException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(oldAuto);
+        }
+    }
+
+    /**
+     * Applies the ValidationUtils rules in SQL. Rules run in order and only tag rows that are still clean,
+     * so every rejected row carries the first rule it broke.
+     */
+    private static void validateStaging(Connection conn, String staging) throws SQLException {
+        String categories = String.join(", ", Collections.nCopies(Category.values().length, "?"));
+
+        reject(conn, staging, "id IS NULL OR id < 1 OR id > 9999", ValidationUtils.MSG_ID);
+        reject(conn, staging, textRule("description"), ValidationUtils.MSG_DESCRIPTION);
+        reject(conn, staging, textRule("brand"), ValidationUtils.MSG_BRAND);
+        reject(conn, staging, textRule("content"), ValidationUtils.MSG_CONTENT);
+        reject(conn, staging, String.format("category IS NULL OR LOWER(TRIM(category)) NOT IN (%s)", categories),
+                ValidationUtils.MSG_CATEGORY, categoryLabels());
+        reject(conn, staging, "price IS NULL OR price <= 0", ValidationUtils.MSG_PRICE);
+        reject(conn, staging, "status IS NULL OR UPPER(TRIM(status)) NOT IN ('ACTIVE', 'INACTIVE')", ValidationUtils.MSG_STATUS);
+        reject(conn, staging, "dateMade IS NULL OR (expirationDate IS NULL AND exp_raw IS NOT NULL AND exp_raw <> '') "
+                + "OR (expirationDate IS NOT NULL AND expirationDate <= dateMade)", ValidationUtils.MSG_DATES);
+
+        // Derived table keeps MySQL from complaining about reading the UPDATE target in a subquery
+        reject(conn, staging, String.format("line_no IN (SELECT line_no FROM (SELECT s.line_no FROM %1$s s "
+                + "JOIN %1$s s2 ON s2.id = s.id AND s2.line_no < s.line_no AND s2.reject_reason IS NULL) dup)", staging),
+                "Duplicate ID within the imported file.");
+        reject(conn, staging, "id IN (SELECT id FROM products)", "Product with this ID already exists.");
+    }
+
+    private static String textRule(String column) {
+        return String.format("%1$s IS NULL OR CHAR_LENGTH(TRIM(%1$s)) = 0 OR CHAR_LENGTH(TRIM(%1$s)) > 30", column);
+    }
+
+    private static String[] categoryLabels() {
+        Category[] values = Category.values();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i].toString().toLowerCase(Locale.ROOT);
+        }
+        return labels;
+    }
+
+    private static void reject(Connection conn, String staging, String condition, String reason, String... params) throws SQLException {
+        String sql = String.format("UPDATE %s SET reject_reason = ? WHERE reject_reason IS NULL AND (%s)", staging, condition);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, reason);
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 2, params[i]);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static int mergeIntoProducts(Connection conn, String staging) throws SQLException {
+        String sql = String.format("""
+                INSERT INTO products (id, description, brand, content, category, price, status, dateMade, expirationDate)
+                SELECT id, TRIM(description), TRIM(brand), TRIM(content), TRIM(category), price,
+                       CASE WHEN UPPER(TRIM(status)) = 'ACTIVE' THEN 'Active' ELSE 'Inactive' END,
+                       dateMade, expirationDate
+                FROM %s
+                WHERE reject_reason IS NULL
+                ORDER BY line_no""", staging);
+        try (Statement st = conn.createStatement()) {
+            return st.executeUpdate(sql);
+        }
+    }
+
+    private static void readReport(Connection conn, String staging, ImportReport report) throws SQLException {
+        String sql = String.format("SELECT COUNT(*) FROM %s", staging);
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            if (rs.next()) report.setTotalRows(rs.getInt(1));
+        }
+        sql = String.format("SELECT line_no, id, reject_reason FROM %s WHERE reject_reason IS NOT NULL ORDER BY line_no", staging);
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                // +1 because the header occupies line 1 of the file
+                report.addRejected(rs.getInt(1) + 1, rs.getString(2), rs.getString(3));
+            }
+        }
+    }
+
+    // --- JDBC fallback parsing helpers: unparseable values become NULL and are rejected by validateStaging ---
+
+    private static String field(String[] fields, int index) {
+        return index < fields.length ? fields[index] : null;
+    }
+
+    private static String truncate(String value, int max) {
+        if (value == null) return null;
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, String value) throws SQLException {
+        try {
+            ps.setInt(index, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException | NullPointerException e) {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static void setDecimal(PreparedStatement ps, int index, String value) throws SQLException {
+        try {
+            BigDecimal d = new BigDecimal(value.trim());
+            if (d.abs().compareTo(new BigDecimal("9999999999")) > 0) throw new NumberFormatException("out of range");
+            ps.setBigDecimal(index, d.setScale(2, RoundingMode.HALF_UP));
+        } catch (NumberFormatException | NullPointerException e) {
+            ps.setNull(index, Types.DECIMAL);
+        }
+    }
+
+    private static void setDate(PreparedStatement ps, int index, String value) throws SQLException {
+        java.util.Date d = CsvUtils.parseDate(value);
+        if (d != null) {
+            ps.setDate(index, new Date(d.getTime()));
+        } else {
+            ps.setNull(index, Types.DATE);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package app.database.importer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductDaoImpl;
+import app.database.dao.ProductIdIndex;
+import app.model.Product;
+import app.util.BatchValidator;
+import app.util.ProductColumns;
+
+/**
+ * Resumable import for very large files.
+ *
+ * The file is read in batches. Each batch is inserted in the same transaction that advances its row in
+ * import_checkpoints (file fingerprint, byte offset after the batch, batch number, counters), so a
+ * batch is either fully applied and recorded or not at all. Importing the same file again after a
+ * failure or restart seeks to the recorded byte offset and continues with the next batch, which gives
+ * exactly-once application of every row. A finished file is recognised and not imported twice;
+ * {@link #forget(File)} drops its checkpoint so it can be imported again from the start.
+ *
+ * The import_checkpoints table comes from migration 003. The report of a resumed import counts
+ * this run only and carries a note with what the earlier runs applied and rejected.
+ */
+public class CheckpointedImportEngine implements ImportEngine {
+    static final int DEFAULT_BATCH_SIZE = 5000;
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_DONE = "DONE";
+
+    private final DatabaseManager db;
+    private final int batchSize;
+
+    public CheckpointedImportEngine(DatabaseManager db) {
+        this(db, DEFAULT_BATCH_SIZE);
+    }
+
+    public CheckpointedImportEngine(DatabaseManager db, int batchSize) {
+        this.db = db;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public String getName() {
+        return "Checkpointed (resumable)";
+    }
+
+    /** Persisted progress of one file. */
+    private record Checkpoint(long byteOffset, int lastBatch, long linesRead, long rowsApplied, long rowsRejected, String status) {}
+
+    @Override
+    public ImportReport importFile(File csvFile) throws IOException, SQLException {
+        String fingerprint = fingerprint(csvFile);
+        try (Connection conn = db.getConnection()) {
+            Checkpoint cp = loadCheckpoint(conn, fingerprint);
+
+            if (cp != null && STATUS_DONE.equals(cp.status())) {
+                ImportReport done = new ImportReport(getName() + " (file already imported)");
+                done.setUnchanged((int) cp.rowsApplied());
+                return done;
+            }
+            ImportReport report = new ImportReport(cp == null ? getName()
+                    : String.format("%s (resumed after batch %d)", getName(), cp.lastBatch()));
+            if (cp != null) {
+                report.addNote(String.format("Earlier runs imported %d rows and rejected %d; the counts below are for this run.",
+                        cp.rowsApplied(), cp.rowsRejected()));
+            }
+
+            ProductIdIndex existing = ProductIdIndex.load(new ProductDaoImpl(db));
+            long offset = cp == null ? 0 : cp.byteOffset();
+            int batchNo = cp == null ? 0 : cp.lastBatch();
+            long lineNo = cp == null ? 0 : cp.linesRead();
+            long applied = cp == null ? 0 : cp.rowsApplied();
+            long rejected = cp == null ? 0 : cp.rowsRejected();
+            int totalRows = 0;
+
+            try (OffsetLineReader reader = new OffsetLineReader(csvFile, offset)) {
+                if (offset == 0 && reader.readLine() != null) lineNo = 1; // header
+
+                boolean eof = false;
+                while (!eof) {
+                    List<String> rows = new ArrayList<>(batchSize);
+                    List<Long> rowLines = new ArrayList<>(batchSize);
+                    while (rows.size() < batchSize) {
+                        String line = reader.readLine();
+                        if (line == null) { eof = true; break; }
+                        lineNo++;
+                        if (line.isBlank()) continue;
+                        totalRows++;
+                        rows.add(line);
+                        rowLines.add(lineNo);
+                    }
+                    if (rows.isEmpty()) break;
+
+                    // fields are parsed into columns; Products are only built for accepted rows
+                    ProductColumns columns = ProductColumns.fromCsv(rows);
+                    BatchValidator.Result validation = BatchValidator.validate(columns);
+                    List<Product> accepted = new ArrayList<>(rows.size());
+                    int batchRejected = 0;
+                    BitSet batchIds = new BitSet();
+                    for (int i = 0; i < rows.size(); i++) {
+                        int id = columns.getId(i);
+                        int line = rowLines.get(i).intValue();
+                        if (!validation.isValid(i)) {
+                            report.addRejected(line, id == ProductColumns.MISSING_ID ? null : String.valueOf(id),
+                                    String.join(" ", validation.errorsFor(i)));
+                            batchRejected++;
+                        } else if (existing.contains(id) || batchIds.get(id)) {
+                            report.addRejected(line, String.valueOf(id), "Product with this ID already exists.");
+                            batchRejected++;
+                        } else {
+                            batchIds.set(id);
+                            accepted.add(columns.toProduct(i));
+                        }
+                    }
+
+                    batchNo++;
+                    applied += accepted.size();
+                    rejected += batchRejected;
+                    commitBatch(conn, accepted, fingerprint, csvFile.getName(),
+                            new Checkpoint(reader.offset(), batchNo, lineNo, applied, rejected, STATUS_RUNNING));
+                    batchIds.stream().forEach(existing::add);
+                    report.setImported(report.getImported() + accepted.size());
+                }
+            }
+
+            saveCheckpoint(conn, fingerprint, csvFile.getName(),
+                    new Checkpoint(csvFile.length(), batchNo, lineNo, applied, rejected, STATUS_DONE));
+            report.setTotalRows(totalRows);
+            return report;
+        }
+    }
+
+    /**
+     * Drops the checkpoint of this file, so the next importFile reads it from the first row again
+     * instead of resuming or reporting it as already imported. Returns false when there was none.
+     */
+    public boolean forget(File csvFile) throws IOException, SQLException {
+        String fingerprint = fingerprint(csvFile);
+        try (Connection conn = db.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM import_checkpoints WHERE fingerprint = ?")) {
+                ps.setString(1, fingerprint);
+                return ps.executeUpdate() > 0;
+            }
+        }
+    }
+
+    private void commitBatch(Connection conn, List<Product> accepted, String fingerprint, String fileName, Checkpoint cp) throws SQLException {
+        boolean oldAuto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            saveCheckpoint(conn, fingerprint, fileName, cp);
+            ProductDaoImpl.insertAll(conn, accepted); // last: holds the change-log version until the commit
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(oldAuto);
+        }
+    }
+
+    private static Checkpoint loadCheckpoint(Connection conn, String fingerprint) throws SQLException {
+        String sql = "SELECT byte_offset, last_batch, lines_read, rows_applied, rows_rejected, status FROM import_checkpoints WHERE fingerprint = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, fingerprint);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Checkpoint(rs.getLong(1), rs.getInt(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getString(6));
+            }
+        }
+    }
+
+    private static void saveCheckpoint(Connection conn, String fingerprint, String fileName, Checkpoint cp) throws SQLException {
+        String update = "UPDATE import_checkpoints SET file_name = ?, byte_offset = ?, last_batch = ?, lines_read = ?, "
+                + "rows_applied = ?, rows_rejected = ?, status = ?, updated_at = CURRENT_TIMESTAMP WHERE fingerprint = ?";
+        try (PreparedStatement ps = conn.prepareStatement(update)) {
+            bindCheckpoint(ps, fileName, cp);
+            ps.setString(8, fingerprint);
+            if (ps.executeUpdate() > 0) return;
+        }
+        String insert = "INSERT INTO import_checkpoints (file_name, byte_offset, last_batch, lines_read, rows_applied, "
+                + "rows_rejected, status, fingerprint) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+            bindCheckpoint(ps, fileName, cp);
+            ps.setString(8, fingerprint);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bindCheckpoint(PreparedStatement ps, String fileName, Checkpoint cp) throws SQLException {
+        ps.setString(1, fileName.length() <= 255 ? fileName : fileName.substring(0, 255));
+        ps.setLong(2, cp.byteOffset());
+        ps.setInt(3, cp.lastBatch());
+        ps.setLong(4, cp.linesRead());
+        ps.setLong(5, cp.rowsApplied());
+        ps.setLong(6, cp.rowsRejected());
+        ps.setString(7, cp.status());
+    }
+
+    /**
+     * SHA-256 of the whole file, read sequentially (a few seconds per GB, once per import). Stable
+     * across renames; any edit, even one that keeps the length, gives a new fingerprint, so an edited
+     * file is imported as a new one rather than skipped or resumed at an offset into other content.
+     */
+    public static String fingerprint(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[1 << 16];
+            for (int n; (n = in.read(buf)) > 0; ) sha.update(buf, 0, n);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * UTF-8 line reader that knows the byte offset of the next line, so progress can be
+     * stored as a seekable position.
+     */
+    private static final class OffsetLineReader implements Closeable {
+        private final InputStream in;
+        private long offset;
+        private byte[] buf = new byte[256];
+
+        OffsetLineReader(File file, long start) throws IOException {
+            FileInputStream fis = new FileInputStream(file);
+            fis.getChannel().position(start);
+            this.in = new BufferedInputStream(fis, 1 << 16);
+            this.offset = start;
+        }
+
+        String readLine() throws IOException {
+            int n = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\n') break;
+                if (n == buf.length) buf = Arrays.copyOf(buf, n * 2);
+                buf[n++] = (byte) b;
+            }
+            if (b == -1 && n == 0) return null;
+            if (n > 0 && buf[n - 1] == '\r') n--;
+            return new String(buf, 0, n, StandardCharsets.UTF_8);
+        }
+
+        long offset() { return offset; }
+
+        @Override
+        public void close() throws IOException { in.close(); }
+    }
+}
@@ -0,0 +1,117 @@
+package app.database.importer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductDao;
+import app.model.Product;
+import app.util.BatchValidator;
+import app.util.HashUtils;
+import app.util.ProductColumns;
+
+/**
+ * Applies only what changed between a CSV file and the catalog.
+ *
+ * Every incoming row is hashed with HashUtils.rowHash and compared with the stored row_hash
+ * (fetched for the whole table in one query). New IDs become inserts, IDs whose hash differs become
+ * updates and, optionally, IDs missing from the file become deletes. An ID is only missing when no
+ * line of the file names it: rejected rows still keep their product, and a row whose ID cannot be
+ * read at all cancels the deletes of that import. Everything is written through
+ * ProductDao.applyBatch, so re-importing a mostly unchanged file touches only the changed rows.
+ * Rows stored without a hash (e.g. loaded by the bulk engine) are treated as changed once.
+ */
+public class DeltaImportEngine implements ImportEngine {
+    private final ProductDao dao;
+    private final boolean deleteMissing;
+
+    public DeltaImportEngine(ProductDao dao, boolean deleteMissing) {
+        this.dao = dao;
+        this.deleteMissing = deleteMissing;
+    }
+
+    @Override
+    public String getName() {
+        return deleteMissing ? "Delta (sync deletes)" : "Delta";
+    }
+
+    @Override
+    public ImportReport importFile(File csvFile) throws IOException, SQLException {
+        ImportReport report = new ImportReport(getName());
+        List<String> lines = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            reader.readLine(); // header
+            String line;
+            for (int lineNo = 2; (line = reader.readLine()) != null; lineNo++) {
+                if (line.isBlank()) continue;
+                lines.add(line);
+                lineNumbers.add(lineNo);
+            }
+        }
+        report.setTotalRows(lines.size());
+
+        Map<Integer, Long> stored = dao.findRowHashes();
+        // every ID named in the file, valid or not; those are never deleted
+        Set<Integer> named = new HashSet<>();
+        boolean unreadableId = false;
+        Set<Integer> seen = new HashSet<>();
+        ProductBatch batch = new ProductBatch();
+        int unchanged = 0;
+
+        // fields are parsed into columns; Products are only built for accepted rows
+        ProductColumns columns = ProductColumns.fromCsv(lines);
+        BatchValidator.Result validation = BatchValidator.validate(columns);
+        for (int row = 0; row < columns.size(); row++) {
+            int id = columns.getId(row);
+            int lineNo = lineNumbers.get(row);
+            if (id != ProductColumns.MISSING_ID) named.add(id);
+            if (!validation.isValid(row)) {
+                String reason = String.join(" ", validation.errorsFor(row));
+                if (id == ProductColumns.MISSING_ID && deleteMissing) {
+                    unreadableId = true;
+                    reason += " No products were deleted because this row's ID could not be read.";
+                }
+                report.addRejected(lineNo, id == ProductColumns.MISSING_ID ? null : String.valueOf(id), reason);
+                continue;
+            }
+            if (!seen.add(id)) {
+                report.addRejected(lineNo, String.valueOf(id), "Duplicate ID within the imported file.");
+                continue;
+            }
+            Product p = columns.toProduct(row);
+
+            if (!stored.containsKey(p.getId())) {
+                batch.insert(p);
+            } else {
+                Long storedHash = stored.get(p.getId());
+                if (storedHash == null || storedHash != HashUtils.rowHash(p)) {
+                    batch.update(p);
+                } else {
+                    unchanged++;
+                }
+            }
+        }
+
+        if (deleteMissing && !unreadableId) {
+            for (Integer id : stored.keySet()) {
+                if (!named.contains(id)) batch.delete(id);
+            }
+        }
+
+        dao.applyBatch(batch);
+        report.setImported(batch.getInserts().size());
+        report.setUpdated(batch.getUpdates().size());
+        report.setDeleted(batch.getDeletes().size());
+        report.setUnchanged(unchanged);
+        return report;
+    }
+}
@@ -0,0 +1,35 @@
+package app.database.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductDao;
+
+/**
+ * Strategy for loading a products CSV file (see CsvUtils for the format) into the catalog.
+ */
+public interface ImportEngine {
+
+    /** Short human readable name, shown when the user picks an engine. */
+    String getName();
+
+    /** Imports every row of the given CSV file and reports what was applied or rejected. */
+    ImportReport importFile(File csvFile) throws IOException, SQLException;
+
+    /**
+     * Engine for a command line / API name: row, bulk, checkpoint, delta or sync (delta that also
+     * deletes rows missing from the file). Returns null for an unknown name.
+     */
+    static ImportEngine forName(String name, DatabaseManager db, ProductDao dao) {
+        switch (name) {
+            case "row": return new RowByRowImportEngine(dao);
+            case "bulk": return new BulkLoadImportEngine(db);
+            case "checkpoint": return new CheckpointedImportEngine(db);
+            case "delta": return new DeltaImportEngine(dao, false);
+            case "sync": return new DeltaImportEngine(dao, true);
+            default: return null;
+        }
+    }
+}
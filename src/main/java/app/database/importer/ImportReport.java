@@ -0,0 +1,83 @@
+package app.database.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import run: how many rows were read/applied and which rows were rejected (and why).
+ */
+public class ImportReport {
+    private final String engine;
+    private final List<RejectedRow> rejected = new ArrayList<>();
+    private final List<String> notes = new ArrayList<>();
+    private int totalRows;
+    private int imported;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+
+    /** A rejected CSV row. lineNumber is 1-based (header is line 1) or 0 when unknown. */
+    public record RejectedRow(int lineNumber, String id, String reason) {
+        @Override
+        public String toString() {
+            String where = lineNumber > 0 ? String.format("line %d", lineNumber) : "row";
+            return String.format("%s (ID %s): %s", where, id == null || id.isBlank() ? "?" : id, reason);
+        }
+    }
+
+    public ImportReport(String engine) {
+        this.engine = engine;
+    }
+
+    public void addRejected(int lineNumber, String id, String reason) { rejected.add(new RejectedRow(lineNumber, id, reason)); }
+    /** Something the user should know about how the import ran, e.g. a fallback the engine took. */
+    public void addNote(String note) { notes.add(note); }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+    public void setImported(int imported) { this.imported = imported; }
+    public void incrementImported() { imported++; }
+    public void setUpdated(int updated) { this.updated = updated; }
+    public void setDeleted(int deleted) { this.deleted = deleted; }
+    public void setUnchanged(int unchanged) { this.unchanged = unchanged; }
+
+    public String getEngine() { return engine; }
+    public int getTotalRows() { return totalRows; }
+    public int getImported() { return imported; }
+    public int getUpdated() { return updated; }
+    public int getDeleted() { return deleted; }
+    public int getUnchanged() { return unchanged; }
+    public int getRejectedCount() { return rejected.size(); }
+    public List<RejectedRow> getRejected() { return Collections.unmodifiableList(rejected); }
+    public List<String> getNotes() { return Collections.unmodifiableList(notes); }
+
+    /**
+     * Multi-line summary suitable for a dialog; lists at most maxRejected rejected rows.
+     */
+    public String toSummary(int maxRejected) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Engine: %s%n", engine));
+        for (String note : notes) {
+            sb.append(String.format("Note: %s%n", note));
+        }
+        sb.append(String.format("Rows read: %d%n", totalRows));
+        sb.append(String.format("Successfully imported: %d%n", imported));
+        if (updated + deleted + unchanged > 0) {
+            sb.append(String.format("Updated: %d, deleted: %d, unchanged: %d%n", updated, deleted, unchanged));
+        }
+        sb.append(String.format("Failed: %d", rejected.size()));
+        int shown = Math.min(maxRejected, rejected.size());
+        for (int i = 0; i < shown; i++) {
+            sb.append(String.format("%n • %s", rejected.get(i)));
+        }
+        if (rejected.size() > shown) {
+            sb.append(String.format("%n ... and %d more", rejected.size() - shown));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport{engine=%s, total=%d, imported=%d, updated=%d, deleted=%d, unchanged=%d, rejected=%d}",
+                engine, totalRows, imported, updated, deleted, unchanged, rejected.size());
+    }
+}
@@ -0,0 +1,293 @@
+package app.database.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless loader for supplier drops.
+ *
+ * Watches a drop directory and imports every *.csv file that appears in it:
+ * <ul>
+ *   <li>a file is claimed by atomically renaming it into the service's own {@code processing/<id>/}
+ *       folder, so a file is only picked up once even with several services watching the same
+ *       directory;</li>
+ *   <li>claimed files are imported concurrently by a bounded worker pool through the configured
+ *       {@link ImportEngine};</li>
+ *   <li>afterwards the file is moved to {@code done/} (or {@code failed/} when the import threw) next to a
+ *       {@code .report.txt} with the import summary.</li>
+ * </ul>
+ * Suppliers should write under a different name (e.g. {@code .part}) and rename to .csv when complete.
+ * Each service holds a lock on {@code processing/<id>.lock} while it runs; the lock is taken before
+ * the {@code <id>} folder is created, so a claim folder is never visible unlocked while its service
+ * lives. On start, folders whose lock can be taken belong to a service that crashed: their files are
+ * put back into the drop directory and the folder is removed while the lock is still held. Folders
+ * of services that are still running are left alone.
+ */
+public class IngestionService implements Closeable {
+    private static final String PROCESSING = "processing";
+    private static final String DONE = "done";
+    private static final String FAILED = "failed";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dropDir;
+    // this service's claim folder under processing/
+    private final Path processingDir;
+    private final Path doneDir;
+    private final Path failedDir;
+    private final ImportEngine engine;
+    private final ThreadPoolExecutor workers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private WatchService watcher;
+    private Thread watchThread;
+    private FileChannel lockChannel;
+
+    /**
+     * @param workers maximum number of files imported at the same time; at most {@code 4 * workers}
+     *                claimed files wait for a worker, after that the watcher imports on its own thread
+     */
+    public IngestionService(Path dropDir, ImportEngine engine, int workers) {
+        this.dropDir = dropDir;
+        this.processingDir = dropDir.resolve(PROCESSING).resolve(UUID.randomUUID().toString());
+        this.doneDir = dropDir.resolve(DONE);
+        this.failedDir = dropDir.resolve(FAILED);
+        this.engine = engine;
+        int n = Math.max(1, workers);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4 * n), r -> {
+            Thread t = new Thread(r, "ingest-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, (task, pool) -> {
+            // queue full: let the watcher import it itself, which also slows down claiming
+            if (pool.isShutdown()) throw new RejectedExecutionException("Ingestion service closed");
+            task.run();
+        });
+    }
+
+    /** Creates the sub folders, recovers interrupted files, imports what is already there and starts watching. */
+    public synchronized void start() throws IOException {
+        if (watchThread != null) throw new IllegalStateException("Ingestion service already started");
+        Files.createDirectories(processingDir.getParent());
+        Files.createDirectories(doneDir);
+        Files.createDirectories(failedDir);
+        lockChannel = FileChannel.open(lockFile(processingDir), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        lockChannel.lock();
+        Files.createDirectory(processingDir);
+        recoverInterrupted();
+
+        watcher = dropDir.getFileSystem().newWatchService();
+        dropDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE);
+        watchThread = new Thread(this::watchLoop, "ingest-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        // anything dropped before the watch was registered
+        scan();
+    }
+
+    /** Number of files claimed but not yet moved to done/failed. */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) watcher.close();
+        if (watchThread != null) watchThread.interrupt();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(1, TimeUnit.MINUTES)) workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (lockChannel != null) {
+            removeClaimFolder(processingDir);
+            lockChannel.close(); // releases the lock
+            lockChannel = null;
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watcher.take();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        offer(dropDir.resolve((Path) event.context()));
+                    }
+                }
+                if (overflow) scan();
+                if (!key.reset()) break; // drop directory went away
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closing
+        } catch (IOException e) {
+            System.err.println("Ingestion watcher stopped: " + e.getMessage());
+        }
+    }
+
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dropDir, "*.{csv,CSV}")) {
+            for (Path file : files) offer(file);
+        }
+    }
+
+    private void offer(Path file) {
+        if (!isCandidate(file)) return;
+        Path claimed = claim(file);
+        if (claimed == null) return;
+        inFlight.incrementAndGet();
+        try {
+            workers.execute(() -> process(claimed));
+        } catch (RejectedExecutionException e) {
+            // pool shut down: put the file back for the next run
+            inFlight.decrementAndGet();
+            moveQuietly(claimed, dropDir.resolve(claimed.getFileName()));
+        }
+    }
+
+    private static boolean isCandidate(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") && Files.isRegularFile(file);
+    }
+
+    /** Atomic rename into processing/; null when another watcher got there first. */
+    private Path claim(Path file) {
+        // a rename silently replaces an existing target, so never reuse a name still being processed
+        Path target = uniqueTarget(processingDir, file.getFileName().toString());
+        try {
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return null;
+        } catch (AtomicMoveNotSupportedException e) {
+            System.err.println("Cannot claim " + file + " atomically: " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            System.err.println("Cannot claim " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void process(Path claimed) {
+        ImportReport report = null;
+        Exception failure = null;
+        try {
+            report = engine.importFile(claimed.toFile());
+        } catch (Exception e) {
+            failure = e;
+        }
+
+        try {
+            Path target = uniqueTarget(failure == null ? doneDir : failedDir, claimed.getFileName().toString());
+            Files.move(claimed, target, StandardCopyOption.ATOMIC_MOVE);
+            writeReport(target, report, failure);
+        } catch (IOException e) {
+            System.err.println("Could not finish " + claimed + ": " + e.getMessage());
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static Path uniqueTarget(Path dir, String name) {
+        Path target = dir.resolve(name);
+        if (!Files.exists(target)) return target;
+        return dir.resolve(LocalDateTime.now().format(STAMP) + "-" + System.nanoTime() + "-" + name);
+    }
+
+    private static void writeReport(Path file, ImportReport report, Exception failure) throws IOException {
+        Path reportFile = file.resolveSibling(file.getFileName() + ".report.txt");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8))) {
+            out.println("File: " + file.getFileName());
+            out.println("Finished: " + LocalDateTime.now());
+            if (report != null) out.println(report.toSummary(Integer.MAX_VALUE));
+            if (failure != null) out.println("Import failed: " + failure);
+        }
+    }
+
+    /** Puts back the files of services that stopped without finishing them. */
+    private void recoverInterrupted() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(processingDir.getParent(), Files::isDirectory)) {
+            for (Path dir : entries) {
+                if (!dir.equals(processingDir)) recoverAbandoned(dir);
+            }
+        }
+    }
+
+    private void recoverAbandoned(Path dir) throws IOException {
+        // the owner created and locked this file before the folder, so a missing one means no owner
+        try (FileChannel ch = FileChannel.open(lockFile(dir), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = ch.tryLock();
+            } catch (OverlappingFileLockException e) {
+                return; // held by a service in this JVM
+            }
+            if (lock == null) return; // held by another process
+            if (!Files.isDirectory(dir)) {
+                // another service recovered it meanwhile; drop the lock file this open re-created
+                Files.deleteIfExists(lockFile(dir));
+                return;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) moveQuietly(file, dropDir.resolve(file.getFileName()));
+            }
+            removeClaimFolder(dir);
+        }
+    }
+
+    /**
+     * Deletes an emptied claim folder and then its lock file. The caller holds the lock, so no other
+     * service can be using either; the lock file goes last, as it marks the folder as owned.
+     */
+    private static void removeClaimFolder(Path dir) {
+        try {
+            Files.delete(dir);
+            Files.delete(lockFile(dir));
+        } catch (IOException e) {
+            // still has files: recovered on a later start
+        }
+    }
+
+    private static Path lockFile(Path claimFolder) {
+        return claimFolder.resolveSibling(claimFolder.getFileName() + LOCK_SUFFIX);
+    }
+
+    private static void moveQuietly(Path from, Path to) {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not move " + from + " back: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package app.database.importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.List;
+
+import app.database.dao.ProductDao;
+import app.database.dao.ProductIdIndex;
+import app.model.Product;
+import app.util.CsvUtils;
+
+/**
+ * Original import path: parses the whole file with CsvUtils and calls ProductDao.create once per row.
+ * Works against any ProductDao but pays one database round trip per row. When a ProductIdIndex is given,
+ * rows whose ID already exists (in the catalog or earlier in the file) are rejected without an INSERT.
+ */
+public class RowByRowImportEngine implements ImportEngine {
+    private final ProductDao dao;
+    private final ProductIdIndex ids;
+
+    public RowByRowImportEngine(ProductDao dao) {
+        this(dao, null);
+    }
+
+    public RowByRowImportEngine(ProductDao dao, ProductIdIndex ids) {
+        this.dao = dao;
+        this.ids = ids;
+    }
+
+    @Override
+    public String getName() {
+        return "Row by row";
+    }
+
+    @Override
+    public ImportReport importFile(File csvFile) throws IOException {
+        ImportReport report = new ImportReport(getName());
+        List<Product> imported = CsvUtils.importFromCsv(csvFile);
+        report.setTotalRows(imported.size());
+
+        BitSet seen = new BitSet();
+        for (Product p : imported) {
+            if (ids != null && p.getId() >= 0) {
+                if (seen.get(p.getId())) {
+                    report.addRejected(0, String.valueOf(p.getId()), "Duplicate ID within the imported file.");
+                    continue;
+                }
+                seen.set(p.getId());
+                if (ids.contains(p.getId())) {
+                    report.addRejected(0, String.valueOf(p.getId()), "Product with this ID already exists.");
+                    continue;
+                }
+            }
+            try {
+                dao.create(p);
+                report.incrementImported();
+            } catch (SQLException e) {
+                report.addRejected(0, String.valueOf(p.getId()), e.getMessage());
+                System.err.println(String.format("Failed to import product ID %d: %s", p.getId(), e.getMessage()));
+            }
+        }
+        return report;
+    }
+}
@@ -0,0 +1,266 @@
+package app.database.journal;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import app.database.dao.InMemoryProductDao;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductChanges;
+import app.database.dao.ProductDao;
+import app.database.dao.RangeDigest;
+import app.model.Product;
+import app.util.HashUtils;
+
+/**
+ * ProductDao decorator that keeps working when the database goes away.
+ *
+ * While online every call goes to the database DAO. When a write fails because the connection is
+ * lost (see {@link #isConnectionFailure}), or {@link #goOffline} is called, it switches to an
+ * InMemoryProductDao seeded with the caller's last known catalog: writes are recorded in the
+ * OfflineJournal (before they are applied, with the hash of the row they were made against) and
+ * reads answer from memory. {@link #reconnect()} replays the journal with JournalReplayer once the
+ * database answers again and switches back.
+ *
+ * Offline writes and the replay hold this DAO's lock, so nothing is journaled between the replay
+ * reading the journal and clearing it.
+ */
+public class FailoverProductDao implements ProductDao {
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T run(ProductDao dao) throws SQLException;
+    }
+
+    private final ProductDao online;
+    private final OfflineJournal journal;
+    private final Supplier<Collection<Product>> lastKnown;
+    private final Runnable onOffline;
+    private volatile InMemoryProductDao offline;
+    // last change-log version seen online, answered by currentVersion() while offline
+    private volatile long lastVersion;
+
+    /**
+     * @param lastKnown catalog to work on while offline; called on the thread that switches
+     * @param onOffline told (on that thread) when the DAO switches to offline mode
+     */
+    public FailoverProductDao(ProductDao online, OfflineJournal journal, Supplier<Collection<Product>> lastKnown,
+                              Runnable onOffline) {
+        this.online = online;
+        this.journal = journal;
+        this.lastKnown = lastKnown;
+        this.onOffline = onOffline;
+    }
+
+    public boolean isOffline() {
+        return offline != null;
+    }
+
+    public int getPendingCount() {
+        return journal.size();
+    }
+
+    /** Switches to offline mode, e.g. after a background read found the database unreachable. */
+    public synchronized void goOffline(Throwable cause) {
+        if (offline != null) return;
+        offline = new InMemoryProductDao(lastKnown.get());
+        System.err.println("Database unreachable, journaling changes offline: " + cause.getMessage());
+        onOffline.run();
+    }
+
+    /**
+     * Starts offline before anything was read online, e.g. from a saved catalog when the database is
+     * unreachable at launch; {@code knownVersion} is the change-log version that catalog reflects.
+     */
+    public synchronized void goOffline(Throwable cause, long knownVersion) {
+        if (offline != null) return;
+        lastVersion = knownVersion;
+        goOffline(cause);
+    }
+
+    /**
+     * Replays the journal and switches back to the database. Returns null when already online;
+     * throws (and stays offline) while the database is still unreachable.
+     */
+    public synchronized JournalReplayer.Result reconnect() throws SQLException, IOException {
+        if (offline == null) return null;
+        online.currentVersion(); // probe
+        JournalReplayer.Result result = new JournalReplayer(online).replay(journal);
+        offline = null;
+        return result;
+    }
+
+    /** Lost or refused connections (SQLState class 08), as opposed to errors in the statement itself. */
+    public static boolean isConnectionFailure(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) return true;
+            if (t instanceof SQLException e && e.getSQLState() != null && e.getSQLState().startsWith("08")) return true;
+        }
+        return false;
+    }
+
+    // --- writes ---
+
+    @Override
+    public Product create(Product product) throws SQLException {
+        return write(dao -> dao.create(product), dao -> {
+            if (dao.existsById(product.getId())) return dao.create(product); // duplicate error, nothing journaled
+            journal(JournalEntry.created(product));
+            return dao.create(product);
+        });
+    }
+
+    @Override
+    public boolean update(Product product) throws SQLException {
+        return write(dao -> dao.update(product), dao -> {
+            Optional<Product> before = dao.findById(product.getId());
+            if (before.isEmpty()) return false;
+            journal(JournalEntry.updated(product, HashUtils.rowHash(before.get())));
+            return dao.update(product);
+        });
+    }
+
+    @Override
+    public boolean deleteById(int id) throws SQLException {
+        return write(dao -> dao.deleteById(id), dao -> {
+            Optional<Product> before = dao.findById(id);
+            if (before.isEmpty()) return false;
+            journal(JournalEntry.deleted(id, HashUtils.rowHash(before.get())));
+            return dao.deleteById(id);
+        });
+    }
+
+    @Override
+    public void applyBatch(ProductBatch batch) throws SQLException {
+        write(dao -> {
+            dao.applyBatch(batch);
+            return null;
+        }, dao -> {
+            for (int id : batch.getDeletes()) {
+                Optional<Product> before = dao.findById(id);
+                if (before.isPresent()) journal(JournalEntry.deleted(id, HashUtils.rowHash(before.get())));
+            }
+            for (Product p : batch.getUpdates()) {
+                Optional<Product> before = dao.findById(p.getId());
+                if (before.isPresent()) journal(JournalEntry.updated(p, HashUtils.rowHash(before.get())));
+            }
+            for (Product p : batch.getInserts()) journal(JournalEntry.created(p));
+            dao.applyBatch(batch);
+            return null;
+        });
+    }
+
+    // --- reads ---
+
+    @Override
+    public Optional<Product> findById(int id) throws SQLException {
+        return read(dao -> dao.findById(id));
+    }
+
+    @Override
+    public List<Product> findByIds(int[] ids) throws SQLException {
+        return read(dao -> dao.findByIds(ids));
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        return read(ProductDao::findAll);
+    }
+
+    @Override
+    public void scanAll(Consumer<Product> action) throws SQLException {
+        read(dao -> {
+            dao.scanAll(action);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Product> searchByDescription(String descriptionPattern) throws SQLException {
+        return read(dao -> dao.searchByDescription(descriptionPattern));
+    }
+
+    @Override
+    public long count() throws SQLException {
+        return read(ProductDao::count);
+    }
+
+    @Override
+    public boolean existsById(int id) throws SQLException {
+        return read(dao -> dao.existsById(id));
+    }
+
+    @Override
+    public int[] findAllIds() throws SQLException {
+        return read(ProductDao::findAllIds);
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes() throws SQLException {
+        return read(ProductDao::findRowHashes);
+    }
+
+    @Override
+    public Map<Integer, Long> findRowHashes(long from, long to) throws SQLException {
+        return read(dao -> dao.findRowHashes(from, to));
+    }
+
+    @Override
+    public RangeDigest[] digestRanges(long from, long to, int buckets) throws SQLException {
+        return read(dao -> dao.digestRanges(from, to, buckets));
+    }
+
+    @Override
+    public long currentVersion() throws SQLException {
+        if (offline != null) return lastVersion;
+        lastVersion = online.currentVersion();
+        return lastVersion;
+    }
+
+    /** Nothing new while offline: the local catalog already holds every offline write. */
+    @Override
+    public ProductChanges changesSince(long version) throws SQLException {
+        if (offline != null) return ProductChanges.none(version);
+        ProductChanges changes = online.changesSince(version);
+        lastVersion = changes.getVersion();
+        return changes;
+    }
+
+    private <T> T read(Call<T> call) throws SQLException {
+        ProductDao dao = offline;
+        return call.run(dao != null ? dao : online);
+    }
+
+    private <T> T write(Call<T> onlineCall, Call<T> offlineCall) throws SQLException {
+        synchronized (this) {
+            if (offline != null) return offlineCall.run(offline);
+        }
+        try {
+            return onlineCall.run(online);
+        } catch (SQLException | RuntimeException e) {
+            // the DAO's connection supplier wraps connection errors in RuntimeException
+            if (!isConnectionFailure(e)) throw e;
+            synchronized (this) {
+                goOffline(e);
+                return offlineCall.run(offline);
+            }
+        }
+    }
+
+    private void journal(JournalEntry entry) throws SQLException {
+        try {
+            journal.append(entry);
+        } catch (IOException e) {
+            throw new SQLException("Could not journal offline change: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package app.database.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import app.model.Product;
+import app.util.DateUtils;
+
+/**
+ * One write made while offline. {@code baseHash} is the row hash (HashUtils.rowHash) of the row the
+ * write was made against, null when the row did not exist (creates); replay compares it with the
+ * database's current row to detect writes made elsewhere in the meantime. {@code product} is null
+ * for deletes.
+ */
+public record JournalEntry(Type type, int id, Product product, Long baseHash) {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    public static JournalEntry created(Product p) { return new JournalEntry(Type.CREATE, p.getId(), p, null); }
+    public static JournalEntry updated(Product p, long baseHash) { return new JournalEntry(Type.UPDATE, p.getId(), p, baseHash); }
+    public static JournalEntry deleted(int id, long baseHash) { return new JournalEntry(Type.DELETE, id, null, baseHash); }
+
+    /** Binary form stored in the journal. */
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeInt(id);
+            out.writeBoolean(baseHash != null);
+            out.writeLong(baseHash == null ? 0 : baseHash);
+            if (product != null) {
+                writeString(out, product.getDescription());
+                writeString(out, product.getBrand());
+                writeString(out, product.getContent());
+                writeString(out, product.getCategory());
+                out.writeDouble(product.getPrice());
+                out.writeBoolean(product.isActive());
+                out.writeLong(DateUtils.toEpochDay(product.getDateMade()));
+                out.writeLong(DateUtils.toEpochDay(product.getExpirationDate()));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(ByteBuffer in) {
+        Type type = Type.values()[in.get()];
+        int id = in.getInt();
+        boolean hasBase = in.get() != 0;
+        long base = in.getLong();
+        Product p = null;
+        if (type != Type.DELETE) {
+            p = new Product();
+            p.setId(id);
+            p.setDescription(readString(in));
+            p.setBrand(readString(in));
+            p.setContent(readString(in));
+            p.setCategory(readString(in));
+            p.setPrice(in.getDouble());
+            p.setActive(in.get() != 0);
+            p.setDateMade(toDate(in.getLong()));
+            p.setExpirationDate(toDate(in.getLong()));
+        }
+        return new JournalEntry(type, id, p, hasBase ? base : null);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int n = in.getInt();
+        if (n < 0) return null;
+        byte[] b = new byte[n];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate toDate(long epochDay) {
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,136 @@
+package app.database.journal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductDao;
+import app.model.Product;
+import app.util.CsvUtils;
+import app.util.HashUtils;
+
+/**
+ * Writes an OfflineJournal back to the database once it is reachable again.
+ *
+ * The entries are first collapsed per product ID into one net change (the base of the first entry,
+ * the outcome of the last), then applied in batches of BATCH: one findByIds for the batch's rows and
+ * one applyBatch for the writes. A change is applied only if the row in the database is still the
+ * one it was made against (same row hash as the entry's base, or absent for creates); rows that
+ * already hold the journaled outcome are skipped, so replaying again after an interruption is
+ * harmless. Anything else was changed by another terminal during the outage: the database version
+ * is kept and the local one is written to a conflicts-*.txt file next to the journal, which is then
+ * cleared.
+ */
+public class JournalReplayer {
+    public static final int BATCH = 500;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /** A journaled change that was not applied; {@code local} is null for a delete. */
+    public record Conflict(int id, String reason, Product local) {}
+
+    public record Result(int entries, int applied, int alreadyApplied, List<Conflict> conflicts, Path conflictFile) {
+
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+
+        public String toSummary() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "Replayed %d offline changes: %d applied, %d already applied, %d conflicts",
+                    entries, applied, alreadyApplied, conflicts.size()));
+            for (Conflict c : conflicts) sb.append(String.format("%n  ID %d: %s", c.id(), c.reason()));
+            if (conflictFile != null) sb.append(String.format("%nLocal versions saved to %s", conflictFile));
+            return sb.toString();
+        }
+    }
+
+    /** Net effect of the journaled writes to one product. */
+    private static final class NetChange {
+        final Long base;
+        Product outcome; // null: deleted
+
+        NetChange(Long base) {
+            this.base = base;
+        }
+    }
+
+    private final ProductDao dao;
+
+    public JournalReplayer(ProductDao dao) {
+        this.dao = dao;
+    }
+
+    /** Replays and then clears the journal. A failing batch stops the replay and leaves the journal as is. */
+    public Result replay(OfflineJournal journal) throws SQLException, IOException {
+        List<JournalEntry> entries = journal.entries();
+        Map<Integer, NetChange> net = new LinkedHashMap<>();
+        for (JournalEntry e : entries) {
+            NetChange change = net.computeIfAbsent(e.id(), id -> new NetChange(e.baseHash()));
+            change.outcome = e.product();
+        }
+
+        int applied = 0;
+        int alreadyApplied = 0;
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(net.keySet());
+        for (int from = 0; from < ids.size(); from += BATCH) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH));
+            Map<Integer, Long> current = new HashMap<>();
+            for (Product p : dao.findByIds(chunk.stream().mapToInt(Integer::intValue).toArray())) {
+                current.put(p.getId(), HashUtils.rowHash(p));
+            }
+            ProductBatch batch = new ProductBatch();
+            for (int id : chunk) {
+                NetChange change = net.get(id);
+                Long now = current.get(id);
+                Long wanted = change.outcome == null ? null : HashUtils.rowHash(change.outcome);
+                if (Objects.equals(now, wanted)) {
+                    alreadyApplied++;
+                } else if (!Objects.equals(now, change.base)) {
+                    conflicts.add(new Conflict(id, describe(change, now), change.outcome));
+                } else {
+                    if (change.outcome == null) batch.delete(id);
+                    else if (now == null) batch.insert(change.outcome);
+                    else batch.update(change.outcome);
+                    applied++;
+                }
+            }
+            dao.applyBatch(batch);
+        }
+
+        Path conflictFile = conflicts.isEmpty() ? null : writeConflicts(journal.getDirectory(), conflicts);
+        journal.clear();
+        return new Result(entries.size(), applied, alreadyApplied, conflicts, conflictFile);
+    }
+
+    private static String describe(NetChange change, Long now) {
+        if (now == null) return "deleted by another terminal; local edit dropped";
+        if (change.base == null) return "created by another terminal with other values; kept theirs";
+        return "changed by another terminal; kept theirs";
+    }
+
+    private static Path writeConflicts(Path dir, List<Conflict> conflicts) throws IOException {
+        Path file = dir.resolve("conflicts-" + LocalDateTime.now().format(FILE_STAMP) + ".txt");
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("# ID, reason, local version (" + CsvUtils.HEADER + ") or DELETE");
+            w.newLine();
+            for (Conflict c : conflicts) {
+                w.write(c.id() + "\t" + c.reason() + "\t" + (c.local() == null ? "DELETE" : CsvUtils.toCsvLine(c.local())));
+                w.newLine();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,224 @@
+package app.database.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import app.model.ColumnarProductStore;
+
+/**
+ * Append-only journal of the writes made while the database is unreachable, replayed by
+ * JournalReplayer once it is back.
+ *
+ * Entries go into memory-mapped segment files of SEGMENT_BYTES ({@code segment-000000.wal}, ...), so
+ * an append is a copy into the page cache: it survives the application crashing or being closed as
+ * soon as append() returns. Forcing the pages to disk is batched: a background thread forces the
+ * segment at most every SYNC_INTERVAL_MS when something was appended, so a power cut loses at most
+ * that window, at the cost of one fsync per interval instead of one per write.
+ *
+ * Record: int length, int CRC32C of the payload, payload (JournalEntry.encode); a zero length ends
+ * the data of a segment. Each append writes that terminator after its record, so data left behind by
+ * a cleared journal is never read back; a torn record fails its checksum and ends recovery there.
+ * clear() empties the segments in place rather than deleting them (mapped files cannot be deleted on
+ * Windows until the mapping is collected).
+ */
+public class OfflineJournal implements AutoCloseable {
+    /** Journal directory in db.properties; defaults to DEFAULT_DIR under the working directory. */
+    public static final String PROPERTY = "journal.dir";
+    public static final String DEFAULT_DIR = "journal";
+    static final int SEGMENT_BYTES = 1 << 20;
+    private static final long SYNC_INTERVAL_MS = 50;
+    private static final int HEADER_BYTES = 8;
+
+    private final Path dir;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ScheduledExecutorService syncer;
+    // write position: segment index and offset in it
+    private int current;
+    private int position;
+    private int size;
+    private boolean dirty;
+    private boolean closed;
+
+    private OfflineJournal(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> existing = files.filter(f -> f.getFileName().toString().matches("segment-\\d{6}\\.wal")).sorted().toList();
+            for (int i = 0; i < existing.size(); i++) segments.add(map(segmentPath(i)));
+        }
+        if (segments.isEmpty()) segments.add(map(segmentPath(0)));
+        recover();
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::syncIfDirty, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Opens (creating if needed) the journal in {@code dir}, recovering the entries already in it. */
+    public static OfflineJournal open(Path dir) throws IOException {
+        return new OfflineJournal(dir);
+    }
+
+    public static OfflineJournal fromProperties(Properties props) throws IOException {
+        return open(Paths.get(props.getProperty(PROPERTY, DEFAULT_DIR).trim()));
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    public synchronized void append(JournalEntry entry) throws IOException {
+        if (closed) throw new IOException("Journal closed");
+        byte[] payload = entry.encode();
+        int length = HEADER_BYTES + payload.length;
+        if (length + 4 > SEGMENT_BYTES) throw new IOException("Journal entry too large: " + payload.length + " bytes");
+        if (position + length > SEGMENT_BYTES) roll();
+        MappedByteBuffer segment = segments.get(current);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        // terminator first, length last: a record is only seen once it is complete
+        if (position + length + 4 <= SEGMENT_BYTES) segment.putInt(position + length, 0);
+        segment.put(position + HEADER_BYTES, payload);
+        segment.putInt(position + 4, (int) crc.getValue());
+        segment.putInt(position, payload.length);
+        position += length;
+        size++;
+        dirty = true;
+    }
+
+    /** Every entry in append order. */
+    public synchronized List<JournalEntry> entries() {
+        List<JournalEntry> entries = new ArrayList<>(size);
+        scan(entries);
+        return entries;
+    }
+
+    /**
+     * Applies every entry, in append order, to a local catalog. A snapshot loaded while the database
+     * is still down predates the journal, so this is what makes the writes of an earlier offline
+     * session visible (and keeps rows deleted then from coming back).
+     */
+    public synchronized void applyTo(ColumnarProductStore catalog) {
+        for (JournalEntry entry : entries()) {
+            if (entry.type() == JournalEntry.Type.DELETE) catalog.remove(entry.id());
+            else catalog.put(entry.product());
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Drops every entry (after a replay) and forces that to disk. */
+    public synchronized void clear() {
+        for (MappedByteBuffer segment : segments) {
+            segment.putInt(0, 0);
+            segment.force();
+        }
+        current = 0;
+        position = 0;
+        size = 0;
+        dirty = false;
+    }
+
+    /** Forces appended entries to disk now. */
+    public synchronized void sync() {
+        if (!dirty) return;
+        segments.get(current).force();
+        dirty = false;
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdownNow();
+        synchronized (this) {
+            sync();
+            closed = true;
+        }
+    }
+
+    private void syncIfDirty() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            System.err.println("OfflineJournal: sync failed: " + e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        segments.get(current).force();
+        current++;
+        if (current == segments.size()) segments.add(map(segmentPath(current)));
+        position = 0;
+        segments.get(current).putInt(0, 0);
+    }
+
+    /** Finds the end of the data and counts the entries. */
+    private void recover() {
+        size = scan(null);
+    }
+
+    /**
+     * Reads records until the first empty or damaged one of each segment; the write position ends up
+     * after the last record of the last segment that has any. Returns the number of records.
+     */
+    private int scan(List<JournalEntry> into) {
+        int count = 0;
+        int lastSegment = 0;
+        int lastPosition = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            ByteBuffer segment = segments.get(s).duplicate();
+            int pos = 0;
+            while (pos + HEADER_BYTES <= SEGMENT_BYTES) {
+                int length = segment.getInt(pos);
+                if (length <= 0 || pos + HEADER_BYTES + length > SEGMENT_BYTES) break;
+                ByteBuffer payload = segment.slice(pos + HEADER_BYTES, length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != segment.getInt(pos + 4)) break;
+                if (into != null) into.add(JournalEntry.decode(payload));
+                pos += HEADER_BYTES + length;
+                count++;
+            }
+            if (pos > 0) {
+                lastSegment = s;
+                lastPosition = pos;
+            }
+        }
+        if (into == null) {
+            current = lastSegment;
+            position = lastPosition;
+        }
+        return count;
+    }
+
+    private Path segmentPath(int index) {
+        return dir.resolve(String.format("segment-%06d.wal", index));
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        }
+    }
+}
@@ -1,29 +1,37 @@
 package app.gui;
 
 import java.awt.BorderLayout;
+import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
-import javax.swing.SwingConstants;
+import javax.swing.Timer;
 import javax.swing.table.AbstractTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
 
+import app.gui.components.PreformattedCellRenderer;
+import app.model.ColumnarProductStore;
 import app.model.Product;
 
 /**
- * Table panel showing product results. Backed by an in-memory list for now.
+ * Table panel showing product results. Reads straight from the columns of a ColumnarProductStore,
+ * optionally restricted to a subset of its rows (search results).
  * Supports double-click to load product into form.
  */
 public class ProductTablePanel extends RoundedPanel {
+    /** About one frame at 60 fps. */
+    private static final int FRAME_MS = 16;
+
     private final JTable table;
     private final ProductTableModel model;
+    private final JScrollPane scrollPane;
+    // fires once, FRAME_MS after the first pending change, and hands the batch to the table
+    private final Timer flushTimer;
 
     public ProductTablePanel() {
         super(12);
@@ -34,13 +42,32 @@ public class ProductTablePanel extends RoundedPanel {
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.getTableHeader().setReorderingAllowed(false);
 
-        // Price renderer
-        DefaultTableCellRenderer right = new DefaultTableCellRenderer();
-        right.setHorizontalAlignment(SwingConstants.RIGHT);
-        table.getColumnModel().getColumn(4).setCellRenderer(right);
+        // Cells arrive preformatted from the model's cache; these renderers only align them
+        table.getColumnModel().getColumn(0).setCellRenderer(PreformattedCellRenderer.number());
+        table.getColumnModel().getColumn(4).setCellRenderer(PreformattedCellRenderer.currency());
+        table.getColumnModel().getColumn(7).setCellRenderer(PreformattedCellRenderer.date());
+        table.getColumnModel().getColumn(8).setCellRenderer(PreformattedCellRenderer.date());
+
+        scrollPane = new JScrollPane(table);
+        add(scrollPane, BorderLayout.CENTER);
 
-        JScrollPane sp = new JScrollPane(table);
-        add(sp, BorderLayout.CENTER);
+        flushTimer = new Timer(FRAME_MS, e -> flushChanges());
+        flushTimer.setRepeats(false);
+        model.setChangeScheduler(() -> { if (!flushTimer.isRunning()) flushTimer.start(); });
+    }
+
+    /**
+     * Applies the changes collected since the last frame. A full refresh resets the table, so the
+     * selected product (by ID) and the scroll position are put back afterwards; range events keep
+     * both by themselves.
+     */
+    private void flushChanges() {
+        Product selected = getSelected();
+        Point view = scrollPane.getViewport().getViewPosition();
+        if (!model.flushChanges()) return;
+        int row = selected == null ? -1 : model.rowOfId(selected.getId());
+        if (row >= 0) table.setRowSelectionInterval(row, row);
+        scrollPane.getViewport().setViewPosition(view);
     }
 
     /**
@@ -62,38 +89,235 @@ public class ProductTablePanel extends RoundedPanel {
     }
 
     public void setProducts(List<Product> products) { model.setProducts(products); }
+    /** Shows every row of the store. */
+    public void setCatalog(ColumnarProductStore store) { model.setStore(store, null); }
+    /** Shows only the given rows of the store, in that order. */
+    public void setCatalog(ColumnarProductStore store, int[] rows) { model.setStore(store, rows); }
     public Product getSelected() { int r = table.getSelectedRow(); if (r < 0) return null; return model.getAt(r); }
-    public void refresh() { model.fireTableDataChanged(); }
+    /** Redraws every row at the next frame. */
+    public void refresh() { model.requestFullRefresh(); }
 
     public ProductTableModel getModel() { return model; }
 
-    public static class ProductTableModel extends AbstractTableModel {
+    /**
+     * Table model over the columns of a ColumnarProductStore.
+     *
+     * Display strings are built once per store row, the first time the row is painted, and kept in a
+     * per-row cache, so scrolling back over rows allocates nothing (no boxing, no date formatting, no
+     * description decoding). The model listens to the store: a put() drops the cached strings of that
+     * row, a remove() moves the cached strings of the store's last row into the freed one, removeAll()
+     * compacts the cache along with the rows, and clear() empties it. The cache is keyed by store
+     * row, so switching between all rows and search results keeps it.
+     *
+     * Row changes are not fired one by one: they are logged and, when a change scheduler is set, the
+     * owner calls {@link #flushChanges()} once per frame, which fires the log as a few merged range
+     * events (or one data-changed event when there is too much of it). Without a scheduler every
+     * change is fired immediately.
+     */
+    public static class ProductTableModel extends AbstractTableModel implements ColumnarProductStore.RowListener {
+        private static final String ACTIVE = "Active";
+        private static final String INACTIVE = "Inactive";
         private final String[] cols = {"ID", "Description", "Brand", "Content", "Price", "Category", "Status", "Date made", "Expiration"};
-        private final List<Product> data = new ArrayList<>();
-        private final SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+        private ColumnarProductStore store = new ColumnarProductStore();
+        private int[] rows; // null = all rows of the store; otherwise store rows, kept in step with removals
+        private String[][] cells = new String[0][]; // per store row, null until first shown
+
+        // pending change log: operations in order, as (type, row) pairs in view coordinates
+        private static final int UPDATE = 0;
+        private static final int INSERT = 1;
+        private static final int DELETE = 2;
+        // beyond this many logged operations a single full refresh is cheaper
+        private static final int MAX_LOGGED = 512;
+        private final int[] opTypes = new int[MAX_LOGGED];
+        private final int[] opRows = new int[MAX_LOGGED];
+        private int ops;
+        private boolean fullPending;
+        private int knownRows; // row count the listeners have been told about
+        private Runnable changeScheduler;
+
+        public void setProducts(List<Product> p) { setStore(ColumnarProductStore.of(p != null ? p : List.of()), null); }
+
+        public void setStore(ColumnarProductStore store, int[] rows) {
+            // same store, still all rows: its changes already reached us through the row listener
+            if (store == this.store && rows == null && this.rows == null) return;
+            if (store != this.store) {
+                this.store.removeRowListener(this);
+                store.addRowListener(this);
+                this.store = store;
+                cells = new String[0][];
+            }
+            this.rows = rows;
+            requestFullRefresh();
+        }
 
-        public void setProducts(List<Product> p) { data.clear(); if (p != null) data.addAll(p); fireTableDataChanged(); }
-        public Product getAt(int r) { return data.get(r); }
-        public List<Product> getData() { return data; }
+        /** Called (on the EDT) when changes are pending and no flush is scheduled yet; null fires at once. */
+        public void setChangeScheduler(Runnable scheduler) { this.changeScheduler = scheduler; }
+
+        public void requestFullRefresh() {
+            fullPending = true;
+            changed();
+        }
+
+        /**
+         * Fires the pending changes as merged range events. Returns true when it had to fire a full
+         * data-changed event (which clears the table selection).
+         */
+        public boolean flushChanges() {
+            boolean full = fullPending || ops == MAX_LOGGED;
+            int n = ops;
+            ops = 0;
+            fullPending = false;
+            knownRows = getRowCount();
+            if (full) {
+                fireTableDataChanged();
+                return true;
+            }
+            for (int i = 0; i < n; ) {
+                int type = opTypes[i];
+                int first = opRows[i];
+                int last = first;
+                int j = i + 1;
+                for (; j < n && opTypes[j] == type; j++) {
+                    int r = opRows[j];
+                    if (type == UPDATE) { first = Math.min(first, r); last = Math.max(last, r); }
+                    else if (type == INSERT && r == last + 1) last = r;
+                    else if (type == DELETE && r == first) last++; // deleting a run: same index again
+                    else break;
+                }
+                if (type == UPDATE) fireTableRowsUpdated(first, last);
+                else if (type == INSERT) fireTableRowsInserted(first, last);
+                else fireTableRowsDeleted(first, last);
+                i = j;
+            }
+            return false;
+        }
+
+        /** Table row showing the product with this ID, or -1. */
+        public int rowOfId(int id) {
+            int row = store.rowOf(id);
+            if (row < 0 || rows == null) return row;
+            for (int r = 0; r < rows.length; r++) if (rows[r] == row) return r;
+            return -1;
+        }
+
+        private void log(int type, int row) {
+            // search results map rows differently; any change there redraws the whole view
+            if (rows != null) fullPending = true;
+            else if (ops < MAX_LOGGED) { opTypes[ops] = type; opRows[ops] = row; ops++; }
+            changed();
+        }
+
+        private void changed() {
+            if (changeScheduler != null) changeScheduler.run();
+            else flushChanges();
+        }
 
-        @Override public int getRowCount() { return data.size(); }
+        public ColumnarProductStore getStore() { return store; }
+        /** Detached copy of the product shown in the given table row. */
+        public Product getAt(int r) { return store.toProduct(storeRow(r)); }
+
+        private int storeRow(int r) { return rows == null ? r : rows[r]; }
+
+        @Override public int getRowCount() { return rows == null ? store.size() : rows.length; }
         @Override public int getColumnCount() { return cols.length; }
         @Override public String getColumnName(int c) { return cols[c]; }
-        @Override public Object getValueAt(int r, int c) {
-            Product p = data.get(r);
-            return switch (c) {
-                case 0 -> p.getId();
-                case 1 -> p.getDescription();
-                case 2 -> p.getBrand();
-                case 3 -> p.getContent();
-                case 4 -> p.getPrice();
-                case 5 -> p.getCategory();
-                case 6 -> p.isActive() ? "Active" : "Inactive";
-                case 7 -> p.getDateMade() != null ? sdf.format(p.getDateMade()) : "";
-                case 8 -> p.getExpirationDate() != null ? sdf.format(p.getExpirationDate()) : "";
-                default -> "";
+        @Override public Object getValueAt(int r, int c) { return cellsOf(storeRow(r))[c]; }
+        @Override public boolean isCellEditable(int r, int c) { return false; }
+
+        private String[] cellsOf(int row) {
+            if (row >= cells.length) cells = Arrays.copyOf(cells, Math.max(row + 1, Math.min(store.size(), cells.length * 2 + 64)));
+            String[] c = cells[row];
+            if (c == null) c = cells[row] = format(row);
+            return c;
+        }
+
+        private String[] format(int row) {
+            return new String[]{
+                    Integer.toString(store.id(row)),
+                    store.description(row),
+                    store.brand(row),
+                    store.content(row),
+                    PreformattedCellRenderer.formatCurrency(store.price(row)),
+                    store.category(row),
+                    store.isActive(row) ? ACTIVE : INACTIVE,
+                    formatDay(store.madeDay(row)),
+                    formatDay(store.expirationDay(row))
             };
         }
-        @Override public boolean isCellEditable(int r, int c) { return false; }
+
+        private static String formatDay(int epochDay) {
+            return epochDay == ColumnarProductStore.NO_DAY ? "" : PreformattedCellRenderer.formatDay(epochDay);
+        }
+
+        @Override
+        public void rowUpdated(int row) {
+            if (row < cells.length) cells[row] = null;
+            if (row >= knownRows) {
+                knownRows++;
+                log(INSERT, row);
+            } else {
+                log(UPDATE, row);
+            }
+        }
+
+        @Override
+        public void rowRemoved(int row, int movedFrom) {
+            String[] moved = movedFrom < cells.length ? cells[movedFrom] : null;
+            if (movedFrom < cells.length) cells[movedFrom] = null;
+            if (row != movedFrom && row < cells.length) cells[row] = moved;
+            if (rows != null) rows = remapAfterMove(rows, row, movedFrom);
+            knownRows--;
+            if (row != movedFrom) log(UPDATE, row);
+            log(DELETE, movedFrom);
+        }
+
+        @Override
+        public void rowsRemoved(int[] removed) {
+            int to = removed[0];
+            int next = 0;
+            for (int from = to; from < cells.length; from++) {
+                if (next < removed.length && removed[next] == from) { next++; continue; }
+                cells[to++] = cells[from];
+            }
+            if (to < cells.length) Arrays.fill(cells, to, cells.length, null);
+            if (rows != null) rows = remapAfterRemoval(rows, removed);
+            knownRows -= removed.length;
+            // in view order each removal is logged at its row after the earlier ones moved up
+            for (int i = 0; i < removed.length; i++) log(DELETE, removed[i] - i);
+        }
+
+        /** Search results after remove(): {@code row} drops out and {@code movedFrom} is now {@code row}. */
+        private static int[] remapAfterMove(int[] shown, int row, int movedFrom) {
+            int[] out = new int[shown.length];
+            int n = 0;
+            for (int r : shown) {
+                if (r == row) continue;
+                out[n++] = r == movedFrom ? row : r;
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        /**
+         * Search results after the store removed the given rows (ascending): removed rows drop out,
+         * later ones move up by the number of removed rows before them.
+         */
+        private static int[] remapAfterRemoval(int[] shown, int[] removed) {
+            int[] out = new int[shown.length];
+            int n = 0;
+            for (int row : shown) {
+                int before = Arrays.binarySearch(removed, row);
+                if (before >= 0) continue;
+                out[n++] = row + before + 1; // before = -(removed rows below) - 1
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        @Override
+        public void rowsCleared() {
+            if (rows != null) rows = new int[0];
+            cells = new String[0][];
+            knownRows = 0;
+            requestFullRefresh();
+        }
     }
-}
\ No newline at end of file
+}
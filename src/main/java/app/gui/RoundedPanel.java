@@ -5,20 +5,25 @@ import java.awt.Color;
 import java.awt.GradientPaint;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
+import app.gui.components.PaintCache;
+import app.gui.components.PaintMetrics;
+
 /**
 * Reusable rounded panel with optional gradient background and border.
+* The background is rendered once into a PaintCache and reused until the size or appearance changes.
 */
 public class RoundedPanel extends JPanel {
+    private static final Color SHADOW = new Color(0, 0, 0, 24);
     private int cornerRadius = 16;
     private Color topColor = new Color(0xDD, 0xF5, 0xFF);
     private Color bottomColor = new Color(0xC7, 0xEF, 0xFF);
     private Color borderColor = new Color(0x8F, 0xC7, 0xFF);
     private int borderThickness = 2;
+    private final PaintCache background = new PaintCache();
 
 
     public RoundedPanel() {
@@ -35,14 +40,19 @@ public class RoundedPanel extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
-        int width = getWidth();
-        int height = getHeight();
+        long start = PaintMetrics.start();
         Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        // prerendered once per size/scale/appearance; scrolling the table only blits it
+        background.paint(g2, getWidth(), getHeight(), null, this::paintBackground);
+        g2.dispose();
+        super.paintComponent(g);
+        PaintMetrics.stop(this, start);
+    }
 
 
+    private void paintBackground(Graphics2D g2, int width, int height) {
         // Shadow (subtle)
-        g2.setColor(new Color(0, 0, 0, 24));
+        g2.setColor(SHADOW);
         g2.fillRoundRect(4, 4, width - 8, height - 8, cornerRadius, cornerRadius);
 
 
@@ -56,17 +66,19 @@ public class RoundedPanel extends JPanel {
         g2.setStroke(new BasicStroke(borderThickness));
         g2.setColor(borderColor);
         g2.drawRoundRect(0, 0, width - 8, height - 8, cornerRadius, cornerRadius);
-
-
-        g2.dispose();
-        super.paintComponent(g);
     }
 
 
     // setters for customization
-    public void setCornerRadius(int cornerRadius) { this.cornerRadius = cornerRadius; }
-    public void setTopColor(Color topColor) { this.topColor = topColor; }
-    public void setBottomColor(Color bottomColor) { this.bottomColor = bottomColor; }
-    public void setBorderColor(Color borderColor) { this.borderColor = borderColor; }
-    public void setBorderThickness(int borderThickness) { this.borderThickness = borderThickness; }
+    public void setCornerRadius(int cornerRadius) { this.cornerRadius = cornerRadius; appearanceChanged(); }
+    public void setTopColor(Color topColor) { this.topColor = topColor; appearanceChanged(); }
+    public void setBottomColor(Color bottomColor) { this.bottomColor = bottomColor; appearanceChanged(); }
+    public void setBorderColor(Color borderColor) { this.borderColor = borderColor; appearanceChanged(); }
+    public void setBorderThickness(int borderThickness) { this.borderThickness = borderThickness; appearanceChanged(); }
+
+
+    private void appearanceChanged() {
+        background.invalidate();
+        repaint();
+    }
 }
\ No newline at end of file
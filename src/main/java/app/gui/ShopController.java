@@ -6,19 +6,45 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import app.database.DatabaseManager;
+import app.database.dao.IdIndexedProductDao;
+import app.database.dao.InMemoryProductDao;
+import app.database.dao.ProductChange;
+import app.database.dao.ProductChangePublisher;
+import app.database.dao.ProductChanges;
 import app.database.dao.ProductDao;
+import app.database.dao.ProductIdIndex;
+import app.database.importer.BulkLoadImportEngine;
+import app.database.importer.CheckpointedImportEngine;
+import app.database.importer.DeltaImportEngine;
+import app.database.importer.ImportEngine;
+import app.database.importer.ImportReport;
+import app.database.importer.RowByRowImportEngine;
+import app.database.journal.FailoverProductDao;
+import app.database.journal.JournalReplayer;
+import app.database.journal.OfflineJournal;
+import app.model.CatalogSnapshot;
+import app.model.ColumnarProductStore;
 import app.model.Product;
+import app.sync.ChangeBroadcaster;
 import app.util.CsvUtils;
+import app.util.DateUtils;
 import app.util.ValidationResult;
 import app.util.ValidationUtils;
 
@@ -27,33 +53,94 @@ import app.util.ValidationUtils;
  * and contains the "application logic" for CRUD/search/refresh.
  *
  * Responsibilities:
- *  - load initial data (from DAO or demo list)
- *  - perform create/read/update/delete using ProductDao or fallback memory list
+ *  - load initial data (from the database DAO, or an InMemoryProductDao in demo mode)
+ *  - keep it current from the change log (ProductDao.changesSince): polled in the background while
+ *    connected to a database, and on Refresh; only changed rows are transferred
+ *  - optionally exchange changed IDs with other terminals (ChangeBroadcaster) and refetch just those
+ *    rows, so their writes show up right away instead of at the next poll
+ *  - optionally keep working through database outages (FailoverProductDao): writes are journaled
+ *    locally and replayed when the poll finds the database back
+ *  - optionally save the catalog to a local CatalogSnapshot (periodically and on exit) so the next
+ *    start can show it right away and catch up from the change log
+ *  - write through a ProductChangePublisher; the catalog (and with it the table and the dashboard)
+ *    follows the published changes rather than each action updating it by hand
+ *  - perform create/read/update/delete through ProductDao
  *  - wire listeners for RightButtonPanel and SearchPanel
  *  - handle export/import/statistics operations
  */
 public class ShopController {
+    private static final int SYNC_INTERVAL_MS = 5000;
+    // with change notifications the poll only catches lost datagrams and writes that bypass the DAO
+    private static final int NOTIFIED_SYNC_INTERVAL_MS = 60_000;
+    private static final String OFFLINE_TITLE = " [offline - changes are journaled]";
+    private static final int CHANGE_BUFFER = 1024;
+    private static final int SNAPSHOT_INTERVAL_MS = 5 * 60_000;
+
     private final ProductFormPanel form;
     private final ProductTablePanel table;
     private final SearchPanel search;
     private final RightButtonPanel actions;
     private final UtilityButtonPanel utilityActions;
-    private final ProductDao dao;
-
-    // fallback in-memory store when dao == null
-    private final List<Product> memory = new ArrayList<>();
+    // swapped for an in-memory DAO when the database fails (demo mode)
+    private ProductDao dao;
+    private ProductChangePublisher changes;
+    private final AtomicBoolean resyncPending = new AtomicBoolean();
+    private DatabaseManager db;
+    // bitmap of existing IDs so duplicate IDs are caught before an INSERT is sent
+    private final ProductIdIndex ids = new ProductIdIndex();
+    // compact column copy of the catalog; table, search and statistics read from it
+    private final ColumnarProductStore catalog;
+    // open statistics dashboard, if any; told about catalog changes so it refreshes right away
+    private StatisticsDialog dashboard;
+    // change-log version the catalog reflects
+    private long syncedVersion;
+    private final Timer syncTimer = new Timer(SYNC_INTERVAL_MS, e -> pollChanges());
+    private boolean polling;
+    private ChangeBroadcaster broadcaster;
+    // database DAO as given (null in demo mode) and its offline-capable wrapper, if enabled
+    private final ProductDao databaseDao;
+    private FailoverProductDao failover;
+    private CatalogSnapshot snapshot;
+    // change-log version of the last saved snapshot, so an unchanged catalog is not saved again
+    private long savedVersion = -1;
+    private boolean saving;
+    private final Timer snapshotTimer = new Timer(SNAPSHOT_INTERVAL_MS, e -> saveSnapshotInBackground());
+    // an import worker is running
+    private boolean importing;
 
     public ShopController(ProductFormPanel form, ProductTablePanel table, SearchPanel search,
                           RightButtonPanel actions, UtilityButtonPanel utilityActions, DatabaseManager db, ProductDao dao) {
+        this(form, table, search, actions, utilityActions, db, dao, null, 0);
+    }
+
+    /**
+     * @param preloaded catalog already read from {@code dao} (e.g. by a background thread during startup,
+     *                  or from a CatalogSnapshot), or null to load it now
+     * @param preloadedVersion {@code dao.currentVersion()} read before the preload started (the
+     *                  snapshot's version; call {@link #syncNow()} to catch up from it)
+     */
+    public ShopController(ProductFormPanel form, ProductTablePanel table, SearchPanel search,
+                          RightButtonPanel actions, UtilityButtonPanel utilityActions, DatabaseManager db, ProductDao dao,
+                          ColumnarProductStore preloaded, long preloadedVersion) {
         this.form = form;
         this.table = table;
         this.search = search;
         this.actions = actions;
         this.utilityActions = utilityActions;
-        this.dao = dao;
+        this.databaseDao = dao;
+        this.dao = connect(dao != null ? dao : demoDao());
+        this.db = db;
+        this.catalog = preloaded != null ? preloaded : new ColumnarProductStore();
 
         wire();
-        loadInitialData();
+        if (preloaded != null) {
+            ids.reset(catalog.ids());
+            syncedVersion = preloadedVersion;
+            table.setCatalog(catalog);
+        } else {
+            loadInitialData();
+        }
+        if (this.db != null) syncTimer.start();
     }
 
     private void wire() {
@@ -64,7 +151,7 @@ public class ShopController {
 
         // search wiring
         search.addSearchListener(ae -> onSearch());
-        search.addRefreshListener(ae -> loadInitialData());
+        search.addRefreshListener(ae -> refresh());
         
         // double-click to load product into form
         table.addDoubleClickListener(product -> form.fromProduct(product));
@@ -77,25 +164,308 @@ public class ShopController {
 
     private void loadInitialData() {
         try {
-            if (dao != null) {
-                table.setProducts(dao.findAll());
-            } else {
-                // demo fallback (preserve existing memory content if any)
-                if (memory.isEmpty()) {
-                    memory.add(sampleProduct(1, "Sample product A", "Generic", 12.5, true, "Groceries"));
-                    memory.add(sampleProduct(2, "Sample product B", "BrandZ", 35.0, false, "Personal hygiene"));
-                }
-                table.setProducts(new ArrayList<>(memory));
-            }
+            // read first: anything written during the scan is applied again by the next sync
+            long version = dao.currentVersion();
+            catalog.clear();
+            dao.scanAll(catalog::put);
+            ids.reset(catalog.ids());
+            syncedVersion = version;
+            table.setCatalog(catalog);
+            notifyDashboard();
         } catch (SQLException ex) {
             showDatabaseError("Failed to load products", ex);
             // Fall back to demo mode
-            if (memory.isEmpty()) {
-                memory.add(sampleProduct(1, "Sample product A", "Generic", 12.5, true, "Groceries"));
-                memory.add(sampleProduct(2, "Sample product B", "BrandZ", 35.0, false, "Personal hygiene"));
+            syncTimer.stop();
+            snapshotTimer.stop();
+            db = null;
+            dao = connect(demoDao());
+            loadInitialData();
+        }
+    }
+
+    /**
+     * Wraps the backend so writes keep the ID index current and are published to the catalog. A change
+     * that does not fit in the buffer (e.g. during a large import) is dropped and a refresh scheduled.
+     */
+    private ProductDao connect(ProductDao backend) {
+        if (changes != null) changes.close();
+        changes = new ProductChangePublisher(new IdIndexedProductDao(backend, ids), ForkJoinPool.commonPool(),
+                CHANGE_BUFFER, ProductChangePublisher.OverflowPolicy.DROP, this::scheduleResync);
+        ProductChangePublisher source = changes;
+        // changes still queued from a replaced backend are ignored
+        source.listen(change -> SwingUtilities.invokeLater(() -> {
+            if (source == changes) applyChange(change);
+        }));
+        return source;
+    }
+
+    /**
+     * Announces this terminal's writes to the others and refetches the rows they announce. Only used
+     * while connected to a database; the background poll slows down to a safety net.
+     */
+    public void enableChangeNotifications(ChangeBroadcaster broadcaster) {
+        if (db == null || this.broadcaster != null) return;
+        this.broadcaster = broadcaster;
+        ProductChangePublisher source = changes;
+        source.listen(change -> SwingUtilities.invokeLater(() -> {
+            if (source == changes) broadcaster.publish(change.id());
+        }));
+        broadcaster.start(changed -> SwingUtilities.invokeLater(() -> refetch(changed)));
+        syncTimer.setDelay(NOTIFIED_SYNC_INTERVAL_MS);
+        syncTimer.setInitialDelay(NOTIFIED_SYNC_INTERVAL_MS);
+        syncTimer.restart();
+    }
+
+    /**
+     * Keeps the terminal usable through database outages: while the database is unreachable writes
+     * go to the journal, and the poll keeps trying to reconnect and replay them. Call before
+     * enableChangeNotifications.
+     */
+    public void enableOfflineJournal(OfflineJournal journal) {
+        if (db == null || failover != null) return;
+        failover = new FailoverProductDao(databaseDao, journal, catalog::toProducts,
+                () -> SwingUtilities.invokeLater(() -> showOffline(true)));
+        dao = connect(failover);
+    }
+
+    /**
+     * Starts in offline mode, e.g. when the database was unreachable at launch and the catalog came
+     * from a snapshot: writes are journaled and the poll replays them once the database answers.
+     * Call after enableOfflineJournal.
+     */
+    public void startOffline(Throwable cause) {
+        if (failover == null) return;
+        failover.goOffline(cause, syncedVersion);
+    }
+
+    /**
+     * Saves the catalog to {@code snapshot} every SNAPSHOT_INTERVAL_MS when it changed, and on
+     * {@link #saveSnapshot()}. Only used while connected to a database.
+     */
+    public void enableSnapshots(CatalogSnapshot snapshot) {
+        if (db == null || this.snapshot != null) return;
+        this.snapshot = snapshot;
+        snapshotTimer.start();
+    }
+
+    /**
+     * Catches up from the change log now instead of at the next poll, e.g. after starting from a
+     * snapshot. Runs in the background.
+     */
+    public void syncNow() {
+        if (db != null) pollChanges();
+    }
+
+    /** Saves the snapshot now, on the calling thread (the EDT), e.g. when the window closes. */
+    public void saveSnapshot() {
+        if (snapshot == null || db == null || syncedVersion == savedVersion || isOffline()) return;
+        try {
+            snapshot.save(catalog, syncedVersion);
+            savedVersion = syncedVersion;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Catalog snapshot not saved: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Periodic save: writes a copy of the catalog from a worker. Writes made here since the last
+     * sync are in the copy but not in its version; they are fetched again on the next start.
+     */
+    private void saveSnapshotInBackground() {
+        if (saving || snapshot == null || db == null || syncedVersion == savedVersion || isOffline()) return;
+        saving = true;
+        CatalogSnapshot target = snapshot;
+        ColumnarProductStore copy = catalog.copy();
+        long version = syncedVersion;
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                target.save(copy, version);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                saving = false;
+                try {
+                    get();
+                    savedVersion = version;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Catalog snapshot not saved: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    // journaled writes are in the catalog but not in the database yet: not snapshot material
+    private boolean isOffline() {
+        return failover != null && failover.isOffline();
+    }
+
+    private void showOffline(boolean offline) {
+        syncTimer.setDelay(offline || broadcaster == null ? SYNC_INTERVAL_MS : NOTIFIED_SYNC_INTERVAL_MS);
+        JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(table);
+        if (frame == null) return;
+        String title = frame.getTitle().replace(OFFLINE_TITLE, "");
+        frame.setTitle(offline ? title + OFFLINE_TITLE : title);
+    }
+
+    /** Poll while offline: replays the journal once the database answers, then catches up. */
+    private void reconnect() {
+        polling = true;
+        FailoverProductDao source = failover;
+        new SwingWorker<JournalReplayer.Result, Void>() {
+            @Override
+            protected JournalReplayer.Result doInBackground() throws Exception {
+                return source.reconnect();
+            }
+
+            @Override
+            protected void done() {
+                polling = false;
+                try {
+                    JournalReplayer.Result replayed = get();
+                    if (replayed == null) return;
+                    showOffline(false);
+                    refresh();
+                    if (replayed.hasConflicts()) {
+                        JOptionPane.showMessageDialog(null, replayed.toSummary(), "Offline Changes", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // still unreachable: try again at the next poll
+                    if (!FailoverProductDao.isConnectionFailure(e.getCause())) {
+                        System.err.println("Replay of offline changes failed: " + e.getCause().getMessage());
+                    }
+                }
+            }
+        }.execute();
+    }
+
+    /** Reads the rows another terminal changed; rows that are gone were deleted there. */
+    private void refetch(int[] changed) {
+        if (db == null) return;
+        ProductDao source = dao;
+        new SwingWorker<List<Product>, Void>() {
+            @Override
+            protected List<Product> doInBackground() throws SQLException {
+                return source.findByIds(changed);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (source != dao) return;
+                    Set<Integer> missing = new HashSet<>();
+                    for (int id : changed) missing.add(id);
+                    for (Product p : get()) {
+                        catalog.put(p);
+                        ids.add(p.getId());
+                        missing.remove(p.getId());
+                    }
+                    catalog.removeAll(missing.stream().mapToInt(Integer::intValue).toArray());
+                    for (int id : missing) ids.remove(id);
+                    notifyDashboard();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // the next poll picks the rows up from the change log
+                    System.err.println("Refetch of changed products failed: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void applyChange(ProductChange change) {
+        if (change.type() == ProductChange.Type.DELETED) catalog.remove(change.id());
+        else catalog.put(change.product());
+        notifyDashboard();
+    }
+
+    private void scheduleResync() {
+        if (resyncPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                resyncPending.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Applies what changed since the last load or sync (a full reload when the DAO cannot tell).
+     * Returns the applied changes, or null when the refresh failed.
+     */
+    private ProductChanges refresh() {
+        try {
+            ProductChanges changed = dao.changesSince(syncedVersion);
+            applyChanges(changed);
+            return changed;
+        } catch (SQLException ex) {
+            showDatabaseError("Failed to refresh products", ex);
+            return null;
+        }
+    }
+
+    /** Background poll; usually a single MIN/MAX query that finds nothing new. */
+    private void pollChanges() {
+        if (polling) return;
+        if (failover != null && failover.isOffline()) {
+            reconnect();
+            return;
+        }
+        polling = true;
+        ProductDao source = dao;
+        long since = syncedVersion;
+        new SwingWorker<ProductChanges, Void>() {
+            @Override
+            protected ProductChanges doInBackground() throws SQLException {
+                return source.changesSince(since);
             }
-            table.setProducts(new ArrayList<>(memory));
+
+            @Override
+            protected void done() {
+                polling = false;
+                try {
+                    // skip if a refresh, reload or demo fallback happened meanwhile
+                    if (source == dao && since == syncedVersion) applyChanges(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    if (failover != null && source == dao && FailoverProductDao.isConnectionFailure(e.getCause())) {
+                        failover.goOffline(e.getCause());
+                    } else {
+                        System.err.println("Change poll failed: " + e.getCause().getMessage());
+                    }
+                }
+            }
+        }.execute();
+    }
+
+    private void applyChanges(ProductChanges changes) {
+        if (changes.isFullReload()) {
+            loadInitialData();
+            return;
+        }
+        // the table follows the store's row events
+        for (Product p : changes.getUpserts()) {
+            catalog.put(p);
+            ids.add(p.getId());
         }
+        int[] deleted = changes.getDeletedIds();
+        catalog.removeAll(deleted);
+        for (int id : deleted) ids.remove(id);
+        syncedVersion = changes.getVersion();
+        if (!changes.isEmpty()) notifyDashboard();
+    }
+
+    /** In-memory backend for demo mode, seeded with a couple of sample products. */
+    private ProductDao demoDao() {
+        return new InMemoryProductDao(List.of(
+                sampleProduct(1, "Sample product A", "Generic", 12.5, true, "Groceries"),
+                sampleProduct(2, "Sample product B", "BrandZ", 35.0, false, "Personal hygiene")));
     }
 
     private void onAdd() {
@@ -108,24 +478,18 @@ public class ShopController {
                 showValidationErrors("Cannot add product", validation);
                 return;
             }
-            
-            if (dao != null) {
-                dao.create(p);
-                table.setProducts(dao.findAll());
-            } else {
-                // give it a pseudo id and append
-                p.setId((int) (Math.random() * 9000) + 100);
-                memory.add(p);
-                table.setProducts(new ArrayList<>(memory));
+            if (ids.contains(p.getId())) {
+                showDuplicateId(p.getId());
+                return;
             }
+            
+            dao.create(p);
             form.clear();
             JOptionPane.showMessageDialog(null, "Product added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         } catch (SQLException ex) {
             if (ex.getMessage() != null && ex.getMessage().contains("Duplicate entry")) {
-                JOptionPane.showMessageDialog(null, 
-                    String.format("Product with ID %d already exists.\nPlease use a different ID.", form.toProduct().getId()), 
-                    "Duplicate Product", 
-                    JOptionPane.WARNING_MESSAGE);
+                // added by another terminal since the ID index was loaded
+                showDuplicateId(form.toProduct().getId());
             } else {
                 showDatabaseError("Failed to add product", ex);
             }
@@ -149,18 +513,12 @@ public class ShopController {
                 return;
             }
             
-            if (dao != null) {
-                boolean ok = dao.update(edited);
-                if (!ok) {
-                    JOptionPane.showMessageDialog(null, "Update reported no rows changed (maybe ID not found)", "Warning", JOptionPane.WARNING_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(null, "Product updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                }
-                table.setProducts(dao.findAll());
+            boolean ok = dao.update(edited);
+            if (!ok) {
+                // gone from the database (deleted elsewhere); nothing was published for it
+                if (catalog.remove(edited.getId())) notifyDashboard();
+                JOptionPane.showMessageDialog(null, "Update reported no rows changed (maybe ID not found)", "Warning", JOptionPane.WARNING_MESSAGE);
             } else {
-                memory.removeIf(p -> p.getId() == edited.getId());
-                memory.add(edited);
-                table.setProducts(new ArrayList<>(memory));
                 JOptionPane.showMessageDialog(null, "Product updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             }
             form.clear();
@@ -176,17 +534,11 @@ public class ShopController {
         if (sel == null) { JOptionPane.showMessageDialog(null, "Select a row to delete"); return; }
         if (JOptionPane.showConfirmDialog(null, "Delete selected product?", "Confirm", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
             try {
-                if (dao != null) {
-                    boolean ok = dao.deleteById(sel.getId());
-                    if (!ok) {
-                        JOptionPane.showMessageDialog(null, "Delete reported no rows changed (maybe ID not found)", "Warning", JOptionPane.WARNING_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(null, "Product deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    }
-                    table.setProducts(dao.findAll());
+                boolean ok = dao.deleteById(sel.getId());
+                if (!ok) {
+                    if (catalog.remove(sel.getId())) notifyDashboard();
+                    JOptionPane.showMessageDialog(null, "Delete reported no rows changed (maybe ID not found)", "Warning", JOptionPane.WARNING_MESSAGE);
                 } else {
-                    memory.removeIf(p -> p.getId() == sel.getId());
-                    table.setProducts(new ArrayList<>(memory));
                     JOptionPane.showMessageDialog(null, "Product deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 }
             } catch (SQLException ex) {
@@ -199,15 +551,11 @@ public class ShopController {
         Product sel = table.getSelected();
         if (sel == null) { JOptionPane.showMessageDialog(null, "Select a row to consult"); return; }
         try {
-            if (dao != null) {
-                Optional<Product> maybe = dao.findById(sel.getId());
-                maybe.ifPresentOrElse(
-                    p -> form.fromProduct(p),
-                    () -> JOptionPane.showMessageDialog(null, "Product not found in DB", "Not Found", JOptionPane.WARNING_MESSAGE)
-                );
-            } else {
-                form.fromProduct(sel);
-            }
+            Optional<Product> maybe = dao.findById(sel.getId());
+            maybe.ifPresentOrElse(
+                p -> form.fromProduct(p),
+                () -> JOptionPane.showMessageDialog(null, "Product not found in DB", "Not Found", JOptionPane.WARNING_MESSAGE)
+            );
         } catch (SQLException ex) {
             showDatabaseError("Failed to consult product", ex);
         }
@@ -215,29 +563,54 @@ public class ShopController {
 
     private void onSearch() {
         String q = search.getQuery().trim();
-        if (q.isBlank()) { loadInitialData(); return; }
+        if (q.isBlank()) { table.setCatalog(catalog); return; }
 
         String searchType = search.getSearchType();
         String lowerQuery = q.toLowerCase();
 
+        int[] rows;
         try {
-            if (dao != null) {
-                // For database mode, get all and filter (since DAO only has searchByDescription)
-                List<Product> allProducts = dao.findAll();
-                List<Product> filtered = allProducts.stream()
-                        .filter(pr -> matchesSearchCriteria(pr, lowerQuery, searchType))
-                        .toList();
-                table.setProducts(filtered);
-            } else {
-                // For demo mode, implement multi-criteria search
-                List<Product> filtered = memory.stream()
-                        .filter(pr -> matchesSearchCriteria(pr, lowerQuery, searchType))
-                        .toList();
-                table.setProducts(filtered);
-            }
-        } catch (SQLException ex) {
-            showDatabaseError("Failed to search products", ex);
+            rows = switch (searchType) {
+                // range modes run as column kernels over the price/date arrays
+                case "Price range" -> {
+                    String[] r = splitRange(q);
+                    yield catalog.rowsWithPriceBetween(
+                            r[0].isEmpty() ? Double.NEGATIVE_INFINITY : Double.parseDouble(r[0]),
+                            r[1].isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(r[1]));
+                }
+                case "Made between" -> {
+                    String[] r = splitRange(q);
+                    yield catalog.rowsMadeBetween(parseDay(r[0], Integer.MIN_VALUE), parseDay(r[1], Integer.MAX_VALUE));
+                }
+                case "Expires between" -> {
+                    String[] r = splitRange(q);
+                    yield catalog.rowsExpiringBetween(parseDay(r[0], Integer.MIN_VALUE), parseDay(r[1], Integer.MAX_VALUE));
+                }
+                // scan the loaded catalog through a flyweight view (Refresh reloads it from the DAO)
+                default -> catalog.filter(pr -> matchesSearchCriteria(pr, lowerQuery, searchType));
+            };
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(null,
+                    "Use a range like 10-25 or 01/01/2025-31/03/2025 (either side may be empty).",
+                    "Invalid range", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        table.setCatalog(catalog, rows);
+    }
+
+    /** Splits "from-to" into two trimmed bounds; a missing side is an empty string. */
+    private static String[] splitRange(String query) {
+        int dash = query.indexOf('-');
+        if (dash < 0) return new String[]{query.trim(), query.trim()};
+        return new String[]{query.substring(0, dash).trim(), query.substring(dash + 1).trim()};
+    }
+
+    /** Epoch day of a dd/MM/yyyy date, or the fallback when blank. */
+    private static int parseDay(String value, int fallback) {
+        if (value.isEmpty()) return fallback;
+        java.util.Date date = CsvUtils.parseDate(value);
+        if (date == null) throw new IllegalArgumentException("Bad date: " + value);
+        return (int) DateUtils.toEpochDay(date);
     }
 
     /**
@@ -333,6 +706,13 @@ public class ShopController {
         JOptionPane.showMessageDialog(null, sb.toString(), "Validation Error", JOptionPane.ERROR_MESSAGE);
     }
 
+    private void showDuplicateId(int id) {
+        JOptionPane.showMessageDialog(null, 
+            String.format("Product with ID %d already exists.\nPlease use a different ID.", id), 
+            "Duplicate Product", 
+            JOptionPane.WARNING_MESSAGE);
+    }
+
     /**
      * Shows database-related errors with helpful context.
      */
@@ -373,7 +753,7 @@ public class ShopController {
      */
     private void onExport() {
         try {
-            List<Product> products = dao != null ? dao.findAll() : new ArrayList<>(memory);
+            List<Product> products = dao.findAll();
             
             JFileChooser fileChooser = new JFileChooser();
             fileChooser.setDialogTitle("Export Products to CSV");
@@ -400,14 +780,28 @@ public class ShopController {
 
     /**
      * Imports products from a CSV file.
+     * The user picks the import engine (row-by-row DAO inserts, bulk load, resumable or delta);
+     * the SQL-level engines are only offered with a database.
      */
     private void onImport() {
-        int confirm = JOptionPane.showConfirmDialog(null,
-                "Import will add products from CSV file.\nContinue?",
+        List<ImportEngine> engines = new ArrayList<>();
+        engines.add(new RowByRowImportEngine(dao, ids));
+        if (db != null) engines.add(new BulkLoadImportEngine(db));
+        if (db != null) engines.add(new CheckpointedImportEngine(db));
+        engines.add(new DeltaImportEngine(dao, false));
+        engines.add(new DeltaImportEngine(dao, true));
+
+        Object[] options = engines.stream().map(ImportEngine::getName).toArray();
+        int choice = JOptionPane.showOptionDialog(null,
+                "Import will add products from CSV file.\nChoose the import engine:",
                 "Confirm Import",
-                JOptionPane.YES_NO_OPTION);
-        
-        if (confirm != JOptionPane.YES_OPTION) return;
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                options,
+                options[0]);
+        if (choice < 0) return;
+        ImportEngine engine = engines.get(choice);
         
         try {
             JFileChooser fileChooser = new JFileChooser();
@@ -415,54 +809,73 @@ public class ShopController {
             fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files (*.csv)", "csv"));
             
             int result = fileChooser.showOpenDialog(null);
-            if (result == JFileChooser.APPROVE_OPTION) {
-                File file = fileChooser.getSelectedFile();
-                List<Product> imported = CsvUtils.importFromCsv(file);
-                
-                int successCount = 0;
-                int errorCount = 0;
-                
-                for (Product p : imported) {
-                    try {
-                        if (dao != null) {
-                            dao.create(p);
-                        } else {
-                            memory.add(p);
-                        }
-                        successCount++;
-                    } catch (SQLException e) {
-                        errorCount++;
-                        System.err.println(String.format("Failed to import product ID %d: %s", p.getId(), e.getMessage()));
+            if (result == JFileChooser.APPROVE_OPTION) runImport(engine, fileChooser.getSelectedFile());
+        } catch (HeadlessException ex) {
+            showError("Import failed", ex);
+        }
+    }
+
+    /**
+     * Runs the import on a worker (a checkpointed or bulk load can take hours) and catches the
+     * catalog up when it is done. One import at a time.
+     */
+    private void runImport(ImportEngine engine, File file) {
+        if (importing) {
+            JOptionPane.showMessageDialog(null, "An import is already running.", "Import", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        importing = true;
+        new SwingWorker<ImportReport, Void>() {
+            @Override
+            protected ImportReport doInBackground() throws IOException, SQLException {
+                return engine.importFile(file);
+            }
+
+            @Override
+            protected void done() {
+                importing = false;
+                try {
+                    ImportReport report = get();
+                    // import engines write past the publisher; announce what they changed
+                    ProductChanges imported = refresh();
+                    if (broadcaster != null && imported != null && !imported.isFullReload()) {
+                        for (Product p : imported.getUpserts()) broadcaster.publish(p.getId());
+                        for (int id : imported.getDeletedIds()) broadcaster.publish(id);
                     }
+                    JOptionPane.showMessageDialog(null,
+                        String.format("Import completed!%n%s", report.toSummary(10)),
+                        "Import Complete",
+                        report.getRejectedCount() == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // rows committed before the failure (e.g. finished checkpoint batches) are shown anyway
+                    refresh();
+                    if (e.getCause() instanceof SQLException sql) showDatabaseError("Import failed", sql);
+                    else showError("Import failed", e.getCause() instanceof Exception cause ? cause : e);
                 }
-                
-                loadInitialData();
-                
-                JOptionPane.showMessageDialog(null,
-                    String.format("""
-                    Import completed!
-                    Successfully imported: %d
-                    Failed: %d""", successCount, errorCount),
-                    "Import Complete",
-                    JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (HeadlessException | IOException ex) {
-            showError("Import failed", ex);
-        }
+        }.execute();
     }
 
     /**
-     * Shows statistics dialog with product analytics.
+     * Shows the live statistics dashboard (non-modal; a second click brings the open one to front).
      */
     private void onStats() {
         try {
-            List<Product> products = dao != null ? dao.findAll() : new ArrayList<>(memory);
-            
+            if (dashboard != null && dashboard.isDisplayable()) {
+                dashboard.toFront();
+                return;
+            }
             JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(table);
-            StatisticsDialog dialog = new StatisticsDialog(parentFrame, products);
-            dialog.setVisible(true);
-        } catch (SQLException ex) {
+            dashboard = new StatisticsDialog(parentFrame, catalog);
+            dashboard.setVisible(true);
+        } catch (HeadlessException ex) {
             showError("Failed to load statistics", ex);
         }
     }
+
+    private void notifyDashboard() {
+        if (dashboard != null && dashboard.isDisplayable()) dashboard.catalogChanged();
+    }
 }
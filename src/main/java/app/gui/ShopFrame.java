@@ -2,16 +2,27 @@ package app.gui;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.io.FileInputStream;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -20,12 +31,40 @@ import javax.swing.SwingUtilities;
 import app.database.DatabaseManager;
 import app.database.dao.ProductDao;
 import app.database.dao.ProductDaoImpl;
+import app.database.journal.FailoverProductDao;
+import app.database.journal.JournalReplayer;
+import app.database.journal.OfflineJournal;
+import app.gui.components.IconCache;
+import app.gui.components.PaintMetrics;
+import app.model.CatalogSnapshot;
+import app.model.ColumnarProductStore;
+import app.sync.ChangeBroadcaster;
 
 /**
  * UI composition only. Business logic is delegated to ShopController.
+ *
+ * Start-up is staged so the window appears before anything slow happens: while the EDT builds the
+ * frame (shown with a "Loading catalog" overlay), a background thread reads db.properties, opens
+ * and warms the connection pool, replays changes left in the offline journal by an earlier outage,
+ * streams the catalog into a ColumnarProductStore (and joins the change-notification group when
+ * sync.multicast is set). The controller is attached when both are done. Times to window and to interactive are printed on start-up.
+ *
+ * When a CatalogSnapshot from an earlier session is found, its catalog is shown as soon as the window
+ * is up and replaces the full read: once connected, the controller only fetches what changed since
+ * the snapshot was saved. The snapshot is saved again periodically and when the window closes.
+ * When the database cannot be reached but a snapshot and the offline journal are available, the
+ * terminal starts offline on the snapshot: writes are journaled and replayed once the poll finds
+ * the database back. Without them it falls back to demo mode.
  */
 public class ShopFrame extends JFrame {
     private static final Dimension MIN_DIMENSION = new Dimension(1250, 520);
+    // JVM start, so the reported times include class loading and toolkit start-up
+    private static final long JVM_START_MS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final String APP_ICON = "/static/icons/app.png";
+    // decoded in parallel while Swing starts, so the buttons find them ready
+    private static final String[] STARTUP_ICONS = {
+            APP_ICON, "/static/icons/add.png", "/static/icons/update.png", "/static/icons/delete.png",
+            "/static/icons/consult.png", "/static/icons/search.png", "/static/icons/refresh.png" };
 
     private final ProductFormPanel formPanel = new ProductFormPanel();
     private final ProductTablePanel tablePanel = new ProductTablePanel();
@@ -33,9 +72,7 @@ public class ShopFrame extends JFrame {
     private final RightButtonPanel rightButtonPanel = new RightButtonPanel();
     private final UtilityButtonPanel utilityButtonPanel = new UtilityButtonPanel();
 
-    // DB / DAO references passed to controller (may be null)
-    private DatabaseManager db;
-    private ProductDao dao;
+    private final LoadingPane loadingPane = new LoadingPane();
 
     public ShopFrame() {
         super("Shop Project - Product Catalog");
@@ -43,24 +80,10 @@ public class ShopFrame extends JFrame {
         setMinimumSize(MIN_DIMENSION);
         setSize(MIN_DIMENSION);
         setLocationRelativeTo(null);
-        try {
-            setIconImage(ImageIO.read(getClass().getResource("/static/icons/app.png")));
-        } catch (IOException | IllegalArgumentException e) {
-            System.err.println("Warning: could not load icon image: " + e.getMessage());
-        }
-
-        // attempt DB init; swallow errors and continue with dao == null (controller will fallback)
-        try {
-            Properties props = loadDbProperties();
-            db = DatabaseManager.fromProperties(props);
-            dao = new ProductDaoImpl(db);
-        } catch (Exception ex) {
-            System.err.println("DB init failed: " + ex.getMessage());
-            db = null;
-            dao = null;
-            // Show user-friendly warning
-            showDatabaseConnectionWarning(ex);
-        }
+        IconCache.image(APP_ICON).thenAccept(img -> SwingUtilities.invokeLater(() -> {
+            if (img != null) setIconImage(img);
+            else System.err.println("Warning: could not load icon image: " + APP_ICON);
+        }));
 
         // layout
         JPanel main = new JPanel(new GridBagLayout());
@@ -90,31 +113,143 @@ public class ShopFrame extends JFrame {
 
         setContentPane(main);
 
-        // delegate behavior to controller
-        new ShopController(formPanel, tablePanel, searchPanel, rightButtonPanel, utilityButtonPanel, db, dao);
+        // skeleton: the panels are visible but covered until the controller is attached
+        setGlassPane(loadingPane);
+        loadingPane.setVisible(true);
+    }
+
+    /**
+     * Outcome of the background start-up stage; db/dao are null when the database is unavailable
+     * (demo mode). {@code offline} is the connection failure when starting offline on the snapshot.
+     */
+    private record Backend(DatabaseManager db, ProductDao dao, ColumnarProductStore catalog, long catalogVersion,
+                           CatalogSnapshot snapshot, boolean fromSnapshot, OfflineJournal journal, JournalReplayer.Result replayed, ChangeBroadcaster broadcaster,
+                           Exception failure, SQLException offline, long connectMillis, long loadMillis) {}
+
+    /**
+     * Background stage: config, pool warm-up and catalog preload. Never throws; an unreachable
+     * database with a snapshot and journal at hand gives an offline start ({@link Backend#offline()}),
+     * any other failure is reported in {@link Backend#failure()} and the controller falls back to demo mode.
+     *
+     * @param saved completed, before connecting, with the catalog of the snapshot (null if none)
+     */
+    private static Backend initBackend(CompletableFuture<CatalogSnapshot.Loaded> saved) {
+        long t0 = System.nanoTime();
+        Properties props = null;
+        CatalogSnapshot snapshot = null;
+        CatalogSnapshot.Loaded cached = null;
+        long snapshotMillis = 0;
+        DatabaseManager db = null;
+        ProductDao dao = null;
+        OfflineJournal journal = null;
+        try {
+            props = DatabaseManager.loadDefaultProperties();
+            snapshot = CatalogSnapshot.fromProperties(props);
+            cached = snapshot.load();
+            snapshotMillis = elapsedMillis(t0);
+            // from here on the cached store belongs to the EDT
+            saved.complete(cached);
+            db = DatabaseManager.fromProperties(props);
+            dao = new ProductDaoImpl(db);
+            try {
+                journal = OfflineJournal.fromProperties(props);
+            } catch (IOException ex) {
+                System.err.println("Offline journal unavailable: " + ex.getMessage());
+            }
+            db.warmUp(2);
+        } catch (Exception ex) {
+            saved.complete(null);
+            if (ex instanceof SQLException sql && FailoverProductDao.isConnectionFailure(sql) && cached != null && journal != null) {
+                // work on the saved catalog plus what is still journaled; the poll reconnects and replays
+                System.err.println("Database unreachable, starting offline on the saved catalog: " + ex.getMessage());
+                journal.applyTo(cached.catalog());
+                return new Backend(db, dao, cached.catalog(), cached.version(), snapshot, true, journal, null,
+                        broadcaster(props), null, sql, elapsedMillis(t0), snapshotMillis);
+            }
+            System.err.println("DB init failed: " + ex.getMessage());
+            if (journal != null) journal.close(); // demo mode does not journal
+            return new Backend(null, null, null, 0, null, false, null, null, null, ex, null, elapsedMillis(t0), 0);
+        }
+        JournalReplayer.Result replayed = null;
+        try {
+            // changes journaled during an outage in an earlier session go in before the catalog is read
+            if (journal != null && !journal.isEmpty()) replayed = new JournalReplayer(dao).replay(journal);
+        } catch (IOException | SQLException ex) {
+            System.err.println("Offline journal not replayed: " + ex.getMessage());
+        }
+        long connected = System.nanoTime();
+        ColumnarProductStore catalog = null;
+        long version = 0;
+        long loadMillis;
+        if (cached != null) {
+            // the controller catches up from the snapshot's version (syncNow)
+            catalog = cached.catalog();
+            version = cached.version();
+            loadMillis = snapshotMillis;
+        } else {
+            try {
+                catalog = new ColumnarProductStore();
+                version = dao.currentVersion();
+                dao.scanAll(catalog::put);
+            } catch (SQLException ex) {
+                // the controller loads again on the EDT and reports/falls back from there
+                catalog = null;
+            }
+            loadMillis = elapsedMillis(connected);
+        }
+        return new Backend(db, dao, catalog, version, snapshot, cached != null, journal, replayed, broadcaster(props), null,
+                null, (connected - t0) / 1_000_000, loadMillis);
     }
 
-    private Properties loadDbProperties() throws Exception {
-        Properties p = new Properties();
-        // try classpath
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream("config/db.properties")) {
-            if (is != null) { p.load(is); return p; }
+    private static ChangeBroadcaster broadcaster(Properties props) {
+        try {
+            return ChangeBroadcaster.fromProperties(props);
+        } catch (IOException | RuntimeException ex) {
+            // optional: without it other terminals' writes arrive with the slower poll
+            System.err.println("Change notifications disabled: " + ex.getMessage());
+            return null;
         }
-        // try project root
-        try (InputStream is = new FileInputStream("config/db.properties")) {
-            p.load(is); return p;
-        } catch (Exception ignored) {}
-        // try env vars
-        String url = System.getenv("SHOP_JDBC_URL");
-        String user = System.getenv("SHOP_JDBC_USER");
-        String pass = System.getenv("SHOP_JDBC_PASS");
-        if (url != null) {
-            p.setProperty("jdbc.url", url);
-            if (user != null) p.setProperty("jdbc.username", user);
-            if (pass != null) p.setProperty("jdbc.password", pass);
-            return p;
+    }
+
+    /** Final stage on the EDT: hook up the controller and lift the loading overlay. */
+    private void attach(Backend backend, long windowMillis) {
+        if (backend.failure() != null) {
+            // Show user-friendly warning
+            showDatabaseConnectionWarning(backend.failure());
+        }
+        // delegate behavior to controller
+        ShopController controller = new ShopController(formPanel, tablePanel, searchPanel, rightButtonPanel,
+                utilityButtonPanel, backend.db(), backend.dao(), backend.catalog(), backend.catalogVersion());
+        if (backend.journal() != null) controller.enableOfflineJournal(backend.journal());
+        if (backend.offline() != null) controller.startOffline(backend.offline());
+        if (backend.broadcaster() != null) controller.enableChangeNotifications(backend.broadcaster());
+        if (backend.snapshot() != null) {
+            controller.enableSnapshots(backend.snapshot());
+            addWindowListener(new WindowAdapter() {
+                @Override public void windowClosing(WindowEvent e) { controller.saveSnapshot(); }
+            });
+        }
+        if (backend.fromSnapshot()) controller.syncNow();
+        loadingPane.setVisible(false);
+        if (backend.replayed() != null && backend.replayed().hasConflicts()) {
+            JOptionPane.showMessageDialog(this, backend.replayed().toSummary(), "Offline Changes", JOptionPane.WARNING_MESSAGE);
         }
-        throw new IllegalStateException("Could not find DB config: place config/db.properties on classpath or project root");
+        System.out.printf("Startup: window after %d ms, interactive after %d ms (database %d ms, catalog %s)%n",
+                windowMillis, System.currentTimeMillis() - JVM_START_MS, backend.connectMillis(),
+                backend.catalog() == null ? "not preloaded" : backend.catalog().size() + " rows in " + backend.loadMillis() + " ms"
+                        + (backend.fromSnapshot() ? " from snapshot" : ""));
+    }
+
+    /** Shows the snapshot's catalog under the overlay while the database is still connecting. */
+    private void showSaved(CatalogSnapshot.Loaded saved) {
+        if (!loadingPane.isVisible()) return; // already attached
+        tablePanel.setCatalog(saved.catalog());
+        loadingPane.setCached("Connecting… showing catalog saved "
+                + DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT).format(new Date(saved.savedAt())));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
 
     /**
@@ -159,9 +294,55 @@ public class ShopFrame extends JFrame {
     }
 
     public static void showDemo() {
+        // the database stage starts before Swing does and runs while the frame is being built
+        CompletableFuture<Backend> backend = new CompletableFuture<>();
+        CompletableFuture<CatalogSnapshot.Loaded> saved = new CompletableFuture<>();
+        Thread init = new Thread(() -> backend.complete(initBackend(saved)), "startup-backend");
+        init.setDaemon(true);
+        init.start();
+        IconCache.preload(STARTUP_ICONS);
+
         SwingUtilities.invokeLater(() -> {
+            PaintMetrics.install();
             ShopFrame f = new ShopFrame();
             f.setVisible(true);
+            long windowMillis = System.currentTimeMillis() - JVM_START_MS;
+            // completes before backend, so the snapshot is shown before the controller is attached
+            saved.thenAccept(s -> {
+                if (s != null) SwingUtilities.invokeLater(() -> f.showSaved(s));
+            });
+            backend.thenAccept(b -> SwingUtilities.invokeLater(() -> f.attach(b, windowMillis)));
         });
     }
+
+    /** Translucent glass pane with a loading message that swallows mouse input. */
+    private static final class LoadingPane extends JComponent {
+        private String text = "Loading catalog…";
+        private int shade = 150;
+
+        LoadingPane() {
+            addMouseListener(new MouseAdapter() {});
+            addMouseMotionListener(new MouseAdapter() {});
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(new Color(0x07, 0x18, 0x33, shade));
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            g2.setColor(new Color(0xE9, 0xF6, 0xFF));
+            FontMetrics fm = g2.getFontMetrics();
+            g2.drawString(text, (getWidth() - fm.stringWidth(text)) / 2, getHeight() / 2);
+            g2.dispose();
+        }
+
+        /** Lighter overlay with a status line, for a cached catalog shown underneath. */
+        void setCached(String text) {
+            this.text = text;
+            shade = 60;
+            repaint();
+        }
+    }
 }
\ No newline at end of file
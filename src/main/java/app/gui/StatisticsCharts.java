@@ -0,0 +1,128 @@
+package app.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Renders the dashboard charts into images.
+ *
+ * Only draws into BufferedImages (no Swing components), so it is safe to call from a background
+ * thread. Each chart remembers the data and size of its last image and returns that image again
+ * when nothing changed, so an unchanged chart costs neither rendering nor a repaint.
+ */
+final class StatisticsCharts {
+    private static final Color TEXT = new Color(0x07, 0x2B, 0x4A);
+    private static final Color GRID = new Color(0x07, 0x2B, 0x4A, 40);
+    private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 12);
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+
+    /** One chart and its cached image; not thread-safe, use it from one thread at a time. */
+    static final class Chart {
+        private final String title;
+        private final boolean horizontal;
+        private Object cachedKey;
+        private BufferedImage cached;
+
+        /** Vertical columns (histogram, timeline) or horizontal bars (top-N lists). */
+        Chart(String title, boolean horizontal) {
+            this.title = title;
+            this.horizontal = horizontal;
+        }
+
+        /** Image for the data; the previous image when data and size are unchanged. */
+        BufferedImage render(String[] labels, int[] values, Color[] colors, int width, int height) {
+            Object key = Arrays.asList(Arrays.asList(labels), Arrays.toString(values), Arrays.asList(colors), width, height);
+            if (cached == null || !Objects.equals(key, cachedKey)) {
+                cached = horizontal
+                        ? bars(title, labels, values, colors, width, height)
+                        : columns(title, labels, values, colors, width, height);
+                cachedKey = key;
+            }
+            return cached;
+        }
+    }
+
+    private StatisticsCharts() {}
+
+    private static BufferedImage columns(String title, String[] labels, int[] values, Color[] colors, int width, int height) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = start(img, title);
+        FontMetrics fm = g.getFontMetrics(LABEL_FONT);
+        int top = 22 + fm.getHeight();
+        int bottom = height - fm.getHeight() - 4;
+        int max = Math.max(1, Arrays.stream(values).max().orElse(0));
+        int n = Math.max(1, values.length);
+        double slot = (double) width / n;
+
+        g.setColor(GRID);
+        g.drawLine(0, bottom, width, bottom);
+        for (int i = 0; i < values.length; i++) {
+            int x = (int) Math.round(i * slot);
+            int w = Math.max(1, (int) Math.round(slot) - 3);
+            int h = (int) Math.round((bottom - top) * (double) values[i] / max);
+            g.setColor(colors[i % colors.length]);
+            g.fillRoundRect(x + 1, bottom - h, w, h, 4, 4);
+            g.setColor(TEXT);
+            g.setFont(LABEL_FONT);
+            if (values[i] > 0) centre(g, String.valueOf(values[i]), x, w, bottom - h - 3);
+            centre(g, labels[i], x, w, height - 4);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static BufferedImage bars(String title, String[] labels, int[] values, Color[] colors, int width, int height) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = start(img, title);
+        g.setFont(LABEL_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int top = 24;
+        int rowHeight = values.length == 0 ? 0 : Math.min(22, (height - top) / values.length);
+        int labelWidth = width / 3;
+        int max = Math.max(1, Arrays.stream(values).max().orElse(0));
+
+        for (int i = 0; i < values.length; i++) {
+            int y = top + i * rowHeight;
+            g.setColor(TEXT);
+            g.drawString(fit(labels[i], fm, labelWidth - 4), 0, y + rowHeight - 6);
+            String count = String.valueOf(values[i]);
+            int barMax = width - labelWidth - fm.stringWidth(count) - 6;
+            int w = Math.max(1, (int) Math.round(barMax * (double) values[i] / max));
+            g.setColor(colors[i % colors.length]);
+            g.fillRoundRect(labelWidth, y + 3, w, rowHeight - 6, 4, 4);
+            g.setColor(TEXT);
+            g.drawString(count, labelWidth + w + 4, y + rowHeight - 6);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static Graphics2D start(BufferedImage img, String title) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(TITLE_FONT);
+        g.setColor(TEXT);
+        g.drawString(title, 0, g.getFontMetrics().getAscent());
+        return g;
+    }
+
+    private static void centre(Graphics2D g, String text, int x, int width, int baseline) {
+        FontMetrics fm = g.getFontMetrics();
+        String s = fit(text, fm, width + 2);
+        g.drawString(s, x + (width - fm.stringWidth(s)) / 2, baseline);
+    }
+
+    private static String fit(String text, FontMetrics fm, int width) {
+        if (fm.stringWidth(text) <= width) return text;
+        String s = text;
+        while (s.length() > 1 && fm.stringWidth(s + "…") > width) s = s.substring(0, s.length() - 1);
+        return s + "…";
+    }
+}
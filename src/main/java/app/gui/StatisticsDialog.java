@@ -5,35 +5,98 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.GridLayout;
-import java.util.HashMap;
+import java.awt.image.BufferedImage;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
+import javax.swing.ImageIcon;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
 
+import app.model.CatalogAggregates;
+import app.model.ColumnarProductStore;
 import app.model.Product;
+import app.util.CatalogStatistics;
 
 /**
- * Dialog showing product statistics and analytics.
+ * Non-modal dashboard showing product statistics and analytics, kept up to date while it is open.
+ *
+ * Every REFRESH_MS (and on {@link #catalogChanged()}) it checks the catalog's running aggregates:
+ * when nothing changed (and the date did not roll over) nothing happens. Otherwise the headline cards
+ * are updated straight from the aggregates, and a copy of the catalog is handed to a SwingWorker that
+ * runs the full CatalogStatistics pass and renders the charts into images off the EDT. Only cards
+ * whose text changed and charts whose image changed are repainted. Nothing here queries the database.
  */
 public class StatisticsDialog extends JDialog {
-    
+    private static final int REFRESH_MS = 2000;
+    private static final int CHART_WIDTH = 240;
+    private static final int CHART_HEIGHT = 150;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final Color BAR = new Color(0x1F, 0x80, 0xFF);
+    private static final Color[] EXPIRY_COLORS = {
+            new Color(0xD3, 0x2F, 0x2F), new Color(0xF5, 0x7C, 0x00), new Color(0xFF, 0xB3, 0x00),
+            new Color(0x43, 0xA0, 0x47), new Color(0x00, 0x96, 0x88), new Color(0x90, 0xA4, 0xAE)};
+
+    private final ColumnarProductStore catalog;
+    private final Timer timer;
+
+    private final JLabel totalCard;
+    private final JLabel activeCard;
+    private final JLabel inactiveCard;
+    private final JLabel totalValueCard;
+    private final JLabel averageCard;
+    private final JLabel maxCard;
+    private final JLabel minCard;
+    private final JLabel categoriesCard;
+    private final JLabel medianCard;
+    private final JLabel tailCard;
+    private final JLabel expiredCard;
+    private final JLabel expiringCard;
+    private final JLabel histogramChart = chartLabel();
+    private final JLabel categoryChart = chartLabel();
+    private final JLabel expiryChart = chartLabel();
+    private final JLabel status = new JLabel(" ");
+
+    // used only by the (single) worker thread in flight
+    private final StatisticsCharts.Chart histogram = new StatisticsCharts.Chart("Price Distribution", false);
+    private final StatisticsCharts.Chart categories = new StatisticsCharts.Chart("Top Categories", true);
+    private final StatisticsCharts.Chart expiry = new StatisticsCharts.Chart("Expiry Timeline", false);
+
+    private long shownVersion = -1;
+    private LocalDate shownDay;
+    private SwingWorker<Rendered, Void> running;
+
     public StatisticsDialog(JFrame parent, List<Product> products) {
-        super(parent, "Product Statistics", true);
-        setSize(650, 550);
+        this(parent, ColumnarProductStore.of(products));
+    }
+
+    /**
+     * Dashboard over the given catalog, which must only be modified on the EDT.
+     */
+    public StatisticsDialog(JFrame parent, ColumnarProductStore catalog) {
+        super(parent, "Product Statistics", ModalityType.MODELESS);
+        this.catalog = catalog;
+        setSize(820, 640);
         setLocationRelativeTo(parent);
-        
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
         // Main panel with app's dark background
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         mainPanel.setBackground(new Color(0x07, 0x18, 0x33)); // Match app background
-        
+
         // Title panel with gradient background
         RoundedPanel titlePanel = new RoundedPanel(12);
         titlePanel.setLayout(new BorderLayout());
@@ -43,117 +106,229 @@ public class StatisticsDialog extends JDialog {
         titleLabel.setForeground(new Color(0x07, 0x2B, 0x4A));
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         titlePanel.add(titleLabel, BorderLayout.CENTER);
+        status.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        status.setForeground(new Color(0x07, 0x2B, 0x4A));
+        status.setHorizontalAlignment(SwingConstants.CENTER);
+        titlePanel.add(status, BorderLayout.SOUTH);
         mainPanel.add(titlePanel, BorderLayout.NORTH);
-        
+
         // Statistics panel with rounded style
         RoundedPanel statsWrapper = new RoundedPanel(12);
         statsWrapper.setLayout(new BorderLayout());
-        
+
         JPanel statsPanel = new JPanel(new GridLayout(0, 2, 12, 12));
         statsPanel.setOpaque(false);
         statsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        // Calculate statistics
-        int totalProducts = products.size();
-        int activeProducts = (int) products.stream().filter(Product::isActive).count();
-        int inactiveProducts = totalProducts - activeProducts;
-        
-        double totalValue = products.stream().mapToDouble(Product::getPrice).sum();
-        double avgPrice = totalProducts > 0 ? totalValue / totalProducts : 0;
-        double maxPrice = products.stream().mapToDouble(Product::getPrice).max().orElse(0);
-        double minPrice = products.stream().mapToDouble(Product::getPrice).min().orElse(0);
-        
-        // Category breakdown
-        Map<String, Integer> categoryCount = new HashMap<>();
-        Map<String, Integer> brandCount = new HashMap<>();
-        
-        for (Product p : products) {
-            String cat = p.getCategory() != null ? p.getCategory() : "Unknown";
-            categoryCount.put(cat, categoryCount.getOrDefault(cat, 0) + 1);
-            
-            String brand = p.getBrand() != null ? p.getBrand() : "Unknown";
-            brandCount.put(brand, brandCount.getOrDefault(brand, 0) + 1);
-        }
-        
-        // Add stat cards with app's color scheme
-        statsPanel.add(createStatCard("Total Products", String.valueOf(totalProducts), new Color(0x1F, 0x80, 0xFF)));
-        statsPanel.add(createStatCard("Active Products", String.valueOf(activeProducts), new Color(0x43, 0xA0, 0x47)));
-        statsPanel.add(createStatCard("Inactive Products", String.valueOf(inactiveProducts), new Color(0xE5, 0x73, 0x73)));
-        statsPanel.add(createStatCard("Total Value", String.format("$%.2f", totalValue), new Color(0xFF, 0x93, 0x00)));
-        statsPanel.add(createStatCard("Average Price", String.format("$%.2f", avgPrice), new Color(0x9C, 0x27, 0xB0)));
-        statsPanel.add(createStatCard("Max Price", String.format("$%.2f", maxPrice), new Color(0x00, 0x96, 0x88)));
-        statsPanel.add(createStatCard("Min Price", String.format("$%.2f", minPrice), new Color(0x00, 0xBB, 0xD3)));
-        statsPanel.add(createStatCard("Categories", String.valueOf(categoryCount.size()), new Color(0x3F, 0x51, 0xB5)));
-        
+
+        // Add stat cards with app's color scheme; values are filled in by refresh()
+        totalCard = addStatCard(statsPanel, "Total Products", new Color(0x1F, 0x80, 0xFF));
+        activeCard = addStatCard(statsPanel, "Active Products", new Color(0x43, 0xA0, 0x47));
+        inactiveCard = addStatCard(statsPanel, "Inactive Products", new Color(0xE5, 0x73, 0x73));
+        totalValueCard = addStatCard(statsPanel, "Total Value", new Color(0xFF, 0x93, 0x00));
+        averageCard = addStatCard(statsPanel, "Average Price", new Color(0x9C, 0x27, 0xB0));
+        maxCard = addStatCard(statsPanel, "Max Price", new Color(0x00, 0x96, 0x88));
+        minCard = addStatCard(statsPanel, "Min Price", new Color(0x00, 0xBB, 0xD3));
+        categoriesCard = addStatCard(statsPanel, "Categories", new Color(0x3F, 0x51, 0xB5));
+        medianCard = addStatCard(statsPanel, "Median Price (p50)", new Color(0x79, 0x55, 0x48));
+        tailCard = addStatCard(statsPanel, "p90 / p99 Price", new Color(0x60, 0x7D, 0x8B));
+        expiredCard = addStatCard(statsPanel, "Expired", new Color(0xD3, 0x2F, 0x2F));
+        expiringCard = addStatCard(statsPanel, String.format("Expiring in %d days", CatalogStatistics.EXPIRY_WINDOWS[1]),
+                new Color(0xF5, 0x7C, 0x00));
+
         statsWrapper.add(statsPanel, BorderLayout.CENTER);
-        
+
         JScrollPane scrollPane = new JScrollPane(statsWrapper);
         scrollPane.setBorder(null);
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         mainPanel.add(scrollPane, BorderLayout.CENTER);
-        
-        // Details panel with rounded style
+
+        // Charts panel with rounded style
         RoundedPanel detailsWrapper = new RoundedPanel(12);
-        detailsWrapper.setLayout(new GridLayout(1, 2, 10, 10));
+        detailsWrapper.setLayout(new GridLayout(1, 3, 10, 10));
         detailsWrapper.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        // Category breakdown
-        StringBuilder catBreakdown = new StringBuilder("<html><b style='color:#072B4A;'>Top Categories:</b><br>");
-        categoryCount.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .limit(5)
-                .forEach(entry -> catBreakdown.append(String.format("<span style='color:#072B4A;'>• %s: <b>%d</b></span><br>", entry.getKey(), entry.getValue())));
-        catBreakdown.append("</html>");
-        
-        JLabel catLabel = new JLabel(catBreakdown.toString());
-        catLabel.setVerticalAlignment(SwingConstants.TOP);
-        catLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-        
-        // Brand breakdown
-        StringBuilder brandBreakdown = new StringBuilder("<html><b style='color:#072B4A;'>Top Brands:</b><br>");
-        brandCount.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .limit(5)
-                .forEach(entry -> brandBreakdown.append(String.format("<span style='color:#072B4A;'>• %s: <b>%d</b></span><br>", entry.getKey(), entry.getValue())));
-        brandBreakdown.append("</html>");
-        
-        JLabel brandLabel = new JLabel(brandBreakdown.toString());
-        brandLabel.setVerticalAlignment(SwingConstants.TOP);
-        brandLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-        
-        detailsWrapper.add(catLabel);
-        detailsWrapper.add(brandLabel);
-        
+        detailsWrapper.add(histogramChart);
+        detailsWrapper.add(categoryChart);
+        detailsWrapper.add(expiryChart);
         mainPanel.add(detailsWrapper, BorderLayout.SOUTH);
-        
+
         setContentPane(mainPanel);
+
+        timer = new Timer(REFRESH_MS, e -> refresh());
+        timer.start();
+        refresh();
+    }
+
+    /** Change notification from the owner of the catalog; refreshes now instead of at the next tick. */
+    public void catalogChanged() {
+        refresh();
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+        if (running != null) running.cancel(false);
+        super.dispose();
+    }
+
+    /** Snapshot of the catalog being rendered in the background. */
+    private record Rendered(CatalogStatistics stats, long version, BufferedImage histogram,
+                            BufferedImage categories, BufferedImage expiry) {}
+
+    private void refresh() {
+        long version = catalog.aggregates().getVersion();
+        LocalDate today = LocalDate.now();
+        if (version == shownVersion && today.equals(shownDay)) return;
+        // the headline cards come straight from the running aggregates
+        showAggregates(catalog.aggregates());
+        // one pass at a time; done() calls refresh() again if the catalog moved meanwhile
+        if (running != null) return;
+
+        ColumnarProductStore snapshot = catalog.copy();
+        shownVersion = version;
+        shownDay = today;
+        running = new SwingWorker<>() {
+            @Override
+            protected Rendered doInBackground() {
+                CatalogStatistics stats = CatalogStatistics.compute(snapshot, today);
+                return new Rendered(stats, version, renderHistogram(stats), renderCategories(stats), renderExpiry(stats));
+            }
+
+            @Override
+            protected void done() {
+                running = null;
+                if (isCancelled() || !isDisplayable()) return;
+                try {
+                    show(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    status.setText("Statistics failed: " + e.getCause());
+                }
+                refresh();
+            }
+        };
+        running.execute();
     }
-    
-    private JPanel createStatCard(String label, String value, Color color) {
+
+    private void showAggregates(CatalogAggregates live) {
+        update(totalCard, String.valueOf(live.getTotal()));
+        update(activeCard, String.valueOf(live.getActive()));
+        update(inactiveCard, String.valueOf(live.getInactive()));
+        update(totalValueCard, String.format("$%.2f", live.getTotalValue()));
+        update(averageCard, String.format("$%.2f", live.getAveragePrice()));
+        update(maxCard, String.format("$%.2f", live.getMaxPrice()));
+        update(minCard, String.format("$%.2f", live.getMinPrice()));
+        update(categoriesCard, String.valueOf(live.getCategoryCounts().size()));
+    }
+
+    private void show(Rendered r) {
+        CatalogStatistics stats = r.stats();
+        // the full pass doubles as a drift check of the running aggregates, if they still describe the same rows
+        CatalogAggregates live = catalog.aggregates();
+        if (live.getVersion() == r.version() && !stats.agreesWith(live) && catalog.rebuildAggregates()) {
+            System.err.println("Catalog aggregates drifted from the loaded rows; rebuilt them");
+            showAggregates(live);
+        }
+        update(medianCard, String.format("$%.2f", stats.getPriceQuantile(0.50)));
+        update(tailCard, String.format("$%.2f / $%.2f", stats.getPriceQuantile(0.90), stats.getPriceQuantile(0.99)));
+        update(expiredCard, String.valueOf(stats.getExpired()));
+        update(expiringCard, String.valueOf(stats.getExpiringWithin(1)));
+        update(histogramChart, r.histogram());
+        update(categoryChart, r.categories());
+        update(expiryChart, r.expiry());
+        status.setText("Updated " + LocalTime.now().format(TIME) + " — refreshes automatically");
+    }
+
+    private static void update(JLabel label, String text) {
+        if (!text.equals(label.getText())) label.setText(text);
+    }
+
+    private static void update(JLabel label, BufferedImage image) {
+        // charts hand back the same image when their data did not change
+        if (label.getIcon() instanceof ImageIcon icon && icon.getImage() == image) return;
+        label.setIcon(new ImageIcon(image));
+    }
+
+    // --- chart data (worker thread) ---
+
+    private BufferedImage renderHistogram(CatalogStatistics stats) {
+        int[] bins = stats.getPriceHistogram();
+        double[] bounds = CatalogStatistics.HISTOGRAM_BOUNDS;
+        String[] labels = new String[bins.length];
+        for (int bin = 0; bin < bins.length; bin++) {
+            labels[bin] = bin == bins.length - 1 ? String.format(">%.0f", bounds[bin - 1]) : String.format("%.0f", bounds[bin]);
+        }
+        return histogram.render(labels, bins, new Color[]{BAR}, CHART_WIDTH, CHART_HEIGHT);
+    }
+
+    private BufferedImage renderCategories(CatalogStatistics stats) {
+        Map<String, Integer> top = stats.getCategoryCounts();
+        int n = Math.min(5, top.size());
+        String[] labels = new String[n];
+        int[] values = new int[n];
+        int i = 0;
+        for (Map.Entry<String, Integer> e : top.entrySet()) {
+            if (i == n) break;
+            labels[i] = e.getKey();
+            values[i++] = e.getValue();
+        }
+        return categories.render(labels, values, new Color[]{new Color(0x3F, 0x51, 0xB5)}, CHART_WIDTH, CHART_HEIGHT);
+    }
+
+    private BufferedImage renderExpiry(CatalogStatistics stats) {
+        int[] windows = CatalogStatistics.EXPIRY_WINDOWS;
+        int last = windows.length - 1;
+        String[] labels = new String[windows.length + 3];
+        int[] values = new int[windows.length + 3];
+        labels[0] = "Expired";
+        values[0] = stats.getExpired();
+        for (int w = 0; w < windows.length; w++) {
+            labels[w + 1] = "≤" + windows[w] + "d";
+            // windows are cumulative; the timeline shows each band on its own
+            values[w + 1] = stats.getExpiringWithin(w) - (w == 0 ? 0 : stats.getExpiringWithin(w - 1));
+        }
+        labels[windows.length + 1] = ">" + windows[last] + "d";
+        values[windows.length + 1] = stats.getTotal() - stats.getExpired() - stats.getExpiringWithin(last) - stats.getWithoutExpiration();
+        labels[windows.length + 2] = "None";
+        values[windows.length + 2] = stats.getWithoutExpiration();
+        return expiry.render(labels, values, EXPIRY_COLORS, CHART_WIDTH, CHART_HEIGHT);
+    }
+
+    private static JLabel chartLabel() {
+        JLabel label = new JLabel();
+        label.setHorizontalAlignment(SwingConstants.CENTER);
+        label.setVerticalAlignment(SwingConstants.TOP);
+        label.setPreferredSize(new Dimension(CHART_WIDTH, CHART_HEIGHT));
+        return label;
+    }
+
+    /** Adds a stat card and returns its value label. */
+    private JLabel addStatCard(JPanel parent, String label, Color color) {
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBackground(new Color(0xF8, 0xFC, 0xFF)); // Light blue-white
         card.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createLineBorder(color, 2, true),
                 BorderFactory.createEmptyBorder(12, 12, 12, 12)
         ));
-        
-        JLabel valueLabel = new JLabel(value);
+
+        JLabel valueLabel = new JLabel("…");
         valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 26));
         valueLabel.setForeground(color);
         valueLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        
+
         JLabel labelLabel = new JLabel(label);
         labelLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         labelLabel.setForeground(new Color(0x07, 0x2B, 0x4A));
         labelLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        
+
         card.add(valueLabel, BorderLayout.CENTER);
         card.add(labelLabel, BorderLayout.SOUTH);
-        
+
         card.setPreferredSize(new Dimension(160, 100));
-        
-        return card;
+        parent.add(card);
+
+        return valueLabel;
     }
-}
\ No newline at end of file
+}
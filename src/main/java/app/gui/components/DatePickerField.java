@@ -1,27 +1,91 @@
 package app.gui.components;
 
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import javax.swing.BoxLayout;
 import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.Timer;
 
 import com.toedter.calendar.JDateChooser;
 
 /**
 * Simple wrapper around JDateChooser (from JCalendar library) to unify API.
+*
+* Building a JDateChooser (calendar popup, locale data) is the slowest part of the form, so the field
+* starts as a plain dd/MM/yyyy text field and swaps in the chooser shortly after it is first shown,
+* or right away when the user clicks/focuses it or the chooser is asked for.
 */
 public class DatePickerField extends JPanel {
-    private final JDateChooser chooser;
+    private static final String FORMAT = "dd/MM/yyyy";
+    private static final int UPGRADE_DELAY_MS = 300;
+
+    private JTextField placeholder = new JTextField(10);
+    private JDateChooser chooser;
 
     public DatePickerField() {
         setOpaque(false);
-        chooser = new JDateChooser();
-        chooser.setDateFormatString("dd/MM/yyyy");
         setLayout(new BoxLayout(this, BoxLayout.X_AXIS));
-        add(chooser);
+        placeholder.addFocusListener(new FocusAdapter() {
+            @Override public void focusGained(FocusEvent e) { upgrade(true); }
+        });
+        placeholder.addMouseListener(new MouseAdapter() {
+            @Override public void mousePressed(MouseEvent e) { upgrade(true); }
+        });
+        add(placeholder);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (chooser == null) {
+            // once the window is up, build the real chooser in the idle time after the first frames
+            Timer t = new Timer(UPGRADE_DELAY_MS, e -> upgrade(false));
+            t.setRepeats(false);
+            t.start();
+        }
+    }
+
+    public void setDate(Date d) {
+        if (chooser != null) chooser.setDate(d);
+        else placeholder.setText(d == null ? "" : new SimpleDateFormat(FORMAT).format(d));
     }
 
-    public void setDate(Date d) { chooser.setDate(d); }
-    public Date getDate() { return chooser.getDate(); }
-    public JDateChooser getComponent() { return chooser; }
-}
\ No newline at end of file
+    public Date getDate() {
+        if (chooser != null) return chooser.getDate();
+        String text = placeholder.getText().trim();
+        if (text.isEmpty()) return null;
+        try {
+            SimpleDateFormat f = new SimpleDateFormat(FORMAT);
+            f.setLenient(false);
+            return f.parse(text);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    public JDateChooser getComponent() {
+        upgrade(false);
+        return chooser;
+    }
+
+    private void upgrade(boolean focus) {
+        if (chooser != null) return;
+        Date current = getDate();
+        chooser = new JDateChooser();
+        chooser.setDateFormatString(FORMAT);
+        chooser.setDate(current);
+        removeAll();
+        add(chooser);
+        placeholder = null;
+        revalidate();
+        repaint();
+        if (focus) chooser.getDateEditor().getUiComponent().requestFocusInWindow();
+    }
+}
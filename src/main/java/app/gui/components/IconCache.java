@@ -0,0 +1,207 @@
+package app.gui.components;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.AbstractMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+
+/**
+ * Process-wide cache of classpath images and icons.
+ *
+ * Every resource is decoded once, on a small pool of daemon threads, so several icons decode in
+ * parallel and never on the EDT; later requests for the same path share the result. Icons are handed
+ * out as shared instances per (path, size) and are backed by a multi-resolution image: the icon has
+ * its logical size, and the variant for the actual device scale (125 %, 200 %, ...) is scaled from
+ * the full-resolution source on first use and kept, instead of stretching a 1x bitmap.
+ *
+ * Files and URLs outside the classpath go through the same cache, keyed by their path. Missing or
+ * unreadable images complete with null.
+ */
+public final class IconCache {
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), new DaemonFactory());
+
+    private static final Map<String, CompletableFuture<BufferedImage>> IMAGES = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Icon>> ICONS = new ConcurrentHashMap<>();
+
+    private IconCache() {}
+
+    /** Starts decoding the given resources in the background, e.g. while the first window is built. */
+    public static void preload(String... resourcePaths) {
+        for (String path : resourcePaths) image(path);
+    }
+
+    /** The decoded resource at full resolution; do not modify the returned image. */
+    public static CompletableFuture<BufferedImage> image(String resourcePath) {
+        return IMAGES.computeIfAbsent(normalize(resourcePath),
+                path -> CompletableFuture.supplyAsync(() -> decode(path), DECODER));
+    }
+
+    /** The decoded file or URL at full resolution. */
+    public static CompletableFuture<BufferedImage> externalImage(String pathOrUrl) {
+        return IMAGES.computeIfAbsent("external:" + pathOrUrl,
+                k -> CompletableFuture.supplyAsync(() -> decodeExternal(pathOrUrl), DECODER));
+    }
+
+    /**
+     * Shared icon for the resource, scaled down (keeping the aspect ratio) to fit in maxSize x maxSize
+     * logical pixels. Smaller images keep their own size.
+     */
+    public static CompletableFuture<Icon> icon(String resourcePath, int maxSize) {
+        String path = normalize(resourcePath);
+        return ICONS.computeIfAbsent(path + "@" + maxSize, k -> toIcon(image(path), maxSize));
+    }
+
+    /** Same as {@link #icon(String, int)} for a file or URL. */
+    public static CompletableFuture<Icon> externalIcon(String pathOrUrl, int maxSize) {
+        return ICONS.computeIfAbsent("external:" + pathOrUrl + "@" + maxSize,
+                k -> toIcon(externalImage(pathOrUrl), maxSize));
+    }
+
+    private static CompletableFuture<Icon> toIcon(CompletableFuture<BufferedImage> image, int maxSize) {
+        return image.thenApply(img -> img == null ? null : new ScaledIcon(img, maxSize));
+    }
+
+    /** Number of distinct decoded resources (for tests and diagnostics). */
+    public static int size() {
+        return IMAGES.size();
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("/") ? path : "/" + path;
+    }
+
+    private static BufferedImage decode(String path) {
+        try (InputStream in = IconCache.class.getResourceAsStream(path)) {
+            return in == null ? null : ImageIO.read(in);
+        } catch (IOException e) {
+            System.err.println(String.format("IconCache: failed to load '%s': %s", path, e.getMessage()));
+            return null;
+        }
+    }
+
+    private static BufferedImage decodeExternal(String pathOrUrl) {
+        try {
+            File f = new File(pathOrUrl);
+            return f.exists() ? ImageIO.read(f) : ImageIO.read(new URL(pathOrUrl));
+        } catch (IOException e) {
+            return null; // not a URL or failed
+        }
+    }
+
+    /**
+     * Scales with repeated halving and bilinear filtering, which is close to area averaging for icons
+     * but renders synchronously into a BufferedImage (unlike Image.getScaledInstance).
+     */
+    static BufferedImage scale(BufferedImage src, int width, int height) {
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = w / 2 >= width ? w / 2 : width;
+            h = h / 2 >= height ? h / 2 : height;
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    /** Icon of a fixed logical size painted through a {@link Variants} image. */
+    private static final class ScaledIcon implements Icon {
+        private final Variants image;
+        private final int width;
+        private final int height;
+
+        ScaledIcon(BufferedImage source, int maxSize) {
+            int iw = source.getWidth();
+            int ih = source.getHeight();
+            float scale = iw > maxSize || ih > maxSize ? Math.min((float) maxSize / iw, (float) maxSize / ih) : 1f;
+            this.width = Math.max(1, Math.round(iw * scale));
+            this.height = Math.max(1, Math.round(ih * scale));
+            this.image = new Variants(source, width, height);
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            // Java2D asks the image for the variant matching the device size of this rectangle
+            g.drawImage(image, x, y, width, height, null);
+        }
+
+        @Override public int getIconWidth() { return width; }
+        @Override public int getIconHeight() { return height; }
+    }
+
+    /** Multi-resolution image whose variants are scaled from the source on demand and cached. */
+    private static final class Variants extends AbstractMultiResolutionImage {
+        private final BufferedImage source;
+        private final BufferedImage base;
+        private final Map<Long, Image> scaled = new ConcurrentHashMap<>();
+
+        Variants(BufferedImage source, int width, int height) {
+            this.source = source;
+            this.base = width == source.getWidth() && height == source.getHeight() ? source : scale(source, width, height);
+        }
+
+        @Override
+        protected Image getBaseImage() {
+            return base;
+        }
+
+        @Override
+        public Image getResolutionVariant(double destWidth, double destHeight) {
+            int w = (int) Math.ceil(destWidth);
+            int h = (int) Math.ceil(destHeight);
+            if (w == base.getWidth() && h == base.getHeight()) return base;
+            // never upscale beyond the source; Java2D stretches the largest variant instead
+            if (w >= source.getWidth() || h >= source.getHeight()) return source;
+            return scaled.computeIfAbsent(((long) w << 32) | h, k -> scale(source, w, h));
+        }
+
+        @Override
+        public List<Image> getResolutionVariants() {
+            List<Image> variants = new ArrayList<>();
+            variants.add(base);
+            variants.addAll(scaled.values());
+            if (source != base) variants.add(source);
+            return variants;
+        }
+    }
+
+    private static final class DaemonFactory implements ThreadFactory {
+        private final AtomicInteger n = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "icon-decoder-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
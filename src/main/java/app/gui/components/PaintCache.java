@@ -0,0 +1,76 @@
+package app.gui.components;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * One prerendered component background.
+ *
+ * The image is drawn once at device resolution (component size times the HiDPI scale of the
+ * Graphics it is painted on) and reused until the size, the scale or the appearance key (colors,
+ * arc, ...) changes. Painting it back is a single image blit, which Java2D keeps in video memory
+ * after a few frames (managed image), instead of rebuilding paints and antialiasing shapes on
+ * every repaint.
+ *
+ * Used from the EDT only, like the component that owns it.
+ */
+public final class PaintCache {
+
+    /** Draws the background in component coordinates (the graphics is already scaled for HiDPI). */
+    @FunctionalInterface
+    public interface Painter {
+        void paint(Graphics2D g, int width, int height);
+    }
+
+    private BufferedImage image;
+    private int width;
+    private int height;
+    private double scaleX;
+    private double scaleY;
+    private Object key;
+
+    /**
+     * Paints the cached background at (0, 0), rendering it first when the size, the device scale or
+     * the key changed. The key must change whenever anything the painter draws changes.
+     */
+    public void paint(Graphics2D g, int width, int height, Object key, Painter painter) {
+        if (width <= 0 || height <= 0) return;
+        AffineTransform tx = g.getTransform();
+        double sx = tx.getScaleX();
+        double sy = tx.getScaleY();
+        if (image == null || width != this.width || height != this.height
+                || sx != scaleX || sy != scaleY || !Objects.equals(key, this.key)) {
+            image = render(width, height, sx, sy, painter);
+            this.width = width;
+            this.height = height;
+            this.scaleX = sx;
+            this.scaleY = sy;
+            this.key = key;
+        }
+        // drawn back at user-space size, i.e. one image pixel per device pixel
+        g.drawImage(image, 0, 0, width, height, null);
+    }
+
+    /** Drops the image; the next paint renders it again. */
+    public void invalidate() {
+        image = null;
+    }
+
+    private static BufferedImage render(int width, int height, double sx, double sy, Painter painter) {
+        int w = (int) Math.ceil(width * Math.max(sx, 1));
+        int h = (int) Math.ceil(height * Math.max(sy, 1));
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.scale((double) w / width, (double) h / height);
+            painter.paint(g, width, height);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+}
@@ -0,0 +1,99 @@
+package app.gui.components;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+
+/**
+ * Opt-in paint timing, enabled with {@code -Dshop.paintMetrics=true}.
+ *
+ * Components time their paintComponent() with {@link #start()} / {@link #stop(JComponent, long)}; when
+ * {@link #install()} has been called, every Swing repaint pass (all dirty regions of a frame) is also
+ * timed under "frame". Frames slower than 16.7 ms miss 60 fps and are counted separately. The summary
+ * is printed to stdout on exit; {@link #report()} returns it at any time.
+ *
+ * When disabled, start() returns 0 and stop() does nothing, so the calls can stay in the paint code.
+ */
+public final class PaintMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("shop.paintMetrics");
+    /** Frame budget at 60 fps. */
+    public static final long FRAME_BUDGET_NANOS = 16_666_667L;
+    private static final String FRAME = "frame";
+
+    private static final Map<String, Stat> STATS = new ConcurrentHashMap<>();
+    private static boolean installed;
+
+    private static final class Stat {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder overBudget = new LongAdder();
+    }
+
+    private PaintMetrics() {}
+
+    /** Start time to pass to stop(), or 0 when disabled. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void stop(String component, long start) {
+        if (start != 0) record(component, System.nanoTime() - start);
+    }
+
+    /** Records under the component's class (plus its name when set), so subclasses show separately. */
+    public static void stop(JComponent component, long start) {
+        if (start != 0) record(nameOf(component), System.nanoTime() - start);
+    }
+
+    public static void record(String component, long nanos) {
+        Stat s = STATS.computeIfAbsent(component, k -> new Stat());
+        s.count.increment();
+        s.totalNanos.add(nanos);
+        s.maxNanos.accumulate(nanos);
+        if (nanos > FRAME_BUDGET_NANOS) s.overBudget.increment();
+    }
+
+    /**
+     * When enabled, times whole repaint passes and prints the report on exit. Call once on the EDT at
+     * startup; does nothing when disabled.
+     */
+    public static synchronized void install() {
+        if (!ENABLED || installed) return;
+        installed = true;
+        RepaintManager.setCurrentManager(new RepaintManager() {
+            @Override
+            public void paintDirtyRegions() {
+                long t = System.nanoTime();
+                super.paintDirtyRegions();
+                record(FRAME, System.nanoTime() - t);
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(report()), "paint-metrics"));
+    }
+
+    private static String nameOf(JComponent c) {
+        String type = c.getClass().getSimpleName().isEmpty() ? c.getClass().getName() : c.getClass().getSimpleName();
+        return c.getName() == null ? type : type + "[" + c.getName() + "]";
+    }
+
+    /** One line per component: paints, average and max time, paints over the 60 fps frame budget. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Paint metrics (ms):\n");
+        new TreeMap<>(STATS).forEach((name, s) -> {
+            long n = s.count.sum();
+            sb.append(String.format("  %-32s %8d paints  avg %7.3f  max %7.3f  over 16.7: %d%n", name, n,
+                    n == 0 ? 0 : s.totalNanos.sum() / 1e6 / n, s.maxNanos.get() / 1e6, s.overBudget.sum()));
+        });
+        return sb.toString();
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package app.gui.components;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+
+import app.util.DateUtils;
+
+/**
+ * Table cell renderer for values the model already formatted (see ProductTablePanel's cell cache).
+ *
+ * A String value is shown as is, so painting a cell allocates nothing; other values (a model that
+ * does not preformat) are formatted here as a fallback. The factories only differ in alignment and
+ * in that fallback formatting.
+ */
+public class PreformattedCellRenderer extends DefaultTableCellRenderer {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private enum Kind { NUMBER, CURRENCY, DATE }
+
+    private final Kind kind;
+
+    private PreformattedCellRenderer(Kind kind, int alignment) {
+        this.kind = kind;
+        setHorizontalAlignment(alignment);
+    }
+
+    /** Right-aligned integers. */
+    public static PreformattedCellRenderer number() {
+        return new PreformattedCellRenderer(Kind.NUMBER, SwingConstants.RIGHT);
+    }
+
+    /** Right-aligned amounts with two decimals. */
+    public static PreformattedCellRenderer currency() {
+        return new PreformattedCellRenderer(Kind.CURRENCY, SwingConstants.RIGHT);
+    }
+
+    /** Centered dd/MM/yyyy dates. */
+    public static PreformattedCellRenderer date() {
+        return new PreformattedCellRenderer(Kind.DATE, SwingConstants.CENTER);
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        if (value instanceof String s) {
+            setText(s);
+        } else {
+            setText(format(value));
+        }
+    }
+
+    /** Text shown for a value of this renderer's kind; also used by models that preformat cells. */
+    public String format(Object value) {
+        if (value == null) return "";
+        return switch (kind) {
+            case NUMBER -> value.toString();
+            case CURRENCY -> value instanceof Number n ? formatCurrency(n.doubleValue()) : value.toString();
+            case DATE -> value instanceof LocalDate d ? DATE.format(d)
+                    : value instanceof Date d ? DATE.format(DateUtils.toLocalDate(d))
+                    : value.toString();
+        };
+    }
+
+    /** Two decimals, e.g. 12.5 -> "12.50". */
+    public static String formatCurrency(double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount);
+    }
+
+    /** dd/MM/yyyy for an epoch day. */
+    public static String formatDay(long epochDay) {
+        return DATE.format(LocalDate.ofEpochDay(epochDay));
+    }
+}
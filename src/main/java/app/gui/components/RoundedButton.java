@@ -7,19 +7,14 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
-import javax.imageio.ImageIO;
 import javax.swing.Icon;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.SwingUtilities;
 import javax.swing.plaf.basic.BasicHTML;
 import javax.swing.text.View;
 
@@ -50,6 +45,9 @@ public class RoundedButton extends JButton {
     private Color bg = DEFAULT_BG;
     private Color border = DEFAULT_BORDER;
     private Icon customIcon = null; // only painted when non-null
+    private int iconRequest; // bumped by every icon change; stale background loads are dropped
+    // prerendered background + border; invalidated by setArc/setBg/setBorderColor and by resizes
+    private final PaintCache background = new PaintCache();
 
     // --- constructors ---
     public RoundedButton(String text) {
@@ -86,9 +84,9 @@ public class RoundedButton extends JButton {
     }
 
     // --- appearance setters ---
-    public void setArc(int arc) { this.arc = Math.max(0, arc); repaint(); }
-    public void setBg(Color bg) { this.bg = bg == null ? DEFAULT_BG : bg; repaint(); }
-    public void setBorderColor(Color c) { this.border = c == null ? DEFAULT_BORDER : c; repaint(); }
+    public void setArc(int arc) { this.arc = Math.max(0, arc); background.invalidate(); repaint(); }
+    public void setBg(Color bg) { this.bg = bg == null ? DEFAULT_BG : bg; background.invalidate(); repaint(); }
+    public void setBorderColor(Color c) { this.border = c == null ? DEFAULT_BORDER : c; background.invalidate(); repaint(); }
 
     public void setFixedWidth(int width) {
         this.fixedWidth = Math.max(48, width);
@@ -110,74 +108,50 @@ public class RoundedButton extends JButton {
      * Set an Icon instance directly (useful for pre-loaded ImageIcon).
      */
     public void setCustomIcon(Icon icon) {
+        iconRequest++; // a pending background load must not overwrite this
         this.customIcon = icon;
         revalidate(); repaint();
     }
 
     /**
      * Load icon from classpath resource. Example: "/static/icons/add.png"
-     * Tries the given path and also toggles leading slash if needed.
-     * If loading fails, icon is cleared.
+     * Icons come from the shared IconCache: decoded once per process in the background and shared
+     * by all buttons of the same size. If loading fails, icon is cleared.
      */
     public final void setCustomIconResource(String resourcePath) {
         if (resourcePath == null || resourcePath.isBlank()) { setCustomIcon((Icon) null); return; }
-        try {
-            URL res = getClass().getResource(resourcePath);
-            if (res == null) {
-                // try adding/removing leading slash
-                String alt = resourcePath.startsWith("/") ? resourcePath.substring(1) : "/" + resourcePath;
-                res = getClass().getResource(alt);
-            }
-            if (res == null) {
-                // not found on classpath
-                this.customIcon = null;
-            } else {
-                BufferedImage img = ImageIO.read(res);
-                this.customIcon = img == null ? null : scaleToIcon(img);
-            }
-        } catch (IOException ex) {
-            System.err.println(String.format("RoundedButton: failed to load resource '%s': %s", resourcePath, ex.getMessage()));
-            this.customIcon = null;
-        }
-        revalidate(); repaint();
+        applyIcon(IconCache.icon(resourcePath, iconSize()));
     }
 
     /**
-     * Load icon from a filesystem path or URL string. If loading fails, icon is cleared.
+     * Load icon from a filesystem path or URL string (in the background). If loading fails, icon is cleared.
      */
     public void setCustomIconPath(String pathOrUrl) {
         if (pathOrUrl == null || pathOrUrl.isBlank()) { setCustomIcon((Icon) null); return; }
-        try {
-            BufferedImage img = null;
-            File f = new File(pathOrUrl);
-            if (f.exists()) {
-                img = ImageIO.read(f);
-            } else {
-                try {
-                    img = ImageIO.read(new URL(pathOrUrl));
-                } catch (IOException ignored) { /* not a URL or failed */ }
-            }
-            this.customIcon = img == null ? null : scaleToIcon(img);
-        } catch (IOException ex) {
-            System.err.println(String.format("RoundedButton: failed to load path/url '%s': %s", pathOrUrl, ex.getMessage()));
-            this.customIcon = null;
-        }
-        revalidate(); repaint();
+        applyIcon(IconCache.externalIcon(pathOrUrl, iconSize()));
     }
 
-    // helper to scale a BufferedImage into an Icon (keeps aspect ratio)
-    private Icon scaleToIcon(BufferedImage img) {
-        int target = Math.min(48, Math.max(16, fixedHeight - 24)); // fit inside button height
-        int iw = img.getWidth();
-        int ih = img.getHeight();
-        float scale = 1f;
-        if (iw > target || ih > target) {
-            scale = Math.min((float) target / iw, (float) target / ih);
+    /**
+     * Uses the icon right away when it is already decoded; otherwise the button paints without icon
+     * until it arrives. Only the latest request is applied.
+     */
+    private void applyIcon(CompletableFuture<Icon> icon) {
+        int request = ++iconRequest;
+        if (icon.isDone()) {
+            this.customIcon = icon.getNow(null);
+            revalidate(); repaint();
+            return;
         }
-        int w = Math.max(1, Math.round(iw * scale));
-        int h = Math.max(1, Math.round(ih * scale));
-        Image scaled = img.getScaledInstance(w, h, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaled);
+        icon.thenAccept(loaded -> SwingUtilities.invokeLater(() -> {
+            if (request != iconRequest) return;
+            this.customIcon = loaded;
+            revalidate(); repaint();
+        }));
+    }
+
+    // icon box that fits inside the button height
+    private int iconSize() {
+        return Math.min(48, Math.max(16, fixedHeight - 24));
     }
 
     // --- text override to keep HTML wrapping consistent ---
@@ -197,22 +171,17 @@ public class RoundedButton extends JButton {
     // --- painting: background, border, optional icon, text ---
     @Override
     protected void paintComponent(Graphics g) {
+        long start = PaintMetrics.start();
         Graphics2D g2 = (Graphics2D) g.create();
         try {
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-
             int w = getWidth();
             int h = getHeight();
 
-            // background
-            g2.setColor(bg);
-            g2.fillRoundRect(0, 0, w, h, arc, arc);
+            // background and border from the cache
+            background.paint(g2, w, h, null, this::paintBackground);
 
-            // border
-            g2.setStroke(new BasicStroke(2f));
-            g2.setColor(border);
-            g2.drawRoundRect(0, 0, w - 1, h - 1, arc, arc);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
             // icon area: if customIcon is set, draw it aligned to the left with some padding
             int iconAreaLeft = 12;
@@ -267,6 +236,18 @@ public class RoundedButton extends JButton {
             }
         } finally {
             g2.dispose();
+            PaintMetrics.stop(this, start);
         }
     }
+
+    private void paintBackground(Graphics2D g2, int w, int h) {
+        // background
+        g2.setColor(bg);
+        g2.fillRoundRect(0, 0, w, h, arc, arc);
+
+        // border
+        g2.setStroke(new BasicStroke(2f));
+        g2.setColor(border);
+        g2.drawRoundRect(0, 0, w - 1, h - 1, arc, arc);
+    }
 }
\ No newline at end of file
@@ -28,14 +28,15 @@ public class SearchField extends JPanel {
         JPanel left = new JPanel(new BorderLayout(6, 0));
         left.setOpaque(false);
 
-        searchTypeCombo = new JComboBox<>(new String[]{"All", "Description", "Brand", "Category", "ID"});
+        searchTypeCombo = new JComboBox<>(new String[]{"All", "Description", "Brand", "Category", "ID",
+                "Price range", "Made between", "Expires between"});
         searchTypeCombo.setPreferredSize(new Dimension(140, 32));
         searchTypeCombo.setToolTipText("Select search field");
         left.add(searchTypeCombo, BorderLayout.WEST);
 
         textField = new JTextField();
         textField.setPreferredSize(new Dimension(0, 32)); // Set fixed height
-        textField.setToolTipText("Search by description, brand, category, id...");
+        textField.setToolTipText("Search by description, brand, category, id... Ranges: 10-25 or 01/01/2025-31/03/2025 (either side may be left empty)");
         left.add(textField, BorderLayout.CENTER);
 
         add(left, BorderLayout.CENTER);
@@ -0,0 +1,135 @@
+package app.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Running totals of a ColumnarProductStore, kept up to date by the store on every put/remove.
+ *
+ * Counts by status, category and brand and the price total are adjusted in O(1) per change; the
+ * price total is kept in whole cents so adding and subtracting never accumulates rounding error.
+ * Min/max come from a price multiset (price to number of rows), which stays correct when the current
+ * minimum or maximum is removed, at O(log distinct prices) per change.
+ *
+ * The store fills them row by row while it is loaded, so there is no separate initial scan.
+ * {@link ColumnarProductStore#rebuildAggregates()} recomputes them from the columns; callers that
+ * already ran a full pass (the statistics dialog) use it when the two disagree.
+ */
+public final class CatalogAggregates {
+    private final IntFunction<String> categoryNames;
+    private final IntFunction<String> brandNames;
+
+    private int count;
+    private int active;
+    private long priceCents;
+    private int[] categoryCounts = new int[8];
+    private int[] brandCounts = new int[8];
+    private final TreeMap<Double, Integer> prices = new TreeMap<>();
+    // bumped on every change so readers can skip refreshing when nothing moved
+    private long version;
+
+    CatalogAggregates(IntFunction<String> categoryNames, IntFunction<String> brandNames) {
+        this.categoryNames = categoryNames;
+        this.brandNames = brandNames;
+    }
+
+    /** Copy reading names through the given (copied) dictionaries. */
+    CatalogAggregates copy(IntFunction<String> categoryNames, IntFunction<String> brandNames) {
+        CatalogAggregates c = new CatalogAggregates(categoryNames, brandNames);
+        c.count = count;
+        c.active = active;
+        c.priceCents = priceCents;
+        c.categoryCounts = categoryCounts.clone();
+        c.brandCounts = brandCounts.clone();
+        c.prices.putAll(prices);
+        c.version = version;
+        return c;
+    }
+
+    void add(double price, boolean isActive, int categoryCode, int brandCode) {
+        count++;
+        if (isActive) active++;
+        priceCents += toCents(price);
+        categoryCounts = increment(categoryCounts, categoryCode, 1);
+        brandCounts = increment(brandCounts, brandCode, 1);
+        prices.merge(price, 1, Integer::sum);
+        version++;
+    }
+
+    void remove(double price, boolean isActive, int categoryCode, int brandCode) {
+        count--;
+        if (isActive) active--;
+        priceCents -= toCents(price);
+        categoryCounts = increment(categoryCounts, categoryCode, -1);
+        brandCounts = increment(brandCounts, brandCode, -1);
+        prices.computeIfPresent(price, (k, n) -> n == 1 ? null : n - 1);
+        version++;
+    }
+
+    void clear() {
+        count = 0;
+        active = 0;
+        priceCents = 0;
+        Arrays.fill(categoryCounts, 0);
+        Arrays.fill(brandCounts, 0);
+        prices.clear();
+        version++;
+    }
+
+    public int getTotal() { return count; }
+    public int getActive() { return active; }
+    public int getInactive() { return count - active; }
+    public double getTotalValue() { return priceCents / 100.0; }
+    public double getAveragePrice() { return count == 0 ? 0 : priceCents / 100.0 / count; }
+    public double getMinPrice() { return prices.isEmpty() ? 0 : prices.firstKey(); }
+    public double getMaxPrice() { return prices.isEmpty() ? 0 : prices.lastKey(); }
+    /** Changes applied so far; equal versions mean equal aggregates. */
+    public long getVersion() { return version; }
+
+    /** Product count per category name (null shown as "Unknown"), largest first. */
+    public Map<String, Integer> getCategoryCounts() { return byName(categoryCounts, categoryNames); }
+
+    /** Product count per brand name (null shown as "Unknown"), largest first. */
+    public Map<String, Integer> getBrandCounts() { return byName(brandCounts, brandNames); }
+
+    /** Same totals, counts and price range (prices compared to the cent). */
+    public boolean sameAs(CatalogAggregates o) {
+        return count == o.count && active == o.active && priceCents == o.priceCents
+                && prices.equals(o.prices)
+                && sameCounts(categoryCounts, o.categoryCounts) && sameCounts(brandCounts, o.brandCounts);
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    private static int[] increment(int[] counts, int code, int delta) {
+        if (code >= counts.length) counts = Arrays.copyOf(counts, Math.max(code + 1, counts.length * 2));
+        counts[code] += delta;
+        return counts;
+    }
+
+    private static boolean sameCounts(int[] a, int[] b) {
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            if ((i < a.length ? a[i] : 0) != (i < b.length ? b[i] : 0)) return false;
+        }
+        return true;
+    }
+
+    private static Map<String, Integer> byName(int[] codeCounts, IntFunction<String> names) {
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (int code = 0; code < codeCounts.length; code++) {
+            if (codeCounts[code] == 0) continue;
+            String name = names.apply(code);
+            byName.merge(name != null ? name : "Unknown", codeCounts[code], Integer::sum);
+        }
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        byName.entrySet().stream()
+                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+}
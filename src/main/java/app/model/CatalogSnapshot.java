@@ -0,0 +1,120 @@
+package app.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Local copy of the catalog and the change-log version it reflects, so a restart can show the
+ * catalog before the database has answered and then only fetch what changed since (changesSince)
+ * instead of reading every row again.
+ *
+ * The file holds the ColumnarProductStore columns as they are (see writeColumns): loading maps the
+ * file and copies whole arrays, with no Product or Date per row. Header: magic, format, catalog
+ * version, save time, the database it came from (jdbc.url and jdbc.username), body length and a
+ * CRC32C of the body. A snapshot of another database, of another format or that fails its checksum
+ * is ignored. Saves write a temporary file and rename it over the old one, so a crash while saving
+ * leaves the previous snapshot intact.
+ */
+public class CatalogSnapshot {
+    /** Snapshot file in db.properties; defaults to DEFAULT_FILE under the working directory. */
+    public static final String PROPERTY = "snapshot.file";
+    public static final String DEFAULT_FILE = "cache/catalog.snapshot";
+    private static final int MAGIC = 0x53484F50; // "SHOP"
+    private static final int FORMAT = 1;
+
+    /** A snapshot read back: the catalog, its change-log version and when it was saved (epoch ms). */
+    public record Loaded(ColumnarProductStore catalog, long version, long savedAt) {}
+
+    private final Path file;
+    private final String source;
+
+    /** @param source identifies the database the catalog comes from; a snapshot of another one is not loaded */
+    public CatalogSnapshot(Path file, String source) {
+        this.file = file;
+        this.source = source;
+    }
+
+    public static CatalogSnapshot fromProperties(Properties props) {
+        Path file = Paths.get(props.getProperty(PROPERTY, DEFAULT_FILE).trim());
+        return new CatalogSnapshot(file, props.getProperty("jdbc.url", "") + " " + props.getProperty("jdbc.username", ""));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** The saved catalog, or null when there is none usable (missing, other database/format, damaged). */
+    public Loaded load() {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != FORMAT) return null;
+            long version = in.getLong();
+            long savedAt = in.getLong();
+            byte[] from = new byte[in.getInt()];
+            in.get(from);
+            if (!source.equals(new String(from, StandardCharsets.UTF_8))) return null;
+            int length = in.getInt();
+            int crc = in.getInt();
+            ByteBuffer body = in.slice(in.position(), length);
+            CRC32C check = new CRC32C();
+            check.update(body.duplicate());
+            if ((int) check.getValue() != crc) {
+                System.err.println("CatalogSnapshot: " + file + " is damaged, ignoring it");
+                return null;
+            }
+            return new Loaded(ColumnarProductStore.readColumns(body), version, savedAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("CatalogSnapshot: could not read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with {@code catalog} at change-log {@code version}. The store is only
+     * read, so a copy() can be saved from a background thread.
+     */
+    public synchronized void save(ColumnarProductStore catalog, long version) throws IOException {
+        byte[] from = source.getBytes(StandardCharsets.UTF_8);
+        int length = catalog.columnBytes();
+        ByteBuffer out = ByteBuffer.allocate(36 + from.length + length);
+        out.putInt(MAGIC).putInt(FORMAT).putLong(version).putLong(System.currentTimeMillis());
+        out.putInt(from.length).put(from);
+        out.putInt(length);
+        int crcAt = out.position();
+        out.putInt(0);
+        int bodyAt = out.position();
+        catalog.writeColumns(out);
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), bodyAt, length);
+        out.putInt(crcAt, (int) crc.getValue());
+        out.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) ch.write(out);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
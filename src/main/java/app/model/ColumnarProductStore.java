@@ -0,0 +1,743 @@
+package app.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import app.util.ColumnKernels;
+
+/**
+ * Column-oriented, primitive-specialised copy of the catalog used by the table, search and statistics.
+ *
+ * A Product with two Dates and five Strings costs a few hundred bytes; here a row is roughly 40 bytes
+ * plus its description text:
+ * <ul>
+ *   <li>{@code int[]} IDs, {@code double[]} prices and {@code int[]} epoch-day dates (NO_DAY when missing);</li>
+ *   <li>a BitSet for the status;</li>
+ *   <li>brand, content and category as {@code int} codes into per-column dictionaries;</li>
+ *   <li>descriptions as UTF-8 bytes in one shared pool (offset + length per row).</li>
+ * </ul>
+ * put() appends or overwrites by ID through an int-to-row hash index. remove() takes constant time by
+ * moving the last row into the freed one, so single deletes do not keep insertion order;
+ * {@link #removeAll(int[])} compacts the columns in a single pass and keeps the order of the rest.
+ * {@link #view(int)} returns a flyweight Product that reads the columns of a row without copying them.
+ * {@link #aggregates()} holds running counts and price totals adjusted on every change.
+ *
+ * Not thread-safe: like the Swing table model that reads it, the store is meant to be used from one
+ * thread (the EDT) or behind external locking.
+ */
+public class ColumnarProductStore {
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    private static final int NO_ROW = -1;
+
+    private int size;
+    private int[] ids;
+    private double[] prices;
+    private int[] madeDays;
+    private int[] expirationDays;
+    private final BitSet active = new BitSet();
+    private int[] brandCodes;
+    private int[] contentCodes;
+    private int[] categoryCodes;
+    private int[] descOffsets;
+    private int[] descLengths;
+
+    private byte[] textPool = new byte[1024];
+    private int textUsed;
+    private int textGarbage;
+
+    private final Dictionary brands;
+    private final Dictionary contents;
+    private final Dictionary categories;
+    private final IntIndex rowById;
+    private final CatalogAggregates aggregates;
+    private final List<RowListener> listeners = new ArrayList<>();
+
+    /**
+     * Told about row changes, e.g. to drop cached display values of those rows. Called on the thread
+     * that modifies the store, after the change.
+     */
+    public interface RowListener {
+        /** The row was written by put() (overwritten, or appended at the end). */
+        void rowUpdated(int row);
+        /**
+         * The row was removed by remove() and the last row, {@code movedFrom} (numbered as before the
+         * removal), now sits in its place; other rows did not move. {@code movedFrom == row} when the
+         * last row itself was removed.
+         */
+        void rowRemoved(int row, int movedFrom);
+        /**
+         * The rows (ascending, numbered as before the removal) were removed at once by removeAll();
+         * the remaining rows moved up and kept their order.
+         */
+        void rowsRemoved(int[] rows);
+        /** All rows were removed. */
+        void rowsCleared();
+    }
+
+    public ColumnarProductStore() {
+        this(16);
+    }
+
+    public ColumnarProductStore(int capacity) {
+        allocate(Math.max(1, capacity));
+        brands = new Dictionary();
+        contents = new Dictionary();
+        categories = new Dictionary();
+        rowById = new IntIndex();
+        aggregates = newAggregates();
+    }
+
+    private ColumnarProductStore(ColumnarProductStore src) {
+        size = src.size;
+        int capacity = Math.max(1, size);
+        ids = Arrays.copyOf(src.ids, capacity);
+        prices = Arrays.copyOf(src.prices, capacity);
+        madeDays = Arrays.copyOf(src.madeDays, capacity);
+        expirationDays = Arrays.copyOf(src.expirationDays, capacity);
+        active.or(src.active);
+        brandCodes = Arrays.copyOf(src.brandCodes, capacity);
+        contentCodes = Arrays.copyOf(src.contentCodes, capacity);
+        categoryCodes = Arrays.copyOf(src.categoryCodes, capacity);
+        descOffsets = Arrays.copyOf(src.descOffsets, capacity);
+        descLengths = Arrays.copyOf(src.descLengths, capacity);
+        textPool = Arrays.copyOf(src.textPool, Math.max(1, src.textUsed));
+        textUsed = src.textUsed;
+        textGarbage = src.textGarbage;
+        brands = new Dictionary(src.brands);
+        contents = new Dictionary(src.contents);
+        categories = new Dictionary(src.categories);
+        rowById = new IntIndex(src.rowById);
+        aggregates = src.aggregates.copy(categories::value, brands::value);
+    }
+
+    public static ColumnarProductStore of(Collection<Product> products) {
+        ColumnarProductStore store = new ColumnarProductStore(products.size());
+        for (Product p : products) store.put(p);
+        return store;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Independent copy (array copies, no per-row objects), e.g. to hand a consistent snapshot to a
+     * background thread while the original keeps changing on the EDT. Row listeners are not copied.
+     */
+    public ColumnarProductStore copy() {
+        return new ColumnarProductStore(this);
+    }
+
+    /** Removes every row (dictionaries are kept, codes stay valid). */
+    public void clear() {
+        size = 0;
+        textUsed = 0;
+        textGarbage = 0;
+        active.clear();
+        rowById.clear();
+        aggregates.clear();
+        for (RowListener l : listeners) l.rowsCleared();
+    }
+
+    /** Replaces the contents with the given products. */
+    public void reset(Collection<Product> products) {
+        clear();
+        ensureCapacity(products.size());
+        for (Product p : products) put(p);
+    }
+
+    /** Inserts the product, or overwrites the row with the same ID. Returns the row index. */
+    public int put(Product p) {
+        int row = rowById.get(p.getId());
+        if (row == NO_ROW) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(p.getId(), row);
+        } else {
+            textGarbage += Math.max(0, descLengths[row]);
+            aggregates.remove(prices[row], active.get(row), categoryCodes[row], brandCodes[row]);
+        }
+        ids[row] = p.getId();
+        prices[row] = p.getPrice();
+        madeDays[row] = toDay(p.getDateMade());
+        expirationDays[row] = toDay(p.getExpirationDate());
+        active.set(row, p.isActive());
+        brandCodes[row] = brands.code(p.getBrand());
+        contentCodes[row] = contents.code(p.getContent());
+        categoryCodes[row] = categories.code(p.getCategory());
+        storeDescription(row, p.getDescription());
+        aggregates.add(prices[row], p.isActive(), categoryCodes[row], brandCodes[row]);
+        for (RowListener l : listeners) l.rowUpdated(row);
+        return row;
+    }
+
+    /** Removes the row with this ID in constant time: the last row moves into its place. */
+    public boolean remove(int id) {
+        int row = rowById.get(id);
+        if (row == NO_ROW) return false;
+        textGarbage += Math.max(0, descLengths[row]);
+        aggregates.remove(prices[row], active.get(row), categoryCodes[row], brandCodes[row]);
+        rowById.remove(id);
+        int last = size - 1;
+        if (row != last) {
+            ids[row] = ids[last];
+            prices[row] = prices[last];
+            madeDays[row] = madeDays[last];
+            expirationDays[row] = expirationDays[last];
+            brandCodes[row] = brandCodes[last];
+            contentCodes[row] = contentCodes[last];
+            categoryCodes[row] = categoryCodes[last];
+            descOffsets[row] = descOffsets[last];
+            descLengths[row] = descLengths[last];
+            active.set(row, active.get(last));
+            rowById.put(ids[row], row);
+        }
+        active.clear(last);
+        size = last;
+        for (RowListener l : listeners) l.rowRemoved(row, last);
+        return true;
+    }
+
+    /**
+     * Removes the rows with these IDs in one pass over the columns (O(size + ids.length)), keeping
+     * the order of the remaining rows. Unknown IDs are ignored. Returns the number of rows removed.
+     */
+    public int removeAll(int[] ids) {
+        BitSet doomed = new BitSet(size);
+        for (int id : ids) {
+            int row = rowById.get(id);
+            if (row != NO_ROW) doomed.set(row);
+        }
+        int removed = doomed.cardinality();
+        if (removed == 0) return 0;
+        int[] rows = doomed.stream().toArray();
+        for (int row : rows) {
+            textGarbage += Math.max(0, descLengths[row]);
+            aggregates.remove(prices[row], active.get(row), categoryCodes[row], brandCodes[row]);
+            rowById.remove(this.ids[row]);
+        }
+        int to = rows[0];
+        for (int from = to; from < size; from++) {
+            if (doomed.get(from)) continue;
+            this.ids[to] = this.ids[from];
+            prices[to] = prices[from];
+            madeDays[to] = madeDays[from];
+            expirationDays[to] = expirationDays[from];
+            brandCodes[to] = brandCodes[from];
+            contentCodes[to] = contentCodes[from];
+            categoryCodes[to] = categoryCodes[from];
+            descOffsets[to] = descOffsets[from];
+            descLengths[to] = descLengths[from];
+            active.set(to, active.get(from));
+            rowById.put(this.ids[to], to);
+            to++;
+        }
+        active.clear(to, size);
+        size = to;
+        for (RowListener l : listeners) l.rowsRemoved(rows);
+        return removed;
+    }
+
+    /** Row of the product with this ID, or -1. */
+    public int rowOf(int id) { return rowById.get(id); }
+    public boolean containsId(int id) { return rowById.get(id) != NO_ROW; }
+
+    // --- column access by row ---
+
+    public int id(int row) { return ids[checkRow(row)]; }
+    public double price(int row) { return prices[checkRow(row)]; }
+    public boolean isActive(int row) { return active.get(checkRow(row)); }
+    /** Epoch day, or NO_DAY. */
+    public int madeDay(int row) { return madeDays[checkRow(row)]; }
+    /** Epoch day, or NO_DAY. */
+    public int expirationDay(int row) { return expirationDays[checkRow(row)]; }
+    public int brandCode(int row) { return brandCodes[checkRow(row)]; }
+    public int contentCode(int row) { return contentCodes[checkRow(row)]; }
+    public int categoryCode(int row) { return categoryCodes[checkRow(row)]; }
+    public String brand(int row) { return brands.value(brandCode(row)); }
+    public String content(int row) { return contents.value(contentCode(row)); }
+    public String category(int row) { return categories.value(categoryCode(row)); }
+
+    public String description(int row) {
+        checkRow(row);
+        int len = descLengths[row];
+        if (len < 0) return null;
+        return new String(textPool, descOffsets[row], len, StandardCharsets.UTF_8);
+    }
+
+    /** Number of rows whose status is Active. */
+    public int activeCount() { return active.cardinality(); }
+
+    /** Distinct brands/categories seen so far; codes run from 0 to count - 1 (a code may be unused). */
+    public int brandCount() { return brands.size(); }
+    public int categoryCount() { return categories.size(); }
+    public String brandName(int code) { return brands.value(code); }
+    public String categoryName(int code) { return categories.value(code); }
+
+    public void addRowListener(RowListener l) { listeners.add(l); }
+    public void removeRowListener(RowListener l) { listeners.remove(l); }
+
+    /** Running totals, updated by every put/remove/clear. */
+    public CatalogAggregates aggregates() { return aggregates; }
+
+    /**
+     * Recomputes the running totals from the columns and replaces them when they drifted.
+     * Returns true when a difference was found.
+     */
+    public boolean rebuildAggregates() {
+        CatalogAggregates fresh = newAggregates();
+        for (int r = 0; r < size; r++) fresh.add(prices[r], active.get(r), categoryCodes[r], brandCodes[r]);
+        if (fresh.sameAs(aggregates)) return false;
+        aggregates.clear();
+        for (int r = 0; r < size; r++) aggregates.add(prices[r], active.get(r), categoryCodes[r], brandCodes[r]);
+        return true;
+    }
+
+    private CatalogAggregates newAggregates() {
+        return new CatalogAggregates(categories::value, brands::value);
+    }
+
+    /** Copy of the ID column. */
+    public int[] ids() { return Arrays.copyOf(ids, size); }
+
+    /** Rows (in order) for which the filter accepts the row index. */
+    public int[] select(IntPredicate rowFilter) {
+        int[] rows = new int[Math.min(size, 1024)];
+        int n = 0;
+        for (int r = 0; r < size; r++) {
+            if (rowFilter.test(r)) {
+                if (n == rows.length) rows = Arrays.copyOf(rows, Math.min(size, n * 2));
+                rows[n++] = r;
+            }
+        }
+        return n == rows.length ? rows : Arrays.copyOf(rows, n);
+    }
+
+    /** Rows (in order) with minPrice <= price <= maxPrice. */
+    public int[] rowsWithPriceBetween(double minPrice, double maxPrice) {
+        int[] rows = new int[size];
+        int n = ColumnKernels.get().selectBetween(prices, size, minPrice, maxPrice, rows);
+        return Arrays.copyOf(rows, n);
+    }
+
+    /** Rows (in order) made between the two epoch days, inclusive. */
+    public int[] rowsMadeBetween(int fromDay, int toDay) {
+        return daysBetween(madeDays, fromDay, toDay);
+    }
+
+    /** Rows (in order) expiring between the two epoch days, inclusive; rows without expiration never match. */
+    public int[] rowsExpiringBetween(int fromDay, int toDay) {
+        return daysBetween(expirationDays, fromDay, toDay);
+    }
+
+    /** Count, total, min, max and average of the price column. */
+    public ColumnKernels.Summary priceSummary() {
+        return ColumnKernels.get().summarize(prices, size);
+    }
+
+    private int[] daysBetween(int[] days, int fromDay, int toDay) {
+        int[] rows = new int[size];
+        // NO_DAY is Integer.MIN_VALUE, so it is excluded by any lower bound above it
+        int n = ColumnKernels.get().selectBetween(days, size, Math.max(fromDay, NO_DAY + 1), toDay, rows);
+        return Arrays.copyOf(rows, n);
+    }
+
+    /** Rows (in order) whose product matches; the filter sees one reused flyweight view. */
+    public int[] filter(Predicate<? super Product> productFilter) {
+        ProductView view = new ProductView();
+        return select(r -> productFilter.test(view.at(r)));
+    }
+
+    /** A detached Product holding the values of the row. */
+    public Product toProduct(int row) {
+        checkRow(row);
+        return new Product(ids[row], description(row), brand(row), content(row), prices[row], active.get(row),
+                category(row), toDate(madeDays[row]), toDate(expirationDays[row]));
+    }
+
+    public List<Product> toProducts() {
+        List<Product> list = new ArrayList<>(size);
+        for (int r = 0; r < size; r++) list.add(toProduct(r));
+        return list;
+    }
+
+    /** Flyweight positioned on the row; move it with {@link ProductView#at(int)} to scan without allocating. */
+    public ProductView view(int row) {
+        return new ProductView().at(row);
+    }
+
+    /**
+     * Read-only Product backed by the store's columns. Getters read the current row; setters are
+     * unsupported (use put() to change the store). Only valid while the store is not modified.
+     */
+    public final class ProductView extends Product {
+        private int row;
+
+        private ProductView() {}
+
+        public ProductView at(int row) {
+            this.row = checkRow(row);
+            return this;
+        }
+
+        public int row() { return row; }
+
+        @Override public int getId() { return ids[row]; }
+        @Override public String getDescription() { return description(row); }
+        @Override public String getBrand() { return brands.value(brandCodes[row]); }
+        @Override public String getContent() { return contents.value(contentCodes[row]); }
+        @Override public double getPrice() { return prices[row]; }
+        @Override public boolean isActive() { return active.get(row); }
+        @Override public boolean getStatus() { return active.get(row); }
+        @Override public String getCategory() { return categories.value(categoryCodes[row]); }
+        @Override public Date getDateMade() { return toDate(madeDays[row]); }
+        @Override public Date getExpirationDate() { return toDate(expirationDays[row]); }
+
+        @Override public void setId(int id) { throw readOnly(); }
+        @Override public void setDescription(String description) { throw readOnly(); }
+        @Override public void setBrand(String brand) { throw readOnly(); }
+        @Override public void setContent(String content) { throw readOnly(); }
+        @Override public void setPrice(double price) { throw readOnly(); }
+        @Override public void setActive(boolean active) { throw readOnly(); }
+        @Override public boolean setStatus(String status) { throw readOnly(); }
+        @Override public void setCategory(String category) { throw readOnly(); }
+        @Override public void setDateMade(Date dateMade) { throw readOnly(); }
+        @Override public void setDateMade(LocalDate localDate) { throw readOnly(); }
+        @Override public void setExpirationDate(Date expirationDate) { throw readOnly(); }
+        @Override public void setExpirationDate(LocalDate localDate) { throw readOnly(); }
+
+        @Override
+        public String toString() {
+            return String.format("Product{id=%d, desc='%s', brand='%s', price=%s, active=%s}",
+                    getId(), getDescription(), getBrand(), getPrice(), isActive());
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Product view is read-only; use ColumnarProductStore.put");
+        }
+    }
+
+    // --- snapshot encoding (CatalogSnapshot) ---
+
+    /** Bytes {@link #writeColumns} needs for the current rows. */
+    int columnBytes() {
+        long bytes = 4L + (long) size * (4 + 8 + 4 + 4 + 4 + 4 + 4 + 4)
+                + 4 + 8L * active.toLongArray().length
+                + brands.encodedBytes() + contents.encodedBytes() + categories.encodedBytes() + 4;
+        for (int r = 0; r < size; r++) bytes += Math.max(0, descLengths[r]);
+        if (bytes > Integer.MAX_VALUE) throw new IllegalStateException("Catalog too large to snapshot: " + bytes + " bytes");
+        return (int) bytes;
+    }
+
+    /**
+     * Writes the columns as they are (whole arrays, dictionaries in code order, the description text
+     * compacted), so {@link #readColumns} restores the store without building a Product per row.
+     */
+    void writeColumns(ByteBuffer out) {
+        out.putInt(size);
+        putInts(out, ids);
+        out.asDoubleBuffer().put(prices, 0, size);
+        out.position(out.position() + size * 8);
+        putInts(out, madeDays);
+        putInts(out, expirationDays);
+        putInts(out, brandCodes);
+        putInts(out, contentCodes);
+        putInts(out, categoryCodes);
+        putInts(out, descLengths);
+        long[] bits = active.toLongArray();
+        out.putInt(bits.length);
+        out.asLongBuffer().put(bits);
+        out.position(out.position() + bits.length * 8);
+        brands.write(out);
+        contents.write(out);
+        categories.write(out);
+        int text = 0;
+        for (int r = 0; r < size; r++) text += Math.max(0, descLengths[r]);
+        out.putInt(text);
+        for (int r = 0; r < size; r++) {
+            if (descLengths[r] > 0) out.put(textPool, descOffsets[r], descLengths[r]);
+        }
+    }
+
+    /** Store holding the rows written by {@link #writeColumns}; the index and aggregates are rebuilt. */
+    static ColumnarProductStore readColumns(ByteBuffer in) {
+        int n = in.getInt();
+        ColumnarProductStore store = new ColumnarProductStore(n);
+        getInts(in, store.ids, n);
+        in.asDoubleBuffer().get(store.prices, 0, n);
+        in.position(in.position() + n * 8);
+        getInts(in, store.madeDays, n);
+        getInts(in, store.expirationDays, n);
+        getInts(in, store.brandCodes, n);
+        getInts(in, store.contentCodes, n);
+        getInts(in, store.categoryCodes, n);
+        getInts(in, store.descLengths, n);
+        long[] bits = new long[in.getInt()];
+        in.asLongBuffer().get(bits);
+        in.position(in.position() + bits.length * 8);
+        store.active.or(BitSet.valueOf(bits));
+        store.brands.read(in);
+        store.contents.read(in);
+        store.categories.read(in);
+        int text = in.getInt();
+        store.textPool = new byte[Math.max(1, text)];
+        in.get(store.textPool, 0, text);
+        store.textUsed = text;
+        store.size = n;
+        int offset = 0;
+        for (int r = 0; r < n; r++) {
+            store.descOffsets[r] = offset;
+            offset += Math.max(0, store.descLengths[r]);
+            if (store.rowById.get(store.ids[r]) != NO_ROW) throw new IllegalArgumentException("Duplicate ID " + store.ids[r]);
+            store.rowById.put(store.ids[r], r);
+            store.brands.value(store.brandCodes[r]);
+            store.contents.value(store.contentCodes[r]);
+            store.categories.value(store.categoryCodes[r]);
+            store.aggregates.add(store.prices[r], store.active.get(r), store.categoryCodes[r], store.brandCodes[r]);
+        }
+        if (offset != text) throw new IllegalArgumentException("Description lengths do not match the text");
+        return store;
+    }
+
+    private void putInts(ByteBuffer out, int[] column) {
+        out.asIntBuffer().put(column, 0, size);
+        out.position(out.position() + size * 4);
+    }
+
+    private static void getInts(ByteBuffer in, int[] column, int n) {
+        in.asIntBuffer().get(column, 0, n);
+        in.position(in.position() + n * 4);
+    }
+
+    // --- internals ---
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        return row;
+    }
+
+    private void storeDescription(int row, String description) {
+        if (description == null) {
+            descOffsets[row] = 0;
+            descLengths[row] = -1;
+            return;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (textUsed + bytes.length > textPool.length) {
+            if (textGarbage > textUsed / 2) compactText();
+            if (textUsed + bytes.length > textPool.length) {
+                textPool = Arrays.copyOf(textPool, Math.max(textPool.length * 2, textUsed + bytes.length));
+            }
+        }
+        System.arraycopy(bytes, 0, textPool, textUsed, bytes.length);
+        descOffsets[row] = textUsed;
+        descLengths[row] = bytes.length;
+        textUsed += bytes.length;
+    }
+
+    /** Drops text of overwritten/removed rows. */
+    private void compactText() {
+        byte[] pool = new byte[textPool.length];
+        int used = 0;
+        for (int r = 0; r < size; r++) {
+            int len = descLengths[r];
+            if (len <= 0) continue;
+            System.arraycopy(textPool, descOffsets[r], pool, used, len);
+            descOffsets[r] = used;
+            used += len;
+        }
+        textPool = pool;
+        textUsed = used;
+        textGarbage = 0;
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        prices = new double[capacity];
+        madeDays = new int[capacity];
+        expirationDays = new int[capacity];
+        brandCodes = new int[capacity];
+        contentCodes = new int[capacity];
+        categoryCodes = new int[capacity];
+        descOffsets = new int[capacity];
+        descLengths = new int[capacity];
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, ids.length + (ids.length >> 1) + 1);
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        madeDays = Arrays.copyOf(madeDays, capacity);
+        expirationDays = Arrays.copyOf(expirationDays, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        contentCodes = Arrays.copyOf(contentCodes, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        descOffsets = Arrays.copyOf(descOffsets, capacity);
+        descLengths = Arrays.copyOf(descLengths, capacity);
+    }
+
+    private static int toDay(Date date) {
+        if (date == null) return NO_DAY;
+        LocalDate d = date instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate()
+                : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return (int) d.toEpochDay();
+    }
+
+    private static Date toDate(int epochDay) {
+        if (epochDay == NO_DAY) return null;
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /** String to dense int code; null is kept as its own code. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary() {}
+
+        Dictionary(Dictionary src) {
+            codes.putAll(src.codes);
+            values.addAll(src.values);
+        }
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String value(int code) { return values.get(code); }
+        int size() { return values.size(); }
+
+        int encodedBytes() {
+            int bytes = 4;
+            for (String v : values) bytes += 4 + (v == null ? 0 : v.getBytes(StandardCharsets.UTF_8).length);
+            return bytes;
+        }
+
+        /** Values in code order, each as a length (-1 for null) and UTF-8 bytes. */
+        void write(ByteBuffer out) {
+            out.putInt(values.size());
+            for (String v : values) {
+                if (v == null) {
+                    out.putInt(-1);
+                    continue;
+                }
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                out.putInt(bytes.length);
+                out.put(bytes);
+            }
+        }
+
+        /** Reads what write() wrote into this (empty) dictionary, so the codes come back the same. */
+        void read(ByteBuffer in) {
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                int len = in.getInt();
+                String v = null;
+                if (len >= 0) {
+                    byte[] bytes = new byte[len];
+                    in.get(bytes);
+                    v = new String(bytes, StandardCharsets.UTF_8);
+                }
+                if (code(v) != i) throw new IllegalArgumentException("Duplicate dictionary value: " + v);
+            }
+        }
+    }
+
+    /** Open addressing int -> row map (linear probing, backward-shift deletion). */
+    private static final class IntIndex {
+        private static final int EMPTY = Integer.MIN_VALUE;
+        private int[] keys = newKeys(32);
+        private int[] rows = new int[32];
+        private int count;
+
+        IntIndex() {}
+
+        IntIndex(IntIndex src) {
+            keys = src.keys.clone();
+            rows = src.rows.clone();
+            count = src.count;
+        }
+
+        private static int[] newKeys(int n) {
+            int[] k = new int[n];
+            Arrays.fill(k, EMPTY);
+            return k;
+        }
+
+        private static int slot(int key, int mask) {
+            int h = key * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) return rows[i];
+            }
+            return NO_ROW;
+        }
+
+        void put(int key, int row) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == EMPTY) count++;
+            keys[i] = key;
+            rows[i] = row;
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return;
+                i = (i + 1) & mask;
+            }
+            count--;
+            // shift following entries of the cluster back so lookups never hit a hole
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    rows[i] = rows[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+        }
+
+        void clear() {
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = newKeys(oldKeys.length * 2);
+            rows = new int[oldKeys.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+}
@@ -158,11 +158,11 @@ public class Product {
         if (this == obj) return true;
         if (!(obj instanceof Product)) return false;
         Product other = (Product) obj;
-        return id == other.id;
+        return getId() == other.getId();
     }
 
     @Override
     public int hashCode() {
-        return Integer.hashCode(id);
+        return Integer.hashCode(getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,534 @@
+package app.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductChanges;
+import app.database.dao.ProductDao;
+import app.database.importer.ImportEngine;
+import app.database.importer.ImportReport;
+import app.model.ColumnarProductStore;
+import app.model.Product;
+import app.util.CatalogStatistics;
+import app.util.HashUtils;
+
+/**
+ * JSON catalog service on the JDK HttpServer, so terminals can share one data tier instead of each
+ * opening its own database connections.
+ *
+ * <pre>
+ *   GET  /products/{id}                         one product (404 when unknown)
+ *   GET  /products?q=&amp;offset=&amp;limit=           page of products by id, optionally filtered by description
+ *   GET  /stats                                 catalog statistics
+ *   POST /products/import?engine=delta          CSV request body imported with the given engine
+ * </pre>
+ *
+ * Imports write to the database, so they are guarded: with an import token set, the request must
+ * carry {@code Authorization: Bearer <token>}; without one, only clients on the loopback interface
+ * may import. {@code engine=sync} deletes every product missing from the body and is refused unless
+ * enabled with setAllowSync(true). Import bodies over setMaxImportBytes() are rejected with 413.
+ *
+ * Reads are served from an in-memory snapshot of the catalog that is brought up to date at most every
+ * {@code refreshMillis} (stale-while-revalidate: requests keep getting the previous snapshot while one
+ * background refresh runs) and right after an import. A refresh reads only the change log since the
+ * snapshot's version (ProductDao.changesSince) and merges the delta into the previous snapshot: the
+ * sorted product list is merged in one pass, the content hash is a sum of row hashes adjusted by the
+ * changed rows, and statistics are computed on the first /stats request of a snapshot. The whole
+ * table is read only at start and when the DAO asks for a full reload. A snapshot gets a new
+ * generation only when the content actually differs. Rendered responses are cached per snapshot (the
+ * most recently used RESPONSE_CACHE_SIZE of them) together with their gzip form and an ETag, so a
+ * repeated GET costs a map lookup and a conditional GET with a matching If-None-Match is answered 304
+ * without a body.
+ *
+ * Requests run on virtual threads when the JVM has them (Java 21+) and on a bounded pool otherwise.
+ * Database work is limited to the snapshot reload and imports (one at a time), so request
+ * concurrency never turns into connection pressure.
+ */
+public class CatalogServer implements AutoCloseable {
+    public static final long DEFAULT_REFRESH_MS = 5_000;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    // below this, gzip costs more than it saves
+    private static final int GZIP_MIN_BYTES = 1024;
+    // distinct queries are unbounded (q, offset, limit); only keep the recently used responses
+    private static final int RESPONSE_CACHE_SIZE = 256;
+    public static final long DEFAULT_MAX_IMPORT_BYTES = 64L * 1024 * 1024;
+
+    private record Response(byte[] body, byte[] gzip, String etag) {}
+
+    private static final class Snapshot {
+        final long generation;
+        final long contentHash;
+        final long version;
+        volatile long loadedAt;
+        /** Sorted by ID. */
+        final List<Product> products;
+        CatalogStatistics stats; // guarded by the server; see statistics()
+        final ResponseCache responses = new ResponseCache(RESPONSE_CACHE_SIZE);
+
+        Snapshot(long generation, long contentHash, long version, List<Product> products) {
+            this.generation = generation;
+            this.contentHash = contentHash;
+            this.version = version;
+            this.loadedAt = System.currentTimeMillis();
+            this.products = products;
+        }
+
+        Product find(int id) {
+            int lo = 0;
+            int hi = products.size() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int midId = products.get(mid).getId();
+                if (midId < id) lo = mid + 1;
+                else if (midId > id) hi = mid - 1;
+                else return products.get(mid);
+            }
+            return null;
+        }
+    }
+
+    private final DatabaseManager db;
+    private final ProductDao dao;
+    private final long refreshMillis;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Semaphore imports = new Semaphore(1);
+    private volatile Snapshot snapshot;
+    // the current snapshot's rows in columnar form, kept up to date by reload() for statistics
+    private ColumnarProductStore catalog;
+    private volatile String importToken;
+    private volatile boolean allowSync;
+    private volatile long maxImportBytes = DEFAULT_MAX_IMPORT_BYTES;
+
+    public CatalogServer(DatabaseManager db, ProductDao dao, InetSocketAddress address, long refreshMillis) throws IOException {
+        this.db = db;
+        this.dao = dao;
+        this.refreshMillis = refreshMillis;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /** Loads the first snapshot (so the first requests do not wait for it) and starts listening. */
+    public void start() throws SQLException {
+        reload();
+        server.start();
+    }
+
+    /** Token imports must present as {@code Authorization: Bearer <token>}; null allows loopback clients only. */
+    public void setImportToken(String token) {
+        this.importToken = token == null || token.isBlank() ? null : token;
+    }
+
+    /** Whether {@code engine=sync} (which deletes products missing from the body) is accepted. Off by default. */
+    public void setAllowSync(boolean allowSync) {
+        this.allowSync = allowSync;
+    }
+
+    public void setMaxImportBytes(long maxImportBytes) {
+        this.maxImportBytes = maxImportBytes;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Generation of the snapshot currently served; changes only when the catalog content changed. */
+    public long getGeneration() {
+        return snapshot.generation;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Virtual threads when available (Java 21+), looked up reflectively so the code still builds on 17. */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4), r -> {
+                Thread t = new Thread(r, "catalog-http-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // --- snapshot ---
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (System.currentTimeMillis() - s.loadedAt >= refreshMillis) refreshInBackground();
+        return s;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            try {
+                reload();
+            } catch (SQLException e) {
+                System.err.println("CatalogServer: reload failed: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private synchronized void reload() throws SQLException {
+        Snapshot previous = snapshot;
+        ProductChanges changes = previous == null ? null : dao.changesSince(previous.version);
+        if (changes != null && changes.isEmpty()) {
+            previous.loadedAt = System.currentTimeMillis();
+            return;
+        }
+        List<Product> products;
+        long version;
+        long hash = 0;
+        if (changes == null || changes.isFullReload()) {
+            version = dao.currentVersion();
+            products = new ArrayList<>();
+            dao.scanAll(products::add);
+            products.sort(Comparator.comparingInt(Product::getId));
+            for (Product p : products) hash += HashUtils.rowHash(p);
+            catalog = ColumnarProductStore.of(products);
+        } else {
+            // ID -> new row, or null for a delete
+            TreeMap<Integer, Product> delta = new TreeMap<>();
+            for (Product p : changes.getUpserts()) delta.put(p.getId(), p);
+            for (int id : changes.getDeletedIds()) delta.put(id, null);
+            hash = previous.contentHash;
+            for (Map.Entry<Integer, Product> e : delta.entrySet()) {
+                Product old = previous.find(e.getKey());
+                if (old != null) hash -= HashUtils.rowHash(old);
+                if (e.getValue() != null) hash += HashUtils.rowHash(e.getValue());
+            }
+            products = merge(previous.products, delta);
+            version = changes.getVersion();
+            for (Map.Entry<Integer, Product> e : delta.entrySet()) {
+                if (e.getValue() != null) catalog.put(e.getValue());
+                else catalog.remove(e.getKey());
+            }
+        }
+        long generation = previous == null ? 1 : previous.contentHash == hash ? previous.generation : previous.generation + 1;
+        snapshot = new Snapshot(generation, hash, version, Collections.unmodifiableList(products));
+    }
+
+    /** The rows of {@code sorted} with the delta applied, still sorted by ID, in one merge pass. */
+    private static List<Product> merge(List<Product> sorted, TreeMap<Integer, Product> delta) {
+        List<Product> merged = new ArrayList<>(sorted.size() + delta.size());
+        Iterator<Map.Entry<Integer, Product>> changes = delta.entrySet().iterator();
+        Map.Entry<Integer, Product> next = changes.hasNext() ? changes.next() : null;
+        for (Product p : sorted) {
+            while (next != null && next.getKey() < p.getId()) {
+                if (next.getValue() != null) merged.add(next.getValue());
+                next = changes.hasNext() ? changes.next() : null;
+            }
+            if (next != null && next.getKey() == p.getId()) {
+                if (next.getValue() != null) merged.add(next.getValue());
+                next = changes.hasNext() ? changes.next() : null;
+            } else {
+                merged.add(p);
+            }
+        }
+        for (; next != null; next = changes.hasNext() ? changes.next() : null) {
+            if (next.getValue() != null) merged.add(next.getValue());
+        }
+        return merged;
+    }
+
+    /**
+     * Statistics of a snapshot, computed on first use. The current snapshot uses the catalog store
+     * reload() maintains; an older one still held by a request gets a store of its own.
+     */
+    private synchronized CatalogStatistics statistics(Snapshot s) {
+        if (s.stats == null) {
+            ColumnarProductStore store = s == snapshot ? catalog : ColumnarProductStore.of(s.products);
+            s.stats = CatalogStatistics.compute(store, LocalDate.now());
+        }
+        return s.stats;
+    }
+
+    // --- routing ---
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String path = ex.getRequestURI().getPath();
+            String method = ex.getRequestMethod();
+            Map<String, String> query = parseQuery(ex.getRequestURI().getRawQuery());
+            if (path.equals("/products/import")) {
+                if (!method.equals("POST")) { sendError(ex, 405, "Use POST"); return; }
+                importCsv(ex, query);
+                return;
+            }
+            if (!method.equals("GET") && !method.equals("HEAD")) { sendError(ex, 405, "Use GET"); return; }
+            Snapshot s = current();
+            if (path.equals("/stats")) {
+                send(ex, s, "stats", () -> Json.stats(statistics(s)));
+            } else if (path.equals("/products")) {
+                page(ex, s, query);
+            } else if (path.startsWith("/products/")) {
+                int id = Integer.parseInt(path.substring("/products/".length()));
+                Product p = s.find(id);
+                if (p == null) sendError(ex, 404, "No product " + id);
+                else send(ex, s, "product:" + id, () -> Json.product(p));
+            } else {
+                sendError(ex, 404, "Unknown path " + path);
+            }
+        } catch (NumberFormatException e) {
+            sendError(ex, 400, "Invalid number: " + e.getMessage());
+        } catch (SQLException e) {
+            sendError(ex, 503, "Database error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(ex, 500, e.toString());
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void page(HttpExchange ex, Snapshot s, Map<String, String> query) throws IOException {
+        String q = query.getOrDefault("q", "").trim();
+        int offset = Math.max(0, Integer.parseInt(query.getOrDefault("offset", "0")));
+        int limit = Math.min(MAX_LIMIT, Math.max(1, Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)))));
+        send(ex, s, "page:" + offset + ":" + limit + ":" + q, () -> {
+            List<Product> matches = s.products;
+            if (!q.isEmpty()) {
+                // same matching as ProductDao.searchByDescription (LIKE %q%, case-insensitive collation)
+                String needle = q.toLowerCase(Locale.ROOT);
+                matches = new ArrayList<>();
+                for (Product p : s.products) {
+                    if (p.getDescription() != null && p.getDescription().toLowerCase(Locale.ROOT).contains(needle)) matches.add(p);
+                }
+            }
+            int from = Math.min(offset, matches.size());
+            int to = Math.min(matches.size(), from + limit);
+            return Json.page(matches.subList(from, to), matches.size(), offset, limit);
+        });
+    }
+
+    private void importCsv(HttpExchange ex, Map<String, String> query) throws IOException, SQLException {
+        if (!mayImport(ex)) return;
+        String name = query.getOrDefault("engine", "delta");
+        if (name.equals("sync") && !allowSync) { sendError(ex, 403, "engine=sync is disabled on this server"); return; }
+        ImportEngine engine = ImportEngine.forName(name, db, dao);
+        if (engine == null) { sendError(ex, 400, "Unknown engine"); return; }
+        String length = ex.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && Long.parseLong(length.trim()) > maxImportBytes) {
+            sendError(ex, 413, "Import body over " + maxImportBytes + " bytes");
+            return;
+        }
+        Path file = Files.createTempFile("catalog-import", ".csv");
+        try {
+            // the header may be missing (chunked) or wrong, so the copy is capped as well
+            try (InputStream in = ex.getRequestBody(); OutputStream out = Files.newOutputStream(file)) {
+                if (!copyAtMost(in, out, maxImportBytes)) {
+                    sendError(ex, 413, "Import body over " + maxImportBytes + " bytes");
+                    return;
+                }
+            }
+            ImportReport report;
+            imports.acquireUninterruptibly();
+            try {
+                report = engine.importFile(file.toFile());
+                try {
+                    reload();
+                } catch (SQLException e) {
+                    // the import is committed: report it and let the next refresh pick it up
+                    System.err.println("CatalogServer: reload after import failed: " + e.getMessage());
+                    snapshot.loadedAt = 0;
+                    refreshInBackground();
+                }
+            } finally {
+                imports.release();
+            }
+            byte[] body = Json.report(report).getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(200, body.length);
+            ex.getResponseBody().write(body);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private boolean mayImport(HttpExchange ex) throws IOException {
+        String token = importToken;
+        if (token == null) {
+            if (ex.getRemoteAddress().getAddress().isLoopbackAddress()) return true;
+            sendError(ex, 403, "Imports are only accepted from this machine unless an import token is set");
+            return false;
+        }
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        byte[] expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        if (auth != null && MessageDigest.isEqual(auth.trim().getBytes(StandardCharsets.UTF_8), expected)) return true;
+        ex.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        sendError(ex, 401, "Missing or wrong import token");
+        return false;
+    }
+
+    /** Copies until the end of {@code in}; false (having stopped) when it holds more than {@code max} bytes. */
+    private static boolean copyAtMost(InputStream in, OutputStream out, long max) throws IOException {
+        byte[] buf = new byte[64 * 1024];
+        long total = 0;
+        for (int n; (n = in.read(buf)) > 0; ) {
+            total += n;
+            if (total > max) return false;
+            out.write(buf, 0, n);
+        }
+        return true;
+    }
+
+    // --- responses ---
+
+    @FunctionalInterface
+    private interface Renderer {
+        String render();
+    }
+
+    private void send(HttpExchange ex, Snapshot s, String key, Renderer renderer) throws IOException {
+        Response r = s.responses.get(key);
+        if (r == null) r = s.responses.putIfAbsent(key, toResponse(s.generation, renderer.render()));
+        Headers h = ex.getResponseHeaders();
+        h.set("Content-Type", "application/json; charset=utf-8");
+        h.set("ETag", r.etag());
+        h.set("Cache-Control", "no-cache");
+        h.set("Vary", "Accept-Encoding");
+        if (matches(ex.getRequestHeaders().getFirst("If-None-Match"), r.etag())) {
+            ex.sendResponseHeaders(304, -1);
+            return;
+        }
+        boolean gzip = r.gzip() != null && accepts(ex.getRequestHeaders().getFirst("Accept-Encoding"), "gzip");
+        byte[] body = gzip ? r.gzip() : r.body();
+        if (gzip) h.set("Content-Encoding", "gzip");
+        if (ex.getRequestMethod().equals("HEAD")) {
+            ex.sendResponseHeaders(200, -1);
+            return;
+        }
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Response toResponse(long generation, String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        String etag = "\"" + Long.toHexString(generation) + "-" + Long.toHexString(crc.getValue()) + "\"";
+        return new Response(body, body.length >= GZIP_MIN_BYTES ? gzip(body) : null, etag);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] p = part.trim().split(";");
+            if (p[0].trim().equalsIgnoreCase(coding)) {
+                return p.length < 2 || !p[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) throws IOException {
+        byte[] body = Json.error(message).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        ex.getResponseBody().write(body);
+    }
+
+    /**
+     * Least-recently-used response cache. Rendering happens outside the lock, so two requests for a
+     * new key may both render it; the first one stored wins.
+     */
+    private static final class ResponseCache {
+        private final Map<String, Response> entries;
+
+        ResponseCache(int capacity) {
+            entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized Response get(String key) {
+            return entries.get(key);
+        }
+
+        /** Stores the response unless one is cached already; returns the cached one. */
+        synchronized Response putIfAbsent(String key, Response response) {
+            Response cached = entries.putIfAbsent(key, response);
+            return cached != null ? cached : response;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq);
+            String v = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
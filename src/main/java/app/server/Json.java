@@ -0,0 +1,140 @@
+package app.server;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import app.database.importer.ImportReport;
+import app.model.Product;
+import app.util.CatalogStatistics;
+import app.util.DateUtils;
+
+/**
+ * Minimal JSON writer for the catalog service (the project has no JSON dependency and the shapes
+ * are fixed). Numbers are written with Double.toString, dates as ISO yyyy-MM-dd.
+ */
+final class Json {
+    private Json() {}
+
+    static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        string(sb, message);
+        return sb.append('}').toString();
+    }
+
+    static String product(Product p) {
+        StringBuilder sb = new StringBuilder(192);
+        product(sb, p);
+        return sb.toString();
+    }
+
+    static String page(List<Product> items, int total, int offset, int limit) {
+        StringBuilder sb = new StringBuilder(64 + items.size() * 192);
+        sb.append("{\"total\":").append(total)
+          .append(",\"offset\":").append(offset)
+          .append(",\"limit\":").append(limit)
+          .append(",\"items\":[");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(',');
+            product(sb, items.get(i));
+        }
+        return sb.append("]}").toString();
+    }
+
+    static String stats(CatalogStatistics s) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"total\":").append(s.getTotal())
+          .append(",\"active\":").append(s.getActive())
+          .append(",\"inactive\":").append(s.getInactive())
+          .append(",\"totalValue\":").append(s.getTotalValue())
+          .append(",\"averagePrice\":").append(s.getAveragePrice())
+          .append(",\"minPrice\":").append(s.getMinPrice())
+          .append(",\"medianPrice\":").append(s.getPriceQuantile(0.5))
+          .append(",\"maxPrice\":").append(s.getMaxPrice())
+          .append(",\"expired\":").append(s.getExpired())
+          .append(",\"withoutExpiration\":").append(s.getWithoutExpiration())
+          .append(",\"categories\":");
+        counts(sb, s.getCategoryCounts());
+        sb.append(",\"brands\":");
+        counts(sb, s.getBrandCounts());
+        return sb.append('}').toString();
+    }
+
+    static String report(ImportReport r) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"engine\":");
+        string(sb, r.getEngine());
+        sb.append(",\"rows\":").append(r.getTotalRows())
+          .append(",\"imported\":").append(r.getImported())
+          .append(",\"updated\":").append(r.getUpdated())
+          .append(",\"deleted\":").append(r.getDeleted())
+          .append(",\"unchanged\":").append(r.getUnchanged())
+          .append(",\"rejected\":[");
+        List<ImportReport.RejectedRow> rejected = r.getRejected();
+        for (int i = 0; i < rejected.size(); i++) {
+            ImportReport.RejectedRow row = rejected.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"line\":").append(row.lineNumber()).append(",\"id\":");
+            string(sb, row.id());
+            sb.append(",\"reason\":");
+            string(sb, row.reason());
+            sb.append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void product(StringBuilder sb, Product p) {
+        sb.append("{\"id\":").append(p.getId()).append(",\"description\":");
+        string(sb, p.getDescription());
+        sb.append(",\"brand\":");
+        string(sb, p.getBrand());
+        sb.append(",\"content\":");
+        string(sb, p.getContent());
+        sb.append(",\"price\":").append(p.getPrice()).append(",\"category\":");
+        string(sb, p.getCategory());
+        sb.append(",\"active\":").append(p.isActive()).append(",\"dateMade\":");
+        date(sb, p.getDateMade());
+        sb.append(",\"expirationDate\":");
+        date(sb, p.getExpirationDate());
+        sb.append('}');
+    }
+
+    private static void counts(StringBuilder sb, Map<String, Integer> counts) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            string(sb, e.getKey());
+            sb.append(':').append(e.getValue());
+        }
+        sb.append('}');
+    }
+
+    private static void date(StringBuilder sb, Date d) {
+        if (d == null) sb.append("null");
+        else sb.append('"').append(DateUtils.toLocalDate(d)).append('"');
+    }
+
+    static void string(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,179 @@
+package app.sync;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductDao;
+import app.database.dao.RangeDigest;
+import app.model.Product;
+import app.util.HashUtils;
+
+/**
+ * Makes one store's catalog (target) match another's (source) by transferring only the rows that
+ * differ, instead of exporting and re-importing the whole catalog.
+ *
+ * Both catalogs are compared as Merkle trees over the ID space (see RangeDigest): the root digest of
+ * each side is fetched first, and only ranges whose digests differ are split into FANOUT sub-ranges
+ * and compared again, each range narrowed to the IDs actually present on either side. Once a
+ * differing range holds at most LEAF_ROWS rows, the two sides' row hashes for it are compared and
+ * just the rows that are new or changed are read from the source and upserted into the target.
+ * Unchanged catalogs cost two aggregate queries; a handful of edits costs a few queries per tree
+ * level plus those rows.
+ *
+ * Rows stored without a row_hash (bulk engine) make their range look different. Target rows without
+ * one are rewritten, which stores their hash; source rows without one are fetched and compared by
+ * content on every run until reindex is run on the source. Target rows missing from the source are
+ * deleted only with deleteMissing.
+ */
+public class CatalogReconciler {
+    public static final int FANOUT = 16;
+    public static final int LEAF_ROWS = 256;
+    private static final int WRITE_BATCH = 1000;
+    // covers every int ID
+    private static final long ROOT_FROM = Integer.MIN_VALUE;
+    private static final long ROOT_TO = Integer.MAX_VALUE + 1L;
+
+    /** What one reconcile() did and how much it exchanged. */
+    public record Result(int inserted, int updated, int deleted, int digestQueries, long digestsCompared,
+                         long rowHashesCompared, int rowsFetched, int unhashedRows) {
+
+        public boolean isInSync() {
+            return inserted == 0 && updated == 0 && deleted == 0;
+        }
+
+        public String toSummary() {
+            return String.format("Inserted %d, updated %d, deleted %d%n"
+                            + "Exchanged %d digest queries (%d range digests), %d row hashes, %d rows%s",
+                    inserted, updated, deleted, digestQueries, digestsCompared, rowHashesCompared, rowsFetched,
+                    unhashedRows == 0 ? ""
+                            : String.format("%n%d rows without row_hash were compared by content (run reindex)", unhashedRows));
+        }
+    }
+
+    private final ProductDao source;
+    private final ProductDao target;
+    private final boolean deleteMissing;
+
+    // per run
+    private final List<Integer> toFetch = new ArrayList<>();
+    private final Map<Integer, Long> targetHashes = new HashMap<>();
+    private ProductBatch batch;
+    private int inserted, updated, deleted, digestQueries, rowsFetched, unhashed;
+    private long digestsCompared, hashesCompared;
+
+    public CatalogReconciler(ProductDao source, ProductDao target, boolean deleteMissing) {
+        this.source = source;
+        this.target = target;
+        this.deleteMissing = deleteMissing;
+    }
+
+    /** One pass; the target is written in batches of WRITE_BATCH rows, each in its own transaction. */
+    public synchronized Result reconcile() throws SQLException {
+        toFetch.clear();
+        targetHashes.clear();
+        batch = new ProductBatch();
+        inserted = updated = deleted = digestQueries = rowsFetched = unhashed = 0;
+        digestsCompared = hashesCompared = 0;
+
+        // differing ranges still to be split or compared row by row, as {from, to, rows}
+        Deque<long[]> pending = new ArrayDeque<>();
+        compare(digest(source, ROOT_FROM, ROOT_TO, 1), digest(target, ROOT_FROM, ROOT_TO, 1), pending);
+        while (!pending.isEmpty()) {
+            long[] range = pending.pop();
+            if (range[2] <= LEAF_ROWS || range[1] - range[0] <= FANOUT) {
+                compareRows(range[0], range[1]);
+            } else {
+                compare(digest(source, range[0], range[1], FANOUT), digest(target, range[0], range[1], FANOUT), pending);
+            }
+        }
+        fetchAndWrite();
+        flush();
+        return new Result(inserted, updated, deleted, digestQueries, digestsCompared, hashesCompared, rowsFetched, unhashed);
+    }
+
+    private RangeDigest[] digest(ProductDao dao, long from, long to, int buckets) throws SQLException {
+        digestQueries++;
+        return dao.digestRanges(from, to, buckets);
+    }
+
+    /** Queues the buckets that differ, narrowed to the IDs present on either side. */
+    private void compare(RangeDigest[] src, RangeDigest[] dst, Deque<long[]> pending) {
+        for (int i = 0; i < src.length; i++) {
+            RangeDigest a = src[i];
+            RangeDigest b = dst[i];
+            digestsCompared++;
+            if (a.matches(b) || (a.isEmpty() && b.isEmpty())) continue;
+            long from = a.isEmpty() ? b.minId() : b.isEmpty() ? a.minId() : Math.min(a.minId(), b.minId());
+            long to = 1 + (a.isEmpty() ? b.maxId() : b.isEmpty() ? a.maxId() : Math.max(a.maxId(), b.maxId()));
+            pending.push(new long[]{from, to, Math.max(a.rows(), b.rows())});
+        }
+    }
+
+    /** Leaf: decides per row from the two sides' hashes; rows to copy are fetched in batches. */
+    private void compareRows(long from, long to) throws SQLException {
+        Map<Integer, Long> src = source.findRowHashes(from, to);
+        Map<Integer, Long> dst = target.findRowHashes(from, to);
+        hashesCompared += src.size() + dst.size();
+        for (Map.Entry<Integer, Long> e : src.entrySet()) {
+            int id = e.getKey();
+            Long srcHash = e.getValue();
+            if (!dst.containsKey(id)) {
+                toFetch.add(id);
+            } else {
+                Long dstHash = dst.get(id);
+                if (srcHash == null || dstHash == null) {
+                    unhashed++;
+                    toFetch.add(id);
+                    targetHashes.put(id, dstHash);
+                } else if (!srcHash.equals(dstHash)) {
+                    toFetch.add(id);
+                    targetHashes.put(id, dstHash);
+                }
+            }
+        }
+        if (deleteMissing) {
+            for (int id : dst.keySet()) {
+                if (!src.containsKey(id)) {
+                    batch.delete(id);
+                    deleted++;
+                }
+            }
+        }
+        if (toFetch.size() >= WRITE_BATCH) fetchAndWrite();
+        if (batch.size() >= WRITE_BATCH) flush();
+    }
+
+    private void fetchAndWrite() throws SQLException {
+        if (toFetch.isEmpty()) return;
+        int[] ids = toFetch.stream().mapToInt(Integer::intValue).toArray();
+        toFetch.clear();
+        List<Product> rows = source.findByIds(ids);
+        rowsFetched += rows.size();
+        for (Product p : rows) {
+            if (!targetHashes.containsKey(p.getId())) {
+                batch.insert(p);
+                inserted++;
+                continue;
+            }
+            Long dstHash = targetHashes.remove(p.getId());
+            // a source row without a stored hash may turn out equal once hashed
+            if (dstHash != null && dstHash == HashUtils.rowHash(p)) continue;
+            batch.update(p);
+            updated++;
+        }
+        targetHashes.clear();
+        if (batch.size() >= WRITE_BATCH) flush();
+    }
+
+    private void flush() throws SQLException {
+        if (batch.isEmpty()) return;
+        target.applyBatch(batch);
+        batch = new ProductBatch();
+    }
+}
@@ -0,0 +1,187 @@
+package app.sync;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other terminals on the LAN which products this one wrote, over UDP multicast.
+ *
+ * Local writes are queued with {@link #publish(int)}; a sender thread coalesces what arrives within
+ * a few milliseconds into datagrams of up to MAX_IDS_PER_DATAGRAM IDs. A receiver thread hands the IDs
+ * written by other terminals to the callback given to {@link #start(Consumer)}; the terminal then
+ * refetches just those rows. Datagrams from this instance are recognised by a random sender ID and
+ * skipped (multicast loopback stays on so several terminals can run on one machine).
+ *
+ * Delivery is best effort, so this only shortens the delay: terminals keep a slow change-log poll
+ * (ProductDao.changesSince) as the safety net for lost datagrams and for writes that bypass the DAO.
+ *
+ * Datagram: int magic, long sender, int count, count x int id.
+ */
+public class ChangeBroadcaster implements AutoCloseable {
+    /** {@code group:port} in db.properties, e.g. {@code sync.multicast=239.255.42.99:4446}. */
+    public static final String PROPERTY = "sync.multicast";
+
+    private static final int MAGIC = 0x53485043; // "SHPC"
+    private static final int MAX_IDS_PER_DATAGRAM = 256;
+    private static final int COALESCE_MS = 20;
+    private static final int TTL = 1; // stay on the local network
+
+    private final InetSocketAddress group;
+    private final long sender = ThreadLocalRandom.current().nextLong();
+    private final MulticastSocket socket;
+    private final BlockingQueue<Integer> outgoing = new LinkedBlockingQueue<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile boolean closed;
+    private Thread senderThread;
+    private Thread receiverThread;
+
+    public ChangeBroadcaster(InetSocketAddress group) throws IOException {
+        this.group = group;
+        this.socket = new MulticastSocket(group.getPort());
+        socket.setTimeToLive(TTL);
+        socket.joinGroup(group, null);
+    }
+
+    /** Broadcaster configured by {@link #PROPERTY}, or null when the property is not set. */
+    public static ChangeBroadcaster fromProperties(Properties props) throws IOException {
+        String value = props.getProperty(PROPERTY, "").trim();
+        if (value.isEmpty()) return null;
+        int colon = value.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException(PROPERTY + " must be group:port, got " + value);
+        InetAddress address = InetAddress.getByName(value.substring(0, colon));
+        return new ChangeBroadcaster(new InetSocketAddress(address, Integer.parseInt(value.substring(colon + 1))));
+    }
+
+    /** Starts sending and receiving; {@code onRemoteChange} runs on the receiver thread. */
+    public synchronized void start(Consumer<int[]> onRemoteChange) {
+        if (senderThread != null) return;
+        senderThread = daemon("change-broadcast", this::sendLoop);
+        receiverThread = daemon("change-listen", () -> receiveLoop(onRemoteChange));
+    }
+
+    /** Queues a product ID written by this terminal. */
+    public void publish(int id) {
+        if (!closed) outgoing.add(id);
+    }
+
+    public long getSentDatagrams() { return sent.get(); }
+    public long getReceivedDatagrams() { return received.get(); }
+
+    @Override
+    public void close() {
+        closed = true;
+        socket.close(); // unblocks the receiver
+        Thread t = senderThread;
+        if (t != null) t.interrupt();
+    }
+
+    private static Thread daemon(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private void sendLoop() {
+        try {
+            while (!closed) {
+                Set<Integer> ids = new LinkedHashSet<>();
+                ids.add(outgoing.take());
+                // let a burst (batch, import) collect into as few datagrams as possible
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COALESCE_MS);
+                Integer next;
+                while ((next = outgoing.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) != null) {
+                    ids.add(next);
+                }
+                send(ids);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void send(Set<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += MAX_IDS_PER_DATAGRAM) {
+            List<Integer> chunk = all.subList(from, Math.min(all.size(), from + MAX_IDS_PER_DATAGRAM));
+            byte[] data = encode(chunk);
+            try {
+                socket.send(new DatagramPacket(data, data.length, group));
+                sent.incrementAndGet();
+            } catch (IOException e) {
+                if (closed) return;
+                System.err.println("ChangeBroadcaster: send failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private byte[] encode(List<Integer> ids) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + ids.size() * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeLong(sender);
+            out.writeInt(ids.size());
+            for (int id : ids) out.writeInt(id);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    private void receiveLoop(Consumer<int[]> onRemoteChange) {
+        byte[] buffer = new byte[16 + MAX_IDS_PER_DATAGRAM * 4];
+        while (!closed) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                System.err.println("ChangeBroadcaster: receive failed: " + e.getMessage());
+                continue;
+            }
+            int[] ids = decode(packet);
+            if (ids == null) continue;
+            received.incrementAndGet();
+            try {
+                onRemoteChange.accept(ids);
+            } catch (RuntimeException e) {
+                System.err.println("ChangeBroadcaster: change handler failed: " + e);
+            }
+        }
+    }
+
+    /** IDs of a datagram from another terminal, or null for our own or foreign traffic. */
+    private int[] decode(DatagramPacket packet) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength()))) {
+            if (in.readInt() != MAGIC || in.readLong() == sender) return null;
+            int count = in.readInt();
+            if (count < 0 || count > MAX_IDS_PER_DATAGRAM) return null;
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) ids[i] = in.readInt();
+            return ids;
+        } catch (IOException e) {
+            return null; // truncated
+        }
+    }
+}
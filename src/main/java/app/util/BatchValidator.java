@@ -0,0 +1,124 @@
+package app.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import app.model.Category;
+
+/**
+ * Bulk counterpart of ValidationUtils.validateProductFields for imports.
+ *
+ * Each rule scans a single column of a ProductColumns batch and sets one bit per failing row.
+ * Rows are split into word-aligned chunks and (rule, chunk) pairs run in parallel, each writing its
+ * own words of the rule's bitmap, so there is no locking and nothing is allocated per row.
+ * Error messages are only built on demand for the rows that are reported.
+ */
+public final class BatchValidator {
+    private static final int CHUNK_ROWS = 64 * 256; // multiple of 64 so chunks never share a bitmap word
+    private static final int MAX_TEXT = 30;
+
+    public enum Rule {
+        ID(ValidationUtils.MSG_ID),
+        DESCRIPTION(ValidationUtils.MSG_DESCRIPTION),
+        BRAND(ValidationUtils.MSG_BRAND),
+        CONTENT(ValidationUtils.MSG_CONTENT),
+        CATEGORY(ValidationUtils.MSG_CATEGORY),
+        PRICE(ValidationUtils.MSG_PRICE),
+        STATUS(ValidationUtils.MSG_STATUS),
+        DATES(ValidationUtils.MSG_DATES);
+
+        private final String message;
+        Rule(String message) { this.message = message; }
+        public String getMessage() { return message; }
+    }
+
+    private BatchValidator() {}
+
+    public static Result validate(ProductColumns columns) {
+        int n = columns.size();
+        Rule[] rules = Rule.values();
+        int words = (n + 63) >>> 6;
+        long[][] bits = new long[rules.length][words];
+        int chunks = (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+
+        IntStream.range(0, rules.length * chunks).parallel().forEach(task -> {
+            Rule rule = rules[task / chunks];
+            int from = (task % chunks) * CHUNK_ROWS;
+            int to = Math.min(n, from + CHUNK_ROWS);
+            scan(rule, columns, from, to, bits[rule.ordinal()]);
+        });
+
+        BitSet[] failures = new BitSet[rules.length];
+        for (Rule rule : rules) {
+            failures[rule.ordinal()] = BitSet.valueOf(bits[rule.ordinal()]);
+        }
+        return new Result(n, failures);
+    }
+
+    private static void scan(Rule rule, ProductColumns c, int from, int to, long[] out) {
+        for (int i = from; i < to; i++) {
+            boolean fails = switch (rule) {
+                case ID -> c.ids[i] < ValidationUtils.MIN_ID || c.ids[i] > ValidationUtils.MAX_ID;
+                case DESCRIPTION -> !isValidText(c.descriptions[i]);
+                case BRAND -> !isValidText(c.brands[i]);
+                case CONTENT -> !isValidText(c.contents[i]);
+                case CATEGORY -> !Category.contains(c.categories[i]);
+                case PRICE -> !(c.prices[i] > 0.0); // also rejects NaN
+                case STATUS -> !ValidationUtils.isValidStatus(c.statuses[i]);
+                case DATES -> c.madeDays[i] == ProductColumns.MISSING_DAY || c.madeDays[i] == ProductColumns.INVALID_DAY
+                        || c.expirationDays[i] == ProductColumns.INVALID_DAY
+                        || (c.expirationDays[i] != ProductColumns.MISSING_DAY && c.madeDays[i] >= c.expirationDays[i]);
+            };
+            if (fails) out[i >>> 6] |= 1L << i;
+        }
+    }
+
+    // Same rule as ValidationUtils.isValidDescription without allocating a trimmed copy
+    private static boolean isValidText(String s) {
+        if (s == null) return false;
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        int len = end - start;
+        return len > 0 && len <= MAX_TEXT;
+    }
+
+    /**
+     * Per-rule failure bitmaps for a validated batch.
+     */
+    public static final class Result {
+        private final int size;
+        private final BitSet[] failures;
+        private final BitSet invalid = new BitSet();
+
+        private Result(int size, BitSet[] failures) {
+            this.size = size;
+            this.failures = failures;
+            for (BitSet f : failures) invalid.or(f);
+        }
+
+        public int size() { return size; }
+        public BitSet failures(Rule rule) { return (BitSet) failures[rule.ordinal()].clone(); }
+        public BitSet invalidRows() { return (BitSet) invalid.clone(); }
+        public int invalidCount() { return invalid.cardinality(); }
+        public boolean isValid(int row) { return !invalid.get(row); }
+
+        /** Builds the error messages of one row, in the same order as ValidationUtils. */
+        public List<String> errorsFor(int row) {
+            List<String> errors = new ArrayList<>(2);
+            for (Rule rule : Rule.values()) {
+                if (failures[rule.ordinal()].get(row)) errors.add(rule.getMessage());
+            }
+            return errors;
+        }
+
+        public ValidationResult toValidationResult(int row) {
+            ValidationResult r = new ValidationResult();
+            for (String e : errorsFor(row)) r.addError(e);
+            return r;
+        }
+    }
+}
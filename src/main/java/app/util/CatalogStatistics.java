@@ -0,0 +1,259 @@
+package app.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import app.model.CatalogAggregates;
+import app.model.ColumnarProductStore;
+
+/**
+ * Catalog analytics computed in a single parallel pass over a ColumnarProductStore.
+ *
+ * The rows are split into chunks on the common ForkJoinPool; each chunk fills an Accumulator
+ * (counts, price sum/min/max, category and brand counts by dictionary code, price histogram,
+ * quantile sketch and expiry windows) and accumulators are merged pairwise on the way back up.
+ * The result is an immutable summary the dialog only has to render.
+ *
+ * The store is not thread-safe: compute() must not run while another thread writes to it. Call it
+ * from the thread that owns the store (the EDT), which it blocks for the parallel pass, or on a
+ * private copy() on any thread, as StatisticsDialog does from a SwingWorker.
+ */
+public final class CatalogStatistics {
+    /** Upper bounds of the display histogram bins (1-2-5 series); the last bin is open-ended. */
+    public static final double[] HISTOGRAM_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    /** Expiry windows in days from today, reported as "expiring within N days". */
+    public static final int[] EXPIRY_WINDOWS = {7, 30, 90};
+
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    private final int total;
+    private final int active;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final Map<String, Integer> categories;
+    private final Map<String, Integer> brands;
+    private final int[] histogram;
+    private final QuantileSketch prices;
+    private final int expired;
+    private final int[] expiringWithin;
+    private final int withoutExpiration;
+
+    private CatalogStatistics(ColumnarProductStore store, Accumulator acc) {
+        total = acc.count;
+        active = acc.active;
+        sum = acc.sum;
+        min = acc.count == 0 ? 0 : acc.min;
+        max = acc.count == 0 ? 0 : acc.max;
+        categories = names(acc.categoryCodes, store::categoryName);
+        brands = names(acc.brandCodes, store::brandName);
+        histogram = acc.histogram;
+        prices = acc.sketch;
+        expired = acc.expired;
+        expiringWithin = acc.expiringWithin;
+        withoutExpiration = acc.withoutExpiration;
+    }
+
+    /** Computes the statistics of the whole store; expiry windows are relative to today. */
+    public static CatalogStatistics compute(ColumnarProductStore store, LocalDate today) {
+        int todayDay = (int) today.toEpochDay();
+        Accumulator acc = store.size() <= CHUNK_ROWS
+                ? new Accumulator(store, todayDay).scan(0, store.size())
+                : ForkJoinPool.commonPool().invoke(new Pass(store, todayDay, 0, store.size()));
+        return new CatalogStatistics(store, acc);
+    }
+
+    public int getTotal() { return total; }
+    public int getActive() { return active; }
+    public int getInactive() { return total - active; }
+    public double getTotalValue() { return sum; }
+    public double getAveragePrice() { return total == 0 ? 0 : sum / total; }
+    public double getMinPrice() { return min; }
+    public double getMaxPrice() { return max; }
+    /** Product count per category name (null shown as "Unknown"), largest first. */
+    public Map<String, Integer> getCategoryCounts() { return categories; }
+    /** Product count per brand name (null shown as "Unknown"), largest first. */
+    public Map<String, Integer> getBrandCounts() { return brands; }
+    /** Counts per HISTOGRAM_BOUNDS bin, plus one final bin for prices above the last bound. */
+    public int[] getPriceHistogram() { return histogram.clone(); }
+    /** Approximate price quantile (q in [0, 1]) within 1% relative error. */
+    public double getPriceQuantile(double q) { return prices.quantile(q); }
+    public int getExpired() { return expired; }
+    /** Products not yet expired that expire within EXPIRY_WINDOWS[i] days (windows are cumulative). */
+    public int getExpiringWithin(int windowIndex) { return expiringWithin[windowIndex]; }
+    public int getWithoutExpiration() { return withoutExpiration; }
+
+    /** True when the store's running aggregates agree with this full pass (price total to the cent). */
+    public boolean agreesWith(CatalogAggregates live) {
+        return total == live.getTotal() && active == live.getActive()
+                && Math.abs(sum - live.getTotalValue()) < 0.005
+                && min == live.getMinPrice() && max == live.getMaxPrice()
+                && categories.equals(live.getCategoryCounts()) && brands.equals(live.getBrandCounts());
+    }
+
+    private interface CodeNames { String name(int code); }
+
+    private static Map<String, Integer> names(int[] codeCounts, CodeNames names) {
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (int code = 0; code < codeCounts.length; code++) {
+            if (codeCounts[code] == 0) continue;
+            String name = names.name(code);
+            byName.merge(name != null ? name : "Unknown", codeCounts[code], Integer::sum);
+        }
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        byName.entrySet().stream()
+                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    private static final class Pass extends RecursiveTask<Accumulator> {
+        private final ColumnarProductStore store;
+        private final int today;
+        private final int from;
+        private final int to;
+
+        Pass(ColumnarProductStore store, int today, int from, int to) {
+            this.store = store;
+            this.today = today;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= CHUNK_ROWS) return new Accumulator(store, today).scan(from, to);
+            int mid = (from + to) >>> 1;
+            Pass left = new Pass(store, today, from, mid);
+            left.fork();
+            Accumulator right = new Pass(store, today, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /** Mergeable per-chunk state. */
+    private static final class Accumulator {
+        private final ColumnarProductStore store;
+        private final int today;
+        int count;
+        int active;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final int[] categoryCodes;
+        final int[] brandCodes;
+        final int[] histogram = new int[HISTOGRAM_BOUNDS.length + 1];
+        final QuantileSketch sketch = new QuantileSketch();
+        int expired;
+        final int[] expiringWithin = new int[EXPIRY_WINDOWS.length];
+        int withoutExpiration;
+
+        Accumulator(ColumnarProductStore store, int today) {
+            this.store = store;
+            this.today = today;
+            categoryCodes = new int[store.categoryCount()];
+            brandCodes = new int[store.brandCount()];
+        }
+
+        Accumulator scan(int from, int to) {
+            for (int row = from; row < to; row++) {
+                double price = store.price(row);
+                count++;
+                if (store.isActive(row)) active++;
+                sum += price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+                categoryCodes[store.categoryCode(row)]++;
+                brandCodes[store.brandCode(row)]++;
+                histogram[histogramBin(price)]++;
+                sketch.add(price);
+
+                int exp = store.expirationDay(row);
+                if (exp == ColumnarProductStore.NO_DAY) {
+                    withoutExpiration++;
+                } else if (exp < today) {
+                    expired++;
+                } else {
+                    for (int w = 0; w < EXPIRY_WINDOWS.length; w++) {
+                        if (exp - today <= EXPIRY_WINDOWS[w]) expiringWithin[w]++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        Accumulator merge(Accumulator o) {
+            count += o.count;
+            active += o.active;
+            sum += o.sum;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            add(categoryCodes, o.categoryCodes);
+            add(brandCodes, o.brandCodes);
+            add(histogram, o.histogram);
+            sketch.merge(o.sketch);
+            expired += o.expired;
+            add(expiringWithin, o.expiringWithin);
+            withoutExpiration += o.withoutExpiration;
+            return this;
+        }
+
+        private static void add(int[] into, int[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+
+        private static int histogramBin(double price) {
+            int bin = Arrays.binarySearch(HISTOGRAM_BOUNDS, price);
+            // exact bound belongs to the bin it closes; otherwise the insertion point is the bin
+            return bin >= 0 ? bin : -bin - 1;
+        }
+    }
+
+    /**
+     * Log-bucketed quantile sketch: a bucket holds values in (GAMMA^(k-1), GAMMA^k] and is read back as
+     * its relative midpoint, so quantiles are within (GAMMA - 1) / (GAMMA + 1), about 1%, of a real
+     * value. Mergeable by adding bucket counts. Values at or below MIN_VALUE (including zero and
+     * negatives) share the first bucket.
+     */
+    static final class QuantileSketch {
+        private static final double GAMMA = 1.02;
+        private static final double LOG_GAMMA = Math.log(GAMMA);
+        private static final double MIN_VALUE = 0.01;
+        private static final int OFFSET = (int) Math.ceil(Math.log(MIN_VALUE) / LOG_GAMMA);
+
+        private int[] buckets = new int[64];
+        private long count;
+
+        void add(double value) {
+            int i = value <= MIN_VALUE ? 0 : (int) Math.ceil(Math.log(value) / LOG_GAMMA) - OFFSET;
+            if (i >= buckets.length) buckets = Arrays.copyOf(buckets, Math.max(i + 1, buckets.length * 2));
+            buckets[i]++;
+            count++;
+        }
+
+        void merge(QuantileSketch o) {
+            if (o.buckets.length > buckets.length) buckets = Arrays.copyOf(buckets, o.buckets.length);
+            for (int i = 0; i < o.buckets.length; i++) buckets[i] += o.buckets[i];
+            count += o.count;
+        }
+
+        double quantile(double q) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(Math.max(0, Math.min(1, q)) * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) {
+                    if (i == 0) return MIN_VALUE;
+                    // midpoint of the bucket in relative terms
+                    return 2 * Math.pow(GAMMA, i + OFFSET) / (GAMMA + 1);
+                }
+            }
+            return 2 * Math.pow(GAMMA, buckets.length - 1 + OFFSET) / (GAMMA + 1);
+        }
+    }
+}
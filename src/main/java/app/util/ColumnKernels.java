@@ -0,0 +1,61 @@
+package app.util;
+
+/**
+ * Scan kernels over primitive columns (see ColumnarProductStore): range filters and price aggregates.
+ *
+ * Two implementations exist. {@code VectorColumnKernels} uses the JDK Vector API (jdk.incubator.vector)
+ * and is picked when the JVM was started with {@code --add-modules jdk.incubator.vector}. Otherwise
+ * {@code ScalarColumnKernels}, plain loops, is used. Setting the system property
+ * {@code shop.kernels=scalar} forces the scalar version.
+ */
+public interface ColumnKernels {
+
+    /** count/sum/min/max of a double column; min and max are NaN when count is 0. */
+    record Summary(int count, double sum, double min, double max) {
+        public static final Summary EMPTY = new Summary(0, 0, Double.NaN, Double.NaN);
+
+        public double avg() { return count == 0 ? 0 : sum / count; }
+    }
+
+    /** Short name of the implementation, e.g. for benchmarks and logs. */
+    String getName();
+
+    /** Writes the indexes i < n with lo <= values[i] <= hi into rows (in order) and returns how many there are. */
+    int selectBetween(double[] values, int n, double lo, double hi, int[] rows);
+
+    /** Same as the double version for int columns such as epoch days. */
+    int selectBetween(int[] values, int n, int lo, int hi, int[] rows);
+
+    /** Number of indexes i < n with lo <= values[i] <= hi. */
+    int countBetween(double[] values, int n, double lo, double hi);
+
+    /** Aggregates values[0..n). */
+    Summary summarize(double[] values, int n);
+
+    /** The fastest implementation available in this JVM. */
+    static ColumnKernels get() {
+        return Holder.INSTANCE;
+    }
+
+    /** The plain-loop implementation (reference for tests and benchmarks). */
+    static ColumnKernels scalar() {
+        return ScalarColumnKernels.INSTANCE;
+    }
+
+    final class Holder {
+        static final ColumnKernels INSTANCE = select();
+
+        private Holder() {}
+
+        private static ColumnKernels select() {
+            if ("scalar".equalsIgnoreCase(System.getProperty("shop.kernels"))) return ScalarColumnKernels.INSTANCE;
+            try {
+                // loaded reflectively: the class cannot even be linked without the incubator module
+                Class<?> type = Class.forName("app.util.VectorColumnKernels");
+                return (ColumnKernels) type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return ScalarColumnKernels.INSTANCE;
+            }
+        }
+    }
+}
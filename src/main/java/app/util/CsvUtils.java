@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import app.model.Product;
@@ -17,9 +18,11 @@ import app.model.Product;
  * Utility class for exporting and importing products to/from CSV files.
  */
 public final class CsvUtils {
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+    // SimpleDateFormat is not thread-safe; imports may run on several worker threads at once
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("dd/MM/yyyy"));
     private static final String CSV_SEPARATOR = ",";
-    private static final String CSV_HEADER = "ID,Description,Brand,Content,Price,Category,Status,DateMade,ExpirationDate";
+    /** Header line written by exportToCsv. */
+    public static final String HEADER = "ID,Description,Brand,Content,Price,Category,Status,DateMade,ExpirationDate";
 
     private CsvUtils() {}
 
@@ -29,12 +32,12 @@ public final class CsvUtils {
     public static void exportToCsv(List<Product> products, File file) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
             // Write header
-            writer.write(CSV_HEADER);
+            writer.write(HEADER);
             writer.newLine();
 
             // Write products
             for (Product p : products) {
-                writer.write(productToCsvLine(p));
+                writer.write(toCsvLine(p));
                 writer.newLine();
             }
         }
@@ -66,9 +69,69 @@ public final class CsvUtils {
     }
 
     /**
-     * Converts a product to a CSV line.
+     * Splits a CSV record into its unescaped fields. Quoted fields may hold separators, line breaks
+     * and doubled quotes, as written by exportToCsv and read by LOAD DATA ... OPTIONALLY ENCLOSED BY
+     * '"'; unquoted fields are trimmed.
      */
-    private static String productToCsvLine(Product p) {
+    public static String[] splitFields(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && !wasQuoted && field.toString().isBlank()) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (!wasQuoted || !Character.isWhitespace(c)) {
+                field.append(c);
+            }
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * True when text ends inside a quoted field, i.e. the record continues on the next line.
+     */
+    public static boolean endsInsideQuotes(String text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') quotes++;
+        }
+        return quotes % 2 != 0;
+    }
+
+    /**
+     * Parses a dd/MM/yyyy date as written by exportToCsv. Returns null for blank or malformed values.
+     */
+    public static Date parseDate(String value) {
+        if (value == null || value.trim().isEmpty()) return null;
+        try {
+            return DATE_FORMAT.get().parse(value.trim());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a product to a CSV line (without line separator).
+     */
+    public static String toCsvLine(Product p) {
         StringBuilder sb = new StringBuilder();
         sb.append(p.getId()).append(CSV_SEPARATOR);
         sb.append(escape(p.getDescription())).append(CSV_SEPARATOR);
@@ -77,15 +140,15 @@ public final class CsvUtils {
         sb.append(p.getPrice()).append(CSV_SEPARATOR);
         sb.append(escape(p.getCategory())).append(CSV_SEPARATOR);
         sb.append(p.isActive() ? "Active" : "Inactive").append(CSV_SEPARATOR);
-        sb.append(p.getDateMade() != null ? DATE_FORMAT.format(p.getDateMade()) : "").append(CSV_SEPARATOR);
-        sb.append(p.getExpirationDate() != null ? DATE_FORMAT.format(p.getExpirationDate()) : "");
+        sb.append(p.getDateMade() != null ? DATE_FORMAT.get().format(p.getDateMade()) : "").append(CSV_SEPARATOR);
+        sb.append(p.getExpirationDate() != null ? DATE_FORMAT.get().format(p.getExpirationDate()) : "");
         return sb.toString();
     }
 
     /**
-     * Converts a CSV line to a product.
+     * Converts a CSV line to a product. Returns null when the line is malformed.
      */
-    private static Product csvLineToProduct(String line) {
+    public static Product csvLineToProduct(String line) {
         String[] parts = line.split(CSV_SEPARATOR, -1);
         if (parts.length < 9) return null;
 
@@ -100,11 +163,11 @@ public final class CsvUtils {
             p.setActive("Active".equalsIgnoreCase(parts[6].trim()));
             
             if (!parts[7].trim().isEmpty()) {
-                p.setDateMade(DATE_FORMAT.parse(parts[7].trim()));
+                p.setDateMade(DATE_FORMAT.get().parse(parts[7].trim()));
             }
             
             if (!parts[8].trim().isEmpty()) {
-                p.setExpirationDate(DATE_FORMAT.parse(parts[8].trim()));
+                p.setExpirationDate(DATE_FORMAT.get().parse(parts[8].trim()));
             }
         } catch (NumberFormatException | ParseException e) {
             System.err.println("Error parsing product data: " + e.getMessage());
@@ -1,5 +1,21 @@
 package app.util;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
 public class DateUtils {
-    
+
+    /** Converts a java.util.Date (or java.sql.Date) to a LocalDate in the system zone; null stays null. */
+    public static LocalDate toLocalDate(Date date) {
+        if (date == null) return null;
+        if (date instanceof java.sql.Date sqlDate) return sqlDate.toLocalDate();
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /** Days since 1970-01-01 for the given date, or Long.MIN_VALUE when null. */
+    public static long toEpochDay(Date date) {
+        LocalDate d = toLocalDate(date);
+        return d == null ? Long.MIN_VALUE : d.toEpochDay();
+    }
 }
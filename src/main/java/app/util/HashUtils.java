@@ -0,0 +1,67 @@
+package app.util;
+
+import app.model.Product;
+
+/**
+ * Content hashing for products, used to detect changed rows without comparing every column.
+ */
+public final class HashUtils {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9E3779B97F4A7C15L;
+
+    private HashUtils() {}
+
+    /**
+     * 64-bit hash over every persisted column of the product. Values are normalized the way the
+     * database stores them (price in cents, dates as calendar days) so a row read back from the
+     * DB hashes the same as the product that was written.
+     */
+    public static long rowHash(Product p) {
+        long h = FNV_OFFSET;
+        h = mix(h, p.getId());
+        h = mix(h, p.getDescription());
+        h = mix(h, p.getBrand());
+        h = mix(h, p.getContent());
+        h = mix(h, p.getCategory());
+        h = mix(h, Math.round(p.getPrice() * 100));
+        h = mix(h, p.isActive() ? 1 : 0);
+        h = mix(h, DateUtils.toEpochDay(p.getDateMade()));
+        h = mix(h, DateUtils.toEpochDay(p.getExpirationDate()));
+        return finish(h);
+    }
+
+    /** Order-dependent combination of two hashes (e.g. child hashes in a tree). */
+    public static long combine(long a, long b) {
+        return finish(mix(mix(FNV_OFFSET, a), b));
+    }
+
+    private static long mix(long h, String s) {
+        if (s == null) return mix(h, NULL_MARKER);
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        // field separator so ("ab","c") and ("a","bc") differ
+        h ^= 0x1F;
+        return h * FNV_PRIME;
+    }
+
+    private static long mix(long h, long v) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (v >>> (i * 8)) & 0xFF;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    // murmur3 fmix64: spreads FNV's weak high bits
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
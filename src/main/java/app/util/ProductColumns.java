@@ -0,0 +1,148 @@
+package app.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.List;
+
+import app.model.Product;
+
+/**
+ * Column-oriented batch of import rows, the input of BatchValidator.
+ *
+ * Imports fill it straight from the CSV fields ({@link #fromCsv}): each field is parsed into its
+ * column and a Product is only built, with {@link #toProduct}, for rows that passed validation.
+ * Values that are missing or do not parse use sentinels instead of boxing: MISSING_ID, NaN prices,
+ * MISSING_DAY (no date) and INVALID_DAY (a date that does not parse); the status keeps its text so
+ * the STATUS rule sees what the file said.
+ */
+public final class ProductColumns {
+    public static final int MISSING_ID = Integer.MIN_VALUE;
+    public static final long MISSING_DAY = Long.MIN_VALUE;
+    public static final long INVALID_DAY = Long.MIN_VALUE + 1;
+    private static final int FIELDS = 9;
+    // same dd/MM/yyyy as CsvUtils, but impossible dates (31/02) are rejected instead of rolled over
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    final int size;
+    final int[] ids;
+    final String[] descriptions;
+    final String[] brands;
+    final String[] contents;
+    final String[] categories;
+    final double[] prices;
+    final String[] statuses;
+    final long[] madeDays;
+    final long[] expirationDays;
+
+    public ProductColumns(int size) {
+        this.size = size;
+        ids = new int[size];
+        descriptions = new String[size];
+        brands = new String[size];
+        contents = new String[size];
+        categories = new String[size];
+        prices = new double[size];
+        statuses = new String[size];
+        madeDays = new long[size];
+        expirationDays = new long[size];
+    }
+
+    public static ProductColumns of(List<Product> products) {
+        ProductColumns c = new ProductColumns(products.size());
+        for (int i = 0; i < c.size; i++) {
+            c.set(i, products.get(i));
+        }
+        return c;
+    }
+
+    /** Columns of the given CSV lines (without header), parsed with CsvUtils.splitFields. */
+    public static ProductColumns fromCsv(List<String> lines) {
+        ProductColumns c = new ProductColumns(lines.size());
+        for (int i = 0; i < c.size; i++) {
+            c.setFields(i, CsvUtils.splitFields(lines.get(i)));
+        }
+        return c;
+    }
+
+    /** Parses one CSV row (fields in CsvUtils.HEADER order); a short row leaves the rest missing. */
+    public void setFields(int row, String[] fields) {
+        ids[row] = parseId(field(fields, 0));
+        descriptions[row] = field(fields, 1);
+        brands[row] = field(fields, 2);
+        contents[row] = field(fields, 3);
+        prices[row] = parsePrice(field(fields, 4));
+        categories[row] = field(fields, 5);
+        statuses[row] = field(fields, 6);
+        madeDays[row] = parseDay(field(fields, 7));
+        expirationDays[row] = parseDay(field(fields, 8));
+    }
+
+    public void set(int row, Product p) {
+        ids[row] = p.getId();
+        descriptions[row] = p.getDescription();
+        brands[row] = p.getBrand();
+        contents[row] = p.getContent();
+        categories[row] = p.getCategory();
+        prices[row] = p.getPrice();
+        statuses[row] = p.isActive() ? "Active" : "Inactive";
+        madeDays[row] = DateUtils.toEpochDay(p.getDateMade());
+        expirationDays[row] = DateUtils.toEpochDay(p.getExpirationDate());
+    }
+
+    public int size() { return size; }
+    /** The row's ID, or MISSING_ID when the field is missing or not a number. */
+    public int getId(int row) { return ids[row]; }
+
+    /** Product holding the row's values; meant for rows BatchValidator accepted. */
+    public Product toProduct(int row) {
+        Product p = new Product();
+        p.setId(ids[row]);
+        p.setDescription(descriptions[row]);
+        p.setBrand(brands[row]);
+        p.setContent(contents[row]);
+        p.setCategory(categories[row]);
+        p.setPrice(prices[row]);
+        p.setActive("Active".equalsIgnoreCase(statuses[row]));
+        if (isDay(madeDays[row])) p.setDateMade(LocalDate.ofEpochDay(madeDays[row]));
+        if (isDay(expirationDays[row])) p.setExpirationDate(LocalDate.ofEpochDay(expirationDays[row]));
+        return p;
+    }
+
+    private static boolean isDay(long day) {
+        return day != MISSING_DAY && day != INVALID_DAY;
+    }
+
+    private static String field(String[] fields, int index) {
+        if (index >= fields.length) return null;
+        return fields[index].trim();
+    }
+
+    private static int parseId(String value) {
+        if (value == null) return MISSING_ID;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return MISSING_ID;
+        }
+    }
+
+    private static double parsePrice(String value) {
+        if (value == null) return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long parseDay(String value) {
+        if (value == null || value.isEmpty()) return MISSING_DAY;
+        try {
+            return LocalDate.parse(value, CSV_DATE).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return INVALID_DAY;
+        }
+    }
+}
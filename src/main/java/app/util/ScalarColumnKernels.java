@@ -0,0 +1,58 @@
+package app.util;
+
+/**
+ * Plain-loop ColumnKernels, used when the Vector API module is not available.
+ */
+final class ScalarColumnKernels implements ColumnKernels {
+    static final ScalarColumnKernels INSTANCE = new ScalarColumnKernels();
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public int selectBetween(double[] values, int n, double lo, double hi, int[] rows) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double v = values[i];
+            if (v >= lo && v <= hi) rows[count++] = i;
+        }
+        return count;
+    }
+
+    @Override
+    public int selectBetween(int[] values, int n, int lo, int hi, int[] rows) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int v = values[i];
+            if (v >= lo && v <= hi) rows[count++] = i;
+        }
+        return count;
+    }
+
+    @Override
+    public int countBetween(double[] values, int n, double lo, double hi) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double v = values[i];
+            if (v >= lo && v <= hi) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Summary summarize(double[] values, int n) {
+        if (n == 0) return Summary.EMPTY;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double v = values[i];
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return new Summary(n, sum, min, max);
+    }
+}
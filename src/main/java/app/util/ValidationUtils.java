@@ -5,10 +5,22 @@ import java.time.LocalDate;
 import app.model.Category;
 
 public final class ValidationUtils {
+    public static final int MIN_ID = 1;
+    public static final int MAX_ID = 9999;
+
+    public static final String MSG_ID = "ID must be integer between 1 and 9999.";
+    public static final String MSG_DESCRIPTION = "Description required; max 30 chars.";
+    public static final String MSG_BRAND = "Brand required; max 30 chars.";
+    public static final String MSG_CONTENT = "Content required; max 30 chars.";
+    public static final String MSG_CATEGORY = "Category must be one of the allowed categories.";
+    public static final String MSG_PRICE = "Price must be greater than 0.";
+    public static final String MSG_STATUS = "Status must be 'Active' or 'Inactive'.";
+    public static final String MSG_DATES = "dateMade must be before expirationDate (or expirationDate empty).";
+
     private ValidationUtils() {}
 
     public static boolean isValidId(Integer id) {
-        return id != null && id >= 1 && id <= 9999;
+        return id != null && id >= MIN_ID && id <= MAX_ID;
     }
 
     public static boolean isValidDescription(String s) {
@@ -55,14 +67,14 @@ public final class ValidationUtils {
     ) {
         ValidationResult r = new ValidationResult();
 
-        if (!isValidId(id)) r.addError("ID must be integer between 1 and 9999.");
-        if (!isValidDescription(description)) r.addError("Description required; max 30 chars.");
-        if (!isValidBrand(brand)) r.addError("Brand required; max 30 chars.");
-        if (!isValidContent(content)) r.addError("Content required; max 30 chars.");
-        if (!isValidCategory(category)) r.addError("Category must be one of the allowed categories.");
-        if (!isValidPrice(price)) r.addError("Price must be greater than 0.");
-        if (!isValidStatus(status)) r.addError("Status must be 'Active' or 'Inactive'.");
-        if (!areDatesValid(dateMade, expirationDate)) r.addError("dateMade must be before expirationDate (or expirationDate empty).");
+        if (!isValidId(id)) r.addError(MSG_ID);
+        if (!isValidDescription(description)) r.addError(MSG_DESCRIPTION);
+        if (!isValidBrand(brand)) r.addError(MSG_BRAND);
+        if (!isValidContent(content)) r.addError(MSG_CONTENT);
+        if (!isValidCategory(category)) r.addError(MSG_CATEGORY);
+        if (!isValidPrice(price)) r.addError(MSG_PRICE);
+        if (!isValidStatus(status)) r.addError(MSG_STATUS);
+        if (!areDatesValid(dateMade, expirationDate)) r.addError(MSG_DATES);
 
         return r;
     }
@@ -0,0 +1,110 @@
+package app.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ColumnKernels on the JDK Vector API: each step compares/accumulates a full SIMD register of values
+ * (the preferred species, e.g. 4 doubles with AVX2, 8 with AVX-512) and finishes the tail with scalar code.
+ * Only loaded through ColumnKernels.get(), which falls back to the scalar kernels when the
+ * jdk.incubator.vector module is missing.
+ *
+ * Sums are accumulated per lane, so they can differ from the scalar sum in the last bits.
+ */
+final class VectorColumnKernels implements ColumnKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector (" + DOUBLES.vectorBitSize() + "-bit)";
+    }
+
+    @Override
+    public int selectBetween(double[] values, int n, double lo, double hi, int[] rows) {
+        int count = 0;
+        int i = 0;
+        int bound = DOUBLES.loopBound(n);
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            VectorMask<Double> hit = v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi));
+            count = writeRows(hit.toLong(), i, rows, count);
+        }
+        for (; i < n; i++) {
+            double v = values[i];
+            if (v >= lo && v <= hi) rows[count++] = i;
+        }
+        return count;
+    }
+
+    @Override
+    public int selectBetween(int[] values, int n, int lo, int hi, int[] rows) {
+        int count = 0;
+        int i = 0;
+        int bound = INTS.loopBound(n);
+        for (; i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, values, i);
+            VectorMask<Integer> hit = v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi));
+            count = writeRows(hit.toLong(), i, rows, count);
+        }
+        for (; i < n; i++) {
+            int v = values[i];
+            if (v >= lo && v <= hi) rows[count++] = i;
+        }
+        return count;
+    }
+
+    @Override
+    public int countBetween(double[] values, int n, double lo, double hi) {
+        int count = 0;
+        int i = 0;
+        int bound = DOUBLES.loopBound(n);
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            count += v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi)).trueCount();
+        }
+        for (; i < n; i++) {
+            double v = values[i];
+            if (v >= lo && v <= hi) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Summary summarize(double[] values, int n) {
+        if (n == 0) return Summary.EMPTY;
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        DoubleVector min = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int i = 0;
+        int bound = DOUBLES.loopBound(n);
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            sum = sum.add(v);
+            min = min.min(v);
+            max = max.max(v);
+        }
+        double s = sum.reduceLanes(VectorOperators.ADD);
+        double lo = min.reduceLanes(VectorOperators.MIN);
+        double hi = max.reduceLanes(VectorOperators.MAX);
+        for (; i < n; i++) {
+            double v = values[i];
+            s += v;
+            lo = Math.min(lo, v);
+            hi = Math.max(hi, v);
+        }
+        return new Summary(n, s, lo, hi);
+    }
+
+    /** Appends base + index of every set lane bit. */
+    private static int writeRows(long lanes, int base, int[] rows, int count) {
+        while (lanes != 0) {
+            rows[count++] = base + Long.numberOfTrailingZeros(lanes);
+            lanes &= lanes - 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,4 @@
+-- 002_add_row_hash.sql
+-- Per-row content hash written by ProductDaoImpl (see HashUtils.rowHash).
+-- Rows loaded by other paths keep NULL until the next delta import rewrites them.
+ALTER TABLE products ADD COLUMN row_hash BIGINT NULL;
@@ -0,0 +1,13 @@
+-- 003_create_import_checkpoints.sql
+-- Progress of resumable CSV imports (see CheckpointedImportEngine).
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    fingerprint CHAR(64) NOT NULL PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    byte_offset BIGINT NOT NULL,
+    last_batch INT NOT NULL,
+    lines_read BIGINT NOT NULL,
+    rows_applied BIGINT NOT NULL,
+    rows_rejected BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
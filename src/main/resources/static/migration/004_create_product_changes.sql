@@ -0,0 +1,19 @@
+-- 004_create_product_changes.sql
+-- Change log read by ProductDao.changesSince: one row per product written or deleted by a transaction.
+-- All rows of a transaction share one version, taken from product_change_version as the last statement
+-- before the commit (see ChangeLog), so versions become visible in commit order.
+-- Old rows may be deleted at any time; clients behind the oldest version fall back to a full reload.
+CREATE TABLE IF NOT EXISTS product_changes (
+    version BIGINT NOT NULL,
+    product_id INT NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (version, product_id)
+);
+
+-- single row: the last version handed out
+CREATE TABLE IF NOT EXISTS product_change_version (
+    id TINYINT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO product_change_version (id, version) VALUES (1, 0);
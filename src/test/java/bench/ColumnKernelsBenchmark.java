@@ -0,0 +1,81 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.util.ColumnKernels;
+
+/**
+ * Scalar vs Vector API kernels over a 10M-row price/date column.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="--add-modules=jdk.incubator.vector -cp %classpath org.openjdk.jmh.Main ColumnKernelsBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ColumnKernelsBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    @Param({"10000000"})
+    public int rows;
+
+    private ColumnKernels k;
+    private double[] prices;
+    private int[] days;
+    private int[] out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        k = "scalar".equals(kernels) ? ColumnKernels.scalar() : ColumnKernels.get();
+        if (!"scalar".equals(kernels) && !k.getName().startsWith("vector")) {
+            throw new IllegalStateException("Vector API not available; add --add-modules=jdk.incubator.vector");
+        }
+        Random rnd = new Random(1);
+        prices = rnd.doubles(rows, 0.5, 500).toArray();
+        days = rnd.ints(rows, 19_000, 21_000).toArray();
+        out = new int[rows];
+    }
+
+    @Benchmark
+    public ColumnKernels.Summary priceSummary() {
+        return k.summarize(prices, rows);
+    }
+
+    @Benchmark
+    public int priceCount() {
+        return k.countBetween(prices, rows, 50, 75);
+    }
+
+    /** ~5% selectivity, like a narrow price search. */
+    @Benchmark
+    public int priceSelect() {
+        return k.selectBetween(prices, rows, 50, 75, out);
+    }
+
+    @Benchmark
+    public int dateSelect() {
+        return k.selectBetween(days, rows, 19_900, 20_000, out);
+    }
+}
@@ -0,0 +1,120 @@
+package integration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductDaoImpl;
+import app.model.Product;
+import app.sync.CatalogReconciler;
+
+/**
+ * Two stores as two H2 databases: only the differing rows are transferred, and a second pass finds
+ * nothing to do with just the two root digests.
+ */
+public class IntegrationCatalogReconcilerTest {
+    private static final int ROWS = 5000;
+
+    private DatabaseManager sourceDb;
+    private DatabaseManager targetDb;
+    private ProductDaoImpl source;
+    private ProductDaoImpl target;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        sourceDb = createStore("jdbc:h2:mem:store_a;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        targetDb = createStore("jdbc:h2:mem:store_b;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        source = new ProductDaoImpl(sourceDb);
+        target = new ProductDaoImpl(targetDb);
+        ProductBatch seed = new ProductBatch();
+        for (int id = 1; id <= ROWS; id++) seed.insert(product(id * 3, "Product " + id, id % 100));
+        source.applyBatch(seed);
+        target.applyBatch(seed);
+    }
+
+    private static DatabaseManager createStore(String url) throws Exception {
+        DatabaseManager db = new DatabaseManager(url, "sa", "");
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS products");
+            st.execute("""
+                CREATE TABLE products (
+                    id INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(30) NOT NULL,
+                    brand VARCHAR(30) NOT NULL,
+                    content VARCHAR(30) NOT NULL,
+                    category VARCHAR(30) NOT NULL,
+                    price DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(15) NOT NULL,
+                    dateMade DATE NOT NULL,
+                    expirationDate DATE NULL,
+                    row_hash BIGINT NULL
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_changes");
+            st.execute("""
+                CREATE TABLE product_changes (
+                    version BIGINT NOT NULL,
+                    product_id INT NOT NULL,
+                    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version, product_id)
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_change_version");
+            st.execute("CREATE TABLE product_change_version (id TINYINT NOT NULL PRIMARY KEY, version BIGINT NOT NULL)");
+            st.execute("INSERT INTO product_change_version (id, version) VALUES (1, 0)");
+        }
+        return db;
+    }
+
+    @Test
+    void inSyncStoresCostTwoDigestQueries() throws Exception {
+        CatalogReconciler.Result result = new CatalogReconciler(source, target, true).reconcile();
+        assertThat(result.isInSync()).isTrue();
+        assertThat(result.digestQueries()).isEqualTo(2);
+        assertThat(result.rowsFetched()).isZero();
+    }
+
+    @Test
+    void transfersOnlyTheDifferingRows() throws Exception {
+        source.update(product(300, "Renamed", 1));
+        source.update(product(9000, "Repriced", 77));
+        source.create(product(ROWS * 3 + 1, "New at the end", 5));
+        source.create(product(1, "New at the start", 5));
+        source.deleteById(4500);
+        target.create(product(2, "Only in target", 5));
+        try (Connection conn = targetDb.getConnection(); Statement st = conn.createStatement()) {
+            // loaded without a hash (e.g. bulk engine): rewritten so the target gets its hash
+            st.execute("UPDATE products SET row_hash = NULL WHERE id IN (6000, 6003)");
+            st.execute("UPDATE products SET description = 'Stale' WHERE id = 6003");
+        }
+
+        CatalogReconciler.Result result = new CatalogReconciler(source, target, true).reconcile();
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.updated()).isEqualTo(4); // 300, 9000 and the unhashed 6000 and 6003
+        assertThat(result.deleted()).isEqualTo(2); // 4500 and 2
+        assertThat(result.unhashedRows()).isEqualTo(2);
+        assertThat(result.rowsFetched()).isEqualTo(6);
+        // a few leaves instead of the whole catalog
+        assertThat(result.rowHashesCompared()).isLessThan(ROWS / 2);
+
+        assertThat(target.findRowHashes()).isEqualTo(source.findRowHashes());
+        assertThat(target.findById(300).orElseThrow().getDescription()).isEqualTo("Renamed");
+        assertThat(target.findById(6003).orElseThrow().getDescription()).isEqualTo("Product 2001");
+
+        CatalogReconciler.Result again = new CatalogReconciler(source, target, true).reconcile();
+        assertThat(again.isInSync()).isTrue();
+        assertThat(again.digestQueries()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsTargetOnlyRowsUnlessAskedToDelete() throws Exception {
+        target.create(product(2, "Local product", 5));
+        CatalogReconciler.Result result = new CatalogReconciler(source, target, false).reconcile();
+        assertThat(result.deleted()).isZero();
+        assertThat(target.existsById(2)).isTrue();
+    }
+}
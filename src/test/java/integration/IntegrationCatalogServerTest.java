@@ -0,0 +1,242 @@
+package integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductChanges;
+import app.database.dao.ProductDaoImpl;
+import app.server.CatalogServer;
+
+/**
+ * Catalog service over HTTP against H2.
+ */
+public class IntegrationCatalogServerTest {
+    private static final String URL = "jdbc:h2:mem:server;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    private static final String HEADER = "ID,Description,Brand,Content,Price,Category,Status,DateMade,ExpirationDate";
+
+    private DatabaseManager db;
+    private CatalogServer server;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        db = new DatabaseManager(URL, "sa", "");
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS products");
+            st.execute("""
+                CREATE TABLE products (
+                    id INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(30) NOT NULL,
+                    brand VARCHAR(30) NOT NULL,
+                    content VARCHAR(30) NOT NULL,
+                    category VARCHAR(30) NOT NULL,
+                    price DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(15) NOT NULL,
+                    dateMade DATE NOT NULL,
+                    expirationDate DATE NULL,
+                    row_hash BIGINT NULL
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_changes");
+            st.execute("""
+                CREATE TABLE product_changes (
+                    version BIGINT NOT NULL,
+                    product_id INT NOT NULL,
+                    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version, product_id)
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_change_version");
+            st.execute("CREATE TABLE product_change_version (id TINYINT NOT NULL PRIMARY KEY, version BIGINT NOT NULL)");
+            st.execute("INSERT INTO product_change_version (id, version) VALUES (1, 0)");
+            for (int i = 1; i <= 60; i++) {
+                st.execute("INSERT INTO products VALUES (" + i + ", 'Item \"" + i + "\"', 'Acme', '1 unit', 'Groceries', "
+                        + i + ".50, 'Active', DATE '2025-01-01', NULL, NULL)");
+            }
+        }
+        server = new CatalogServer(db, new ProductDaoImpl(db), new InetSocketAddress("127.0.0.1", 0), 60_000);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+        for (int i = 0; i < headers.length; i += 2) b.header(headers[i], headers[i + 1]);
+        return http.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String text(HttpResponse<byte[]> r) {
+        return new String(r.body(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesLookupsPagesAndStats() throws Exception {
+        HttpResponse<byte[]> one = get("/products/7");
+        assertThat(one.statusCode()).isEqualTo(200);
+        assertThat(text(one)).contains("\"id\":7", "\"description\":\"Item \\\"7\\\"\"", "\"price\":7.5", "\"dateMade\":\"2025-01-01\"");
+
+        assertThat(get("/products/999").statusCode()).isEqualTo(404);
+        assertThat(get("/products/abc").statusCode()).isEqualTo(400);
+
+        String page = text(get("/products?offset=10&limit=5"));
+        assertThat(page).startsWith("{\"total\":60,\"offset\":10,\"limit\":5,").contains("\"id\":11", "\"id\":15").doesNotContain("\"id\":16");
+        assertThat(text(get("/products?q=%225%22"))).startsWith("{\"total\":1,");
+
+        assertThat(text(get("/stats"))).contains("\"total\":60", "\"categories\":{\"Groceries\":60}");
+    }
+
+    @Test
+    void supportsConditionalGetAndGzip() throws Exception {
+        HttpResponse<byte[]> first = get("/products?limit=60");
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        assertThat(get("/products?limit=60", "If-None-Match", etag).statusCode()).isEqualTo(304);
+
+        HttpResponse<byte[]> zipped = get("/products?limit=60", "Accept-Encoding", "gzip");
+        assertThat(zipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(zipped.body().length).isLessThan(first.body().length);
+        assertThat(gunzip(zipped.body())).isEqualTo(text(first));
+    }
+
+    @Test
+    void importsCsvAndServesTheNewGeneration() throws Exception {
+        String etag = get("/products/1").headers().firstValue("ETag").orElseThrow();
+        long generation = server.getGeneration();
+
+        String csv = HEADER + "\n1,Renamed,Acme,1 unit,1.50,Groceries,Active,01/01/2025,\n"
+                + "100,New,Acme,1 unit,3.00,Groceries,Active,01/01/2025,\n";
+        HttpResponse<String> imported = http.send(HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + server.getPort() + "/products/import?engine=delta"))
+                .POST(HttpRequest.BodyPublishers.ofString(csv)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(imported.statusCode()).isEqualTo(200);
+        assertThat(imported.body()).contains("\"imported\":1", "\"updated\":1");
+
+        assertThat(server.getGeneration()).isEqualTo(generation + 1);
+        HttpResponse<byte[]> changed = get("/products/1", "If-None-Match", etag);
+        assertThat(changed.statusCode()).isEqualTo(200);
+        assertThat(text(changed)).contains("Renamed");
+        assertThat(get("/products/100").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void mergesDatabaseChangesIntoTheServedSnapshot() throws Exception {
+        server.close();
+        ProductDaoImpl dao = new ProductDaoImpl(db);
+        server = new CatalogServer(db, dao, new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        assertThat(text(get("/stats"))).contains("\"total\":60");
+
+        dao.deleteById(5);
+        dao.update(product(6, "Changed", 6.5));
+        dao.create(product(100, "New", 3.0));
+        awaitNewGeneration();
+
+        assertThat(get("/products/5").statusCode()).isEqualTo(404);
+        assertThat(text(get("/products/6"))).contains("Changed");
+        String tail = text(get("/products?offset=57&limit=5"));
+        assertThat(tail).startsWith("{\"total\":60,");
+        assertThat(tail.indexOf("\"id\":60")).isLessThan(tail.indexOf("\"id\":100"));
+        assertThat(text(get("/stats"))).contains("\"total\":60", "\"categories\":{\"Groceries\":60}");
+    }
+
+    @Test
+    void reportsACommittedImportWhenTheReloadAfterItFails() throws Exception {
+        server.close();
+        AtomicBoolean failReload = new AtomicBoolean();
+        ProductDaoImpl dao = new ProductDaoImpl(db) {
+            @Override
+            public ProductChanges changesSince(long version) throws SQLException {
+                if (failReload.get()) throw new SQLException("Connection reset");
+                return super.changesSince(version);
+            }
+        };
+        server = new CatalogServer(db, dao, new InetSocketAddress("127.0.0.1", 0), 60_000);
+        server.start();
+
+        failReload.set(true);
+        HttpResponse<String> imported = post("/products/import?engine=delta",
+                HEADER + "\n100,New,Acme,1 unit,3.00,Groceries,Active,01/01/2025,\n");
+        assertThat(imported.statusCode()).isEqualTo(200);
+        assertThat(imported.body()).contains("\"imported\":1");
+
+        failReload.set(false);
+        awaitNewGeneration();
+        assertThat(get("/products/100").statusCode()).isEqualTo(200);
+    }
+
+    /** Sends requests (each may start a background refresh) until the served generation changes. */
+    private void awaitNewGeneration() throws Exception {
+        long generation = server.getGeneration();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (server.getGeneration() == generation) {
+            assertThat(System.currentTimeMillis()).as("refresh in time").isLessThan(deadline);
+            get("/products/1");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void guardsImports() throws Exception {
+        String csv = HEADER + "\n200,New,Acme,1 unit,3.00,Groceries,Active,01/01/2025,\n";
+
+        assertThat(post("/products/import?engine=sync", csv).statusCode()).isEqualTo(403);
+        assertThat(get("/products/1").statusCode()).isEqualTo(200); // nothing was deleted
+
+        server.setImportToken("s3cret");
+        assertThat(post("/products/import", csv).statusCode()).isEqualTo(401);
+        assertThat(post("/products/import", csv, "Authorization", "Bearer wrong").statusCode()).isEqualTo(401);
+        assertThat(post("/products/import", csv, "Authorization", "Bearer s3cret").statusCode()).isEqualTo(200);
+
+        server.setMaxImportBytes(16);
+        assertThat(post("/products/import", csv, "Authorization", "Bearer s3cret").statusCode()).isEqualTo(413);
+
+        server.setMaxImportBytes(CatalogServer.DEFAULT_MAX_IMPORT_BYTES);
+        server.setAllowSync(true);
+        assertThat(post("/products/import?engine=sync", csv, "Authorization", "Bearer s3cret").statusCode()).isEqualTo(200);
+        assertThat(get("/products/1").statusCode()).isEqualTo(404);
+        assertThat(text(get("/stats"))).contains("\"total\":1");
+    }
+
+    @Test
+    void keepsServingPastTheResponseCacheSize() throws Exception {
+        String first = get("/products?q=Item&offset=0").headers().firstValue("ETag").orElseThrow();
+        for (int offset = 1; offset <= 600; offset++) {
+            assertThat(get("/products?q=Item&limit=1&offset=" + offset).statusCode()).isEqualTo(200);
+        }
+        // evicted and rendered again: same content, same ETag
+        assertThat(get("/products?q=Item&offset=0", "If-None-Match", first).statusCode()).isEqualTo(304);
+    }
+
+    private HttpResponse<String> post(String path, String body, String... headers) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        for (int i = 0; i < headers.length; i += 2) b.header(headers[i], headers[i + 1]);
+        return http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package integration;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import app.sync.ChangeBroadcaster;
+
+/**
+ * Two terminals in one JVM on a random multicast port: IDs published by one reach the other, split
+ * into datagrams, and a terminal does not hear itself.
+ */
+public class IntegrationChangeBroadcasterTest {
+
+    @Test
+    public void deliversIdsToOtherTerminalsOnly() throws Exception {
+        InetSocketAddress group = new InetSocketAddress(InetAddress.getByName("239.255.42.99"),
+                ThreadLocalRandom.current().nextInt(40_000, 50_000));
+        BlockingQueue<int[]> atA = new LinkedBlockingQueue<>();
+        BlockingQueue<int[]> atB = new LinkedBlockingQueue<>();
+        try (ChangeBroadcaster a = new ChangeBroadcaster(group);
+             ChangeBroadcaster b = new ChangeBroadcaster(group)) {
+            a.start(atA::add);
+            b.start(atB::add);
+
+            for (int id = 1; id <= 300; id++) a.publish(id);
+
+            int received = 0;
+            while (received < 300) {
+                int[] ids = atB.poll(5, TimeUnit.SECONDS);
+                assertThat(ids).as("datagram from the other terminal").isNotNull();
+                received += ids.length;
+            }
+            assertThat(received).isEqualTo(300);
+            // at most 256 IDs per datagram; counted by the receiver, which counts before delivering
+            assertThat(b.getReceivedDatagrams()).isGreaterThanOrEqualTo(2);
+
+            b.publish(42);
+            assertThat(atA.poll(5, TimeUnit.SECONDS)).containsExactly(42);
+            assertThat(atB.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    public void isOptional() throws Exception {
+        assertThat(ChangeBroadcaster.fromProperties(new Properties())).isNull();
+    }
+}
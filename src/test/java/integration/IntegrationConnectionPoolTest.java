@@ -0,0 +1,58 @@
+package integration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import app.database.ConnectionPool;
+
+/**
+ * Connection pool against H2: reuse, reset on return and behaviour of a returned handle.
+ */
+public class IntegrationConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    @Test
+    public void reusesAndResetsConnections() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(URL, "sa", ""), 2)) {
+            pool.warmUp(5);
+            assertThat(pool.getIdleCount()).isEqualTo(2);
+
+            Connection first = pool.getConnection();
+            Connection physical = first.unwrap(org.h2.jdbc.JdbcConnection.class);
+            first.setAutoCommit(false);
+            try (Statement st = first.createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS t (x INT)");
+                st.execute("INSERT INTO t VALUES (1)");
+            }
+            first.close();
+            first.close(); // second close is a no-op
+            assertThat(first.isClosed()).isTrue();
+            assertThatThrownBy(first::createStatement).isInstanceOf(SQLException.class);
+
+            try (Connection again = pool.getConnection()) {
+                assertThat(again.unwrap(org.h2.jdbc.JdbcConnection.class)).isSameAs(physical);
+                assertThat(again.getAutoCommit()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void opensExtraConnectionsInsteadOfBlocking() throws Exception {
+        ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(URL, "sa", ""), 1);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        a.close();
+        b.close();
+        // only one is kept, the surplus one is closed
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        pool.close();
+        assertThat(pool.getIdleCount()).isZero();
+        assertThatThrownBy(pool::getConnection).isInstanceOf(SQLException.class);
+    }
+}
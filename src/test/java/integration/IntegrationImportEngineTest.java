@@ -0,0 +1,369 @@
+package integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.database.DatabaseManager;
+import app.database.dao.ProductDao;
+import app.database.dao.ProductDaoImpl;
+import app.database.importer.BulkLoadImportEngine;
+import app.database.importer.CheckpointedImportEngine;
+import app.database.importer.DeltaImportEngine;
+import app.database.importer.ImportEngine;
+import app.database.importer.ImportReport;
+import app.database.importer.IngestionService;
+import app.model.Product;
+import app.util.ValidationUtils;
+
+/**
+ * Import engines against H2. The bulk load engine runs through its generic JDBC fallback
+ * (H2 has no LOAD DATA LOCAL INFILE).
+ */
+public class IntegrationImportEngineTest {
+    private static final String URL = "jdbc:h2:mem:bulkload;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    private static final String HEADER = "ID,Description,Brand,Content,Price,Category,Status,DateMade,ExpirationDate";
+
+    @TempDir
+    Path tmp;
+
+    private DatabaseManager db;
+    private ProductDao dao;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        db = new DatabaseManager(URL, "sa", "");
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS products");
+            st.execute("DROP TABLE IF EXISTS import_checkpoints");
+            st.execute("""
+                CREATE TABLE import_checkpoints (
+                    fingerprint CHAR(64) NOT NULL PRIMARY KEY,
+                    file_name VARCHAR(255) NOT NULL,
+                    byte_offset BIGINT NOT NULL,
+                    last_batch INT NOT NULL,
+                    lines_read BIGINT NOT NULL,
+                    rows_applied BIGINT NOT NULL,
+                    rows_rejected BIGINT NOT NULL,
+                    status VARCHAR(16) NOT NULL,
+                    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )""");
+            st.execute("""
+                CREATE TABLE products (
+                    id INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(30) NOT NULL,
+                    brand VARCHAR(30) NOT NULL,
+                    content VARCHAR(30) NOT NULL,
+                    category VARCHAR(30) NOT NULL,
+                    price DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(15) NOT NULL,
+                    dateMade DATE NOT NULL,
+                    expirationDate DATE NULL,
+                    row_hash BIGINT NULL
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_changes");
+            st.execute("""
+                CREATE TABLE product_changes (
+                    version BIGINT NOT NULL,
+                    product_id INT NOT NULL,
+                    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version, product_id)
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_change_version");
+            st.execute("CREATE TABLE product_change_version (id TINYINT NOT NULL PRIMARY KEY, version BIGINT NOT NULL)");
+            st.execute("INSERT INTO product_change_version (id, version) VALUES (1, 0)");
+        }
+        dao = new ProductDaoImpl(db);
+    }
+
+    private File csv(String... rows) throws Exception {
+        Path file = tmp.resolve("import.csv");
+        Files.write(file, List.of(HEADER + "\n" + String.join("\n", rows)));
+        return file.toFile();
+    }
+
+    @Test
+    void importsValidRowsAndReportsRejectedOnes() throws Exception {
+        db.executeUpdate("INSERT INTO products (id, description, brand, content, category, price, status, dateMade, expirationDate) VALUES (7, 'Existing', 'B', '1 unit', 'Groceries', 1.00, 'Active', DATE '2025-01-01', NULL)", null);
+
+        File file = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,inactive,01/10/2025,",
+                "0,Bad id,Acme,100g,1.10,Groceries,Active,01/10/2025,",
+                "3,Bad price,Acme,100g,abc,Groceries,Active,01/10/2025,",
+                "4,Bad category,Acme,100g,1.10,Toys,Active,01/10/2025,",
+                "5,Bad dates,Acme,100g,1.10,Groceries,Active,01/10/2025,01/09/2025",
+                "1,Dup in file,Acme,100g,1.10,Groceries,Active,01/10/2025,",
+                "7,Dup in db,Acme,100g,1.10,Groceries,Active,01/10/2025,",
+                "8,Too few fields");
+
+        ImportReport report = new BulkLoadImportEngine(db).importFile(file);
+
+        assertThat(report.getTotalRows()).isEqualTo(9);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).extracting(ImportReport.RejectedRow::lineNumber)
+                .containsExactly(4, 5, 6, 7, 8, 9, 10);
+        assertThat(report.getRejected().get(0).reason()).isEqualTo(ValidationUtils.MSG_ID);
+        assertThat(report.getRejected().get(1).reason()).isEqualTo(ValidationUtils.MSG_PRICE);
+        assertThat(report.getRejected().get(2).reason()).isEqualTo(ValidationUtils.MSG_CATEGORY);
+        assertThat(report.getRejected().get(3).reason()).isEqualTo(ValidationUtils.MSG_DATES);
+        assertThat(report.getRejected().get(4).reason()).contains("Duplicate ID");
+        assertThat(report.getRejected().get(5).reason()).contains("already exists");
+
+        assertThat(dao.findById(1)).get().satisfies(p -> {
+            assertThat(p.getDescription()).isEqualTo("Milk 1L");
+            assertThat(p.isActive()).isTrue();
+        });
+        assertThat(dao.findById(2)).get().satisfies(p -> {
+            assertThat(p.isActive()).isFalse();
+            assertThat(p.getExpirationDate()).isNull();
+        });
+        assertThat(dao.count()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkLoadReadsQuotedFieldsLikeLoadData() throws Exception {
+        File file = csv(
+                "1,\"Milk, 1L\",Generic,\"1L \"\"bottle\"\"\",2.50,Groceries,Active,01/11/2025,",
+                "2,\"Soap",
+                "bar\",Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,",
+                "3,Bread,Acme,\"500, g\",abc,Groceries,Active,01/10/2025,");
+
+        ImportReport report = new BulkLoadImportEngine(db).importFile(file);
+
+        assertThat(report.getTotalRows()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).extracting(ImportReport.RejectedRow::lineNumber).containsExactly(5);
+        assertThat(report.getRejected().get(0).reason()).isEqualTo(ValidationUtils.MSG_PRICE);
+        assertThat(dao.findById(1)).get().satisfies(p -> {
+            assertThat(p.getDescription()).isEqualTo("Milk, 1L");
+            assertThat(p.getContent()).isEqualTo("1L \"bottle\"");
+        });
+        assertThat(dao.findById(2).orElseThrow().getDescription()).isEqualTo("Soap\nbar");
+    }
+
+    @Test
+    void deltaImportTouchesOnlyChangedRows() throws Exception {
+        File first = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,",
+                "3,Wine,BrandX,750ml,9.90,Wines & Liquors,Active,01/10/2025,");
+        ImportReport initial = new DeltaImportEngine(dao, false).importFile(first);
+        assertThat(initial.getImported()).isEqualTo(3);
+
+        File second = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.25,Personal Hygiene,Active,01/10/2025,",
+                "4,Apple,Generic,1 kg,3.00,Fruits & Vegetables,Active,01/10/2025,");
+        ImportReport delta = new DeltaImportEngine(dao, true).importFile(second);
+
+        assertThat(delta.getImported()).isEqualTo(1);
+        assertThat(delta.getUpdated()).isEqualTo(1);
+        assertThat(delta.getUnchanged()).isEqualTo(1);
+        assertThat(delta.getDeleted()).isEqualTo(1);
+        assertThat(dao.findById(2)).get().extracting(Product::getPrice).isEqualTo(1.25);
+        assertThat(dao.existsById(3)).isFalse();
+        assertThat(dao.count()).isEqualTo(3);
+
+        // unchanged file: nothing to write
+        ImportReport again = new DeltaImportEngine(dao, true).importFile(second);
+        assertThat(again.getUnchanged()).isEqualTo(3);
+        assertThat(again.getImported() + again.getUpdated() + again.getDeleted()).isZero();
+    }
+
+    @Test
+    void deltaSyncNeverDeletesProductsNamedByRejectedRows() throws Exception {
+        new DeltaImportEngine(dao, false).importFile(csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,",
+                "3,Wine,BrandX,750ml,9.90,Wines & Liquors,Active,01/10/2025,"));
+
+        // row 2 is malformed (stray comma in the price), row 3 is gone from the file
+        ImportReport sync = new DeltaImportEngine(dao, true).importFile(csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1,10,Personal Hygiene,Active,01/10/2025,"));
+
+        assertThat(sync.getTotalRows()).isEqualTo(2);
+        assertThat(sync.getRejected()).extracting(ImportReport.RejectedRow::lineNumber).containsExactly(3);
+        assertThat(sync.getRejected().get(0).id()).isEqualTo("2");
+        assertThat(sync.getDeleted()).isEqualTo(1);
+        assertThat(dao.existsById(2)).isTrue();
+        assertThat(dao.existsById(3)).isFalse();
+
+        // a row whose ID cannot be read could be any product: nothing is deleted
+        ImportReport unreadable = new DeltaImportEngine(dao, true).importFile(csv(
+                "x,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025"));
+        assertThat(unreadable.getRejectedCount()).isEqualTo(1);
+        assertThat(unreadable.getRejected().get(0).reason()).contains("No products were deleted");
+        assertThat(unreadable.getDeleted()).isZero();
+        assertThat(dao.count()).isEqualTo(2);
+    }
+
+    @Test
+    void checkpointedImportResumesAfterFailedBatch() throws Exception {
+        File file = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,",
+                "3,Wine,BrandX,750ml,2000.00,Wines & Liquors,Active,01/10/2025,",
+                "4,Apple,Generic,1 kg,3.00,Fruits & Vegetables,Active,01/10/2025,",
+                "5,Bread,Generic,500g,1.80,Groceries,Active,01/10/2025,");
+        // makes the second batch fail inside its transaction
+        db.executeUpdate("ALTER TABLE products ADD CONSTRAINT chk_price CHECK (price < 1000)", null);
+
+        CheckpointedImportEngine engine = new CheckpointedImportEngine(db, 2);
+        assertThatThrownBy(() -> engine.importFile(file)).isInstanceOf(SQLException.class);
+        assertThat(dao.count()).isEqualTo(2);
+
+        db.executeUpdate("ALTER TABLE products DROP CONSTRAINT chk_price", null);
+        ImportReport resumed = engine.importFile(file);
+
+        assertThat(resumed.getEngine()).contains("resumed after batch 1");
+        assertThat(resumed.getImported()).isEqualTo(3);
+        assertThat(resumed.getNotes()).containsExactly(
+                "Earlier runs imported 2 rows and rejected 0; the counts below are for this run.");
+        assertThat(resumed.getRejected()).isEmpty();
+        assertThat(dao.count()).isEqualTo(5);
+
+        ImportReport again = engine.importFile(file);
+        assertThat(again.getEngine()).contains("already imported");
+        assertThat(again.getImported()).isZero();
+        assertThat(dao.count()).isEqualTo(5);
+    }
+
+    @Test
+    void checkpointedImportTreatsAnEditedFileAsNew() throws Exception {
+        CheckpointedImportEngine engine = new CheckpointedImportEngine(db, 2);
+        File file = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,");
+        assertThat(engine.importFile(file).getImported()).isEqualTo(2);
+
+        // same length, different price: not "already imported"
+        file = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.20,Personal Hygiene,Active,01/10/2025,");
+        long length = file.length();
+        ImportReport edited = engine.importFile(file);
+        assertThat(file.length()).isEqualTo(length);
+        // read again from the first row (this engine only inserts, so the IDs are reported as existing)
+        assertThat(edited.getEngine()).doesNotContain("already imported");
+        assertThat(edited.getTotalRows()).isEqualTo(2);
+        assertThat(edited.getRejected()).extracting(ImportReport.RejectedRow::id).containsExactly("1", "2");
+    }
+
+    @Test
+    void forgetLetsAFinishedFileBeImportedAgain() throws Exception {
+        CheckpointedImportEngine engine = new CheckpointedImportEngine(db, 2);
+        File file = csv(
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,");
+        engine.importFile(file);
+        assertThat(engine.importFile(file).getEngine()).contains("already imported");
+
+        db.executeUpdate("DELETE FROM products", null);
+        assertThat(engine.forget(file)).isTrue();
+        assertThat(engine.forget(file)).isFalse();
+
+        ImportReport again = engine.importFile(file);
+        assertThat(again.getEngine()).doesNotContain("already imported").doesNotContain("resumed");
+        assertThat(again.getImported()).isEqualTo(2);
+        assertThat(dao.count()).isEqualTo(2);
+    }
+
+    @Test
+    void ingestionServiceImportsDroppedFiles() throws Exception {
+        DeltaImportEngine delta = new DeltaImportEngine(dao, false);
+        ImportEngine engine = new ImportEngine() {
+            @Override public String getName() { return delta.getName(); }
+            @Override public ImportReport importFile(File csvFile) throws IOException, SQLException {
+                if (csvFile.getName().startsWith("broken")) throw new IOException("unreadable");
+                return delta.importFile(csvFile);
+            }
+        };
+        Path drop = Files.createDirectories(tmp.resolve("drop"));
+        // already waiting before the service starts
+        Files.write(drop.resolve("a.csv"), List.of(HEADER,
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025"));
+
+        try (IngestionService service = new IngestionService(drop, engine, 2)) {
+            service.start();
+            Files.write(drop.resolve("b.part"), List.of(HEADER,
+                    "2,Soap,Acme,100g,1.10,Personal Hygiene,Active,01/10/2025,",
+                    "3,Wine,BrandX,750ml,9.90,Wines & Liquors,Active,01/10/2025,"));
+            Files.move(drop.resolve("b.part"), drop.resolve("b.csv"));
+            Files.write(drop.resolve("broken.csv"), List.of(HEADER));
+
+            long deadline = System.currentTimeMillis() + 20_000;
+            while ((!Files.exists(drop.resolve("done/b.csv.report.txt")) || !Files.exists(drop.resolve("done/a.csv.report.txt"))
+                    || !Files.exists(drop.resolve("failed/broken.csv.report.txt"))) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+
+        assertThat(drop.resolve("done/a.csv")).exists();
+        assertThat(drop.resolve("done/b.csv")).exists();
+        assertThat(drop.resolve("failed/broken.csv")).exists();
+        assertThat(Files.readString(drop.resolve("failed/broken.csv.report.txt"))).contains("unreadable");
+        assertThat(Files.readString(drop.resolve("done/b.csv.report.txt"))).contains("Successfully imported: 2");
+        assertThat(drop.resolve("processing")).isEmptyDirectory();
+        assertThat(dao.count()).isEqualTo(3);
+    }
+
+    @Test
+    void startingAServiceLeavesFilesOfRunningServicesAlone() throws Exception {
+        Path drop = Files.createDirectories(tmp.resolve("drop"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ImportEngine slow = new ImportEngine() {
+            @Override public String getName() { return "slow"; }
+            @Override public ImportReport importFile(File csvFile) throws IOException {
+                started.countDown();
+                try {
+                    release.await(20, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ImportReport(getName());
+            }
+        };
+        // left behind by a service that crashed: nothing holds its lock
+        Path abandoned = Files.createDirectories(drop.resolve("processing/crashed"));
+        Files.createFile(drop.resolve("processing/crashed.lock"));
+        Files.write(abandoned.resolve("left.csv"), List.of(HEADER,
+                "4,Bread,Generic,500g,1.80,Groceries,Active,01/11/2025,"));
+
+        try (IngestionService first = new IngestionService(drop, slow, 1)) {
+            first.start();
+            assertThat(started.await(20, TimeUnit.SECONDS)).isTrue(); // busy with left.csv
+            try (IngestionService second = new IngestionService(drop, new DeltaImportEngine(dao, false), 1)) {
+                second.start();
+                Thread.sleep(300);
+                assertThat(drop.resolve("left.csv")).doesNotExist();
+                assertThat(drop.resolve("done/left.csv")).doesNotExist();
+            }
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (!Files.exists(drop.resolve("done/left.csv.report.txt")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+
+        assertThat(Files.readString(drop.resolve("done/left.csv.report.txt"))).contains("slow");
+        assertThat(abandoned).doesNotExist();
+        assertThat(drop.resolve("processing")).isEmptyDirectory();
+        assertThat(dao.count()).isZero();
+    }
+}
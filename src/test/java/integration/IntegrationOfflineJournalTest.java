@@ -0,0 +1,225 @@
+package integration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.database.dao.ProductDaoImpl;
+import app.database.journal.FailoverProductDao;
+import app.database.journal.JournalReplayer;
+import app.database.journal.OfflineJournal;
+import app.model.ColumnarProductStore;
+
+/**
+ * A terminal losing its H2 database: writes continue offline into the journal and are replayed on
+ * reconnect, skipping rows another terminal changed meanwhile.
+ */
+public class IntegrationOfflineJournalTest {
+    private static final String URL = "jdbc:h2:mem:offline;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    @TempDir
+    Path tmp;
+
+    private final AtomicBoolean down = new AtomicBoolean();
+    private final AtomicInteger offlineNotices = new AtomicInteger();
+    private ProductDaoImpl database; // another terminal, always connected
+    private ProductDaoImpl terminal; // connection can be cut
+    private OfflineJournal journal;
+    private FailoverProductDao dao;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        try (Connection conn = DriverManager.getConnection(URL, "sa", ""); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS products");
+            st.execute("""
+                CREATE TABLE products (
+                    id INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(30) NOT NULL,
+                    brand VARCHAR(30) NOT NULL,
+                    content VARCHAR(30) NOT NULL,
+                    category VARCHAR(30) NOT NULL,
+                    price DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(15) NOT NULL,
+                    dateMade DATE NOT NULL,
+                    expirationDate DATE NULL,
+                    row_hash BIGINT NULL
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_changes");
+            st.execute("""
+                CREATE TABLE product_changes (
+                    version BIGINT NOT NULL,
+                    product_id INT NOT NULL,
+                    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version, product_id)
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_change_version");
+            st.execute("CREATE TABLE product_change_version (id TINYINT NOT NULL PRIMARY KEY, version BIGINT NOT NULL)");
+            st.execute("INSERT INTO product_change_version (id, version) VALUES (1, 0)");
+        }
+        database = new ProductDaoImpl(IntegrationOfflineJournalTest::connect);
+        terminal = new ProductDaoImpl(() -> {
+            // what the pooled DatabaseManager supplier throws when MySQL is gone
+            if (down.get()) throw new RuntimeException(new SQLNonTransientConnectionException("Communications link failure", "08S01"));
+            return connect();
+        });
+        journal = OfflineJournal.open(tmp.resolve("journal"));
+        dao = new FailoverProductDao(terminal, journal, () -> {
+            try {
+                return database.findAll(); // the terminal's last known catalog
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }, offlineNotices::incrementAndGet);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        journal.close();
+    }
+
+    private static Connection connect() {
+        try {
+            return DriverManager.getConnection(URL, "sa", "");
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    void journalsWhileOfflineAndReplaysOnReconnect() throws Exception {
+        dao.create(product(1, "Milk", 1.0));
+        dao.create(product(2, "Soap", 2.0));
+        dao.create(product(3, "Bread", 3.0));
+        dao.create(product(4, "Wine", 4.0));
+        assertThat(journal.isEmpty()).isTrue();
+
+        down.set(true);
+        dao.update(product(1, "Milk 2L", 1.5));            // switches to offline mode
+        assertThat(dao.isOffline()).isTrue();
+        assertThat(offlineNotices.get()).isEqualTo(1);
+        dao.update(product(1, "Milk 3L", 1.75));           // collapses with the previous edit
+        dao.create(product(5, "Cheese", 5.0));
+        dao.deleteById(3);
+        dao.update(product(2, "Soap (offline)", 2.5));
+        dao.update(product(4, "Wine (offline)", 4.5));
+        assertThat(dao.update(product(99, "Missing", 1.0))).isFalse(); // not journaled
+        assertThatThrownBy(() -> dao.create(product(5, "Again", 1.0))).hasMessageContaining("Duplicate entry");
+        assertThat(journal.size()).isEqualTo(6);
+        assertThat(dao.findById(1).orElseThrow().getDescription()).isEqualTo("Milk 3L");
+
+        // meanwhile another terminal changes product 2 and deletes product 4
+        database.update(product(2, "Soap (other terminal)", 9.0));
+        database.deleteById(4);
+
+        assertThatThrownBy(dao::reconnect).isInstanceOf(RuntimeException.class);
+        assertThat(dao.isOffline()).isTrue();
+
+        down.set(false);
+        JournalReplayer.Result result = dao.reconnect();
+        assertThat(dao.isOffline()).isFalse();
+        assertThat(result.entries()).isEqualTo(6);
+        assertThat(result.applied()).isEqualTo(3); // 1, 5 and the delete of 3
+        assertThat(result.conflicts()).extracting(JournalReplayer.Conflict::id).containsExactlyInAnyOrder(2, 4);
+        assertThat(result.conflictFile()).exists();
+        assertThat(Files.readString(result.conflictFile())).contains("Soap (offline)");
+        assertThat(journal.isEmpty()).isTrue();
+
+        assertThat(database.findById(1).orElseThrow().getDescription()).isEqualTo("Milk 3L");
+        assertThat(database.findById(5)).isPresent();
+        assertThat(database.findById(3)).isEmpty();
+        assertThat(database.findById(2).orElseThrow().getDescription()).isEqualTo("Soap (other terminal)");
+        assertThat(database.findById(4)).isEmpty();
+
+        // back online: writes go straight to the database again
+        dao.update(product(5, "Cheese 2", 5.0));
+        assertThat(journal.isEmpty()).isTrue();
+        assertThat(database.findById(5).orElseThrow().getDescription()).isEqualTo("Cheese 2");
+    }
+
+    @Test
+    void replayingTwiceIsHarmless() throws Exception {
+        dao.create(product(1, "Milk", 1.0));
+        down.set(true);
+        dao.update(product(1, "Milk 2L", 1.5));
+        dao.create(product(2, "Soap", 2.0));
+        down.set(false);
+
+        // a previous replay got the rows in but was interrupted before clearing the journal
+        new ProductDaoImpl(IntegrationOfflineJournalTest::connect).update(product(1, "Milk 2L", 1.5));
+        database.create(product(2, "Soap", 2.0));
+
+        JournalReplayer.Result result = dao.reconnect();
+        assertThat(result.applied()).isZero();
+        assertThat(result.alreadyApplied()).isEqualTo(2);
+        assertThat(result.hasConflicts()).isFalse();
+    }
+
+    @Test
+    void startsOfflineOnASavedCatalogAndReplaysOnReconnect() throws Exception {
+        database.create(product(1, "Milk", 1.0));
+        database.create(product(2, "Soap", 2.0));
+
+        // launched while the database is down, on a catalog saved at change-log version 7
+        down.set(true);
+        dao.goOffline(new SQLNonTransientConnectionException("Communications link failure", "08S01"), 7);
+        assertThat(dao.isOffline()).isTrue();
+        assertThat(offlineNotices.get()).isEqualTo(1);
+        assertThat(dao.currentVersion()).isEqualTo(7);
+        dao.update(product(1, "Milk 2L", 1.5));
+        dao.create(product(3, "Bread", 3.0));
+        assertThat(journal.size()).isEqualTo(2);
+        assertThat(database.findById(3)).isEmpty();
+
+        down.set(false);
+        JournalReplayer.Result result = dao.reconnect();
+        assertThat(result.applied()).isEqualTo(2);
+        assertThat(dao.isOffline()).isFalse();
+        assertThat(database.findById(1).orElseThrow().getDescription()).isEqualTo("Milk 2L");
+        assertThat(database.findById(3)).isPresent();
+    }
+
+    @Test
+    void restartingWhileStillOfflineKeepsTheJournaledWrites() throws Exception {
+        database.create(product(1, "Milk", 1.0));
+        database.create(product(2, "Soap", 2.0));
+        ColumnarProductStore saved = ColumnarProductStore.of(database.findAll());
+
+        // first session: offline edits, then the application is closed before the database is back
+        down.set(true);
+        dao.goOffline(new SQLNonTransientConnectionException("Communications link failure", "08S01"), 0);
+        dao.update(product(1, "Milk 2L", 1.5));
+        dao.deleteById(2);
+        journal.close();
+
+        // second session, still offline: the saved catalog plus the leftover journal
+        journal = OfflineJournal.open(tmp.resolve("journal"));
+        ColumnarProductStore catalog = saved.copy();
+        journal.applyTo(catalog);
+        assertThat(catalog.description(catalog.rowOf(1))).isEqualTo("Milk 2L");
+        assertThat(catalog.containsId(2)).isFalse();
+
+        dao = new FailoverProductDao(terminal, journal, catalog::toProducts, offlineNotices::incrementAndGet);
+        dao.goOffline(new SQLNonTransientConnectionException("Communications link failure", "08S01"), 0);
+        assertThat(dao.update(product(2, "Soap 2", 2.5))).isFalse(); // deleted in the first session
+        assertThat(journal.size()).isEqualTo(2);
+
+        down.set(false);
+        dao.reconnect();
+        assertThat(database.findById(1).orElseThrow().getDescription()).isEqualTo("Milk 2L");
+        assertThat(database.findById(2)).isEmpty();
+    }
+}
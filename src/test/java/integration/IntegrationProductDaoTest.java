@@ -17,27 +17,34 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import app.database.dao.ChangeLog;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductChanges;
 import app.database.dao.ProductDao;
 import app.database.dao.ProductDaoImpl;
 import app.model.Product;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class IntegrationProductDaoTest {
+    private static final String URL = "jdbc:h2:mem:shopdb;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
 
     private Connection realConn;
     private ProductDao dao;
 
     @BeforeAll
     public void setup() throws Exception {
-        realConn = DriverManager.getConnection("jdbc:h2:mem:shopdb;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE", "sa", "");
+        realConn = DriverManager.getConnection(URL, "sa", "");
         
         // H2-compatible schema (removed MySQL-specific syntax)
         String schemaSql = """
@@ -50,8 +57,20 @@ public class IntegrationProductDaoTest {
                 price DECIMAL(10,2) NOT NULL,
                 status VARCHAR(15) NOT NULL,
                 dateMade DATE NOT NULL,
-                expirationDate DATE NULL
+                expirationDate DATE NULL,
+                row_hash BIGINT NULL
             );
+            CREATE TABLE IF NOT EXISTS product_changes (
+                version BIGINT NOT NULL,
+                product_id INT NOT NULL,
+                changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (version, product_id)
+            );
+            CREATE TABLE IF NOT EXISTS product_change_version (
+                id TINYINT NOT NULL PRIMARY KEY,
+                version BIGINT NOT NULL
+            );
+            INSERT IGNORE INTO product_change_version (id, version) VALUES (1, 0);
         """;
         realConn.createStatement().execute(schemaSql);
 
@@ -337,4 +356,98 @@ public class IntegrationProductDaoTest {
         Product fetched = dao.findById(800).orElseThrow();
         assertThat(fetched.getExpirationDate()).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void changesSinceReturnsOnlyTheDelta() throws Exception {
+        long start = dao.currentVersion();
+        assertThat(dao.changesSince(start).isEmpty()).isTrue();
+
+        dao.create(product(900, "First", 1.0));
+        dao.create(product(901, "Second", 2.0));
+        dao.create(product(902, "Third", 3.0));
+        ProductChanges created = dao.changesSince(start);
+        assertThat(created.getUpserts()).extracting(Product::getId).containsExactlyInAnyOrder(900, 901, 902);
+
+        long v = created.getVersion();
+        dao.update(product(901, "Second v2", 2.5));
+        dao.update(product(901, "Second v3", 2.75));
+        dao.deleteById(902);
+        dao.deleteById(999); // nothing deleted, nothing logged
+        dao.applyBatch(new ProductBatch().insert(product(903, "Fourth", 4.0)).delete(900));
+
+        ProductChanges delta = dao.changesSince(v);
+        assertThat(delta.isFullReload()).isFalse();
+        assertThat(delta.getUpserts()).extracting(Product::getId).containsExactlyInAnyOrder(901, 903);
+        assertThat(delta.getUpserts()).filteredOn(p -> p.getId() == 901).extracting(Product::getDescription).containsExactly("Second v3");
+        assertThat(delta.getDeletedIds()).containsExactlyInAnyOrder(902, 900);
+
+        // nothing changed: the fast path answers with the same version
+        ProductChanges none = dao.changesSince(delta.getVersion());
+        assertThat(none.isEmpty()).isTrue();
+        assertThat(none.getVersion()).isEqualTo(delta.getVersion());
+    }
+
+    @Test
+    void changesSinceAsksForFullReloadWhenTheLogWasPruned() throws Exception {
+        long start = dao.currentVersion();
+        dao.create(product(910, "A", 1.0));
+        dao.create(product(911, "B", 1.0));
+        realConn.createStatement().execute("DELETE FROM product_changes WHERE version <= " + (start + 1));
+
+        assertThat(dao.changesSince(start).isFullReload()).isTrue();
+        assertThat(dao.changesSince(start + 1).getUpserts()).extracting(Product::getId).containsExactly(911);
+    }
+
+    @Test
+    void changesOfALongTransactionAreNotSkippedWhenAShortOneCommitsFirst() throws Exception {
+        dao.create(product(930, "Long", 1.0));
+        long start = dao.currentVersion();
+        ProductDaoImpl other = new ProductDaoImpl(() -> {
+            try {
+                return DriverManager.getConnection(URL, "sa", "");
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        try (Connection longTx = DriverManager.getConnection(URL, "sa", "")) {
+            longTx.setAutoCommit(false);
+            try (Statement st = longTx.createStatement()) {
+                st.executeUpdate("UPDATE products SET price = 2 WHERE id = 930");
+            }
+            // a short write starts and commits while the long one is still open
+            other.create(product(931, "Short", 1.0));
+            ProductChanges first = dao.changesSince(start);
+            assertThat(first.getUpserts()).extracting(Product::getId).containsExactly(931);
+
+            // the long transaction records its change last and gets a later version
+            ChangeLog.record(longTx, 930);
+            // a write started now waits for that commit instead of showing up before it
+            CompletableFuture<Product> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return other.create(product(932, "Later", 1.0));
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Thread.sleep(200);
+            assertThat(waiting).isNotDone();
+            assertThat(dao.changesSince(first.getVersion()).isEmpty()).isTrue();
+            longTx.commit();
+            waiting.get(10, TimeUnit.SECONDS);
+
+            ProductChanges second = dao.changesSince(first.getVersion());
+            assertThat(second.getUpserts()).extracting(Product::getId).containsExactlyInAnyOrder(930, 932);
+            assertThat(second.getUpserts()).filteredOn(p -> p.getId() == 930).extracting(Product::getPrice).containsExactly(2.0);
+        }
+    }
+
+    @Test
+    void findByIdsSkipsMissingRows() throws Exception {
+        dao.create(product(920, "A", 1.0));
+        dao.create(product(921, "B", 2.0));
+
+        assertThat(dao.findByIds(new int[]{920, 921, 922})).extracting(Product::getId).containsExactlyInAnyOrder(920, 921);
+        assertThat(dao.findByIds(new int[0])).isEmpty();
+    }
+}
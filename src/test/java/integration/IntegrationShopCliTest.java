@@ -0,0 +1,116 @@
+package integration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.cli.ShopCli;
+import app.database.DatabaseManager;
+import app.database.dao.ProductDaoImpl;
+
+/**
+ * Headless commands against H2.
+ */
+public class IntegrationShopCliTest {
+    private static final String URL = "jdbc:h2:mem:cli;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    private static final String HEADER = "ID,Description,Brand,Content,Price,Category,Status,DateMade,ExpirationDate";
+
+    @TempDir
+    Path tmp;
+
+    private DatabaseManager db;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private ShopCli cli;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        db = new DatabaseManager(URL, "sa", "");
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS products");
+            st.execute("""
+                CREATE TABLE products (
+                    id INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(30) NOT NULL,
+                    brand VARCHAR(30) NOT NULL,
+                    content VARCHAR(30) NOT NULL,
+                    category VARCHAR(30) NOT NULL,
+                    price DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(15) NOT NULL,
+                    dateMade DATE NOT NULL,
+                    expirationDate DATE NULL,
+                    row_hash BIGINT NULL
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_changes");
+            st.execute("""
+                CREATE TABLE product_changes (
+                    version BIGINT NOT NULL,
+                    product_id INT NOT NULL,
+                    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version, product_id)
+                )""");
+            st.execute("DROP TABLE IF EXISTS product_change_version");
+            st.execute("CREATE TABLE product_change_version (id TINYINT NOT NULL PRIMARY KEY, version BIGINT NOT NULL)");
+            st.execute("INSERT INTO product_change_version (id, version) VALUES (1, 0)");
+        }
+        PrintStream ps = new PrintStream(out, true, StandardCharsets.UTF_8);
+        cli = new ShopCli(db, ps, ps);
+    }
+
+    private String output() {
+        String s = out.toString(StandardCharsets.UTF_8);
+        out.reset();
+        return s;
+    }
+
+    @Test
+    void importExportAndStatsRoundTrip() throws Exception {
+        Path in = tmp.resolve("in.csv");
+        Files.write(in, List.of(HEADER,
+                "1,Milk 1L,Generic,1L bottle,2.50,Groceries,Active,01/11/2025,30/12/2025",
+                "2,Soap,Acme,100g,1.10,Personal Hygiene,Inactive,01/10/2025,"));
+
+        assertThat(cli.run("import", in.toString(), "delta")).isZero();
+        assertThat(output()).contains("Successfully imported: 2");
+
+        Path exported = tmp.resolve("out.csv");
+        assertThat(cli.run("export", exported.toString())).isZero();
+        assertThat(Files.readAllLines(exported)).hasSize(3).first().isEqualTo(HEADER);
+        assertThat(Files.readAllLines(exported)).anyMatch(l -> l.startsWith("2,Soap,Acme,100g,1.1,"));
+
+        assertThat(cli.run("stats")).isZero();
+        assertThat(output()).contains("Products: 2 (active 1, inactive 1)", "Groceries", "Personal Hygiene");
+
+        assertThat(cli.run("bench", "1")).isZero();
+        assertThat(output()).contains("2 rows, 1 rounds");
+    }
+
+    @Test
+    void reindexBackfillsMissingHashes() throws Exception {
+        db.executeUpdate("INSERT INTO products (id, description, brand, content, category, price, status, dateMade, expirationDate) VALUES (7, 'Bulk', 'B', '1 unit', 'Groceries', 1.00, 'Active', DATE '2025-01-01', NULL)", null);
+
+        assertThat(cli.run("reindex")).isZero();
+        assertThat(output()).contains("Rehashed 1 of 1 rows");
+        assertThat(new ProductDaoImpl(db).findRowHashes().get(7)).isNotNull();
+
+        assertThat(cli.run("reindex")).isZero();
+        assertThat(output()).contains("Rehashed 0 of 1 rows");
+    }
+
+    @Test
+    void reportsUsageAndFailures() {
+        assertThat(cli.run()).isEqualTo(2);
+        assertThat(cli.run("frobnicate")).isEqualTo(2);
+        assertThat(cli.run("bench", "x")).isEqualTo(2);
+        assertThat(cli.run("import", tmp.resolve("missing.csv").toString(), "delta")).isEqualTo(1);
+    }
+}
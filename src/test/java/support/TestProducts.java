@@ -0,0 +1,36 @@
+package support;
+
+import java.time.LocalDate;
+
+import app.model.Product;
+
+/**
+ * Valid products for tests: only the fields a test cares about are given, the rest get fixed values
+ * that pass ValidationUtils.
+ */
+public final class TestProducts {
+    public static final LocalDate DATE_MADE = LocalDate.of(2025, 1, 1);
+
+    private TestProducts() {}
+
+    public static Product product(int id, String description) {
+        return product(id, description, 1.0);
+    }
+
+    public static Product product(int id, String description, double price) {
+        return product(id, description, "Brand", "Groceries", price, true);
+    }
+
+    public static Product product(int id, String description, String brand, String category, double price, boolean active) {
+        Product p = new Product();
+        p.setId(id);
+        p.setDescription(description);
+        p.setBrand(brand);
+        p.setContent("1 unit");
+        p.setCategory(category);
+        p.setPrice(price);
+        p.setActive(active);
+        p.setDateMade(DATE_MADE);
+        return p;
+    }
+}
@@ -0,0 +1,87 @@
+package unit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.model.Product;
+import app.util.BatchValidator;
+import app.util.DateUtils;
+import app.util.ProductColumns;
+import app.util.ValidationResult;
+import app.util.ValidationUtils;
+
+public class BatchValidatorTest {
+
+    @Test
+    void flagsEachRuleInItsOwnBitmap() {
+        List<Product> products = List.of(
+                product(1, "Milk", "Brand", "Groceries", 2.5, true),
+                product(0, "Milk", "Brand", "Groceries", 2.5, true),
+                product(2, "  ", "Brand", "Groceries", 2.5, true),
+                product(3, "Milk", "Brand", "Toys", -1.0, true));
+
+        BatchValidator.Result r = BatchValidator.validate(ProductColumns.of(products));
+
+        assertThat(r.invalidCount()).isEqualTo(3);
+        assertThat(r.isValid(0)).isTrue();
+        assertThat(r.failures(BatchValidator.Rule.ID).stream()).containsExactly(1);
+        assertThat(r.failures(BatchValidator.Rule.DESCRIPTION).stream()).containsExactly(2);
+        assertThat(r.errorsFor(3)).containsExactly(ValidationUtils.MSG_CATEGORY, ValidationUtils.MSG_PRICE);
+    }
+
+    @Test
+    void validatesRawCsvFields() {
+        ProductColumns columns = ProductColumns.fromCsv(List.of(
+                "1,Milk,Generic,1 L,2.50,Groceries,Active,01/01/2025,30/06/2025",
+                "x2,Milk,Generic,1 L,2.50,Groceries,Active,01/01/2025,",
+                "3,Milk,Generic,1 L,abc,Groceries,Maybe,01/01/2025,",
+                "4,Milk,Generic,1 L,2.50,Groceries,Inactive,31/02/2025,",
+                "5,Milk,Generic,1 L,2.50,Groceries,Active,01/01/2025,someday",
+                "6,Milk,Generic"));
+
+        BatchValidator.Result r = BatchValidator.validate(columns);
+
+        assertThat(r.invalidRows().stream()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(columns.getId(1)).isEqualTo(ProductColumns.MISSING_ID);
+        assertThat(r.errorsFor(1)).containsExactly(ValidationUtils.MSG_ID);
+        assertThat(r.errorsFor(2)).containsExactly(ValidationUtils.MSG_PRICE, ValidationUtils.MSG_STATUS);
+        assertThat(r.errorsFor(3)).containsExactly(ValidationUtils.MSG_DATES);
+        assertThat(r.errorsFor(4)).containsExactly(ValidationUtils.MSG_DATES);
+        assertThat(r.errorsFor(5)).contains(ValidationUtils.MSG_CONTENT, ValidationUtils.MSG_STATUS, ValidationUtils.MSG_DATES);
+
+        Product milk = columns.toProduct(0);
+        assertThat(milk.getPrice()).isEqualTo(2.5);
+        assertThat(milk.isActive()).isTrue();
+        assertThat(DateUtils.toLocalDate(milk.getExpirationDate())).isEqualTo(LocalDate.of(2025, 6, 30));
+    }
+
+    @Test
+    void matchesValidationUtilsOnRandomBatchesAcrossChunks() {
+        Random rnd = new Random(42);
+        String[] descriptions = {"Milk", "", " ", null, "This description is way too long for the column"};
+        String[] categories = {"Groceries", "Fruits & Vegetables", "wines & liquors", "Toys", null};
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            Product p = product(rnd.nextInt(10_100) - 50, descriptions[rnd.nextInt(descriptions.length)],
+                    "Brand", categories[rnd.nextInt(categories.length)], rnd.nextInt(200) - 20, true);
+            if (rnd.nextInt(10) == 0) p.setExpirationDate(LocalDate.of(2024, 1, 1));
+            products.add(p);
+        }
+
+        BatchValidator.Result r = BatchValidator.validate(ProductColumns.of(products));
+
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            ValidationResult expected = ValidationUtils.validateProductFields(p.getId(), p.getDescription(), p.getBrand(),
+                    p.getContent(), p.getCategory(), p.getPrice(), "Active",
+                    DateUtils.toLocalDate(p.getDateMade()), DateUtils.toLocalDate(p.getExpirationDate()));
+            assertThat(r.errorsFor(i)).as("row %d", i).isEqualTo(expected.getErrors());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package unit;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.model.CatalogSnapshot;
+import app.model.ColumnarProductStore;
+import app.model.Product;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsCatalogAndVersion() throws Exception {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 300; id++) store.put(product(id, "Item " + id + " ñ", "B" + (id % 7), "C" + (id % 3), id * 0.5, id % 4 != 0));
+        Product noText = product(500, null, null, "C1", 9.99, false);
+        noText.setExpirationDate(LocalDate.of(2026, 3, 1));
+        store.put(noText);
+        // overwritten and removed rows leave garbage in the text pool; the snapshot holds only live text
+        store.put(product(2, "Second item", "B2", "C2", 1.25, true));
+        store.remove(10);
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(dir.resolve("cache/catalog.snapshot"), "db-a");
+        snapshot.save(store, 42);
+        CatalogSnapshot.Loaded loaded = snapshot.load();
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.version()).isEqualTo(42);
+        ColumnarProductStore back = loaded.catalog();
+        assertThat(back.size()).isEqualTo(store.size());
+        assertThat(back.ids()).containsExactly(store.ids());
+        for (int r = 0; r < store.size(); r++) {
+            assertThat(back.toProduct(r)).usingRecursiveComparison().isEqualTo(store.toProduct(r));
+        }
+        assertThat(back.rowOf(500)).isEqualTo(store.rowOf(500));
+        assertThat(back.containsId(10)).isFalse();
+        assertThat(back.aggregates().getTotal()).isEqualTo(store.aggregates().getTotal());
+        assertThat(back.aggregates().getActive()).isEqualTo(store.aggregates().getActive());
+        assertThat(back.aggregates().getTotalValue()).isEqualTo(store.aggregates().getTotalValue());
+        assertThat(back.aggregates().getCategoryCounts()).isEqualTo(store.aggregates().getCategoryCounts());
+
+        // the restored store keeps working as a normal one
+        back.put(product(501, "New", "B1", "C0", 3, true));
+        back.put(product(1, "Renamed", "B1", "C0", 3, true));
+        assertThat(back.toProduct(back.rowOf(1)).getDescription()).isEqualTo("Renamed");
+        assertThat(back.size()).isEqualTo(store.size() + 1);
+    }
+
+    @Test
+    void ignoresMissingForeignAndDamagedSnapshots() throws Exception {
+        Path file = dir.resolve("catalog.snapshot");
+        CatalogSnapshot snapshot = new CatalogSnapshot(file, "db-a");
+        assertThat(snapshot.load()).isNull();
+
+        ColumnarProductStore store = new ColumnarProductStore();
+        store.put(product(1, "Milk", "Generic", "Groceries", 2.5, true));
+        snapshot.save(store, 7);
+        assertThat(new CatalogSnapshot(file, "db-b").load()).isNull();
+        assertThat(snapshot.load()).isNotNull();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 2);
+            raf.write(raf.read() ^ 0xFF);
+        }
+        assertThat(snapshot.load()).isNull();
+
+        Files.write(file, new byte[3]);
+        assertThat(snapshot.load()).isNull();
+    }
+
+    @Test
+    void savesEmptyCatalog() throws Exception {
+        CatalogSnapshot snapshot = new CatalogSnapshot(dir.resolve("catalog.snapshot"), "db-a");
+        snapshot.save(new ColumnarProductStore(), 0);
+        snapshot.save(new ColumnarProductStore(), 3); // replaces the previous file
+
+        CatalogSnapshot.Loaded loaded = snapshot.load();
+        assertThat(loaded.version()).isEqualTo(3);
+        assertThat(loaded.catalog().size()).isZero();
+        assertThat(Files.exists(dir.resolve("catalog.snapshot.tmp"))).isFalse();
+    }
+}
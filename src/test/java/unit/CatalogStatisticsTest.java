@@ -0,0 +1,73 @@
+package unit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.Test;
+
+import app.model.ColumnarProductStore;
+import app.model.Product;
+import app.util.CatalogStatistics;
+
+public class CatalogStatisticsTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Test
+    void parallelPassMatchesSequentialComputation() {
+        Random rnd = new Random(11);
+        String[] categories = {"Groceries", "Personal Hygiene", "Fruits & Vegetables", "Wines & Liquors"};
+        List<Product> products = new ArrayList<>();
+        for (int id = 1; id <= 300_000; id++) {
+            Product p = new Product();
+            p.setId(id);
+            p.setDescription("Item");
+            p.setBrand("Brand " + rnd.nextInt(50));
+            p.setContent("1 unit");
+            p.setCategory(categories[rnd.nextInt(categories.length)]);
+            p.setPrice(Math.round(Math.exp(rnd.nextGaussian() * 1.5 + 3) * 100) / 100.0 + 0.01);
+            p.setActive(rnd.nextInt(3) > 0);
+            p.setDateMade(TODAY.minusDays(200));
+            if (rnd.nextBoolean()) p.setExpirationDate(TODAY.plusDays(rnd.nextInt(200) - 50));
+            products.add(p);
+        }
+
+        CatalogStatistics stats = CatalogStatistics.compute(ColumnarProductStore.of(products), TODAY);
+
+        double[] prices = products.stream().mapToDouble(Product::getPrice).sorted().toArray();
+        assertThat(stats.getTotal()).isEqualTo(products.size());
+        assertThat(stats.getActive()).isEqualTo((int) products.stream().filter(Product::isActive).count());
+        assertThat(stats.getTotalValue()).isCloseTo(Arrays.stream(prices).sum(), within(1e-3));
+        assertThat(stats.getMinPrice()).isEqualTo(prices[0]);
+        assertThat(stats.getMaxPrice()).isEqualTo(prices[prices.length - 1]);
+        assertThat(stats.getCategoryCounts().values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(products.size());
+        assertThat(stats.getBrandCounts()).hasSize(50);
+        assertThat(Arrays.stream(stats.getPriceHistogram()).sum()).isEqualTo(products.size());
+
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            double exact = prices[(int) Math.ceil(q * prices.length) - 1];
+            assertThat(stats.getPriceQuantile(q)).as("p%.0f", q * 100).isCloseTo(exact, within(exact * 0.011));
+        }
+
+        long expired = products.stream().filter(p -> p.getExpirationDate() != null
+                && p.getExpirationDate().toInstant().isBefore(TODAY.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant())).count();
+        assertThat(stats.getExpired()).isEqualTo((int) expired);
+        assertThat(stats.getExpiringWithin(0)).isLessThanOrEqualTo(stats.getExpiringWithin(1));
+        assertThat(stats.getExpired() + stats.getExpiringWithin(2) + stats.getWithoutExpiration()).isLessThanOrEqualTo(products.size());
+    }
+
+    @Test
+    void emptyCatalog() {
+        CatalogStatistics stats = CatalogStatistics.compute(new ColumnarProductStore(), TODAY);
+
+        assertThat(stats.getTotal()).isZero();
+        assertThat(stats.getAveragePrice()).isZero();
+        assertThat(stats.getMinPrice()).isZero();
+        assertThat(stats.getPriceQuantile(0.5)).isZero();
+        assertThat(stats.getCategoryCounts()).isEmpty();
+    }
+}
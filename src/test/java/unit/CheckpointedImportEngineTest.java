@@ -0,0 +1,49 @@
+package unit;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.database.importer.CheckpointedImportEngine;
+
+public class CheckpointedImportEngineTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fingerprintIgnoresTheNameButNotTheContent() throws Exception {
+        Path a = Files.writeString(dir.resolve("a.csv"), "ID,Description\n1,Milk\n");
+        Path b = Files.writeString(dir.resolve("b.csv"), "ID,Description\n1,Milk\n");
+        Path appended = Files.writeString(dir.resolve("c.csv"), "ID,Description\n1,Milk\n2,Soap\n");
+
+        assertThat(fingerprint(a)).hasSize(64).isEqualTo(fingerprint(b));
+        assertThat(fingerprint(appended)).isNotEqualTo(fingerprint(a));
+    }
+
+    @Test
+    void fingerprintChangesWhenTheMiddleOfALargeFileIsEdited() throws Exception {
+        byte[] content = new byte[5 << 20];
+        Arrays.fill(content, (byte) 'x');
+        Path file = Files.write(dir.resolve("big.csv"), content);
+        String before = fingerprint(file);
+
+        // same length, one byte changed far from both ends
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(content.length / 2);
+            raf.write('y');
+        }
+
+        assertThat(Files.size(file)).isEqualTo(content.length);
+        assertThat(fingerprint(file)).isNotEqualTo(before);
+    }
+
+    private static String fingerprint(Path file) throws Exception {
+        return CheckpointedImportEngine.fingerprint(file.toFile());
+    }
+}
@@ -0,0 +1,58 @@
+package unit;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.Test;
+
+import app.util.ColumnKernels;
+
+public class ColumnKernelsTest {
+    private final ColumnKernels best = ColumnKernels.get();
+    private final ColumnKernels scalar = ColumnKernels.scalar();
+
+    @Test
+    void vectorKernelsAreSelectedWhenTheModuleIsPresent() {
+        // surefire runs with --add-modules jdk.incubator.vector (see pom.xml)
+        assertThat(best.getName()).startsWith("vector");
+    }
+
+    @Test
+    void rangeFiltersMatchScalarForEveryTailLength() {
+        Random rnd = new Random(3);
+        for (int n = 0; n < 70; n++) {
+            double[] prices = rnd.doubles(n, 0, 100).toArray();
+            int[] days = rnd.ints(n, 19_000, 21_000).toArray();
+
+            assertThat(select(best, prices, 20, 60)).as("n=%d", n).containsExactly(select(scalar, prices, 20, 60));
+            assertThat(select(best, days, 19_500, 20_000)).as("n=%d", n).containsExactly(select(scalar, days, 19_500, 20_000));
+            assertThat(best.countBetween(prices, n, 20, 60)).isEqualTo(scalar.countBetween(prices, n, 20, 60));
+        }
+    }
+
+    @Test
+    void summaryMatchesScalar() {
+        double[] prices = new Random(5).doubles(100_003, 0.5, 999).toArray();
+
+        ColumnKernels.Summary expected = scalar.summarize(prices, prices.length);
+        ColumnKernels.Summary actual = best.summarize(prices, prices.length);
+
+        assertThat(actual.count()).isEqualTo(prices.length);
+        assertThat(actual.sum()).isCloseTo(expected.sum(), within(1e-6));
+        assertThat(actual.min()).isEqualTo(expected.min());
+        assertThat(actual.max()).isEqualTo(expected.max());
+        assertThat(best.summarize(prices, 0)).isEqualTo(ColumnKernels.Summary.EMPTY);
+    }
+
+    private static int[] select(ColumnKernels k, double[] values, double lo, double hi) {
+        int[] rows = new int[values.length];
+        return Arrays.copyOf(rows, k.selectBetween(values, values.length, lo, hi, rows));
+    }
+
+    private static int[] select(ColumnKernels k, int[] values, int lo, int hi) {
+        int[] rows = new int[values.length];
+        return Arrays.copyOf(rows, k.selectBetween(values, values.length, lo, hi, rows));
+    }
+}
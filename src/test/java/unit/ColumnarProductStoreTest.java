@@ -0,0 +1,208 @@
+package unit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.model.CatalogAggregates;
+import app.model.ColumnarProductStore;
+import app.model.Product;
+import app.util.CatalogStatistics;
+import app.util.DateUtils;
+
+public class ColumnarProductStoreTest {
+
+    @Test
+    void roundTripsProductsThroughColumns() {
+        Product milk = product(7, "Leche entera ñ", "Generic", "Groceries", 2.5, true);
+        milk.setExpirationDate(LocalDate.of(2025, 12, 30));
+        Product soap = product(3, null, "Acme", "Personal Hygiene", 1.1, false);
+
+        ColumnarProductStore store = ColumnarProductStore.of(List.of(milk, soap));
+
+        assertThat(store.size()).isEqualTo(2);
+        Product back = store.toProduct(0);
+        assertThat(back.getId()).isEqualTo(7);
+        assertThat(back.getDescription()).isEqualTo("Leche entera ñ");
+        assertThat(back.getPrice()).isEqualTo(2.5);
+        assertThat(DateUtils.toLocalDate(back.getDateMade())).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(DateUtils.toLocalDate(back.getExpirationDate())).isEqualTo(LocalDate.of(2025, 12, 30));
+        assertThat(store.toProduct(1).getDescription()).isNull();
+        assertThat(store.toProduct(1).getExpirationDate()).isNull();
+        assertThat(store.isActive(1)).isFalse();
+        assertThat(store.activeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void putOverwritesByIdAndRemoveMovesTheLastRow() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 5; id++) store.put(product(id, "Item " + id, "B" + (id % 2), "Groceries", id, true));
+
+        store.put(product(3, "Item three", "B9", "Groceries", 30, false));
+        assertThat(store.size()).isEqualTo(5);
+        assertThat(store.rowOf(3)).isEqualTo(2);
+        assertThat(store.description(2)).isEqualTo("Item three");
+
+        assertThat(store.remove(2)).isTrue();
+        assertThat(store.remove(2)).isFalse();
+        assertThat(store.ids()).containsExactly(1, 5, 3, 4);
+        assertThat(store.rowOf(5)).isEqualTo(1);
+        assertThat(store.description(1)).isEqualTo("Item 5");
+        assertThat(store.description(2)).isEqualTo("Item three");
+        assertThat(store.isActive(2)).isFalse();
+        assertThat(store.isActive(1)).isTrue();
+
+        assertThat(store.remove(4)).isTrue(); // the last row: nothing moves
+        assertThat(store.ids()).containsExactly(1, 5, 3);
+    }
+
+    @Test
+    void flyweightViewReadsRowsAndIsReadOnly() {
+        ColumnarProductStore store = ColumnarProductStore.of(List.of(
+                product(1, "Milk", "Generic", "Groceries", 2.5, true),
+                product(2, "Soap", "Acme", "Personal Hygiene", 1.1, true),
+                product(3, "Milk powder", "Acme", "Groceries", 9.0, false)));
+
+        int[] rows = store.filter(p -> p.getDescription().contains("Milk") && "Acme".equals(p.getBrand()));
+        assertThat(rows).containsExactly(2);
+
+        ColumnarProductStore.ProductView view = store.view(1);
+        assertThat(view.getCategory()).isEqualTo("Personal Hygiene");
+        assertThat(view).isEqualTo(store.toProduct(1));
+        assertThatThrownBy(() -> view.setPrice(3)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void matchesListAfterRandomPutsAndRemoves() {
+        Random rnd = new Random(7);
+        ColumnarProductStore store = new ColumnarProductStore();
+        List<Product> expected = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int id = rnd.nextInt(3_000);
+            if (rnd.nextInt(4) == 0) {
+                store.remove(id);
+                for (int at = 0; at < expected.size(); at++) {
+                    if (expected.get(at).getId() != id) continue;
+                    // the last row moves into the freed one
+                    expected.set(at, expected.get(expected.size() - 1));
+                    expected.remove(expected.size() - 1);
+                    break;
+                }
+            } else {
+                Product p = product(id, "Desc " + rnd.nextInt(1000), "B" + rnd.nextInt(20), "Groceries", rnd.nextInt(500) / 4.0, rnd.nextBoolean());
+                store.put(p);
+                int at = expected.indexOf(p);
+                if (at >= 0) expected.set(at, p); else expected.add(p);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(expected.size());
+        for (int row = 0; row < expected.size(); row++) {
+            Product p = expected.get(row);
+            assertThat(store.id(row)).isEqualTo(p.getId());
+            assertThat(store.rowOf(p.getId())).isEqualTo(row);
+            assertThat(store.description(row)).isEqualTo(p.getDescription());
+            assertThat(store.brand(row)).isEqualTo(p.getBrand());
+            assertThat(store.price(row)).isEqualTo(p.getPrice());
+            assertThat(store.isActive(row)).isEqualTo(p.isActive());
+        }
+    }
+
+    @Test
+    void runningAggregatesFollowPutsRemovesAndClear() {
+        Random rnd = new Random(5);
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int i = 0; i < 20_000; i++) {
+            int id = rnd.nextInt(2_000);
+            if (rnd.nextInt(3) == 0) {
+                store.remove(id);
+            } else {
+                store.put(product(id, "D", "B" + rnd.nextInt(15), "C" + rnd.nextInt(4), rnd.nextInt(10_000) / 100.0, rnd.nextBoolean()));
+            }
+        }
+
+        CatalogAggregates live = store.aggregates();
+        CatalogStatistics full = CatalogStatistics.compute(store, LocalDate.of(2025, 6, 1));
+        assertThat(live.getTotal()).isEqualTo(store.size());
+        assertThat(live.getActive()).isEqualTo(store.activeCount());
+        assertThat(full.agreesWith(live)).isTrue();
+        assertThat(store.rebuildAggregates()).isFalse();
+
+        // removing the current extremes moves min/max to the next price
+        store.clear();
+        store.put(product(1, "a", "B", "C", 1.0, true));
+        store.put(product(2, "b", "B", "C", 5.0, true));
+        store.put(product(3, "c", "B", "C", 9.0, false));
+        store.remove(1);
+        store.put(product(3, "c", "B", "C", 4.0, false));
+        assertThat(live.getMinPrice()).isEqualTo(4.0);
+        assertThat(live.getMaxPrice()).isEqualTo(5.0);
+        assertThat(live.getTotalValue()).isEqualTo(9.0);
+        assertThat(live.getInactive()).isEqualTo(1);
+        assertThat(live.getCategoryCounts()).containsExactly(entry("C", 2));
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        store.put(product(1, "one", "B", "C", 1.0, true));
+        store.put(product(2, "two", "B", "C", 2.0, false));
+
+        ColumnarProductStore copy = store.copy();
+        store.remove(1);
+        store.put(product(2, "changed", "Other", "D", 8.0, true));
+        store.put(product(3, "three", "B", "C", 3.0, true));
+
+        assertThat(copy.size()).isEqualTo(2);
+        assertThat(copy.rowOf(1)).isZero();
+        assertThat(copy.description(1)).isEqualTo("two");
+        assertThat(copy.brand(1)).isEqualTo("B");
+        assertThat(copy.aggregates().getTotalValue()).isEqualTo(3.0);
+        assertThat(copy.aggregates().getCategoryCounts()).containsExactly(entry("C", 2));
+        copy.put(product(4, "four", "B", "C", 4.0, true));
+        assertThat(store.containsId(4)).isFalse();
+    }
+
+    @Test
+    void removeAllMatchesRemovingOneByOne() {
+        Random rnd = new Random(11);
+        ColumnarProductStore batch = new ColumnarProductStore();
+        for (int id = 0; id < 5_000; id++) {
+            batch.put(product(id, rnd.nextBoolean() ? null : "Desc " + id, "B" + rnd.nextInt(20), "C" + rnd.nextInt(4),
+                    rnd.nextInt(10_000) / 100.0, rnd.nextBoolean()));
+        }
+        ColumnarProductStore single = batch.copy();
+        int[] doomed = rnd.ints(1_500, 0, 6_000).toArray(); // repeats and unknown IDs included
+        List<int[]> events = new ArrayList<>();
+        batch.addRowListener(new ColumnarProductStore.RowListener() {
+            @Override public void rowUpdated(int row) {}
+            @Override public void rowRemoved(int row, int movedFrom) { events.add(new int[]{row}); }
+            @Override public void rowsRemoved(int[] rows) { events.add(rows); }
+            @Override public void rowsCleared() {}
+        });
+
+        int removed = 0;
+        for (int id : doomed) if (single.remove(id)) removed++;
+        assertThat(batch.removeAll(doomed)).isEqualTo(removed);
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0)).hasSize(removed).isSorted();
+        // same rows; removeAll keeps their order, single removes move rows around
+        assertThat(batch.ids()).containsExactlyInAnyOrder(single.ids());
+        assertThat(batch.ids()).isSorted();
+        for (int row = 0; row < batch.size(); row++) {
+            assertThat(batch.rowOf(batch.id(row))).isEqualTo(row);
+            assertThat(batch.toProduct(row)).usingRecursiveComparison().isEqualTo(single.toProduct(single.rowOf(batch.id(row))));
+        }
+        assertThat(batch.aggregates().sameAs(single.aggregates())).isTrue();
+        assertThat(batch.rebuildAggregates()).isFalse();
+        assertThat(batch.removeAll(new int[]{-1, 9_999})).isZero();
+    }
+}
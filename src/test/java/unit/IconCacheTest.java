@@ -0,0 +1,58 @@
+package unit;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.Icon;
+
+import app.gui.components.IconCache;
+
+public class IconCacheTest {
+
+    @Test
+    void decodesOnceAndSharesIcons() throws Exception {
+        BufferedImage image = IconCache.image("/static/icons/add.png").get();
+        assertThat(image).isNotNull();
+        assertThat(IconCache.image("static/icons/add.png").get()).isSameAs(image);
+
+        Icon small = IconCache.icon("/static/icons/add.png", 24).get();
+        assertThat(IconCache.icon("/static/icons/add.png", 24).get()).isSameAs(small);
+        assertThat(Math.max(small.getIconWidth(), small.getIconHeight())).isLessThanOrEqualTo(24);
+        assertThat(IconCache.icon("/static/icons/add.png", 32).get()).isNotSameAs(small);
+
+        assertThat(IconCache.image("/static/icons/missing.png").get()).isNull();
+        assertThat(IconCache.icon("/static/icons/missing.png", 24).get()).isNull();
+    }
+
+    @Test
+    void paintsAtLogicalSizeOnHiDpiGraphics() throws Exception {
+        Icon icon = IconCache.icon("/static/icons/add.png", 16).get();
+        BufferedImage target = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        g.scale(2, 2);
+        icon.paintIcon(null, g, 0, 0);
+        g.dispose();
+
+        // nothing is drawn outside the icon's device-size area
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                if (x >= icon.getIconWidth() * 2 || y >= icon.getIconHeight() * 2) {
+                    assertThat(target.getRGB(x, y) >>> 24).isZero();
+                }
+            }
+        }
+        assertThat(hasOpaquePixel(target)).isTrue();
+    }
+
+    private static boolean hasOpaquePixel(BufferedImage img) {
+        for (int y = 0; y < img.getHeight(); y++) {
+            for (int x = 0; x < img.getWidth(); x++) {
+                if ((img.getRGB(x, y) >>> 24) != 0) return true;
+            }
+        }
+        return false;
+    }
+}
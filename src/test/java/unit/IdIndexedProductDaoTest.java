@@ -0,0 +1,105 @@
+package unit;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.database.dao.IdIndexedProductDao;
+import app.database.dao.InMemoryProductDao;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductIdIndex;
+import app.model.Product;
+
+public class IdIndexedProductDaoTest {
+
+    @Test
+    void indexAddsRemovesAndResets() {
+        ProductIdIndex index = new ProductIdIndex();
+        index.add(5);
+        index.add(9999);
+        index.add(-1); // ignored
+        assertThat(index.contains(5)).isTrue();
+        assertThat(index.contains(9999)).isTrue();
+        assertThat(index.contains(-1)).isFalse();
+        assertThat(index.size()).isEqualTo(2);
+
+        index.remove(5);
+        assertThat(index.contains(5)).isFalse();
+
+        index.reset(new int[]{1, 2, 3});
+        assertThat(index.contains(9999)).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+
+        index.reset(List.of(product(7, "Milk")));
+        assertThat(index.contains(7)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void loadsFromDaoIds() throws Exception {
+        InMemoryProductDao backend = new InMemoryProductDao(List.of(product(1, "Milk"), product(4, "Soap")));
+        ProductIdIndex index = ProductIdIndex.load(backend);
+        assertThat(index.contains(1)).isTrue();
+        assertThat(index.contains(4)).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsDuplicateCreateWithoutCallingTheBackend() throws Exception {
+        CountingDao backend = new CountingDao(List.of(product(1, "Milk")));
+        IdIndexedProductDao dao = new IdIndexedProductDao(backend, ProductIdIndex.load(backend));
+        backend.creates = 0; // the seed goes through create()
+
+        assertThatThrownBy(() -> dao.create(product(1, "Other milk")))
+                .isInstanceOf(SQLIntegrityConstraintViolationException.class)
+                .hasMessageContaining("Duplicate entry '1'");
+        assertThat(backend.creates).isZero();
+
+        dao.create(product(2, "Soap"));
+        assertThat(backend.creates).isEqualTo(1);
+        assertThat(dao.existsById(2)).isTrue();
+        assertThatThrownBy(() -> dao.create(product(2, "Soap again"))).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void deletesAndBatchesKeepTheIndexCurrent() throws Exception {
+        InMemoryProductDao backend = new InMemoryProductDao(List.of(product(1, "Milk"), product(2, "Soap")));
+        ProductIdIndex index = ProductIdIndex.load(backend);
+        IdIndexedProductDao dao = new IdIndexedProductDao(backend, index);
+
+        assertThat(dao.deleteById(1)).isTrue();
+        assertThat(index.contains(1)).isFalse();
+        assertThat(dao.deleteById(1)).isFalse();
+
+        dao.applyBatch(new ProductBatch().insert(product(3, "Wine")).update(product(2, "Soap 2")).delete(2));
+        assertThat(index.contains(3)).isTrue();
+        assertThat(index.contains(2)).isFalse();
+        assertThat(dao.existsById(3)).isTrue();
+
+        // a write that bypassed the decorator is picked up by reloadIndex
+        backend.create(product(8, "Bread"));
+        assertThat(dao.existsById(8)).isFalse();
+        dao.reloadIndex();
+        assertThat(dao.existsById(8)).isTrue();
+    }
+
+    /** Counts the creates that reach the backend. */
+    private static final class CountingDao extends InMemoryProductDao {
+        int creates;
+
+        CountingDao(List<Product> initial) {
+            super(initial);
+        }
+
+        @Override
+        public Product create(Product product) throws SQLException {
+            creates++;
+            return super.create(product);
+        }
+    }
+}
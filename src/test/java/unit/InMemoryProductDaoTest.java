@@ -0,0 +1,90 @@
+package unit;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.database.dao.InMemoryProductDao;
+import app.database.dao.ProductBatch;
+import app.model.Product;
+
+public class InMemoryProductDaoTest {
+
+    @Test
+    void crudKeepsOrderAndCopiesProducts() throws Exception {
+        InMemoryProductDao dao = new InMemoryProductDao();
+        dao.create(product(3, "Wine"));
+        dao.create(product(1, "Milk"));
+        Product soap = dao.create(product(2, "Soap"));
+
+        soap.setDescription("changed by caller");
+        assertThat(dao.findById(2)).get().extracting(Product::getDescription).isEqualTo("Soap");
+
+        Product edited = product(1, "Milk 2L");
+        assertThat(dao.update(edited)).isTrue();
+        assertThat(dao.update(product(99, "Missing"))).isFalse();
+        assertThat(dao.findAll()).extracting(Product::getId).containsExactly(1, 2, 3);
+        assertThat(dao.findAll().get(0).getDescription()).isEqualTo("Milk 2L");
+
+        assertThat(dao.deleteById(2)).isTrue();
+        assertThat(dao.deleteById(2)).isFalse();
+        assertThat(dao.existsById(2)).isFalse();
+        assertThat(dao.count()).isEqualTo(2);
+        // substring match like ProductDaoImpl's '%pattern%': no wildcards needed at the ends
+        assertThat(dao.searchByDescription("ilk_")).extracting(Product::getId).containsExactly(1);
+
+        assertThatThrownBy(() -> dao.create(product(3, "Dup"))).isInstanceOf(SQLException.class)
+                .hasMessageContaining("Duplicate entry");
+        // allocated IDs continue after the highest one in use
+        assertThat(dao.create(product(0, "New")).getId()).isEqualTo(4);
+    }
+
+    @Test
+    void failedBatchLeavesStoreUntouched() throws Exception {
+        InMemoryProductDao dao = new InMemoryProductDao(List.of(product(1, "Milk"), product(2, "Soap")));
+
+        ProductBatch bad = new ProductBatch().delete(1).insert(product(3, "Wine")).insert(product(2, "Dup"));
+        assertThatThrownBy(() -> dao.applyBatch(bad)).isInstanceOf(SQLException.class);
+        assertThat(dao.findAll()).extracting(Product::getId).containsExactly(1, 2);
+
+        dao.applyBatch(new ProductBatch().delete(1).update(product(2, "Soap bar")).insert(product(1, "Milk again")));
+        assertThat(dao.findAll()).extracting(Product::getDescription).containsExactly("Milk again", "Soap bar");
+    }
+
+    @Test
+    void concurrentWritersNeverLoseProducts() throws Exception {
+        InMemoryProductDao dao = new InMemoryProductDao();
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Product p = dao.create(product(0, "Item"));
+                        if (i % 4 == 0) dao.deleteById(p.getId());
+                        if (i % 100 == 0) dao.findAll(); // snapshot never fails while others write
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] ids = dao.findAllIds();
+        assertThat(ids).hasSize(threads * perThread * 3 / 4).doesNotHaveDuplicates();
+        assertThat(dao.count()).isEqualTo(ids.length);
+        for (int id : ids) assertThat(dao.existsById(id)).isTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package unit;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.database.journal.JournalEntry;
+import app.database.journal.OfflineJournal;
+
+public class OfflineJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void entriesSurviveReopening() throws Exception {
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            journal.append(JournalEntry.created(product(1, "Milk")));
+            journal.append(JournalEntry.updated(product(1, "Milk 2L"), 42L));
+            journal.append(JournalEntry.deleted(7, -3L));
+        }
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            List<JournalEntry> entries = journal.entries();
+            assertThat(entries).extracting(JournalEntry::type)
+                    .containsExactly(JournalEntry.Type.CREATE, JournalEntry.Type.UPDATE, JournalEntry.Type.DELETE);
+            assertThat(entries.get(0).baseHash()).isNull();
+            assertThat(entries.get(1).baseHash()).isEqualTo(42L);
+            assertThat(entries.get(1).product().getDescription()).isEqualTo("Milk 2L");
+            assertThat(entries.get(1).product().getExpirationDate()).isNull();
+            assertThat(entries.get(2).product()).isNull();
+
+            // appends continue after the recovered entries
+            journal.append(JournalEntry.deleted(8, 1L));
+            assertThat(journal.entries()).extracting(JournalEntry::id).containsExactly(1, 1, 7, 8);
+        }
+    }
+
+    @Test
+    void rollsOverSegmentsAndClearsInPlace() throws Exception {
+        String longText = "x".repeat(2000);
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            for (int i = 0; i < 1200; i++) journal.append(JournalEntry.created(product(i, longText)));
+            assertThat(dir.resolve("segment-000001.wal")).exists();
+            assertThat(journal.size()).isEqualTo(1200);
+
+            journal.clear();
+            journal.append(JournalEntry.deleted(5, 1L));
+        }
+        // stale records of the cleared segments are not read back
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            assertThat(journal.entries()).extracting(JournalEntry::id).containsExactly(5);
+        }
+    }
+
+    @Test
+    void stopsAtATornRecord() throws Exception {
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            journal.append(JournalEntry.deleted(1, 1L));
+            journal.append(JournalEntry.deleted(2, 2L));
+        }
+        try (RandomAccessFile f = new RandomAccessFile(dir.resolve("segment-000000.wal").toFile(), "rw")) {
+            f.seek(30); // inside the second record's payload
+            f.write(0x7F);
+        }
+        try (OfflineJournal journal = OfflineJournal.open(dir)) {
+            assertThat(journal.entries()).extracting(JournalEntry::id).containsExactly(1);
+            journal.append(JournalEntry.deleted(3, 3L));
+            assertThat(journal.entries()).extracting(JournalEntry::id).containsExactly(1, 3);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package unit;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import app.gui.components.PaintCache;
+
+public class PaintCacheTest {
+
+    @Test
+    void rendersOncePerSizeScaleAndKey() {
+        PaintCache cache = new PaintCache();
+        AtomicInteger renders = new AtomicInteger();
+        PaintCache.Painter painter = (g, w, h) -> {
+            renders.incrementAndGet();
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, w, h);
+        };
+
+        BufferedImage target = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        cache.paint(g, 50, 20, "blue", painter);
+        cache.paint(g, 50, 20, "blue", painter);
+        assertThat(renders).hasValue(1);
+        assertThat(target.getRGB(49, 19)).isEqualTo(Color.RED.getRGB());
+
+        cache.paint(g, 60, 20, "blue", painter);   // resized
+        cache.paint(g, 60, 20, "green", painter);  // appearance changed
+        cache.invalidate();
+        cache.paint(g, 60, 20, "green", painter);
+        assertThat(renders).hasValue(4);
+
+        // HiDPI: at 2x the image is rendered at device resolution and still covers the same area
+        Graphics2D scaled = (Graphics2D) g.create();
+        scaled.scale(2, 2);
+        cache.paint(scaled, 60, 20, "green", painter);
+        assertThat(renders).hasValue(5);
+        assertThat(target.getRGB(119, 39)).isEqualTo(Color.RED.getRGB());
+        assertThat(target.getRGB(121, 41)).isZero();
+        scaled.dispose();
+        g.dispose();
+    }
+}
@@ -0,0 +1,93 @@
+package unit;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.database.dao.InMemoryProductDao;
+import app.database.dao.ProductBatch;
+import app.database.dao.ProductChange;
+import app.database.dao.ProductChangePublisher;
+import app.database.dao.ProductChangePublisher.OverflowPolicy;
+
+public class ProductChangePublisherTest {
+
+    @Test
+    void publishesAppliedWritesInOrderToEverySubscriber() throws Exception {
+        ProductChangePublisher dao = new ProductChangePublisher(new InMemoryProductDao());
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        dao.listen(c -> { first.add(describe(c)); if (c.id() == 4) done.countDown(); });
+        dao.listen(c -> { second.add(describe(c)); if (c.id() == 4) done.countDown(); });
+
+        dao.create(product(1, "Milk"));
+        dao.create(product(2, "Soap"));
+        dao.update(product(1, "Milk 2L"));
+        dao.update(product(99, "Missing"));   // nothing updated, nothing published
+        dao.deleteById(98);                    // same
+        dao.applyBatch(new ProductBatch().delete(2).insert(product(3, "Wine")).update(product(1, "Milk 3L")));
+        dao.create(product(4, "Bread"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first).containsExactly("CREATED 1 Milk", "CREATED 2 Soap", "UPDATED 1 Milk 2L",
+                "DELETED 2", "UPDATED 1 Milk 3L", "CREATED 3 Wine", "CREATED 4 Bread");
+        assertThat(second).isEqualTo(first);
+        dao.close();
+    }
+
+    @Test
+    void dropPolicyDiscardsForSlowSubscribersAndReportsOverflow() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger overflows = new AtomicInteger();
+        ProductChangePublisher dao = new ProductChangePublisher(new InMemoryProductDao(), executor, 2,
+                OverflowPolicy.DROP, overflows::incrementAndGet);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        dao.listen(c -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.incrementAndGet();
+        });
+
+        for (int i = 1; i <= 20; i++) dao.create(product(i, "P" + i));  // never blocks the writer
+        release.countDown();
+
+        assertThat(dao.getDroppedCount()).isPositive().isEqualTo(overflows.get());
+        dao.close();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received.get() + dao.getDroppedCount()).isEqualTo(20);
+    }
+
+    @Test
+    void closingAListenerStopsDelivery() throws Exception {
+        // direct executor: delivery happens on the writing thread
+        ProductChangePublisher dao = new ProductChangePublisher(new InMemoryProductDao(), Runnable::run, 8,
+                OverflowPolicy.BLOCK, () -> {});
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        AutoCloseable listener = dao.listen(c -> received.add(c.id()));
+        dao.create(product(1, "Milk"));
+        listener.close();
+        dao.create(product(2, "Soap"));
+
+        assertThat(received).containsExactly(1);
+        assertThat(dao.getSubscriberCount()).isZero();
+        assertThat(dao.findById(2)).isPresent();
+    }
+
+    private static String describe(ProductChange c) {
+        return c.type() + " " + c.id() + (c.product() == null ? "" : " " + c.product().getDescription());
+    }
+}
@@ -0,0 +1,137 @@
+package unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.event.TableModelEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.TestProducts.product;
+import org.junit.jupiter.api.Test;
+
+import app.gui.ProductTablePanel.ProductTableModel;
+import app.model.ColumnarProductStore;
+
+public class ProductTableModelTest {
+
+    @Test
+    void cachesFormattedCellsAndFollowsStoreChanges() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        store.put(product(1, "Milk", "Generic", "Groceries", 2.5, true));
+        store.put(product(2, "Soap", "Generic", "Groceries", 1.0, false));
+        store.put(product(3, "Rice", "Generic", "Groceries", 12.0, true));
+        ProductTableModel model = new ProductTableModel();
+        model.setStore(store, null);
+
+        assertThat(model.getValueAt(0, 0)).isEqualTo("1");
+        assertThat(model.getValueAt(0, 4)).isEqualTo("2.50");
+        assertThat(model.getValueAt(1, 6)).isEqualTo("Inactive");
+        assertThat(model.getValueAt(0, 7)).isEqualTo("01/01/2025");
+        assertThat(model.getValueAt(0, 8)).isEqualTo("");
+        // the second paint reuses the same strings
+        assertThat(model.getValueAt(2, 1)).isSameAs(model.getValueAt(2, 1));
+
+        store.put(product(1, "Whole milk", "Generic", "Groceries", 2.75, true));
+        assertThat(model.getValueAt(0, 1)).isEqualTo("Whole milk");
+        assertThat(model.getValueAt(0, 4)).isEqualTo("2.75");
+
+        store.remove(2);
+        assertThat(model.getRowCount()).isEqualTo(2);
+        assertThat(model.getValueAt(1, 1)).isEqualTo("Rice");
+
+        // search results over the same store keep the cache
+        Object rice = model.getValueAt(1, 1);
+        model.setStore(store, new int[]{1});
+        assertThat(model.getValueAt(0, 1)).isSameAs(rice);
+
+        store.clear();
+        store.put(product(9, "Tea", "Generic", "Groceries", 3.0, true));
+        model.setStore(store, null);
+        assertThat(model.getValueAt(0, 1)).isEqualTo("Tea");
+    }
+
+    @Test
+    void coalescesBurstsIntoRangeEvents() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 10; id++) store.put(product(id, "P" + id, "Generic", "Groceries", id, true));
+        ProductTableModel model = new ProductTableModel();
+        model.setStore(store, null);
+        AtomicInteger scheduled = new AtomicInteger();
+        model.setChangeScheduler(scheduled::incrementAndGet);
+        List<String> events = new ArrayList<>();
+        model.addTableModelListener(e -> events.add(e.getType() + ":" + e.getFirstRow() + "-" + e.getLastRow()));
+
+        store.put(product(3, "changed", "Generic", "Groceries", 3, true));
+        store.put(product(7, "changed", "Generic", "Groceries", 7, true));
+        for (int id = 11; id <= 110; id++) store.put(product(id, "P" + id, "Generic", "Groceries", id, true));
+        store.remove(5);
+        store.remove(6);
+        assertThat(events).isEmpty();
+        assertThat(scheduled).hasValue(106);
+
+        assertThat(model.flushChanges()).isFalse();
+        // each remove moves the last row into the freed one: an update there and a delete at the end
+        assertThat(events).containsExactly(
+                TableModelEvent.UPDATE + ":2-6",
+                TableModelEvent.INSERT + ":10-109",
+                TableModelEvent.UPDATE + ":4-4",
+                TableModelEvent.DELETE + ":109-109",
+                TableModelEvent.UPDATE + ":5-5",
+                TableModelEvent.DELETE + ":108-108");
+        assertThat(model.getRowCount()).isEqualTo(108);
+        assertThat(model.getValueAt(4, 1)).isEqualTo("P110");
+        assertThat(model.getValueAt(5, 1)).isEqualTo("P109");
+
+        // a clear (reload) is one full refresh however many rows follow
+        events.clear();
+        store.clear();
+        for (int id = 1; id <= 2_000; id++) store.put(product(id, "P" + id, "Generic", "Groceries", id, true));
+        assertThat(model.flushChanges()).isTrue();
+        assertThat(events).hasSize(1);
+        assertThat(model.rowOfId(1500)).isEqualTo(1499);
+    }
+
+    @Test
+    void batchRemovalShiftsCacheAndFiresMergedDeletes() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 10; id++) store.put(product(id, "P" + id, "Generic", "Groceries", id, true));
+        ProductTableModel model = new ProductTableModel();
+        model.setStore(store, null);
+        for (int r = 0; r < 10; r++) model.getValueAt(r, 1); // fill the cache
+        model.setChangeScheduler(() -> {});
+        List<String> events = new ArrayList<>();
+        model.addTableModelListener(e -> events.add(e.getType() + ":" + e.getFirstRow() + "-" + e.getLastRow()));
+
+        assertThat(store.removeAll(new int[]{3, 4, 5, 9})).isEqualTo(4);
+        assertThat(model.flushChanges()).isFalse();
+
+        assertThat(events).containsExactly(TableModelEvent.DELETE + ":2-4", TableModelEvent.DELETE + ":5-5");
+        assertThat(model.getRowCount()).isEqualTo(6);
+        List<Object> shown = new ArrayList<>();
+        for (int r = 0; r < model.getRowCount(); r++) shown.add(model.getValueAt(r, 1));
+        assertThat(shown).containsExactly("P1", "P2", "P6", "P7", "P8", "P10");
+    }
+
+    @Test
+    void searchResultsFollowRowsRemovedBehindThem() {
+        ColumnarProductStore store = new ColumnarProductStore();
+        for (int id = 1; id <= 10; id++) store.put(product(id, "P" + id, "Generic", "Groceries", id, true));
+        ProductTableModel model = new ProductTableModel();
+        model.setStore(store, new int[]{1, 4, 6, 9}); // P2, P5, P7, P10
+
+        store.remove(1); // not shown; P10 moves into its row
+        store.remove(5); // shown; P9 moves into its row
+        store.removeAll(new int[]{3, 8});
+
+        assertThat(model.getRowCount()).isEqualTo(3);
+        List<Object> shown = new ArrayList<>();
+        for (int r = 0; r < model.getRowCount(); r++) shown.add(model.getValueAt(r, 1));
+        assertThat(shown).containsExactly("P2", "P7", "P10");
+        assertThat(model.rowOfId(10)).isEqualTo(2);
+        assertThat(model.rowOfId(5)).isEqualTo(-1);
+
+        store.clear();
+        assertThat(model.getRowCount()).isZero();
+    }
+}